@@ -43,11 +43,19 @@ public class AndExpression extends Expression {
     if (o == null || getClass() != o.getClass()) {
       return false;
     }
+    if (hashCode() != o.hashCode()) {
+      return false;
+    }
     AndExpression that = (AndExpression) o;
     return Objects.equals(leftOperand, that.leftOperand)
       && Objects.equals(rightOperand, that.rightOperand);
   }
 
+  @Override
+  protected int computeHash() {
+    return 31 * (31 * 1 + leftOperand.hashCode()) + rightOperand.hashCode();
+  }
+
   @Override
   public <T> T accept(ExpressionVisitor<T> visitor) {
     return visitor.visit(this);
@@ -0,0 +1,316 @@
+package csProject.ast;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Hash-consing factory for the AST.  Every expression and definition made
+ * or interned by a factory is its canonical instance: structurally equal
+ * trees interned by the same factory are the same object, and so are all
+ * their equal subtrees, across definitions and across programs.  Equal
+ * canonical nodes are therefore found equal by identity, in constant time,
+ * near-identical programs share the bulk of their trees, and canonical
+ * nodes make cheap keys, with their hashes computed once.
+ *
+ * <p>The factory holds its nodes weakly, so nodes that are no longer used
+ * elsewhere are dropped.  It can be shared between threads; the
+ * {@link #shared()} factory is shared by the whole process.</p>
+ */
+public class AstFactory {
+  private static final AstFactory SHARED = new AstFactory();
+
+  private final Map<Expression, WeakReference<Expression>> expressions = new WeakHashMap<>();
+  private final Map<Definition, WeakReference<Definition>> definitions = new WeakHashMap<>();
+  private final Rebuilder rebuilder = new Rebuilder();
+  private long hits;
+  private long misses;
+
+  /**
+   * Gets the factory shared by the whole process.
+   * @return the shared factory
+   */
+  public static AstFactory shared() {
+    return SHARED;
+  }
+
+  /**
+   * Makes the canonical integer literal.
+   * @param value the value of the literal
+   * @return the literal
+   */
+  public IntLiteral intLiteral(int value) {
+    return (IntLiteral) intern(new IntLiteral(value));
+  }
+
+  /**
+   * Makes the canonical boolean literal.
+   * @param value the value of the literal
+   * @return the literal
+   */
+  public BooleanLiteral booleanLiteral(boolean value) {
+    return (BooleanLiteral) intern(new BooleanLiteral(value));
+  }
+
+  /**
+   * Makes the canonical reference to a variable.
+   * @param variableName the name of the variable
+   * @return the reference
+   */
+  public VariableReference variableReference(String variableName) {
+    return (VariableReference) intern(new VariableReference(variableName));
+  }
+
+  /**
+   * Makes the canonical call of a function.
+   * @param functionName the name of the function
+   * @param arguments the argument expressions, in order from left to right
+   * @return the call
+   */
+  public FunctionCall functionCall(String functionName, List<Expression> arguments) {
+    return (FunctionCall) intern(new FunctionCall(functionName, List.copyOf(arguments)));
+  }
+
+  /**
+   * Makes the canonical <code>if</code> expression.
+   * @param condition the condition
+   * @param consequent the expression evaluated if the condition is true
+   * @param alternative the expression evaluated if the condition is false
+   * @return the expression
+   */
+  public IfExpression ifExpression(Expression condition, Expression consequent, Expression alternative) {
+    return (IfExpression) intern(new IfExpression(condition, consequent, alternative));
+  }
+
+  /**
+   * Makes the canonical <code>let</code> expression.
+   * @param varName the name of the variable being defined
+   * @param rhs the expression giving the value of the variable
+   * @param body the expression within which the variable is defined
+   * @return the expression
+   */
+  public LetExpression letExpression(String varName, Expression rhs, Expression body) {
+    return (LetExpression) intern(new LetExpression(varName, rhs, body));
+  }
+
+  /**
+   * Makes the canonical <code>and</code> expression.
+   * @param left the left operand
+   * @param right the right operand
+   * @return the expression
+   */
+  public AndExpression andExpression(Expression left, Expression right) {
+    return (AndExpression) intern(new AndExpression(left, right));
+  }
+
+  /**
+   * Makes the canonical <code>or</code> expression.
+   * @param left the left operand
+   * @param right the right operand
+   * @return the expression
+   */
+  public OrExpression orExpression(Expression left, Expression right) {
+    return (OrExpression) intern(new OrExpression(left, right));
+  }
+
+  /**
+   * Makes the canonical definition.
+   * @param name the name of the function
+   * @param arguments the names of the function's arguments
+   * @param body the function's body expression
+   * @return the definition
+   */
+  public Definition definition(String name, List<String> arguments, Expression body) {
+    return intern(new Definition(name, List.copyOf(arguments), body));
+  }
+
+  /**
+   * Gets the canonical instance of an expression, interning it and all its
+   * subexpressions if they have none yet.  Slots and links are part of an
+   * expression's structure, so resolved and linked trees are only shared
+   * with trees resolved and linked the same way.
+   * @param expression the expression
+   * @return the canonical expression equal to it
+   */
+  public synchronized Expression intern(Expression expression) {
+    Expression canonical = lookup(expression);
+    if (canonical != null) {
+      hits++;
+      return canonical;
+    }
+    // a subexpression may have become canonical since the lookup, so the
+    // rebuilt node is looked up again
+    return lookupOrAdd(expression.accept(rebuilder));
+  }
+
+  /**
+   * Gets the canonical instance of a definition, interning it and its body
+   * if they have none yet.
+   * @param definition the definition
+   * @return the canonical definition equal to it
+   */
+  public synchronized Definition intern(Definition definition) {
+    WeakReference<Definition> reference = definitions.get(definition);
+    Definition canonical = reference == null ? null : reference.get();
+    if (canonical != null) {
+      hits++;
+      return canonical;
+    }
+    Expression body = intern(definition.getBody());
+    if (body != definition.getBody()) {
+      definition = new Definition(
+        definition.getName(),
+        definition.getArguments(),
+        body,
+        definition.getFrameSize()
+      );
+    }
+    misses++;
+    definitions.put(definition, new WeakReference<>(definition));
+    return definition;
+  }
+
+  /**
+   * Makes a copy of a program whose definitions and expression are
+   * canonical.
+   * @param program the program
+   * @return the program, with its trees shared with the equal trees of
+   *   other programs interned by this factory
+   */
+  public Program intern(Program program) {
+    Objects.requireNonNull(program);
+    List<Definition> interned = new ArrayList<>(program.getDefinitions().size());
+    for (Definition d : program.getDefinitions()) {
+      interned.add(intern(d));
+    }
+    return new Program(interned, intern(program.getExpression()), program.getFrameSize());
+  }
+
+  /**
+   * Gets the number of canonical expressions and definitions held.
+   * @return the number of nodes held
+   */
+  public synchronized int size() {
+    return expressions.size() + definitions.size();
+  }
+
+  /**
+   * Gets the number of times a canonical node was found for a node being
+   * interned.
+   * @return the number of hits
+   */
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  /**
+   * Gets the number of nodes that became canonical when interned.
+   * @return the number of misses
+   */
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  private Expression lookup(Expression expression) {
+    WeakReference<Expression> reference = expressions.get(expression);
+    return reference == null ? null : reference.get();
+  }
+
+  private Expression lookupOrAdd(Expression expression) {
+    Expression canonical = lookup(expression);
+    if (canonical != null) {
+      hits++;
+      return canonical;
+    }
+    misses++;
+    expressions.put(expression, new WeakReference<>(expression));
+    return expression;
+  }
+
+  /**
+   * Rebuilds a node with canonical children, or returns it as it is if its
+   * children are canonical already.
+   */
+  private class Rebuilder implements ExpressionVisitor<Expression> {
+    @Override
+    public Expression visit(AndExpression andExpression) {
+      Expression left = intern(andExpression.getLeftOperand());
+      Expression right = intern(andExpression.getRightOperand());
+      if (left == andExpression.getLeftOperand() && right == andExpression.getRightOperand()) {
+        return andExpression;
+      }
+      return new AndExpression(left, right);
+    }
+
+    @Override
+    public Expression visit(BooleanLiteral booleanLiteral) {
+      return booleanLiteral;
+    }
+
+    @Override
+    public Expression visit(FunctionCall functionCall) {
+      List<Expression> arguments = new ArrayList<>(functionCall.getArguments().size());
+      boolean same = true;
+      for (Expression argument : functionCall.getArguments()) {
+        Expression interned = intern(argument);
+        arguments.add(interned);
+        same &= interned == argument;
+      }
+      if (same) {
+        return functionCall;
+      }
+      return new FunctionCall(
+        functionCall.getFunctionName(),
+        List.copyOf(arguments),
+        functionCall.getPrimitive(),
+        functionCall.getDefinitionIndex()
+      );
+    }
+
+    @Override
+    public Expression visit(IfExpression ifExpression) {
+      Expression condition = intern(ifExpression.getCondition());
+      Expression consequent = intern(ifExpression.getConsequent());
+      Expression alternative = intern(ifExpression.getAlternative());
+      if (condition == ifExpression.getCondition()
+          && consequent == ifExpression.getConsequent()
+          && alternative == ifExpression.getAlternative()) {
+        return ifExpression;
+      }
+      return new IfExpression(condition, consequent, alternative);
+    }
+
+    @Override
+    public Expression visit(IntLiteral intLiteral) {
+      return intLiteral;
+    }
+
+    @Override
+    public Expression visit(LetExpression letExpression) {
+      Expression rhs = intern(letExpression.getRhs());
+      Expression body = intern(letExpression.getBody());
+      if (rhs == letExpression.getRhs() && body == letExpression.getBody()) {
+        return letExpression;
+      }
+      return new LetExpression(letExpression.getVarName(), rhs, body, letExpression.getSlot());
+    }
+
+    @Override
+    public Expression visit(OrExpression orExpression) {
+      Expression left = intern(orExpression.getLeft());
+      Expression right = intern(orExpression.getRight());
+      if (left == orExpression.getLeft() && right == orExpression.getRight()) {
+        return orExpression;
+      }
+      return new OrExpression(left, right);
+    }
+
+    @Override
+    public Expression visit(VariableReference reference) {
+      return reference;
+    }
+  }
+}
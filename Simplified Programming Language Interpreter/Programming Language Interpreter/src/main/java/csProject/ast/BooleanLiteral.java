@@ -1,6 +1,6 @@
 package csProject.ast;
 
-import java.util.Objects;
+import csProject.core.BooleanValue;
 
 /**
  * Represents a literal boolean value -- i.e., the constants
@@ -25,6 +25,14 @@ public class BooleanLiteral extends Expression {
     return value;
   }
 
+  /**
+   * Return the value of the literal as a runtime value.
+   * @return the canonical {@code BooleanValue} for the literal
+   */
+  public BooleanValue getLiteralValue() {
+    return BooleanValue.valueOf(value);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -33,10 +41,18 @@ public class BooleanLiteral extends Expression {
     if (o == null || getClass() != o.getClass()) {
       return false;
     }
+    if (hashCode() != o.hashCode()) {
+      return false;
+    }
     BooleanLiteral that = (BooleanLiteral) o;
     return value == that.value;
   }
 
+  @Override
+  protected int computeHash() {
+    return 31 * 7 + (value ? 1 : 0);
+  }
+
   @Override
   public <T> T accept(ExpressionVisitor<T> visitor) {
     return visitor.visit(this);
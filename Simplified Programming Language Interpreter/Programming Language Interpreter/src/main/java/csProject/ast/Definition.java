@@ -1,5 +1,6 @@
 package csProject.ast;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
@@ -10,6 +11,10 @@ public class Definition {
   private final String name;
   private final List<String> arguments;
   private final Expression body;
+  private final int frameSize;
+  private int hash;
+  // 0 until computed, then 1 if the body refers to its callers' variables, 2 if not
+  private byte callerVariables;
 
   /**
    * Constructs a new function definition.
@@ -21,10 +26,27 @@ public class Definition {
    * @throws IllegalArgumentException if any of the arguments are null
    */
   public Definition(String name, List<String> arguments, Expression body) {
+    this(name, arguments, body, -1);
+  }
+
+  /**
+   * Constructs a new function definition whose body has been resolved to
+   * use frame slots.
+   *
+   * @param name      the name of the function
+   * @param arguments the name of the function's arguments, in order from left
+   *                  to right. Must not be null; can be empty.
+   * @param body      the function's body expression
+   * @param frameSize the number of frame slots a call needs, or -1 if the
+   *                  body has not been resolved
+   * @throws IllegalArgumentException if any of the arguments are null
+   */
+  public Definition(String name, List<String> arguments, Expression body, int frameSize) {
     if (sanityCheck(name, arguments, body)){
       this.name = name;
       this.arguments = arguments;
       this.body = body;
+      this.frameSize = frameSize;
     } else {
       throw new IllegalArgumentException("please pass in non-null arguments");
     }
@@ -64,6 +86,31 @@ public class Definition {
   public Expression getBody() {
     return body;
   }
+  /**
+   * Gets the number of activation frame slots a call needs: one for each
+   * argument, plus one for each level of nested <code>let</code> in the body.
+   *
+   * @return the frame size, or -1 if the body has not been resolved
+   */
+  public int getFrameSize() {
+    return frameSize;
+  }
+
+  /**
+   * Tells whether the body refers to a variable that is neither one of the
+   * parameters nor bound by a <code>let</code> around the reference.
+   * Variables are dynamically scoped, so such a variable is found among the
+   * variables of the function's caller when the function is called.
+   *
+   * @return true if the body refers to its callers' variables
+   */
+  public boolean refersToCallerVariables() {
+    if (callerVariables == 0) {
+      boolean refers = body.accept(new FreeReferenceCheck(arguments));
+      callerVariables = refers ? (byte) 1 : (byte) 2;
+    }
+    return callerVariables == 1;
+  }
 
   @Override
   public boolean equals(Object o) {
@@ -74,17 +121,89 @@ public class Definition {
       return false;
     }
     Definition that = (Definition) o;
-    return Objects.equals(name, that.name) && Objects.equals(
+    if (hashCode() != that.hashCode()) {
+      return false;
+    }
+    return frameSize == that.frameSize && Objects.equals(name, that.name) && Objects.equals(
       arguments, that.arguments) && Objects.equals(body, that.body);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(name, arguments, body);
+    if (hash == 0) {
+      int h = Objects.hash(name, arguments, body, frameSize);
+      hash = h == 0 ? 1 : h;
+    }
+    return hash;
   }
 
   @Override
   public String toString() {
     return String.format("Definition(%s, %s, %s)", name, arguments, body);
   }
+
+  /**
+   * Finds references to variables that are not bound around them.
+   */
+  private static class FreeReferenceCheck implements ExpressionVisitor<Boolean> {
+    private final List<String> bound;
+
+    FreeReferenceCheck(List<String> parameters) {
+      this.bound = new ArrayList<>(parameters);
+    }
+
+    @Override
+    public Boolean visit(AndExpression andExpression) {
+      return andExpression.getLeftOperand().accept(this)
+        || andExpression.getRightOperand().accept(this);
+    }
+
+    @Override
+    public Boolean visit(BooleanLiteral booleanLiteral) {
+      return false;
+    }
+
+    @Override
+    public Boolean visit(FunctionCall functionCall) {
+      for (Expression argument : functionCall.getArguments()) {
+        if (argument.accept(this)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @Override
+    public Boolean visit(IfExpression ifExpression) {
+      return ifExpression.getCondition().accept(this)
+        || ifExpression.getConsequent().accept(this)
+        || ifExpression.getAlternative().accept(this);
+    }
+
+    @Override
+    public Boolean visit(IntLiteral intLiteral) {
+      return false;
+    }
+
+    @Override
+    public Boolean visit(LetExpression letExpression) {
+      if (letExpression.getRhs().accept(this)) {
+        return true;
+      }
+      bound.add(letExpression.getVarName());
+      boolean refers = letExpression.getBody().accept(this);
+      bound.remove(bound.size() - 1);
+      return refers;
+    }
+
+    @Override
+    public Boolean visit(OrExpression orExpression) {
+      return orExpression.getLeft().accept(this) || orExpression.getRight().accept(this);
+    }
+
+    @Override
+    public Boolean visit(VariableReference reference) {
+      return !bound.contains(reference.getVariableName());
+    }
+  }
 }
@@ -7,6 +7,8 @@ import csProject.core.Value;
  * Base class of the hierarchy representing various kinds of expressions.
  */
 public abstract class Expression {
+  // the structural hash, computed on first use; 0 until then
+  private int hash;
 
   /**
    * Accept a Visitor.
@@ -23,4 +25,30 @@ public abstract class Expression {
    * @return a string representation of the expression
    */
   public abstract String format();
+
+  /**
+   * Computes the structural hash of the expression from its kind, its
+   * fields and the hashes of its subexpressions.  Called at most once per
+   * expression, since expressions are immutable.
+   * @return the structural hash
+   */
+  protected abstract int computeHash();
+
+  /**
+   * Returns the structural hash of the expression.  It is computed once
+   * and cached, so hashing a tree costs one pass over it however often it
+   * is hashed, and unequal hashes let {@code equals} stop at once.
+   * @return the structural hash
+   */
+  @Override
+  public final int hashCode() {
+    int h = hash;
+    if (h == 0) {
+      h = computeHash();
+      // 0 marks a hash not computed yet
+      h = h == 0 ? 1 : h;
+      hash = h;
+    }
+    return h;
+  }
 }
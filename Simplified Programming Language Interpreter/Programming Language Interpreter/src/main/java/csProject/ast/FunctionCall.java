@@ -1,5 +1,6 @@
 package csProject.ast;
 
+import csProject.primitives.Primitive;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -17,6 +18,8 @@ public class FunctionCall extends Expression {
    * from left to right and represents the parameters that the function receives.
    */
   public final List<Expression> arguments;
+  private final Primitive primitive;
+  private final int definitionIndex;
 
   /**
    * Constructs a function-call expression
@@ -25,8 +28,30 @@ public class FunctionCall extends Expression {
    *                  Must not be null; can be empty.
    */
   public FunctionCall(String functionName, List<Expression> arguments) {
+    this(functionName, arguments, null, -1);
+  }
+
+  /**
+   * Constructs a function-call expression that has been linked to the
+   * function it calls, either a primitive or a definition of the program.
+   * @param functionName the name of the function
+   * @param arguments the argument expressions, in order from left to right
+   * @param primitive the called primitive, or null if the call is not linked
+   *                  to a primitive
+   * @param definitionIndex the index of the called definition in the linked
+   *                        program's definitions, or -1 if the call is not
+   *                        linked to a definition
+   */
+  public FunctionCall(
+    String functionName,
+    List<Expression> arguments,
+    Primitive primitive,
+    int definitionIndex
+  ) {
     this.functionName = functionName;
     this.arguments = arguments;
+    this.primitive = primitive;
+    this.definitionIndex = definitionIndex;
   }
   /**
    * Returns the name of the function being called.
@@ -45,6 +70,34 @@ public class FunctionCall extends Expression {
     return arguments;
   }
 
+  /**
+   * Returns the primitive this call has been linked to.
+   *
+   * @return the primitive, or null if the call is not linked to a primitive
+   */
+  public Primitive getPrimitive() {
+    return primitive;
+  }
+
+  /**
+   * Returns the index of the definition this call has been linked to, in the
+   * definitions of the linked program.
+   *
+   * @return the index, or -1 if the call is not linked to a definition
+   */
+  public int getDefinitionIndex() {
+    return definitionIndex;
+  }
+
+  /**
+   * Tells whether this call has been linked to the function it calls.
+   *
+   * @return true if the call is linked to a primitive or a definition
+   */
+  public boolean isLinked() {
+    return primitive != null || definitionIndex >= 0;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -53,9 +106,29 @@ public class FunctionCall extends Expression {
     if (o == null || getClass() != o.getClass()) {
       return false;
     }
+    if (hashCode() != o.hashCode()) {
+      return false;
+    }
     FunctionCall that = (FunctionCall) o;
     return Objects.equals(functionName, that.functionName)
-      && Objects.equals(arguments, that.arguments);
+      && Objects.equals(arguments, that.arguments)
+      && primitiveClass() == that.primitiveClass()
+      && definitionIndex == that.definitionIndex;
+  }
+
+  @Override
+  protected int computeHash() {
+    return 31 * (31 * (31 * (31 * 5 + functionName.hashCode()) + arguments.hashCode())
+      + Objects.hashCode(primitiveClass())) + definitionIndex;
+  }
+
+  /**
+   * Primitives hold no state, so calls linked to different instances of the
+   * same primitive, such as by linkers with their own primitive tables, are
+   * equal.
+   */
+  private Class<?> primitiveClass() {
+    return primitive == null ? null : primitive.getClass();
   }
 
   @Override
@@ -59,12 +59,21 @@ public class IfExpression extends Expression {
     if (o == null || getClass() != o.getClass()) {
       return false;
     }
+    if (hashCode() != o.hashCode()) {
+      return false;
+    }
     IfExpression that = (IfExpression) o;
     return Objects.equals(condition, that.condition)
       && Objects.equals(consequent, that.consequent)
       && Objects.equals(alternative, that.alternative);
   }
 
+  @Override
+  protected int computeHash() {
+    return 31 * (31 * (31 * 3 + condition.hashCode()) + consequent.hashCode())
+      + alternative.hashCode();
+  }
+
   @Override
   public <T> T accept(ExpressionVisitor<T> visitor) {
     return visitor.visit(this);
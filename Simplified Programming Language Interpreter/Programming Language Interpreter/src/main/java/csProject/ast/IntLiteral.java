@@ -1,16 +1,20 @@
 package csProject.ast;
 
+import csProject.core.IntValue;
+
 /**
  * Represents a literal integer, such as the constant <code>17</code>.
  */
 public class IntLiteral extends Expression {
   private final int value;
+  private final IntValue literalValue;
   /**
    * Constructs a new integer literal.
    * @param value the value of the literal
    */
   public IntLiteral(int value) {
     this.value = value;
+    this.literalValue = IntValue.of(value);
   }
 
   /**
@@ -21,6 +25,15 @@ public class IntLiteral extends Expression {
     return value;
   }
 
+  /**
+   * Return the value of the literal as a runtime value, created once with
+   * the literal.
+   * @return the literal's value
+   */
+  public IntValue getLiteralValue() {
+    return literalValue;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -29,10 +42,18 @@ public class IntLiteral extends Expression {
     if (o == null || getClass() != o.getClass()) {
       return false;
     }
+    if (hashCode() != o.hashCode()) {
+      return false;
+    }
     IntLiteral that = (IntLiteral) o;
     return value == that.value;
   }
 
+  @Override
+  protected int computeHash() {
+    return 31 * 6 + value;
+  }
+
   @Override
   public <T> T accept(ExpressionVisitor<T> visitor) {
     return visitor.visit(this);
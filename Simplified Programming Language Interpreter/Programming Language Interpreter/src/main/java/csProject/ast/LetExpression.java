@@ -9,6 +9,7 @@ public class LetExpression extends Expression {
   private final String varName;
   private final Expression rhs;
   private final Expression body;
+  private final int slot;
   /**
    * Constructs a new <code>let</code> expression.
    * @param varName the name of the variable being defined
@@ -16,9 +17,23 @@ public class LetExpression extends Expression {
    * @param body the expression within which the variable is defined
    */
   public LetExpression(String varName, Expression rhs, Expression body) {
+    this(varName, rhs, body, -1);
+  }
+
+  /**
+   * Constructs a new <code>let</code> expression whose variable has been
+   * assigned a slot in the enclosing activation frame.
+   * @param varName the name of the variable being defined
+   * @param rhs the expression giving the value of the variable
+   * @param body the expression within which the variable is defined
+   * @param slot the frame slot that holds the variable's value, or -1 if
+   *             the expression has not been resolved
+   */
+  public LetExpression(String varName, Expression rhs, Expression body, int slot) {
     this.varName = varName;
     this.rhs = rhs;
     this.body = body;
+    this.slot = slot;
   }
   /**
    * Returns the name of the variable defined by this 'let' expression.
@@ -46,6 +61,15 @@ public class LetExpression extends Expression {
     return body;
   }
 
+  /**
+   * Returns the frame slot that holds the variable's value.
+   *
+   * @return the slot, or -1 if the expression has not been resolved
+   */
+  public int getSlot() {
+    return slot;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -54,10 +78,19 @@ public class LetExpression extends Expression {
     if (o == null || getClass() != o.getClass()) {
       return false;
     }
+    if (hashCode() != o.hashCode()) {
+      return false;
+    }
     LetExpression that = (LetExpression) o;
     return Objects.equals(varName, that.varName)
       && Objects.equals(rhs, that.rhs) && Objects.equals(body,
-      that.body);
+      that.body) && slot == that.slot;
+  }
+
+  @Override
+  protected int computeHash() {
+    return 31 * (31 * (31 * (31 * 4 + varName.hashCode()) + rhs.hashCode()) + body.hashCode())
+      + slot;
   }
 
   @Override
@@ -43,11 +43,19 @@ public class OrExpression extends Expression {
     if (o == null || getClass() != o.getClass()) {
       return false;
     }
+    if (hashCode() != o.hashCode()) {
+      return false;
+    }
     OrExpression that = (OrExpression) o;
     return Objects.equals(left, that.left) && Objects.equals(
       right, that.right);
   }
 
+  @Override
+  protected int computeHash() {
+    return 31 * (31 * 2 + left.hashCode()) + right.hashCode();
+  }
+
   @Override
   public <T> T accept(ExpressionVisitor<T> visitor) {
     return visitor.visit(this);
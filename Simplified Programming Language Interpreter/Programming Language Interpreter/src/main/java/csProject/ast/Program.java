@@ -13,6 +13,7 @@ import java.util.Objects;
 public class Program {
   private final List<Definition> definitions;
   private final Expression expression;
+  private final int frameSize;
 
   /**
    * Constructs a new program
@@ -21,6 +22,19 @@ public class Program {
    * @param expression the expression to be evaluated at runtime.
    */
   public Program(List<Definition> definitions, Expression expression) {
+    this(definitions, expression, -1);
+  }
+
+  /**
+   * Constructs a new program whose expression has been resolved to use
+   * frame slots.
+   * @param definitions a list of function definitions.  Must not be null;
+   *                    may be empty.  Elements of the list must not be null.
+   * @param expression the expression to be evaluated at runtime.
+   * @param frameSize the number of frame slots the expression needs, or -1
+   *                  if it has not been resolved
+   */
+  public Program(List<Definition> definitions, Expression expression, int frameSize) {
     Objects.requireNonNull(definitions);
     Objects.requireNonNull(expression);
 
@@ -30,6 +44,7 @@ public class Program {
 
     this.definitions = List.copyOf(definitions);
     this.expression = expression;
+    this.frameSize = frameSize;
   }
 
   public List<Definition> getDefinitions() {
@@ -39,4 +54,47 @@ public class Program {
   public Expression getExpression() {
     return expression;
   }
+
+  /**
+   * Returns the number of frame slots needed to evaluate the expression.
+   * @return the frame size, or -1 if the program has not been resolved
+   */
+  public int getFrameSize() {
+    return frameSize;
+  }
+
+  /**
+   * Tells whether any definition refers to variables of its callers, which
+   * can then only be found by name while the program runs.  Engines that
+   * give each call only its own variables cannot run such programs.
+   * @return true if some definition refers to its callers' variables
+   * @see Definition#refersToCallerVariables()
+   */
+  public boolean refersToCallerVariables() {
+    for (Definition d : definitions) {
+      if (d.refersToCallerVariables()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    Program that = (Program) o;
+    return Objects.equals(expression, that.expression)
+      && Objects.equals(definitions, that.definitions)
+      && frameSize == that.frameSize;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(definitions, expression, frameSize);
+  }
 }
@@ -7,18 +7,39 @@ import java.util.Objects;
  */
 public class VariableReference extends Expression {
   private final String variableName;
+  private final int slot;
   /**
    * Construct a VariableReference expression
    * @param variableName name of the variable to reference
    */
   public VariableReference(String variableName) {
+    this(variableName, -1);
+  }
+
+  /**
+   * Construct a VariableReference expression whose variable has been
+   * resolved to a slot in the enclosing activation frame.
+   * @param variableName name of the variable to reference
+   * @param slot frame slot holding the variable's value, or -1 if the
+   *             reference has not been resolved
+   */
+  public VariableReference(String variableName, int slot) {
     this.variableName = variableName;
+    this.slot = slot;
   }
 
   public String getVariableName() {
     return variableName;
   }
 
+  /**
+   * Returns the frame slot of the referenced variable.
+   * @return the slot, or -1 if the reference has not been resolved
+   */
+  public int getSlot() {
+    return slot;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -27,8 +48,17 @@ public class VariableReference extends Expression {
     if (o == null || getClass() != o.getClass()) {
       return false;
     }
+    if (hashCode() != o.hashCode()) {
+      return false;
+    }
     VariableReference that = (VariableReference) o;
-    return Objects.equals(variableName, that.variableName);
+    return Objects.equals(variableName, that.variableName)
+      && slot == that.slot;
+  }
+
+  @Override
+  protected int computeHash() {
+    return 31 * (31 * 8 + variableName.hashCode()) + slot;
   }
 
   @Override
@@ -0,0 +1,25 @@
+package csProject.closure;
+
+import csProject.core.BooleanValue;
+import csProject.core.Value;
+
+/**
+ * Node for a short-circuiting <code>and</code> expression.
+ */
+class AndNode extends Node {
+  private final Node left;
+  private final Node right;
+
+  AndNode(Node left, Node right) {
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    if (!left.execute(frame).asBoolean()) {
+      return BooleanValue.FALSE;
+    }
+    return BooleanValue.valueOf(right.execute(frame).asBoolean());
+  }
+}
@@ -0,0 +1,20 @@
+package csProject.closure;
+
+import csProject.core.BooleanValue;
+import csProject.core.Value;
+
+/**
+ * Node for a boolean literal.
+ */
+class BooleanConstantNode extends Node {
+  private final BooleanValue value;
+
+  BooleanConstantNode(BooleanValue value) {
+    this.value = value;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return value;
+  }
+}
@@ -0,0 +1,28 @@
+package csProject.closure;
+
+import csProject.core.Value;
+import java.util.function.Supplier;
+
+/**
+ * Node for a call that is known at compile time to fail, either because the
+ * function is undefined or because it is called with the wrong number of
+ * arguments.  As in the tree-walking evaluator, the arguments are still
+ * evaluated first, and the error is only raised if the call is reached.
+ */
+class CallErrorNode extends Node {
+  private final Node[] arguments;
+  private final Supplier<RuntimeException> error;
+
+  CallErrorNode(Node[] arguments, Supplier<RuntimeException> error) {
+    this.arguments = arguments;
+    this.error = error;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    for (Node argument : arguments) {
+      argument.execute(frame);
+    }
+    throw error.get();
+  }
+}
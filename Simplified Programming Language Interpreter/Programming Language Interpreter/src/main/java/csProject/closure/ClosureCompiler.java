@@ -0,0 +1,175 @@
+package csProject.closure;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.primitives.Primitive;
+import csProject.primitives.PrimitiveTable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compiles a {@code Program} into a tree of pre-linked {@code Node}s.
+ * Variables are resolved to activation-frame slots, and function calls are
+ * resolved to their primitive or definition, once, at compile time.  One
+ * compiler instance is used per definition body.
+ */
+public class ClosureCompiler implements ExpressionVisitor<Node> {
+  private final Map<String, CompiledDefinition> definitions;
+  private final PrimitiveTable primitiveTable;
+  private final List<String> scope;
+  private int frameSize;
+
+  private ClosureCompiler(
+    Map<String, CompiledDefinition> definitions,
+    PrimitiveTable primitiveTable,
+    List<String> parameters
+  ) {
+    this.definitions = definitions;
+    this.primitiveTable = primitiveTable;
+    this.scope = new ArrayList<>(parameters);
+    this.frameSize = parameters.size();
+  }
+
+  /**
+   * Compiles a program, using the default primitive table.
+   * @param program the program to compile
+   * @return the compiled program
+   */
+  public static CompiledProgram compile(Program program) {
+    return compile(program, new PrimitiveTable());
+  }
+
+  /**
+   * Compiles a program.
+   * @param program        the program to compile
+   * @param primitiveTable the primitives available to the program
+   * @return the compiled program
+   */
+  public static CompiledProgram compile(
+    Program program,
+    PrimitiveTable primitiveTable
+  ) {
+    Objects.requireNonNull(program);
+    Objects.requireNonNull(primitiveTable);
+
+    Map<String, CompiledDefinition> definitions = new HashMap<>();
+    for (Definition d : program.getDefinitions()) {
+      definitions.put(
+        d.getName(),
+        new CompiledDefinition(d.getName(), d.getArguments().size())
+      );
+    }
+    for (Definition d : program.getDefinitions()) {
+      ClosureCompiler compiler =
+        new ClosureCompiler(definitions, primitiveTable, d.getArguments());
+      Node body = d.getBody().accept(compiler);
+      // later definitions with the same name win, as in the Environment
+      definitions.get(d.getName()).setBody(body, compiler.frameSize);
+    }
+
+    ClosureCompiler compiler =
+      new ClosureCompiler(definitions, primitiveTable, List.of());
+    Node expression = program.getExpression().accept(compiler);
+    return new CompiledProgram(definitions, expression, compiler.frameSize);
+  }
+
+  @Override
+  public Node visit(AndExpression andExpression) {
+    return new AndNode(
+      andExpression.getLeftOperand().accept(this),
+      andExpression.getRightOperand().accept(this)
+    );
+  }
+
+  @Override
+  public Node visit(BooleanLiteral booleanLiteral) {
+    return new BooleanConstantNode(booleanLiteral.getLiteralValue());
+  }
+
+  @Override
+  public Node visit(FunctionCall functionCall) {
+    String name = functionCall.getFunctionName();
+    List<Expression> argExprs = functionCall.getArguments();
+    Node[] arguments = new Node[argExprs.size()];
+    for (int i = 0; i < arguments.length; i++) {
+      arguments[i] = argExprs.get(i).accept(this);
+    }
+
+    Primitive primitive = primitiveTable.lookup(name);
+    if (primitive != null) {
+      return new PrimitiveCallNode(primitive, arguments);
+    }
+
+    CompiledDefinition target = definitions.get(name);
+    if (target == null) {
+      return new CallErrorNode(
+        arguments,
+        () -> new UndefinedFunctionException(name)
+      );
+    }
+    if (target.getArity() != arguments.length) {
+      return new CallErrorNode(
+        arguments,
+        () -> new ArityMismatchException(name, target.getArity(), arguments.length)
+      );
+    }
+    return new DefinitionCallNode(target, arguments);
+  }
+
+  @Override
+  public Node visit(IfExpression ifExpression) {
+    return new IfNode(
+      ifExpression.getCondition().accept(this),
+      ifExpression.getConsequent().accept(this),
+      ifExpression.getAlternative().accept(this)
+    );
+  }
+
+  @Override
+  public Node visit(IntLiteral intLiteral) {
+    return new IntConstantNode(intLiteral.getLiteralValue());
+  }
+
+  @Override
+  public Node visit(LetExpression letExpression) {
+    Node rhs = letExpression.getRhs().accept(this);
+    int slot = scope.size();
+    scope.add(letExpression.getVarName());
+    frameSize = Math.max(frameSize, scope.size());
+    Node body = letExpression.getBody().accept(this);
+    scope.remove(slot);
+    return new LetNode(slot, rhs, body);
+  }
+
+  @Override
+  public Node visit(OrExpression orExpression) {
+    return new OrNode(
+      orExpression.getLeft().accept(this),
+      orExpression.getRight().accept(this)
+    );
+  }
+
+  @Override
+  public Node visit(VariableReference reference) {
+    int slot = scope.lastIndexOf(reference.getVariableName());
+    if (slot < 0) {
+      return new UnboundVariableNode(reference.getVariableName());
+    }
+    return new LocalReadNode(slot);
+  }
+}
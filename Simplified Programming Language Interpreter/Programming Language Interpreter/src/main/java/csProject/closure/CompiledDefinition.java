@@ -0,0 +1,62 @@
+package csProject.closure;
+
+/**
+ * A user definition compiled to a node tree.  The body is filled in after
+ * all definitions of the program have been created, so that (mutually)
+ * recursive calls can be linked directly to their targets.
+ */
+public class CompiledDefinition {
+  private final String name;
+  private final int arity;
+  private int frameSize;
+  private Node body;
+
+  /**
+   * Constructs a compiled definition whose body is not yet known.
+   * @param name  the name of the definition
+   * @param arity the number of parameters
+   */
+  CompiledDefinition(String name, int arity) {
+    this.name = name;
+    this.arity = arity;
+    this.frameSize = arity;
+  }
+
+  /**
+   * Gets the name of the definition.
+   * @return the name of the definition
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of parameters of the definition.
+   * @return the number of parameters
+   */
+  public int getArity() {
+    return arity;
+  }
+
+  /**
+   * Gets the number of frame slots needed by a call: one per parameter plus
+   * one per nested <code>let</code> in the body.
+   * @return the activation frame size
+   */
+  public int getFrameSize() {
+    return frameSize;
+  }
+
+  /**
+   * Gets the compiled body.
+   * @return the root node of the body
+   */
+  public Node getBody() {
+    return body;
+  }
+
+  void setBody(Node body, int frameSize) {
+    this.body = body;
+    this.frameSize = frameSize;
+  }
+}
@@ -0,0 +1,47 @@
+package csProject.closure;
+
+import csProject.core.Value;
+import java.util.Map;
+
+/**
+ * A whole program compiled to node trees: the linked definitions, plus the
+ * node for the program's expression.
+ */
+public class CompiledProgram {
+  private final Map<String, CompiledDefinition> definitions;
+  private final Node expression;
+  private final int frameSize;
+
+  /**
+   * Constructs a compiled program.
+   * @param definitions the compiled definitions, by name
+   * @param expression  the compiled program expression
+   * @param frameSize   the number of frame slots the expression needs
+   */
+  CompiledProgram(
+    Map<String, CompiledDefinition> definitions,
+    Node expression,
+    int frameSize
+  ) {
+    this.definitions = Map.copyOf(definitions);
+    this.expression = expression;
+    this.frameSize = frameSize;
+  }
+
+  /**
+   * Looks up a compiled definition by name.
+   * @param name name of the definition
+   * @return the compiled definition, or null if not defined
+   */
+  public CompiledDefinition lookup(String name) {
+    return definitions.get(name);
+  }
+
+  /**
+   * Runs the program.  A compiled program can be run any number of times.
+   * @return the value of the program's expression
+   */
+  public Value run() {
+    return expression.execute(new Value[frameSize]);
+  }
+}
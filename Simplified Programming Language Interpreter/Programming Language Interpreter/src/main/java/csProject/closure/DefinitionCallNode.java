@@ -0,0 +1,27 @@
+package csProject.closure;
+
+import csProject.core.Value;
+
+/**
+ * Node for a call to a user definition.  The target was resolved and its
+ * arity checked at compile time; at run time the arguments are evaluated
+ * straight into the callee's new activation frame.
+ */
+class DefinitionCallNode extends Node {
+  private final CompiledDefinition target;
+  private final Node[] arguments;
+
+  DefinitionCallNode(CompiledDefinition target, Node[] arguments) {
+    this.target = target;
+    this.arguments = arguments;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    Value[] calleeFrame = new Value[target.getFrameSize()];
+    for (int i = 0; i < arguments.length; i++) {
+      calleeFrame[i] = arguments[i].execute(frame);
+    }
+    return target.getBody().execute(calleeFrame);
+  }
+}
@@ -0,0 +1,26 @@
+package csProject.closure;
+
+import csProject.core.Value;
+
+/**
+ * Node for an <code>if</code> expression.
+ */
+class IfNode extends Node {
+  private final Node condition;
+  private final Node consequent;
+  private final Node alternative;
+
+  IfNode(Node condition, Node consequent, Node alternative) {
+    this.condition = condition;
+    this.consequent = consequent;
+    this.alternative = alternative;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    if (condition.execute(frame).asBoolean()) {
+      return consequent.execute(frame);
+    }
+    return alternative.execute(frame);
+  }
+}
@@ -0,0 +1,20 @@
+package csProject.closure;
+
+import csProject.core.IntValue;
+import csProject.core.Value;
+
+/**
+ * Node for an integer literal.
+ */
+class IntConstantNode extends Node {
+  private final IntValue value;
+
+  IntConstantNode(IntValue value) {
+    this.value = value;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return value;
+  }
+}
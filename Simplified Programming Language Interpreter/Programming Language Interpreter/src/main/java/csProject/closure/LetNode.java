@@ -0,0 +1,26 @@
+package csProject.closure;
+
+import csProject.core.Value;
+
+/**
+ * Node for a <code>let</code> expression.  The bound value is stored in a
+ * frame slot reserved for it at compile time, so no new environment is
+ * allocated.
+ */
+class LetNode extends Node {
+  private final int slot;
+  private final Node rhs;
+  private final Node body;
+
+  LetNode(int slot, Node rhs, Node body) {
+    this.slot = slot;
+    this.rhs = rhs;
+    this.body = body;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    frame[slot] = rhs.execute(frame);
+    return body.execute(frame);
+  }
+}
@@ -0,0 +1,20 @@
+package csProject.closure;
+
+import csProject.core.Value;
+
+/**
+ * Node for a reference to a parameter or <code>let</code> variable, read
+ * directly from its slot in the activation frame.
+ */
+class LocalReadNode extends Node {
+  private final int slot;
+
+  LocalReadNode(int slot) {
+    this.slot = slot;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return frame[slot];
+  }
+}
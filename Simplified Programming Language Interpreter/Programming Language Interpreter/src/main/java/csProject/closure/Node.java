@@ -0,0 +1,20 @@
+package csProject.closure;
+
+import csProject.core.Value;
+
+/**
+ * Base class of the executable node tree produced by the {@code ClosureCompiler}.
+ * Each node corresponds to one AST node, and has its children and any
+ * called definitions already linked in, so that executing a node is a single
+ * virtual call rather than a visitor double dispatch.
+ */
+public abstract class Node {
+
+  /**
+   * Executes this node.
+   * @param frame the activation frame holding the values of the parameters
+   *              and <code>let</code> variables that are in scope
+   * @return the value of the node
+   */
+  public abstract Value execute(Value[] frame);
+}
@@ -0,0 +1,36 @@
+package csProject.closure;
+
+import csProject.core.Value;
+import csProject.primitives.Primitive;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Node for a call to a built-in primitive, which was looked up once at
+ * compile time.
+ */
+class PrimitiveCallNode extends Node {
+  private final Primitive primitive;
+  private final Node[] arguments;
+
+  PrimitiveCallNode(Primitive primitive, Node[] arguments) {
+    this.primitive = primitive;
+    this.arguments = arguments;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    if (arguments.length == 1) {
+      return primitive.apply1(arguments[0].execute(frame));
+    }
+    if (arguments.length == 2) {
+      Value left = arguments[0].execute(frame);
+      return primitive.apply2(left, arguments[1].execute(frame));
+    }
+    List<Value> argValues = new ArrayList<>(arguments.length);
+    for (Node argument : arguments) {
+      argValues.add(argument.execute(frame));
+    }
+    return primitive.apply(argValues);
+  }
+}
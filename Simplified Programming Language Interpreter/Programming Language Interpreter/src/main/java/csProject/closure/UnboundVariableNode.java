@@ -0,0 +1,22 @@
+package csProject.closure;
+
+import csProject.core.Value;
+import csProject.evalExceptions.UndefinedVariableException;
+
+/**
+ * Node for a reference to a variable that is not in scope.  The error is
+ * only raised if the reference is actually executed, as in the tree-walking
+ * evaluator.
+ */
+class UnboundVariableNode extends Node {
+  private final String variableName;
+
+  UnboundVariableNode(String variableName) {
+    this.variableName = variableName;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    throw new UndefinedVariableException(variableName);
+  }
+}
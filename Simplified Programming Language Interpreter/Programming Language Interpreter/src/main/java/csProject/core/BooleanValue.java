@@ -1,7 +1,5 @@
 package csProject.core;
 
-import java.util.Objects;
-
 /**
  * Represents a boolean value as an object. This class provides methods to
  * retrieve the boolean value and to represent it as a string.
@@ -10,15 +8,35 @@ import java.util.Objects;
  * or configuration systems.
  */
 public class BooleanValue extends Value {
+  /**
+   * The canonical {@code BooleanValue} for true.
+   */
+  public static final BooleanValue TRUE = new BooleanValue(true);
+  /**
+   * The canonical {@code BooleanValue} for false.
+   */
+  public static final BooleanValue FALSE = new BooleanValue(false);
+
   private final boolean value;
   /**
    * Constructs a new {@code BooleanValue} with the specified boolean value.
+   * Prefer {@link #valueOf(boolean)}, which does not allocate.
    *
    * @param value the boolean value to store
    */
   public BooleanValue(boolean value) {
     this.value = value;
   }
+
+  /**
+   * Returns the canonical {@code BooleanValue} for a boolean.
+   *
+   * @param value the boolean value
+   * @return {@link #TRUE} or {@link #FALSE}
+   */
+  public static BooleanValue valueOf(boolean value) {
+    return value ? TRUE : FALSE;
+  }
   /**
    * Returns the boolean value stored in this {@code BooleanValue} object.
    *
@@ -73,7 +91,7 @@ public class BooleanValue extends Value {
 
   @Override
   public int hashCode() {
-    return Objects.hash(value);
+    return Boolean.hashCode(value);
   }
   /**
    * Returns the boolean value of this {@code BooleanValue}.
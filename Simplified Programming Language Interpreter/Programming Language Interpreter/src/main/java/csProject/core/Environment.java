@@ -54,6 +54,38 @@ public class Environment<V> {
     return new Environment<V>(Map.of(name, value), this);
   }
 
+  /**
+   * Creates a new environment in which name is associated with value, and all
+   * other names are as in this environment, like {@link #extend}.  Unlike
+   * extend, an existing binding of the name is replaced rather than
+   * shadowed, so binding the same names over and over does not make the
+   * environment any longer than the number of distinct names bound in it.
+   * This environment is not changed.
+   * @param name name of the entry to be bound
+   * @param value associated value
+   * @return a new environment in which name is associated with value, and all
+   * other names are as in this environment.
+   */
+  public Environment<V> rebind(String name, V value) {
+    Environment<V> replaced = replace(name, value);
+    return replaced != null ? replaced : extend(name, value);
+  }
+
+  /**
+   * Copies the chain of environments down to the one binding the name, with
+   * the binding replaced; the rest of the chain is shared.
+   * @return the new environment, or null if the name is not bound
+   */
+  private Environment<V> replace(String name, V value) {
+    if (bindings.containsKey(name)) {
+      Map<String, V> replaced = new HashMap<>(bindings);
+      replaced.put(name, value);
+      return new Environment<V>(replaced, base);
+    }
+    Environment<V> replacedBase = base == null ? null : base.replace(name, value);
+    return replacedBase == null ? null : new Environment<V>(bindings, replacedBase);
+  }
+
   private Map<String, V> makeMap(List<String> names, List<V> values) {
     Map<String, V> result = new HashMap<>();
 
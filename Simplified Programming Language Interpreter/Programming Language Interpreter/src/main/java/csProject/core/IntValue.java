@@ -1,7 +1,5 @@
 package csProject.core;
 
-import java.util.Objects;
-
 /**
  * Represents an integer value.
  */
@@ -9,12 +7,48 @@ public class IntValue extends Value {
   private final int value;
   /**
    * Constructs a new {@code IntValue} with the specified integer value.
+   * Prefer {@link #of(int)}, which reuses cached instances for small values.
    *
    * @param value the integer value to store
    */
   public IntValue(int value) {
     this.value = value;
   }
+
+  /**
+   * Returns an {@code IntValue} for the specified integer.  Values in the
+   * cached range, by default -128 to 1023, always return the same instance;
+   * the bounds can be changed with the system properties
+   * {@code csProject.core.IntValue.cacheLow} and
+   * {@code csProject.core.IntValue.cacheHigh}.
+   *
+   * @param value the integer value
+   * @return an {@code IntValue} holding the value
+   */
+  public static IntValue of(int value) {
+    if (value >= Cache.LOW && value <= Cache.HIGH) {
+      return Cache.VALUES[value - Cache.LOW];
+    }
+    return new IntValue(value);
+  }
+
+  /**
+   * Holder for the small-integer cache, created on first use.
+   */
+  private static class Cache {
+    static final int LOW = Integer.getInteger("csProject.core.IntValue.cacheLow", -128);
+    static final int HIGH = Math.max(
+      LOW - 1,
+      Integer.getInteger("csProject.core.IntValue.cacheHigh", 1023)
+    );
+    static final IntValue[] VALUES = new IntValue[HIGH - LOW + 1];
+
+    static {
+      for (int i = 0; i < VALUES.length; i++) {
+        VALUES[i] = new IntValue(LOW + i);
+      }
+    }
+  }
   /**
    * Returns the integer value stored in this {@code IntValue} object.
    *
@@ -48,7 +82,7 @@ public class IntValue extends Value {
 
   @Override
   public int hashCode() {
-    return Objects.hash(value);
+    return Integer.hashCode(value);
   }
 
   @Override
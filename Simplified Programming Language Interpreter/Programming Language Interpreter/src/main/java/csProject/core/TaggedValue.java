@@ -0,0 +1,140 @@
+package csProject.core;
+
+/**
+ * Encoding of values as tagged {@code long}s, for evaluators that keep their
+ * values in primitive arrays rather than allocating {@code Value} objects.
+ * The upper 32 bits of an encoded value give its kind and the lower 32 bits
+ * its payload: the int itself, or 1 for true and 0 for false.  Zero encodes
+ * no value, so a zeroed array holds no values.  Encoded values are only
+ * turned back into {@code Value}s where they leave the evaluator.
+ */
+public final class TaggedValue {
+  private static final long TAG_MASK = 0xFFFFFFFF00000000L;
+  private static final long INT_TAG = 1L << 32;
+  private static final long BOOLEAN_TAG = 2L << 32;
+
+  /**
+   * The encoding of true.
+   */
+  public static final long TRUE = BOOLEAN_TAG | 1;
+  /**
+   * The encoding of false.
+   */
+  public static final long FALSE = BOOLEAN_TAG;
+
+  private TaggedValue() {
+  }
+
+  /**
+   * Encodes an int.
+   * @param value the int
+   * @return the encoded int
+   */
+  public static long ofInt(int value) {
+    return INT_TAG | (value & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Encodes a boolean.
+   * @param value the boolean
+   * @return the encoded boolean
+   */
+  public static long ofBoolean(boolean value) {
+    return value ? TRUE : FALSE;
+  }
+
+  /**
+   * Encodes a value.
+   * @param value an int or boolean value
+   * @return the encoded value
+   * @throws IllegalArgumentException if the value is neither an int nor a
+   *   boolean
+   */
+  public static long of(Value value) {
+    if (value instanceof IntValue) {
+      return ofInt(value.asInteger());
+    }
+    if (value instanceof BooleanValue) {
+      return ofBoolean(value.asBoolean());
+    }
+    throw new IllegalArgumentException("cannot encode " + value);
+  }
+
+  /**
+   * Tells whether an encoded value is an int.
+   * @param tagged the encoded value
+   * @return true if it encodes an int
+   */
+  public static boolean isInt(long tagged) {
+    return (tagged & TAG_MASK) == INT_TAG;
+  }
+
+  /**
+   * Tells whether an encoded value is a boolean.
+   * @param tagged the encoded value
+   * @return true if it encodes a boolean
+   */
+  public static boolean isBoolean(long tagged) {
+    return (tagged & TAG_MASK) == BOOLEAN_TAG;
+  }
+
+  /**
+   * Decodes an int.
+   * @param tagged the encoded value
+   * @return the int it encodes
+   * @throws TypeError if it does not encode an int
+   */
+  public static int asInteger(long tagged) {
+    if (!isInt(tagged)) {
+      throw new TypeError("Expected int; got " + format(tagged));
+    }
+    return (int) tagged;
+  }
+
+  /**
+   * Decodes a boolean.
+   * @param tagged the encoded value
+   * @return the boolean it encodes
+   * @throws TypeError if it does not encode a boolean
+   */
+  public static boolean asBoolean(long tagged) {
+    if (tagged == TRUE) {
+      return true;
+    }
+    if (tagged != FALSE) {
+      throw new TypeError("Expected boolean; got " + format(tagged));
+    }
+    return false;
+  }
+
+  /**
+   * Decodes a value into a {@code Value}.
+   * @param tagged the encoded value
+   * @return the value it encodes
+   * @throws IllegalArgumentException if it encodes no value
+   */
+  public static Value toValue(long tagged) {
+    if (isInt(tagged)) {
+      return IntValue.of((int) tagged);
+    }
+    if (isBoolean(tagged)) {
+      return BooleanValue.valueOf(tagged == TRUE);
+    }
+    throw new IllegalArgumentException("not an encoded value: " + tagged);
+  }
+
+  /**
+   * Formats an encoded value as its {@code Value} would be formatted.
+   * @param tagged the encoded value
+   * @return the formatted value
+   */
+  public static String format(long tagged) {
+    if (isInt(tagged)) {
+      return Integer.toString((int) tagged);
+    }
+    if (isBoolean(tagged)) {
+      return tagged == TRUE ? "true" : "false";
+    }
+    return "<none>";
+  }
+}
@@ -0,0 +1,37 @@
+package csProject.engine;
+
+/**
+ * Base class of the nodes for a function call, whichever state of
+ * specialization they are in.  A call node hands its argument nodes on to
+ * the node that replaces it.
+ */
+abstract class CallNode extends Node {
+  private final Node[] arguments;
+
+  CallNode(Node[] arguments) {
+    this.arguments = arguments;
+    for (Node argument : arguments) {
+      adopt(argument);
+    }
+  }
+
+  /**
+   * Gets the argument nodes.  The array is shared with any node that
+   * replaces this one.
+   * @return the argument nodes
+   */
+  final Node[] getArguments() {
+    return arguments;
+  }
+
+  @Override
+  void replaceChild(Node child, Node replacement) {
+    for (int i = 0; i < arguments.length; i++) {
+      if (arguments[i] == child) {
+        arguments[i] = replacement;
+        return;
+      }
+    }
+    super.replaceChild(child, replacement);
+  }
+}
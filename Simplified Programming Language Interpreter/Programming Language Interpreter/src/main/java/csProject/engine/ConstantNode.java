@@ -0,0 +1,25 @@
+package csProject.engine;
+
+import csProject.core.IntValue;
+import csProject.core.Value;
+
+/**
+ * Node for an integer or boolean literal.
+ */
+class ConstantNode extends Node {
+  private final Value value;
+
+  ConstantNode(Value value) {
+    this.value = value;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return value;
+  }
+
+  @Override
+  boolean producesInt() {
+    return value instanceof IntValue;
+  }
+}
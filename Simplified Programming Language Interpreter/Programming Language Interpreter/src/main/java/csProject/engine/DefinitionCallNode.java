@@ -0,0 +1,113 @@
+package csProject.engine;
+
+import csProject.core.Value;
+import csProject.primitives.PrimitiveTable;
+import java.util.Map;
+
+/**
+ * Node for a call to a user definition, linked directly to its target.
+ * The arguments are evaluated straight into the callee's new activation
+ * frame.
+ *
+ * <p>For its first {@link #PROFILED_CALLS} executions the node also
+ * watches its arguments.  If by then some of them have had the same value
+ * on every call, the node replaces itself with a {@code GuardedCallNode}
+ * calling a copy of the target specialized to those values.</p>
+ */
+class DefinitionCallNode extends CallNode {
+  /**
+   * The number of calls watched before deciding whether to specialize.
+   */
+  static final int PROFILED_CALLS = 32;
+
+  private final SpecializingDefinition target;
+  private final Map<String, SpecializingDefinition> definitions;
+  private final PrimitiveTable primitiveTable;
+  // the value each argument has had on every call so far, or null once it
+  // has changed
+  private final Value[] constants;
+  private int calls;
+
+  /**
+   * Constructs a call node that watches its arguments.
+   * @param target the definition called
+   * @param arguments the argument nodes
+   * @param definitions the program's definitions, to compile
+   *                    specializations with
+   * @param primitiveTable the primitives available to the program
+   */
+  DefinitionCallNode(
+    SpecializingDefinition target,
+    Node[] arguments,
+    Map<String, SpecializingDefinition> definitions,
+    PrimitiveTable primitiveTable
+  ) {
+    super(arguments);
+    this.target = target;
+    this.definitions = definitions;
+    this.primitiveTable = primitiveTable;
+    this.constants = new Value[arguments.length];
+    // calls without arguments have nothing to specialize on
+    this.calls = arguments.length == 0 ? PROFILED_CALLS : 0;
+  }
+
+  /**
+   * Constructs a call node that never specializes.
+   * @param target the definition called
+   * @param arguments the argument nodes
+   */
+  DefinitionCallNode(SpecializingDefinition target, Node[] arguments) {
+    super(arguments);
+    this.target = target;
+    this.definitions = null;
+    this.primitiveTable = null;
+    this.constants = null;
+    this.calls = PROFILED_CALLS;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return target.getBody().execute(enter(frame));
+  }
+
+  @Override
+  public int executeInt(Value[] frame) {
+    return target.getBody().executeInt(enter(frame));
+  }
+
+  @Override
+  public boolean executeBoolean(Value[] frame) {
+    return target.getBody().executeBoolean(enter(frame));
+  }
+
+  private Value[] enter(Value[] frame) {
+    Node[] arguments = getArguments();
+    Value[] calleeFrame = new Value[target.getFrameSize()];
+    for (int i = 0; i < arguments.length; i++) {
+      calleeFrame[i] = arguments[i].execute(frame);
+    }
+    if (calls < PROFILED_CALLS) {
+      profile(calleeFrame);
+    }
+    return calleeFrame;
+  }
+
+  private void profile(Value[] calleeFrame) {
+    boolean anyConstant = false;
+    for (int i = 0; i < constants.length; i++) {
+      if (calls == 0) {
+        constants[i] = calleeFrame[i];
+      } else if (constants[i] != null && !constants[i].equals(calleeFrame[i])) {
+        constants[i] = null;
+      }
+      anyConstant |= constants[i] != null;
+    }
+    if (!anyConstant) {
+      calls = PROFILED_CALLS;
+    } else if (++calls == PROFILED_CALLS && isInTree()) {
+      SpecializingDefinition specialization =
+        SpecializingCompiler.specialize(target, constants, definitions, primitiveTable);
+      replace(new GuardedCallNode(target, specialization, constants, getArguments()));
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package csProject.engine;
+
+import csProject.core.Value;
+
+/**
+ * Node for a call site that has been passing constant values for some
+ * arguments, calling a copy of the target specialized to those values.
+ * A guard checks the arguments on every call: a call with other values
+ * runs the generic body instead.  If the guard fails too often, the node
+ * gives up and replaces itself with a plain {@code DefinitionCallNode}.
+ */
+class GuardedCallNode extends CallNode {
+  /**
+   * The number of failed guards after which the node gives up.
+   */
+  static final int MAX_MISSES = 32;
+
+  private final SpecializingDefinition generic;
+  private final SpecializingDefinition specialization;
+  // the value expected for each argument, or null for arguments not guarded
+  private final Value[] constants;
+  private final int frameSize;
+  private int misses;
+
+  GuardedCallNode(
+    SpecializingDefinition generic,
+    SpecializingDefinition specialization,
+    Value[] constants,
+    Node[] arguments
+  ) {
+    super(arguments);
+    this.generic = generic;
+    this.specialization = specialization;
+    this.constants = constants.clone();
+    this.frameSize = Math.max(generic.getFrameSize(), specialization.getFrameSize());
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    Value[] calleeFrame = enter(frame);
+    return select(calleeFrame).getBody().execute(calleeFrame);
+  }
+
+  @Override
+  public int executeInt(Value[] frame) {
+    Value[] calleeFrame = enter(frame);
+    return select(calleeFrame).getBody().executeInt(calleeFrame);
+  }
+
+  @Override
+  public boolean executeBoolean(Value[] frame) {
+    Value[] calleeFrame = enter(frame);
+    return select(calleeFrame).getBody().executeBoolean(calleeFrame);
+  }
+
+  private Value[] enter(Value[] frame) {
+    Node[] arguments = getArguments();
+    Value[] calleeFrame = new Value[frameSize];
+    for (int i = 0; i < arguments.length; i++) {
+      calleeFrame[i] = arguments[i].execute(frame);
+    }
+    return calleeFrame;
+  }
+
+  private SpecializingDefinition select(Value[] calleeFrame) {
+    for (int i = 0; i < constants.length; i++) {
+      if (constants[i] != null && !constants[i].equals(calleeFrame[i])) {
+        if (++misses == MAX_MISSES && isInTree()) {
+          replace(new DefinitionCallNode(generic, getArguments()));
+        }
+        return generic;
+      }
+    }
+    return specialization;
+  }
+}
@@ -0,0 +1,45 @@
+package csProject.engine;
+
+import csProject.core.Value;
+
+/**
+ * Node for an <code>if</code> expression.  The condition is executed
+ * without boxing.
+ */
+class IfNode extends Node {
+  private Node condition;
+  private Node consequent;
+  private Node alternative;
+
+  IfNode(Node condition, Node consequent, Node alternative) {
+    this.condition = adopt(condition);
+    this.consequent = adopt(consequent);
+    this.alternative = adopt(alternative);
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return condition.executeBoolean(frame) ? consequent.execute(frame) : alternative.execute(frame);
+  }
+
+  @Override
+  public int executeInt(Value[] frame) {
+    return condition.executeBoolean(frame) ? consequent.executeInt(frame) : alternative.executeInt(frame);
+  }
+
+  @Override
+  public boolean executeBoolean(Value[] frame) {
+    return condition.executeBoolean(frame) ? consequent.executeBoolean(frame) : alternative.executeBoolean(frame);
+  }
+
+  @Override
+  void replaceChild(Node child, Node replacement) {
+    if (child == condition) {
+      condition = replacement;
+    } else if (child == consequent) {
+      consequent = replacement;
+    } else {
+      alternative = replacement;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package csProject.engine;
+
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.core.Value;
+import csProject.primitives.ArithmeticOperator;
+
+/**
+ * Node for a call to an arithmetic primitive, specialized to int operands:
+ * when the left operand always produces an int, the operands are executed
+ * unboxed and the operator applied to the raw ints.  If an operand turns
+ * out not to be an int, the node de-specializes to a generic
+ * {@code PrimitiveCallNode} before reporting the error.
+ */
+class IntArithmeticNode extends CallNode {
+  private final ArithmeticOperator operator;
+
+  IntArithmeticNode(ArithmeticOperator operator, Node[] arguments) {
+    super(arguments);
+    this.operator = operator;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return IntValue.of(executeInt(frame));
+  }
+
+  @Override
+  public int executeInt(Value[] frame) {
+    Node[] arguments = getArguments();
+    try {
+      if (arguments[0].producesInt()) {
+        // only the right operand is checked, after it has been evaluated
+        int left = arguments[0].executeInt(frame);
+        return operator.applyInt(left, arguments[1].executeInt(frame));
+      }
+      Value left = arguments[0].execute(frame);
+      return operator.applyInt(left, arguments[1].execute(frame));
+    } catch (TypeError e) {
+      if (isInTree()) {
+        replace(new PrimitiveCallNode(operator, arguments));
+      }
+      throw e;
+    }
+  }
+
+  @Override
+  boolean producesInt() {
+    return true;
+  }
+}
@@ -0,0 +1,44 @@
+package csProject.engine;
+
+import csProject.core.BooleanValue;
+import csProject.core.TypeError;
+import csProject.core.Value;
+import csProject.primitives.RelationalOperator;
+
+/**
+ * Node for a call to a relational primitive, specialized to int operands.
+ * Like {@code IntArithmeticNode}, it de-specializes to a generic
+ * {@code PrimitiveCallNode} if an operand turns out not to be an int.
+ */
+class IntComparisonNode extends CallNode {
+  private final RelationalOperator operator;
+
+  IntComparisonNode(RelationalOperator operator, Node[] arguments) {
+    super(arguments);
+    this.operator = operator;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return BooleanValue.valueOf(executeBoolean(frame));
+  }
+
+  @Override
+  public boolean executeBoolean(Value[] frame) {
+    Node[] arguments = getArguments();
+    try {
+      if (arguments[0].producesInt()) {
+        // only the right operand is checked, after it has been evaluated
+        int left = arguments[0].executeInt(frame);
+        return operator.compare(left, arguments[1].executeInt(frame));
+      }
+      Value left = arguments[0].execute(frame);
+      return operator.compare(left, arguments[1].execute(frame));
+    } catch (TypeError e) {
+      if (isInTree()) {
+        replace(new PrimitiveCallNode(operator, arguments));
+      }
+      throw e;
+    }
+  }
+}
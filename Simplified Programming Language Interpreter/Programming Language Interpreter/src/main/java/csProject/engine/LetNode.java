@@ -0,0 +1,46 @@
+package csProject.engine;
+
+import csProject.core.Value;
+
+/**
+ * Node for a <code>let</code> expression, which stores its right-hand side
+ * in a frame slot reserved for it at compile time.
+ */
+class LetNode extends Node {
+  private final int slot;
+  private Node rhs;
+  private Node body;
+
+  LetNode(int slot, Node rhs, Node body) {
+    this.slot = slot;
+    this.rhs = adopt(rhs);
+    this.body = adopt(body);
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    frame[slot] = rhs.execute(frame);
+    return body.execute(frame);
+  }
+
+  @Override
+  public int executeInt(Value[] frame) {
+    frame[slot] = rhs.execute(frame);
+    return body.executeInt(frame);
+  }
+
+  @Override
+  public boolean executeBoolean(Value[] frame) {
+    frame[slot] = rhs.execute(frame);
+    return body.executeBoolean(frame);
+  }
+
+  @Override
+  void replaceChild(Node child, Node replacement) {
+    if (child == rhs) {
+      rhs = replacement;
+    } else {
+      body = replacement;
+    }
+  }
+}
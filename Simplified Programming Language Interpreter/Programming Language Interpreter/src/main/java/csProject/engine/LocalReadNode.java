@@ -0,0 +1,20 @@
+package csProject.engine;
+
+import csProject.core.Value;
+
+/**
+ * Node for a read of a parameter or <code>let</code> variable from its
+ * frame slot.
+ */
+class LocalReadNode extends Node {
+  private final int slot;
+
+  LocalReadNode(int slot) {
+    this.slot = slot;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return frame[slot];
+  }
+}
@@ -0,0 +1,99 @@
+package csProject.engine;
+
+import csProject.core.TypeError;
+import csProject.core.Value;
+
+/**
+ * Base class of the self-specializing node tree built by the
+ * {@code SpecializingCompiler}.  A node may replace itself in its parent
+ * with a more specialized node once it has seen what it actually executes,
+ * so that later executions take the fast path directly.
+ *
+ * <p>Nodes that produce an int or a boolean can be executed through
+ * {@link #executeInt} or {@link #executeBoolean} without boxing the
+ * result.</p>
+ */
+public abstract class Node {
+  private Node parent;
+
+  /**
+   * Executes this node.
+   * @param frame the activation frame holding the values of the parameters
+   *              and <code>let</code> variables that are in scope
+   * @return the value of the node
+   */
+  public abstract Value execute(Value[] frame);
+
+  /**
+   * Executes this node, whose value must be an integer.
+   * @param frame the activation frame
+   * @return the integer value of the node
+   * @throws TypeError if the value is not an integer
+   */
+  public int executeInt(Value[] frame) {
+    return execute(frame).asInteger();
+  }
+
+  /**
+   * Executes this node, whose value must be a boolean.
+   * @param frame the activation frame
+   * @return the boolean value of the node
+   * @throws TypeError if the value is not a boolean
+   */
+  public boolean executeBoolean(Value[] frame) {
+    return execute(frame).asBoolean();
+  }
+
+  /**
+   * Tells whether this node always produces an integer, so that it can be
+   * executed through {@link #executeInt} before a later operand without
+   * changing which error a call raises.
+   * @return true if the value of this node is always an integer
+   */
+  boolean producesInt() {
+    return false;
+  }
+
+  /**
+   * Makes this node the parent of a child node.
+   * @param child the child
+   * @param <T> the type of the child
+   * @return the child
+   */
+  final <T extends Node> T adopt(T child) {
+    ((Node) child).parent = this;
+    return child;
+  }
+
+  /**
+   * Tells whether this node is still part of the tree.  A node that is
+   * executing in an outer activation may have been replaced meanwhile by a
+   * recursive activation of the same code.
+   * @return true unless this node has been replaced
+   */
+  final boolean isInTree() {
+    return parent != null;
+  }
+
+  /**
+   * Replaces this node in its parent.  The node must still be in the tree.
+   * @param replacement the node to take this node's place
+   * @param <T> the type of the replacement
+   * @return the replacement
+   */
+  final <T extends Node> T replace(T replacement) {
+    parent.replaceChild(this, parent.adopt(replacement));
+    parent = null;
+    return replacement;
+  }
+
+  /**
+   * Replaces one of this node's children.  Nodes without children never
+   * have this called.
+   * @param child the current child
+   * @param replacement the node to take its place
+   */
+  void replaceChild(Node child, Node replacement) {
+    throw new IllegalStateException("not a child: " + child);
+  }
+}
@@ -0,0 +1,36 @@
+package csProject.engine;
+
+import csProject.core.BooleanValue;
+import csProject.core.Value;
+
+/**
+ * Node for a short-circuiting <code>or</code> expression.
+ */
+class OrNode extends Node {
+  private Node left;
+  private Node right;
+
+  OrNode(Node left, Node right) {
+    this.left = adopt(left);
+    this.right = adopt(right);
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return BooleanValue.valueOf(executeBoolean(frame));
+  }
+
+  @Override
+  public boolean executeBoolean(Value[] frame) {
+    return left.executeBoolean(frame) || right.executeBoolean(frame);
+  }
+
+  @Override
+  void replaceChild(Node child, Node replacement) {
+    if (child == left) {
+      left = replacement;
+    } else {
+      right = replacement;
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package csProject.engine;
+
+import csProject.core.Value;
+import csProject.primitives.Primitive;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Node for a call to a primitive through its generic, boxed interface.
+ * This is the state that int-int specialized nodes fall back to.
+ */
+class PrimitiveCallNode extends CallNode {
+  private final Primitive primitive;
+
+  PrimitiveCallNode(Primitive primitive, Node[] arguments) {
+    super(arguments);
+    this.primitive = primitive;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    Node[] arguments = getArguments();
+    if (arguments.length == 1) {
+      return primitive.apply1(arguments[0].execute(frame));
+    }
+    if (arguments.length == 2) {
+      Value left = arguments[0].execute(frame);
+      return primitive.apply2(left, arguments[1].execute(frame));
+    }
+    List<Value> values = new ArrayList<>(arguments.length);
+    for (Node argument : arguments) {
+      values.add(argument.execute(frame));
+    }
+    return primitive.apply(values);
+  }
+}
@@ -0,0 +1,35 @@
+package csProject.engine;
+
+import csProject.core.Value;
+
+/**
+ * The root of a definition body or program expression, so that the
+ * topmost node of the tree has a parent to be replaced in too.
+ */
+class RootNode extends Node {
+  private Node body;
+
+  RootNode(Node body) {
+    this.body = adopt(body);
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return body.execute(frame);
+  }
+
+  @Override
+  public int executeInt(Value[] frame) {
+    return body.executeInt(frame);
+  }
+
+  @Override
+  public boolean executeBoolean(Value[] frame) {
+    return body.executeBoolean(frame);
+  }
+
+  @Override
+  void replaceChild(Node child, Node replacement) {
+    body = replacement;
+  }
+}
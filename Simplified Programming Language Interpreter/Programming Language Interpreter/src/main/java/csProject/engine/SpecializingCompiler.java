@@ -0,0 +1,221 @@
+package csProject.engine;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.core.BooleanValue;
+import csProject.core.Value;
+import csProject.optimizer.ConstantFolder;
+import csProject.primitives.PrimitiveTable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compiles a {@code Program} into trees of self-specializing {@code Node}s.
+ * Variables are resolved to activation-frame slots at compile time; every
+ * function call starts out uninitialized and is linked to its callee the
+ * first time it is executed.  One compiler instance is used per definition
+ * body.
+ *
+ * <p>Definitions called with the same constant arguments over and over are
+ * recompiled at run time into copies specialized to those constants; see
+ * {@link #specialize}.</p>
+ */
+public class SpecializingCompiler implements ExpressionVisitor<Node> {
+  private final Map<String, SpecializingDefinition> definitions;
+  private final PrimitiveTable primitiveTable;
+  private final List<String> scope;
+  private int frameSize;
+
+  private SpecializingCompiler(
+    Map<String, SpecializingDefinition> definitions,
+    PrimitiveTable primitiveTable,
+    List<String> parameters
+  ) {
+    this.definitions = definitions;
+    this.primitiveTable = primitiveTable;
+    this.scope = new ArrayList<>(parameters);
+    this.frameSize = parameters.size();
+  }
+
+  /**
+   * Compiles a program, using the default primitive table.
+   * @param program the program to compile
+   * @return the compiled program
+   */
+  public static SpecializingProgram compile(Program program) {
+    return compile(program, new PrimitiveTable());
+  }
+
+  /**
+   * Compiles a program.
+   * @param program        the program to compile
+   * @param primitiveTable the primitives available to the program
+   * @return the compiled program
+   */
+  public static SpecializingProgram compile(
+    Program program,
+    PrimitiveTable primitiveTable
+  ) {
+    Objects.requireNonNull(program);
+    Objects.requireNonNull(primitiveTable);
+
+    Map<String, SpecializingDefinition> definitions = new HashMap<>();
+    for (Definition d : program.getDefinitions()) {
+      definitions.put(
+        d.getName(),
+        new SpecializingDefinition(d.getName(), d.getArguments().size())
+      );
+    }
+    for (Definition d : program.getDefinitions()) {
+      SpecializingCompiler compiler =
+        new SpecializingCompiler(definitions, primitiveTable, d.getArguments());
+      Node body = d.getBody().accept(compiler);
+      // later definitions with the same name win, as in the Environment
+      definitions.get(d.getName()).setBody(body, compiler.frameSize, d);
+    }
+
+    SpecializingCompiler compiler =
+      new SpecializingCompiler(definitions, primitiveTable, List.of());
+    Node expression = program.getExpression().accept(compiler);
+    return new SpecializingProgram(definitions, expression, compiler.frameSize);
+  }
+
+  /**
+   * Gets a copy of a definition specialized to constant values of some of
+   * its parameters, compiling it if no call site has asked for it before.
+   * The constants are substituted for the parameters and folded, so that,
+   * say, tests of a constant mode flag disappear.  The copy still takes all
+   * the arguments, in the same frame slots.
+   * @param generic the definition
+   * @param constants the value of each parameter, or null for parameters
+   *                  that are not constant
+   * @param definitions the program's definitions, by name
+   * @param primitiveTable the primitives available to the program
+   * @return the specialized definition
+   */
+  static SpecializingDefinition specialize(
+    SpecializingDefinition generic,
+    Value[] constants,
+    Map<String, SpecializingDefinition> definitions,
+    PrimitiveTable primitiveTable
+  ) {
+    List<Value> key = Arrays.asList(constants.clone());
+    SpecializingDefinition specialization = generic.getSpecialization(key);
+    if (specialization != null) {
+      return specialization;
+    }
+
+    Definition source = generic.getSource();
+    List<String> parameters = source.getArguments();
+    Expression body = source.getBody();
+    for (int i = parameters.size() - 1; i >= 0; i--) {
+      if (constants[i] != null) {
+        body = new LetExpression(parameters.get(i), literalOf(constants[i]), body);
+      }
+    }
+    body = ConstantFolder.fold(body);
+
+    SpecializingCompiler compiler =
+      new SpecializingCompiler(definitions, primitiveTable, parameters);
+    Node node = body.accept(compiler);
+    specialization = new SpecializingDefinition(generic.getName(), generic.getArity());
+    specialization.setBody(
+      node,
+      compiler.frameSize,
+      new Definition(source.getName(), parameters, body)
+    );
+    generic.addSpecialization(key, specialization);
+    return specialization;
+  }
+
+  private static Expression literalOf(Value value) {
+    if (value instanceof BooleanValue) {
+      return new BooleanLiteral(value.asBoolean());
+    }
+    return new IntLiteral(value.asInteger());
+  }
+
+  @Override
+  public Node visit(AndExpression andExpression) {
+    return new AndNode(
+      andExpression.getLeftOperand().accept(this),
+      andExpression.getRightOperand().accept(this)
+    );
+  }
+
+  @Override
+  public Node visit(BooleanLiteral booleanLiteral) {
+    return new ConstantNode(booleanLiteral.getLiteralValue());
+  }
+
+  @Override
+  public Node visit(FunctionCall functionCall) {
+    List<Expression> argExprs = functionCall.getArguments();
+    Node[] arguments = new Node[argExprs.size()];
+    for (int i = 0; i < arguments.length; i++) {
+      arguments[i] = argExprs.get(i).accept(this);
+    }
+    return new UninitializedCallNode(
+      functionCall.getFunctionName(),
+      arguments,
+      definitions,
+      primitiveTable
+    );
+  }
+
+  @Override
+  public Node visit(IfExpression ifExpression) {
+    return new IfNode(
+      ifExpression.getCondition().accept(this),
+      ifExpression.getConsequent().accept(this),
+      ifExpression.getAlternative().accept(this)
+    );
+  }
+
+  @Override
+  public Node visit(IntLiteral intLiteral) {
+    return new ConstantNode(intLiteral.getLiteralValue());
+  }
+
+  @Override
+  public Node visit(LetExpression letExpression) {
+    Node rhs = letExpression.getRhs().accept(this);
+    int slot = scope.size();
+    scope.add(letExpression.getVarName());
+    frameSize = Math.max(frameSize, scope.size());
+    Node body = letExpression.getBody().accept(this);
+    scope.remove(slot);
+    return new LetNode(slot, rhs, body);
+  }
+
+  @Override
+  public Node visit(OrExpression orExpression) {
+    return new OrNode(
+      orExpression.getLeft().accept(this),
+      orExpression.getRight().accept(this)
+    );
+  }
+
+  @Override
+  public Node visit(VariableReference reference) {
+    int slot = scope.lastIndexOf(reference.getVariableName());
+    if (slot < 0) {
+      return new UnboundVariableNode(reference.getVariableName());
+    }
+    return new LocalReadNode(slot);
+  }
+}
@@ -0,0 +1,98 @@
+package csProject.engine;
+
+import csProject.ast.Definition;
+import csProject.core.Value;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A user definition compiled to a self-specializing node tree.  The body is
+ * filled in after all definitions of the program have been created, so that
+ * call sites can be linked to any of them.
+ *
+ * <p>A definition also keeps the copies of itself specialized to constant
+ * values of some of its parameters, so that call sites passing the same
+ * constants share them.</p>
+ */
+public class SpecializingDefinition {
+  private final String name;
+  private final int arity;
+  private int frameSize;
+  private Node body;
+  private Definition source;
+  // keyed by the constant value of each parameter, or null for parameters
+  // that are not constant
+  private final Map<List<Value>, SpecializingDefinition> specializations = new HashMap<>();
+
+  /**
+   * Constructs a definition whose body is not yet known.
+   * @param name  the name of the definition
+   * @param arity the number of parameters
+   */
+  SpecializingDefinition(String name, int arity) {
+    this.name = name;
+    this.arity = arity;
+    this.frameSize = arity;
+  }
+
+  /**
+   * Gets the name of the definition.
+   * @return the name of the definition
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the number of parameters of the definition.
+   * @return the number of parameters
+   */
+  public int getArity() {
+    return arity;
+  }
+
+  /**
+   * Gets the number of frame slots needed by a call: one per parameter plus
+   * one per nested <code>let</code> in the body.
+   * @return the activation frame size
+   */
+  public int getFrameSize() {
+    return frameSize;
+  }
+
+  /**
+   * Gets the body, in whatever state of specialization it has reached.
+   * @return the root node of the body
+   */
+  public Node getBody() {
+    return body;
+  }
+
+  /**
+   * Gets the number of copies of this definition specialized to constant
+   * arguments so far.
+   * @return the number of specializations
+   */
+  public int getSpecializationCount() {
+    return specializations.size();
+  }
+
+  Definition getSource() {
+    return source;
+  }
+
+  void setBody(Node body, int frameSize, Definition source) {
+    this.body = new RootNode(body);
+    this.frameSize = frameSize;
+    this.source = source;
+  }
+
+  SpecializingDefinition getSpecialization(List<Value> constants) {
+    return specializations.get(constants);
+  }
+
+  void addSpecialization(List<Value> constants, SpecializingDefinition specialization) {
+    specializations.put(constants, specialization);
+  }
+}
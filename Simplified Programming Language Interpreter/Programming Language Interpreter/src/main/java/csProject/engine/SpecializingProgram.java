@@ -0,0 +1,49 @@
+package csProject.engine;
+
+import csProject.core.Value;
+import java.util.Map;
+
+/**
+ * A whole program compiled to self-specializing node trees.  Running the
+ * program rewrites its nodes as they are executed, so a program must not
+ * be run by several threads at once; running it again reuses the
+ * specializations made by earlier runs.
+ */
+public class SpecializingProgram {
+  private final Map<String, SpecializingDefinition> definitions;
+  private final Node expression;
+  private final int frameSize;
+
+  /**
+   * Constructs a program.
+   * @param definitions the definitions, by name
+   * @param expression  the program expression
+   * @param frameSize   the number of frame slots the expression needs
+   */
+  SpecializingProgram(
+    Map<String, SpecializingDefinition> definitions,
+    Node expression,
+    int frameSize
+  ) {
+    this.definitions = Map.copyOf(definitions);
+    this.expression = new RootNode(expression);
+    this.frameSize = frameSize;
+  }
+
+  /**
+   * Looks up a definition by name.
+   * @param name name of the definition
+   * @return the definition, or null if not defined
+   */
+  public SpecializingDefinition lookup(String name) {
+    return definitions.get(name);
+  }
+
+  /**
+   * Runs the program.
+   * @return the value of the program's expression
+   */
+  public Value run() {
+    return expression.execute(new Value[frameSize]);
+  }
+}
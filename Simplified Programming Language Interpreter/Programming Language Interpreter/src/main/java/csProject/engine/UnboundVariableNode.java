@@ -0,0 +1,21 @@
+package csProject.engine;
+
+import csProject.core.Value;
+import csProject.evalExceptions.UndefinedVariableException;
+
+/**
+ * Node for a reference to a variable that is not in scope.  The error is
+ * only raised if the reference is reached.
+ */
+class UnboundVariableNode extends Node {
+  private final String name;
+
+  UnboundVariableNode(String name) {
+    this.name = name;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    throw new UndefinedVariableException(name);
+  }
+}
@@ -0,0 +1,80 @@
+package csProject.engine;
+
+import csProject.core.Value;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.primitives.ArithmeticOperator;
+import csProject.primitives.Primitive;
+import csProject.primitives.PrimitiveTable;
+import csProject.primitives.RelationalOperator;
+import java.util.Map;
+
+/**
+ * Node for a call that has not been executed yet.  On its first execution
+ * it looks the callee up, once, and replaces itself with a node linked
+ * directly to the primitive or definition: an int-int node for arithmetic
+ * and comparisons, a generic node for other primitives, or a definition
+ * call node.
+ *
+ * <p>A call of an undefined function, or with the wrong number of
+ * arguments, stays uninitialized; as in the tree-walking evaluator, its
+ * arguments are evaluated and then the error is raised.</p>
+ */
+class UninitializedCallNode extends CallNode {
+  private final String name;
+  private final Map<String, SpecializingDefinition> definitions;
+  private final PrimitiveTable primitiveTable;
+
+  UninitializedCallNode(
+    String name,
+    Node[] arguments,
+    Map<String, SpecializingDefinition> definitions,
+    PrimitiveTable primitiveTable
+  ) {
+    super(arguments);
+    this.name = name;
+    this.definitions = definitions;
+    this.primitiveTable = primitiveTable;
+  }
+
+  @Override
+  public Value execute(Value[] frame) {
+    return specialize(frame).execute(frame);
+  }
+
+  @Override
+  public int executeInt(Value[] frame) {
+    return specialize(frame).executeInt(frame);
+  }
+
+  @Override
+  public boolean executeBoolean(Value[] frame) {
+    return specialize(frame).executeBoolean(frame);
+  }
+
+  private Node specialize(Value[] frame) {
+    Node[] arguments = getArguments();
+    Primitive primitive = primitiveTable.lookup(name);
+    if (primitive != null) {
+      if (arguments.length == 2 && primitive instanceof ArithmeticOperator operator) {
+        return replace(new IntArithmeticNode(operator, arguments));
+      }
+      if (arguments.length == 2 && primitive instanceof RelationalOperator operator) {
+        return replace(new IntComparisonNode(operator, arguments));
+      }
+      return replace(new PrimitiveCallNode(primitive, arguments));
+    }
+
+    SpecializingDefinition target = definitions.get(name);
+    if (target != null && target.getArity() == arguments.length) {
+      return replace(new DefinitionCallNode(target, arguments, definitions, primitiveTable));
+    }
+    for (Node argument : arguments) {
+      argument.execute(frame);
+    }
+    if (target == null) {
+      throw new UndefinedFunctionException(name);
+    }
+    throw new ArityMismatchException(name, target.getArity(), arguments.length);
+  }
+}
@@ -1,12 +1,11 @@
 package csProject.evaluator;
 
-import csProject.ast.Definition;
 import csProject.ast.Program;
-import csProject.core.Environment;
 import csProject.core.Value;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
 import csProject.parser.Parser;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
 /**
  * The {@code Driver} class encapsulates methods for evaluating programs from source text
  * and directly from program structures. It orchestrates the parsing, setting up the execution
@@ -14,34 +13,118 @@ import java.util.List;
  * semantics of the language.
  */
 public class Driver {
+  private final ExecutionMode mode;
+  private final Memoizer memoizer;
+  private final Tabulator tabulator;
+  private final ProgramCache programCache;
+
+  /**
+   * Constructs a driver that evaluates programs by walking the AST.
+   */
+  public Driver() {
+    this(ExecutionMode.TREE_WALKING);
+  }
+
+  /**
+   * Constructs a driver that runs programs with the given execution engine.
+   *
+   * @param mode the execution engine to use
+   */
+  public Driver(ExecutionMode mode) {
+    this(mode, null);
+  }
+
+  /**
+   * Constructs a driver that runs programs with the given execution engine,
+   * memoizing definition calls whenever programs are walked by the
+   * tree-walking evaluator.  The compiling engines do not memoize.
+   *
+   * @param mode the execution engine to use
+   * @param memoizer the memoizer holding the caches, or null for no memoization
+   */
+  public Driver(ExecutionMode mode, Memoizer memoizer) {
+    this(mode, memoizer, null);
+  }
+
+  /**
+   * Constructs a driver that runs programs with the given execution engine,
+   * memoizing and tabulating definition calls whenever programs are walked by
+   * the tree-walking evaluator.  The compiling engines do neither.
+   *
+   * @param mode the execution engine to use
+   * @param memoizer the memoizer holding the caches, or null for no memoization
+   * @param tabulator the tabulator holding the tables, or null for no tabulation
+   */
+  public Driver(ExecutionMode mode, Memoizer memoizer, Tabulator tabulator) {
+    this(mode, memoizer, tabulator, null);
+  }
+
+  /**
+   * Constructs a driver that runs programs with the given execution engine,
+   * memoizing and tabulating definition calls whenever programs are walked by
+   * the tree-walking evaluator, and taking the programs it evaluates from
+   * source out of a cache, so that each source is parsed, linked and prepared for
+   * the execution engine only once.
+   *
+   * @param mode the execution engine to use
+   * @param memoizer the memoizer holding the caches, or null for no memoization
+   * @param tabulator the tabulator holding the tables, or null for no tabulation
+   * @param programCache the cache of prepared programs, or null for no caching
+   */
+  public Driver(
+    ExecutionMode mode,
+    Memoizer memoizer,
+    Tabulator tabulator,
+    ProgramCache programCache
+  ) {
+    this.mode = Objects.requireNonNull(mode);
+    this.memoizer = memoizer;
+    this.tabulator = tabulator;
+    this.programCache = programCache;
+  }
+
+  /**
+   * Returns the execution engine this driver uses.
+   *
+   * @return the execution mode
+   */
+  public ExecutionMode getMode() {
+    return mode;
+  }
+
   /**
    * Evaluates a program from its source text representation.
    * This method parses the provided source text into a program structure and then evaluates it.
+   * If the driver has a program cache, the program is taken from the cache instead,
+   * already prepared for this driver's execution mode.
    *
    * @param sourceText the source text of the program to be evaluated
    * @return the value resulting from evaluating the parsed program
    */
   public Value evaluateFromSource(String sourceText) {
+    if (programCache != null) {
+      return programCache.get(sourceText, mode).run(memoizer, tabulator);
+    }
     return evaluateProgram(Parser.parseProgram("input", sourceText));
   }
   /**
    * Evaluates a parsed program.
-   * This method sets up the necessary environments for definitions and execution, and then
-   * evaluates the program's main expression in this context.
+   * This method first links the program, so that calls of undefined functions and
+   * calls with the wrong number of arguments are rejected before anything is
+   * evaluated, and then evaluates the program's main expression with this driver's
+   * execution engine.
    *
    * @param program the parsed program to be evaluated, consisting of definitions and an expression
    * @return the value resulting from the evaluation of the program's expression
+   * @throws UndefinedFunctionException if the program calls an undefined function
+   * @throws ArityMismatchException if the program calls a function with the wrong
+   *   number of arguments
    */
   public Value evaluateProgram(Program program) {
-    List<Definition> definitionList = program.getDefinitions();
-    List<String> definitionNames = new ArrayList<>(definitionList.size());
-    for (Definition d: definitionList) {
-      definitionNames.add(d.getName());
-    }
-    Environment<Definition> definitions =
-      new Environment<>(definitionNames, definitionList);
-    return program.getExpression().accept(
-      new Evaluator(definitions, new Environment<>())
-    );
+    return run(Linker.link(program));
+  }
+
+  private Value run(Program linked) {
+    return PreparedProgram.prepare(linked, mode).run(memoizer, tabulator);
   }
 }
@@ -10,16 +10,21 @@ import csProject.ast.IfExpression;
 import csProject.ast.IntLiteral;
 import csProject.ast.LetExpression;
 import csProject.ast.OrExpression;
+import csProject.ast.Program;
 import csProject.ast.VariableReference;
 import csProject.core.BooleanValue;
 import csProject.core.Environment;
 import csProject.core.IntValue;
+import csProject.core.TypeError;
 import csProject4.core.Value;
 import csProject.evalExceptions.ArityMismatchException;
 import csProject.evalExceptions.UndefinedFunctionException;
 import csProject.evalExceptions.UndefinedVariableException;
+import csProject.primitives.ArithmeticOperator;
+import csProject.primitives.NotOperator;
 import csProject.primitives.Primitive;
 import csProject.primitives.PrimitiveTable;
+import csProject.primitives.RelationalOperator;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -28,11 +33,22 @@ import java.util.stream.Collectors;
  * An evaluator for expressions in a custom programming language.
  * This class implements the `ExpressionVisitor` interface to evaluate
  * various expression types and return a `Value`.
+ *
+ * <p>One evaluator instance evaluates a whole expression, including all the
+ * calls it makes: a call switches the evaluator to the callee's activation
+ * frame and variables, and switches back when the call returns.  An
+ * evaluator must therefore not be shared between threads.</p>
  */
 public class Evaluator implements ExpressionVisitor<Value> {
   private final Environment<Definition> definitions;
-  private final Environment<Value> variables;
+  private Environment<Value> variables;
   private final PrimitiveTable primitiveTable;
+  private Value[] frame;
+  private final Definition[] linkedDefinitions;
+  private final Memoizer memoizer;
+  private final MemoCache[] memoCaches;
+  private final Tabulator tabulator;
+  private final Tabulation[] tabulations;
 
   /**
    * Constructs an `Evaluator` with the given environments for definitions and variables,
@@ -43,9 +59,110 @@ public class Evaluator implements ExpressionVisitor<Value> {
    * @param primitiveTable The table of primitive operations and functions.
    */
   public Evaluator(Environment<Definition> definitions, Environment<Value> variables, PrimitiveTable primitiveTable) {
+    this(definitions, variables, primitiveTable, null);
+  }
+
+  /**
+   * Constructs an `Evaluator` for expressions that have been through the `Resolver`.
+   * Resolved variable references and `let`s use the slots of the activation frame;
+   * unresolved ones use the variable environment.
+   *
+   * @param definitions The environment containing function definitions.
+   * @param variables The environment containing variable bindings.
+   * @param primitiveTable The table of primitive operations and functions.
+   * @param frame The activation frame, or null to look all variables up by name.
+   */
+  public Evaluator(
+    Environment<Definition> definitions,
+    Environment<Value> variables,
+    PrimitiveTable primitiveTable,
+    Value[] frame
+  ) {
+    this(definitions, variables, primitiveTable, frame, null, null, null);
+  }
+
+  private Evaluator(
+    Environment<Definition> definitions,
+    Environment<Value> variables,
+    PrimitiveTable primitiveTable,
+    Value[] frame,
+    Definition[] linkedDefinitions,
+    Memoizer memoizer,
+    Tabulator tabulator
+  ) {
     this.definitions = Objects.requireNonNull(definitions);
     this.variables = Objects.requireNonNull(variables);
     this.primitiveTable = Objects.requireNonNull(primitiveTable);
+    this.frame = frame;
+    this.linkedDefinitions = linkedDefinitions;
+    this.memoizer = memoizer;
+    if (memoizer != null && linkedDefinitions != null) {
+      memoCaches = memoizer.cachesFor(List.of(linkedDefinitions));
+    } else {
+      memoCaches = null;
+    }
+    this.tabulator = tabulator;
+    if (tabulator != null && linkedDefinitions != null) {
+      tabulations = tabulator.tabulationsFor(List.of(linkedDefinitions));
+    } else {
+      tabulations = null;
+    }
+  }
+
+  /**
+   * Constructs an `Evaluator` for the expression of a program that has been
+   * through the `Resolver` and the `Linker`.  Linked calls go straight to
+   * their primitive or definition, with no lookup and no arity check.
+   *
+   * @param program The resolved and linked program.
+   */
+  public Evaluator(Program program) {
+    this(program, null);
+  }
+
+  /**
+   * Constructs an `Evaluator` for the expression of a program that has been
+   * through the `Resolver` and the `Linker`, which caches the results of calls
+   * to the definitions the `Memoizer` selects.
+   *
+   * @param program The resolved and linked program.
+   * @param memoizer The memoizer holding the caches, or null for no memoization.
+   */
+  public Evaluator(Program program, Memoizer memoizer) {
+    this(program, memoizer, null);
+  }
+
+  /**
+   * Constructs an `Evaluator` for the expression of a program that has been
+   * through the `Resolver` and the `Linker`, which caches the results of calls
+   * to the definitions the `Memoizer` selects, and answers calls to the
+   * definitions the `Tabulator` selects from their tables.
+   * Programs whose definitions refer to their callers' variables are neither
+   * memoized nor tabulated, since their calls' results depend on more than
+   * their arguments.
+   *
+   * @param program The resolved and linked program.
+   * @param memoizer The memoizer holding the caches, or null for no memoization.
+   * @param tabulator The tabulator holding the tables, or null for no tabulation.
+   */
+  public Evaluator(Program program, Memoizer memoizer, Tabulator tabulator) {
+    this(
+      definitionEnvironment(program.getDefinitions()),
+      new Environment<>(),
+      new PrimitiveTable(),
+      new Value[Math.max(program.getFrameSize(), 0)],
+      program.getDefinitions().toArray(new Definition[0]),
+      program.refersToCallerVariables() ? null : memoizer,
+      program.refersToCallerVariables() ? null : tabulator
+    );
+  }
+
+  private static Environment<Definition> definitionEnvironment(List<Definition> definitionList) {
+    List<String> definitionNames = new ArrayList<>(definitionList.size());
+    for (Definition d : definitionList) {
+      definitionNames.add(d.getName());
+    }
+    return new Environment<>(definitionNames, definitionList);
   }
   /**
    * Constructs an `Evaluator` with given environments for definitions and variables,
@@ -66,7 +183,15 @@ public class Evaluator implements ExpressionVisitor<Value> {
    * @return A new `Evaluator` with the specified variable binding.
    */
   public Evaluator withVariableBinding(String variableName, Value variableValue) {
-    return new Evaluator(definitions, variables.extend(variableName, variableValue), primitiveTable);
+    return new Evaluator(
+      definitions,
+      variables.extend(variableName, variableValue),
+      primitiveTable,
+      frame,
+      linkedDefinitions,
+      memoizer,
+      tabulator
+    );
   }
 
   /**
@@ -77,12 +202,7 @@ public class Evaluator implements ExpressionVisitor<Value> {
    */
   @Override
   public Value visit(AndExpression andExpression) {
-    Value leftValue = andExpression.getLeftOperand().accept(this);
-    if (!leftValue.asBoolean()) {
-      return new BooleanValue(false);
-    }
-    Value rightValue = andExpression.getRightOperand().accept(this);
-    return new BooleanValue(leftValue.asBoolean() && rightValue.asBoolean());
+    return BooleanValue.valueOf(evalBoolean(andExpression));
   }
   /**
    * Visits and evaluates a `BooleanLiteral`.
@@ -92,7 +212,7 @@ public class Evaluator implements ExpressionVisitor<Value> {
    */
   @Override
   public Value visit(BooleanLiteral booleanLiteral) {
-    return new BooleanValue(booleanLiteral.isValue());
+    return booleanLiteral.getLiteralValue();
   }
   /**
    * Visits and evaluates a `FunctionCall`.
@@ -104,33 +224,399 @@ public class Evaluator implements ExpressionVisitor<Value> {
    */
   @Override
   public Value visit(FunctionCall functionCall) {
+    Primitive primitive = primitiveFor(functionCall);
+    if (primitive != null) {
+      List<Expression> arguments = functionCall.getArguments();
+      if (arguments.size() == 2 && primitive instanceof ArithmeticOperator operator) {
+        return IntValue.of(applyArithmetic(operator, arguments));
+      }
+      if (arguments.size() == 2 && primitive instanceof RelationalOperator operator) {
+        return BooleanValue.valueOf(compare(operator, arguments));
+      }
+      if (arguments.size() == 1 && primitive instanceof NotOperator) {
+        return BooleanValue.valueOf(!evalBoolean(arguments.get(0)));
+      }
+      if (arguments.size() == 1) {
+        return primitive.apply1(arguments.get(0).accept(this));
+      }
+      if (arguments.size() == 2) {
+        Value left = arguments.get(0).accept(this);
+        return primitive.apply2(left, arguments.get(1).accept(this));
+      }
+      List<Value> argValues = new ArrayList<>(arguments.size());
+      for (final Expression eva: arguments) {
+        argValues.add(eva.accept(this));
+      }
+      return primitive.apply(argValues);
+    }
 
-    List<Value> argValues = new ArrayList<>();
-    for (final Expression eva: functionCall.getArguments()) {
-      argValues.add(eva.accept(this));
+    Definition def = definitionFor(functionCall);
+    Value[] calleeFrame = evaluateArguments(functionCall, def);
+    Value result = callCached(functionCall, def, calleeFrame);
+    return result != null ? result : call(def, calleeFrame);
+  }
+
+  /**
+   * Calls a definition in a new activation, and restores the caller's
+   * activation afterwards.
+   *
+   * @param def The called definition.
+   * @param calleeFrame The callee's frame, with the parameters filled in.
+   * @return The result of the call.
+   */
+  private Value call(Definition def, Value[] calleeFrame) {
+    Value[] savedFrame = frame;
+    Environment<Value> savedVariables = variables;
+    try {
+      enter(def, calleeFrame);
+      return evaluateBody(def.getBody());
+    } finally {
+      frame = savedFrame;
+      variables = savedVariables;
     }
+  }
 
-    Primitive primitive = primitiveTable.lookup(functionCall.getFunctionName());
-    if (primitive != null) {
-      return primitive.apply(argValues);
+  /**
+   * Calls a memoized definition, reusing the cached result for the same
+   * arguments if there is one.
+   *
+   * @param cache The definition's cache.
+   * @param def The called definition.
+   * @param calleeFrame The callee's frame, with the parameters filled in.
+   * @return The result of the call.
+   */
+  private Value callMemoized(MemoCache cache, Definition def, Value[] calleeFrame) {
+    int arity = def.getArguments().size();
+    long key = MemoCache.key(calleeFrame, arity);
+    int shape = MemoCache.shape(calleeFrame, arity);
+    Value result = cache.lookup(key, shape);
+    if (result == null) {
+      result = call(def, calleeFrame);
+      cache.store(key, shape, result);
+    }
+    return result;
+  }
+
+  /**
+   * Answers a call to a definition from its table, or else calls it through
+   * its memoization cache.
+   *
+   * @param functionCall The `FunctionCall`.
+   * @param def The called definition.
+   * @param calleeFrame The callee's frame, with the parameters filled in.
+   * @return The result of the call, or null if the caller must call the
+   *   definition itself.
+   */
+  private Value callCached(FunctionCall functionCall, Definition def, Value[] calleeFrame) {
+    if (memoCaches == null && tabulations == null) {
+      return null;
     }
+    int index = definitionIndex(functionCall, def);
+    if (index < 0) {
+      return null;
+    }
+    Tabulation tabulation = tabulations == null ? null : tabulations[index];
+    if (tabulation != null) {
+      Value result = tabulation.lookup(calleeFrame[0]);
+      if (result != null) {
+        return result;
+      }
+    }
+    MemoCache cache = memoCaches == null ? null : memoCaches[index];
+    return cache == null ? null : callMemoized(cache, def, calleeFrame);
+  }
+
+  /**
+   * Finds the index of the definition called by a `FunctionCall` among the
+   * program's definitions: the one it is linked to, or else the position of
+   * the definition its name was looked up to.
+   *
+   * @param functionCall The `FunctionCall`.
+   * @param def The called definition.
+   * @return The definition's index, or -1 if it is not one of the program's.
+   */
+  private int definitionIndex(FunctionCall functionCall, Definition def) {
+    if (functionCall.getDefinitionIndex() >= 0) {
+      return functionCall.getDefinitionIndex();
+    }
+    for (int i = linkedDefinitions.length - 1; i >= 0; i--) {
+      if (linkedDefinitions[i] == def) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Finds the primitive called by a `FunctionCall`: the one it is linked to,
+   * or else the one with its name in the primitive table.
+   *
+   * @param functionCall The `FunctionCall`.
+   * @return The called primitive, or null if the call is not a primitive call.
+   */
+  private Primitive primitiveFor(FunctionCall functionCall) {
+    if (functionCall.isLinked()) {
+      return functionCall.getPrimitive();
+    }
+    return primitiveTable.lookup(functionCall.getFunctionName());
+  }
 
+  /**
+   * Finds the definition called by a `FunctionCall` that is not a primitive call:
+   * the one it is linked to, or else the one with its name.
+   *
+   * @param functionCall The `FunctionCall`.
+   * @return The called definition.
+   * @throws UndefinedFunctionException If the function is not defined.
+   * @throws ArityMismatchException If the number of arguments does not match the expected arity.
+   */
+  private Definition definitionFor(FunctionCall functionCall) {
+    if (functionCall.getDefinitionIndex() >= 0 && linkedDefinitions != null) {
+      return linkedDefinitions[functionCall.getDefinitionIndex()];
+    }
+    return lookupDefinition(functionCall);
+  }
+
+  /**
+   * Looks up the definition called by a `FunctionCall` that is not a primitive call.
+   * If there is no such definition, or it takes a different number of arguments,
+   * the arguments are still evaluated before the error is raised.
+   *
+   * @param functionCall The `FunctionCall`.
+   * @return The called definition.
+   * @throws UndefinedFunctionException If the function is not defined.
+   * @throws ArityMismatchException If the number of arguments does not match the expected arity.
+   */
+  private Definition lookupDefinition(FunctionCall functionCall) {
     Definition def = definitions.lookup(functionCall.getFunctionName());
-    if (def != null) {
-      if (def.getArguments().size() != argValues.size()) {
-        throw new ArityMismatchException(functionCall.getFunctionName(), def.getArguments().size(), argValues.size());
+    int argCount = functionCall.getArguments().size();
+    if (def == null || def.getArguments().size() != argCount) {
+      for (final Expression eva: functionCall.getArguments()) {
+        eva.accept(this);
+      }
+      if (def == null) {
+        throw new UndefinedFunctionException(functionCall.getFunctionName());
       }
+      throw new ArityMismatchException(functionCall.getFunctionName(), def.getArguments().size(), argCount);
+    }
+    return def;
+  }
 
-      Environment<Value> newEnv = variables;
+  /**
+   * Evaluates the arguments of a call to a definition, from left to right,
+   * straight into the callee's activation frame.  This is the only
+   * allocation a call makes.
+   *
+   * @param functionCall The `FunctionCall` whose arguments to evaluate.
+   * @param def The called definition.
+   * @return The callee's frame, with the parameters filled in.
+   */
+  private Value[] evaluateArguments(FunctionCall functionCall, Definition def) {
+    List<Expression> arguments = functionCall.getArguments();
+    Value[] calleeFrame = new Value[Math.max(def.getFrameSize(), arguments.size())];
+    for (int i = 0; i < arguments.size(); i++) {
+      calleeFrame[i] = arguments.get(i).accept(this);
+    }
+    return calleeFrame;
+  }
+
+  /**
+   * Switches this evaluator to a callee's activation.  Variables are
+   * dynamically scoped: a definition body sees its parameters on top of the
+   * caller's variables.  The parameters are in the callee's frame if the
+   * definition has been resolved, and otherwise bound in the variable
+   * environment, replacing any bindings of the same names, so that a loop of
+   * tail calls does not grow the environment.
+   *
+   * @param def The definition being called.
+   * @param calleeFrame The callee's frame, with the parameters filled in.
+   */
+  private void enter(Definition def, Value[] calleeFrame) {
+    Environment<Value> env = variables;
+    if (def.getFrameSize() < 0) {
       for (int i = 0; i < def.getArguments().size(); i++) {
-        newEnv = newEnv.extend(def.getArguments().get(i), argValues.get(i));
+        env = env.rebind(def.getArguments().get(i), calleeFrame[i]);
+      }
+    }
+    frame = calleeFrame;
+    variables = env;
+  }
+
+  /**
+   * Evaluates the body of the current call.  The body is walked down through
+   * its tail positions -- the branches of an `if`, the body of a `let`, and the
+   * right operand of an `and` or `or` -- without recursing, and a call to a
+   * definition in tail position replaces the current activation instead of
+   * nesting inside it.  Tail-recursive definitions therefore run in constant
+   * Java stack; calls of memoized definitions are the exception, since their
+   * results must be cached.  The caller restores its own activation afterwards.
+   *
+   * @param body The body of the called definition.
+   * @return The result of the call.
+   */
+  private Value evaluateBody(Expression body) {
+    // set once a tail position inside an `and` or `or` has been entered,
+    // whose result must then be a boolean
+    boolean booleanResult = false;
+    Expression expr = body;
+    while (true) {
+      if (expr instanceof IfExpression ifExpression) {
+        expr = evalBoolean(ifExpression.getCondition())
+          ? ifExpression.getConsequent()
+          : ifExpression.getAlternative();
+      } else if (expr instanceof LetExpression letExpression) {
+        bind(letExpression, letExpression.getRhs().accept(this));
+        expr = letExpression.getBody();
+      } else if (expr instanceof AndExpression andExpression) {
+        if (!evalBoolean(andExpression.getLeftOperand())) {
+          return BooleanValue.FALSE;
+        }
+        booleanResult = true;
+        expr = andExpression.getRightOperand();
+      } else if (expr instanceof OrExpression orExpression) {
+        if (evalBoolean(orExpression.getLeft())) {
+          return BooleanValue.TRUE;
+        }
+        booleanResult = true;
+        expr = orExpression.getRight();
+      } else if (expr instanceof FunctionCall call && primitiveFor(call) == null) {
+        Definition def = definitionFor(call);
+        Value[] calleeFrame = evaluateArguments(call, def);
+        Value cached = callCached(call, def, calleeFrame);
+        if (cached != null) {
+          return booleanResult ? BooleanValue.valueOf(cached.asBoolean()) : cached;
+        }
+        enter(def, calleeFrame);
+        expr = def.getBody();
+      } else {
+        Value result = expr.accept(this);
+        return booleanResult ? BooleanValue.valueOf(result.asBoolean()) : result;
+      }
+    }
+  }
+
+  /**
+   * Evaluates an expression whose value must be an integer, without boxing
+   * the intermediate results of arithmetic on the way.  Literals and calls of
+   * arithmetic primitives are computed as raw ints; anything else is
+   * evaluated as usual and unboxed.
+   *
+   * @param expression The expression to evaluate.
+   * @return The integer value of the expression.
+   * @throws TypeError If the value of the expression is not an integer.
+   */
+  public int evalInt(Expression expression) {
+    if (expression instanceof IntLiteral intLiteral) {
+      return intLiteral.getValue();
+    }
+    if (expression instanceof FunctionCall call && call.getArguments().size() == 2
+        && primitiveFor(call) instanceof ArithmeticOperator operator) {
+      return applyArithmetic(operator, call.getArguments());
+    }
+    return expression.accept(this).asInteger();
+  }
+
+  /**
+   * Evaluates an expression whose value must be a boolean, without boxing
+   * the intermediate results of comparisons and logical operators on the way.
+   *
+   * @param expression The expression to evaluate.
+   * @return The boolean value of the expression.
+   * @throws TypeError If the value of the expression is not a boolean.
+   */
+  public boolean evalBoolean(Expression expression) {
+    if (expression instanceof BooleanLiteral booleanLiteral) {
+      return booleanLiteral.isValue();
+    }
+    if (expression instanceof AndExpression andExpression) {
+      return evalBoolean(andExpression.getLeftOperand()) && evalBoolean(andExpression.getRightOperand());
+    }
+    if (expression instanceof OrExpression orExpression) {
+      return evalBoolean(orExpression.getLeft()) || evalBoolean(orExpression.getRight());
+    }
+    if (expression instanceof FunctionCall call) {
+      Primitive primitive = primitiveFor(call);
+      List<Expression> arguments = call.getArguments();
+      if (arguments.size() == 2 && primitive instanceof RelationalOperator operator) {
+        return compare(operator, arguments);
+      }
+      if (arguments.size() == 1 && primitive instanceof NotOperator) {
+        return !evalBoolean(arguments.get(0));
       }
-      Evaluator newEvaluator = new Evaluator(definitions, newEnv, primitiveTable);
-      return def.getBody().accept(newEvaluator);
     }
+    return expression.accept(this).asBoolean();
+  }
 
-    throw new UndefinedFunctionException(functionCall.getFunctionName());
+  /**
+   * Applies an arithmetic operator to two operand expressions.  Both
+   * operands are evaluated before either is checked to be an integer, and
+   * they are checked in the operator's own order, so the same error is
+   * raised as when the operator is applied to boxed values.  A left operand
+   * that cannot fail the check is computed as a raw int.
+   *
+   * @param operator The operator.
+   * @param arguments The two operand expressions.
+   * @return The result of the operation.
+   */
+  private int applyArithmetic(ArithmeticOperator operator, List<Expression> arguments) {
+    Expression left = arguments.get(0);
+    if (isIntExpression(left)) {
+      // only the right operand is checked, after it has been evaluated
+      int leftOperand = evalInt(left);
+      return operator.applyInt(leftOperand, evalInt(arguments.get(1)));
+    }
+    Value leftValue = left.accept(this);
+    return operator.applyInt(leftValue, arguments.get(1).accept(this));
   }
+
+  /**
+   * Applies a relational operator to two operand expressions, checking the
+   * operands after both have been evaluated, as in `applyArithmetic`.
+   *
+   * @param operator The operator.
+   * @param arguments The two operand expressions.
+   * @return The result of the comparison.
+   */
+  private boolean compare(RelationalOperator operator, List<Expression> arguments) {
+    Expression left = arguments.get(0);
+    if (isIntExpression(left)) {
+      int leftOperand = evalInt(left);
+      return operator.compare(leftOperand, evalInt(arguments.get(1)));
+    }
+    Value leftValue = left.accept(this);
+    return operator.compare(leftValue, arguments.get(1).accept(this));
+  }
+
+  /**
+   * Decides whether an expression's value is always an integer, if it has
+   * one: whether it is an integer literal or a call of an arithmetic
+   * primitive.
+   *
+   * @param expression The expression.
+   * @return True if the value needs no type check.
+   */
+  private boolean isIntExpression(Expression expression) {
+    return expression instanceof IntLiteral
+      || expression instanceof FunctionCall call && call.getArguments().size() == 2
+        && primitiveFor(call) instanceof ArithmeticOperator;
+  }
+
+  /**
+   * Binds the variable of a `let` in the current activation: in its frame slot
+   * if it has one, otherwise in the variable environment, replacing any
+   * binding of the same name.
+   *
+   * @param letExpression The `LetExpression` whose variable to bind.
+   * @param value The value of the variable.
+   */
+  private void bind(LetExpression letExpression, Value value) {
+    if (letExpression.getSlot() >= 0 && frame != null) {
+      frame[letExpression.getSlot()] = value;
+    } else {
+      variables = variables.rebind(letExpression.getVarName(), value);
+    }
+  }
+
   /**
    * Visits and evaluates an `IfExpression`.
    *
@@ -139,8 +625,7 @@ public class Evaluator implements ExpressionVisitor<Value> {
    */
   @Override
   public Value visit(IfExpression ifExpression) {
-    Value conditionValue = ifExpression.getCondition().accept(this);
-    if (!conditionValue.asBoolean()) {
+    if (!evalBoolean(ifExpression.getCondition())) {
       return ifExpression.getAlternative().accept(this);
     }
     return ifExpression.getConsequent().accept(this);
@@ -153,7 +638,7 @@ public class Evaluator implements ExpressionVisitor<Value> {
    */
   @Override
   public Value visit(IntLiteral intLiteral) {
-    return new IntValue(intLiteral.getValue());
+    return intLiteral.getLiteralValue();
   }
 
 
@@ -166,9 +651,13 @@ public class Evaluator implements ExpressionVisitor<Value> {
   @Override
   public Value visit(LetExpression letExpression) {
     Value rhsValue = letExpression.getRhs().accept(this);
-    Environment<Value> newEnv = variables.extend(letExpression.getVarName(), rhsValue);
-    Evaluator newEvaluator = new Evaluator(definitions, newEnv, primitiveTable);
-    return letExpression.getBody().accept(newEvaluator);
+    Environment<Value> savedVariables = variables;
+    try {
+      bind(letExpression, rhsValue);
+      return letExpression.getBody().accept(this);
+    } finally {
+      variables = savedVariables;
+    }
   }
 
   /**
@@ -179,12 +668,7 @@ public class Evaluator implements ExpressionVisitor<Value> {
    */
   @Override
   public Value visit(OrExpression orExpression) {
-    Value leftValue = orExpression.getLeft().accept(this);
-    if (leftValue.asBoolean()) {
-      return new BooleanValue(true);
-    }
-    Value rightValue = orExpression.getRight().accept(this);
-    return new BooleanValue(rightValue.asBoolean());
+    return BooleanValue.valueOf(evalBoolean(orExpression));
   }
   /**
    * Visits and evaluates a `VariableReference`.
@@ -195,6 +679,9 @@ public class Evaluator implements ExpressionVisitor<Value> {
    */
   @Override
   public Value visit(VariableReference reference) {
+    if (reference.getSlot() >= 0 && frame != null) {
+      return frame[reference.getSlot()];
+    }
     Value value = variables.lookup(reference.getVariableName());
     if (value == null) {
       throw new UndefinedVariableException(reference.getVariableName());
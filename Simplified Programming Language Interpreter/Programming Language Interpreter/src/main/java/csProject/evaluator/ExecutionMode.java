@@ -0,0 +1,64 @@
+package csProject.evaluator;
+
+/**
+ * The execution engines a {@code Driver} can use to run a program.  All
+ * modes produce the same values and raise the same errors for the same
+ * programs, except where a program recurses too deeply:
+ * {@link #TREE_WALKING} and {@link #FLAT} run tail calls without growing
+ * the stack, so tail recursion of any depth succeeds in them;
+ * {@link #VIRTUAL_MACHINE} keeps its own stack and fails with a
+ * {@code StackOverflowError} beyond
+ * {@code VirtualMachine.DEFAULT_MAX_CALL_DEPTH} nested calls, tail calls
+ * included; and the other modes recurse on the Java stack, so they fail
+ * with a {@code StackOverflowError} at a depth that depends on the
+ * thread's stack size.
+ *
+ * <p>Variables are dynamically scoped.  The compiling modes give each call
+ * only its own variables, so programs whose definitions refer to variables
+ * of their callers are walked as in {@link #TREE_WALKING} whatever the
+ * mode.</p>
+ */
+public enum ExecutionMode {
+  /**
+   * Walk the AST with an {@code Evaluator}.
+   */
+  TREE_WALKING,
+  /**
+   * Compile the program once into a tree of pre-linked nodes with the
+   * {@code ClosureCompiler}, then execute the nodes directly.
+   */
+  CLOSURE,
+  /**
+   * Compile the definitions to static methods of a hidden JVM class with the
+   * {@code JvmCompiler}.  Programs that cannot be compiled because they are
+   * not statically well-typed are walked instead, so they fail with the
+   * same errors as in {@link #TREE_WALKING}.
+   */
+  JVM_BYTECODE,
+  /**
+   * Compile the program to a compact instruction array with the
+   * {@code VmCompiler} and run it on the stack-based
+   * {@code VirtualMachine}.
+   */
+  VIRTUAL_MACHINE,
+  /**
+   * Infer static types with the {@code TypeChecker} and run the resulting
+   * typed AST, which performs no run-time type checks.  Programs that are
+   * not statically well-typed are walked instead, as in
+   * {@link #JVM_BYTECODE}.
+   */
+  TYPED,
+  /**
+   * Compile the program into self-specializing nodes with the
+   * {@code SpecializingCompiler}.  Each call site links itself to its
+   * callee the first time it runs, and arithmetic and comparisons
+   * specialize themselves to int operands.
+   */
+  SELF_SPECIALIZING,
+  /**
+   * Encode the program as parallel node arrays with the
+   * {@code FlatEncoder}, and walk them by index with the
+   * {@code FlatEvaluator}.
+   */
+  FLAT
+}
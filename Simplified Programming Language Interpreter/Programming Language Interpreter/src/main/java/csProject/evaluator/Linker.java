@@ -0,0 +1,181 @@
+package csProject.evaluator;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.primitives.Primitive;
+import csProject.primitives.PrimitiveTable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Linking pass.  Produces a copy of a program in which every function call
+ * is bound to the primitive or definition it calls, after checking, once
+ * for the whole program, that the function exists and is called with the
+ * right number of arguments.  Calls to definitions are bound to the
+ * definition's index in the program's definition list, so that evaluators
+ * can find the callee without looking its name up.
+ *
+ * <p>As in the {@code Environment}, a later definition with the same name
+ * as an earlier one wins.  The bodies of the shadowed definitions can
+ * never run, and are neither checked nor linked.  Slots assigned by the
+ * {@code Resolver} are preserved, as are the primitives of calls already
+ * linked to one, such as by an optimizer.</p>
+ */
+public class Linker implements ExpressionVisitor<Expression> {
+  private final PrimitiveTable primitiveTable;
+  private final Map<String, Integer> definitionIndices;
+  private final List<Definition> definitions;
+
+  private Linker(
+    PrimitiveTable primitiveTable,
+    Map<String, Integer> definitionIndices,
+    List<Definition> definitions
+  ) {
+    this.primitiveTable = primitiveTable;
+    this.definitionIndices = definitionIndices;
+    this.definitions = definitions;
+  }
+
+  /**
+   * Links all calls in a program to the default primitives and the
+   * program's definitions.
+   * @param program the program to link
+   * @return the linked program
+   * @throws UndefinedFunctionException if any call is to an undefined function
+   * @throws ArityMismatchException if any call has the wrong number of arguments
+   */
+  public static Program link(Program program) {
+    return link(program, new PrimitiveTable());
+  }
+
+  /**
+   * Links all calls in a program.
+   * @param program the program to link
+   * @param primitiveTable the primitives available to the program
+   * @return the linked program
+   * @throws UndefinedFunctionException if any call is to an undefined function
+   * @throws ArityMismatchException if any call has the wrong number of arguments
+   */
+  public static Program link(Program program, PrimitiveTable primitiveTable) {
+    Objects.requireNonNull(program);
+    Objects.requireNonNull(primitiveTable);
+
+    List<Definition> definitions = program.getDefinitions();
+    Map<String, Integer> definitionIndices = new HashMap<>();
+    for (int i = 0; i < definitions.size(); i++) {
+      definitionIndices.put(definitions.get(i).getName(), i);
+    }
+    Linker linker = new Linker(primitiveTable, definitionIndices, definitions);
+
+    List<Definition> linked = new ArrayList<>(definitions.size());
+    for (int i = 0; i < definitions.size(); i++) {
+      Definition d = definitions.get(i);
+      if (definitionIndices.get(d.getName()) != i) {
+        linked.add(d);
+        continue;
+      }
+      linked.add(new Definition(
+        d.getName(),
+        d.getArguments(),
+        d.getBody().accept(linker),
+        d.getFrameSize()
+      ));
+    }
+    Expression expression = program.getExpression().accept(linker);
+    return new Program(linked, expression, program.getFrameSize());
+  }
+
+  @Override
+  public Expression visit(AndExpression andExpression) {
+    return new AndExpression(
+      andExpression.getLeftOperand().accept(this),
+      andExpression.getRightOperand().accept(this)
+    );
+  }
+
+  @Override
+  public Expression visit(BooleanLiteral booleanLiteral) {
+    return booleanLiteral;
+  }
+
+  @Override
+  public Expression visit(FunctionCall functionCall) {
+    String name = functionCall.getFunctionName();
+    List<Expression> arguments = new ArrayList<>(functionCall.getArguments().size());
+    for (Expression argument : functionCall.getArguments()) {
+      arguments.add(argument.accept(this));
+    }
+
+    Primitive primitive = functionCall.getPrimitive() != null
+      ? functionCall.getPrimitive()
+      : primitiveTable.lookup(name);
+    if (primitive != null) {
+      checkArity(name, primitive.getArity(), arguments.size());
+      return new FunctionCall(name, arguments, primitive, -1);
+    }
+    Integer index = definitionIndices.get(name);
+    if (index == null) {
+      throw new UndefinedFunctionException(name);
+    }
+    checkArity(name, definitions.get(index).getArguments().size(), arguments.size());
+    return new FunctionCall(name, arguments, null, index);
+  }
+
+  @Override
+  public Expression visit(IfExpression ifExpression) {
+    return new IfExpression(
+      ifExpression.getCondition().accept(this),
+      ifExpression.getConsequent().accept(this),
+      ifExpression.getAlternative().accept(this)
+    );
+  }
+
+  @Override
+  public Expression visit(IntLiteral intLiteral) {
+    return intLiteral;
+  }
+
+  @Override
+  public Expression visit(LetExpression letExpression) {
+    return new LetExpression(
+      letExpression.getVarName(),
+      letExpression.getRhs().accept(this),
+      letExpression.getBody().accept(this),
+      letExpression.getSlot()
+    );
+  }
+
+  @Override
+  public Expression visit(OrExpression orExpression) {
+    return new OrExpression(
+      orExpression.getLeft().accept(this),
+      orExpression.getRight().accept(this)
+    );
+  }
+
+  @Override
+  public Expression visit(VariableReference reference) {
+    return reference;
+  }
+
+  private static void checkArity(String name, int expected, int actual) {
+    if (expected != actual) {
+      throw new ArityMismatchException(name, expected, actual);
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package csProject.evaluator;
+
+import csProject.core.BooleanValue;
+import csProject.core.Value;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of the results of one definition, keyed by its argument
+ * values packed into primitives: a long holding up to two 32-bit arguments,
+ * plus a shape word recording which of them are booleans.  The cache is a
+ * fixed number of direct-mapped entries; storing a result evicts whatever
+ * result was cached in its entry before.
+ *
+ * <p>The entries are split into stripes, each guarded by its own lock, so
+ * that several evaluations can use the cache concurrently.  Hits and misses
+ * are counted for tuning the capacity.</p>
+ */
+public class MemoCache {
+  /**
+   * The greatest number of arguments a key can hold.
+   */
+  public static final int MAX_ARGUMENTS = 2;
+
+  private static final int STRIPES = 16;
+
+  private final Stripe[] stripes;
+  private final int entryMask;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Constructs an empty cache.
+   * @param capacity the greatest number of results to keep; rounded up to a
+   *                 power of two of at least the number of stripes
+   * @throws IllegalArgumentException if the capacity is not positive
+   */
+  public MemoCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    int entries = Math.max(STRIPES, Integer.highestOneBit(Math.min(capacity, 1 << 30) - 1) << 1);
+    stripes = new Stripe[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe(entries / STRIPES);
+    }
+    entryMask = entries / STRIPES - 1;
+  }
+
+  /**
+   * Packs argument values into a key.  The first argument goes in the low
+   * 32 bits and the second in the high 32 bits; booleans are packed as 0
+   * or 1, and told apart from ints by {@link #shape}.
+   * @param arguments the argument values
+   * @param count the number of arguments, at most {@link #MAX_ARGUMENTS}
+   * @return the key
+   */
+  public static long key(Value[] arguments, int count) {
+    long key = 0;
+    for (int i = 0; i < count; i++) {
+      Value argument = arguments[i];
+      int bits = argument instanceof BooleanValue ? (argument.asBoolean() ? 1 : 0) : argument.asInteger();
+      key |= (bits & 0xffffffffL) << (32 * i);
+    }
+    return key;
+  }
+
+  /**
+   * Computes the shape of argument values: bit i is set if argument i is a
+   * boolean.
+   * @param arguments the argument values
+   * @param count the number of arguments
+   * @return the shape
+   */
+  public static int shape(Value[] arguments, int count) {
+    int shape = 0;
+    for (int i = 0; i < count; i++) {
+      if (arguments[i] instanceof BooleanValue) {
+        shape |= 1 << i;
+      }
+    }
+    return shape;
+  }
+
+  /**
+   * Looks a result up, counting a hit or a miss.
+   * @param key the packed arguments
+   * @param shape the shape of the arguments
+   * @return the cached result, or null if there is none
+   */
+  public Value lookup(long key, int shape) {
+    long hash = hash(key, shape);
+    Stripe stripe = stripes[(int) hash & (STRIPES - 1)];
+    int index = (int) (hash >>> 32) & entryMask;
+    Value result;
+    synchronized (stripe) {
+      result = stripe.values[index] != null
+        && stripe.keys[index] == key
+        && stripe.shapes[index] == shape
+        ? stripe.values[index]
+        : null;
+    }
+    if (result == null) {
+      misses.increment();
+    } else {
+      hits.increment();
+    }
+    return result;
+  }
+
+  /**
+   * Caches a result, evicting the result previously cached in its entry.
+   * @param key the packed arguments
+   * @param shape the shape of the arguments
+   * @param result the result
+   */
+  public void store(long key, int shape, Value result) {
+    long hash = hash(key, shape);
+    Stripe stripe = stripes[(int) hash & (STRIPES - 1)];
+    int index = (int) (hash >>> 32) & entryMask;
+    synchronized (stripe) {
+      stripe.keys[index] = key;
+      stripe.shapes[index] = shape;
+      stripe.values[index] = result;
+    }
+  }
+
+  /**
+   * Gets the number of lookups that found a cached result.
+   * @return the number of hits
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the number of lookups that found no cached result.
+   * @return the number of misses
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Gets the greatest number of results the cache keeps.
+   * @return the number of entries
+   */
+  public int getCapacity() {
+    return (entryMask + 1) * STRIPES;
+  }
+
+  /**
+   * Removes all cached results and resets the counters.
+   */
+  public void clear() {
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        Arrays.fill(stripe.values, null);
+      }
+    }
+    hits.reset();
+    misses.reset();
+  }
+
+  private static long hash(long key, int shape) {
+    // the finalizer of MurmurHash3, so that neighbouring arguments spread
+    long h = key ^ ((long) shape << 61);
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static class Stripe {
+    final long[] keys;
+    final int[] shapes;
+    final Value[] values;
+
+    Stripe(int size) {
+      keys = new long[size];
+      shapes = new int[size];
+      values = new Value[size];
+    }
+  }
+}
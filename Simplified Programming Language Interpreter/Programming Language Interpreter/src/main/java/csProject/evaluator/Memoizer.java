@@ -0,0 +1,139 @@
+package csProject.evaluator;
+
+import csProject.ast.Definition;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in memoization of definition calls for the tree-walking
+ * {@code Evaluator}.  Since the language has no side effects, a call's
+ * result depends only on its arguments, and can be reused for later calls
+ * with the same arguments.  A memoizer holds one bounded {@code MemoCache}
+ * per memoized definition, and can be shared by evaluations running
+ * concurrently.
+ *
+ * <p>Caches are kept per program, keyed by the program's definitions: a
+ * linked call names its callee by index, so a definition's results depend
+ * on every definition it can reach, and programs that define a function of
+ * the same name differently do not share results.  Programs with equal
+ * definitions, such as the same definitions run on different expressions,
+ * share their caches.  Only definitions of at most
+ * {@link MemoCache#MAX_ARGUMENTS} parameters can be memoized, since their
+ * arguments must pack into one long; calls of other definitions are always
+ * evaluated.  Calls of memoized definitions in tail position are evaluated
+ * as nested calls, so that their results can be cached.</p>
+ */
+public class Memoizer {
+  /**
+   * The default capacity of each definition's cache.
+   */
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  private final Set<String> names;
+  private final int capacity;
+  private final Map<List<Definition>, MemoCache[]> caches = new ConcurrentHashMap<>();
+  // the cache most recently created for each name, for inspection
+  private final Map<String, MemoCache> cachesByName = new ConcurrentHashMap<>();
+
+  private Memoizer(Set<String> names, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity must be positive: " + capacity);
+    }
+    this.names = names;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Creates a memoizer for every definition of a program.
+   * @param capacity the capacity of each definition's cache
+   * @return the memoizer
+   */
+  public static Memoizer forAllDefinitions(int capacity) {
+    return new Memoizer(null, capacity);
+  }
+
+  /**
+   * Creates a memoizer for the named definitions only.
+   * @param names the names of the definitions to memoize
+   * @param capacity the capacity of each definition's cache
+   * @return the memoizer
+   */
+  public static Memoizer forDefinitions(Collection<String> names, int capacity) {
+    return new Memoizer(Set.copyOf(names), capacity);
+  }
+
+  /**
+   * Gets the caches for the definitions of a program, creating them on first
+   * use.
+   * @param definitions the definitions of the program
+   * @return the caches of the definitions, by index, with null for the
+   *   definitions that are not memoized
+   */
+  public MemoCache[] cachesFor(List<Definition> definitions) {
+    return caches.computeIfAbsent(List.copyOf(definitions), this::newCaches);
+  }
+
+  private MemoCache[] newCaches(List<Definition> definitions) {
+    MemoCache[] created = new MemoCache[definitions.size()];
+    for (int i = 0; i < created.length; i++) {
+      Definition definition = definitions.get(i);
+      if (definition.getArguments().size() <= MemoCache.MAX_ARGUMENTS
+          && (names == null || names.contains(definition.getName()))) {
+        created[i] = new MemoCache(capacity);
+        cachesByName.put(definition.getName(), created[i]);
+      }
+    }
+    return created;
+  }
+
+  /**
+   * Gets the cache of a definition, for inspecting its counters.  If
+   * several programs define the name, this is the cache of the program
+   * memoized most recently.
+   * @param name the name of the definition
+   * @return the definition's cache, or null if no program memoizing the
+   *   definition has been evaluated yet
+   */
+  public MemoCache getCache(String name) {
+    return cachesByName.get(name);
+  }
+
+  /**
+   * Gets the total number of cache hits over all definitions.
+   * @return the number of hits
+   */
+  public long getHits() {
+    long total = 0;
+    for (MemoCache[] programCaches : caches.values()) {
+      for (MemoCache cache : programCaches) {
+        total += cache == null ? 0 : cache.getHits();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Gets the total number of cache misses over all definitions.
+   * @return the number of misses
+   */
+  public long getMisses() {
+    long total = 0;
+    for (MemoCache[] programCaches : caches.values()) {
+      for (MemoCache cache : programCaches) {
+        total += cache == null ? 0 : cache.getMisses();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Removes all cached results, of every program.
+   */
+  public void clear() {
+    caches.clear();
+    cachesByName.clear();
+  }
+}
@@ -0,0 +1,104 @@
+package csProject.evaluator;
+
+import csProject.ast.Program;
+import csProject.closure.ClosureCompiler;
+import csProject.closure.CompiledProgram;
+import csProject.core.TypeError;
+import csProject.core.Value;
+import csProject.engine.SpecializingCompiler;
+import csProject.engine.SpecializingProgram;
+import csProject.evalExceptions.EvaluationException;
+import csProject.flat.FlatEncoder;
+import csProject.flat.FlatProgram;
+import csProject.jvm.JvmCompiler;
+import csProject.jvm.JvmProgram;
+import csProject.jvm.UnsupportedProgramException;
+import csProject.types.TypeChecker;
+import csProject.types.TypedProgram;
+import csProject.vm.VirtualMachine;
+import csProject.vm.VmCompiler;
+import csProject.vm.VmProgram;
+
+/**
+ * A linked program in the executable form of one execution mode: compiled,
+ * encoded or type checked, or resolved for the tree-walking evaluator.
+ * Preparing a program does all the work that does not depend on the run,
+ * so a prepared program can be kept, for example by a {@code ProgramCache},
+ * and run any number of times, also by several threads at once.
+ */
+public interface PreparedProgram {
+  /**
+   * Runs the program.
+   * @param memoizer the memoizer holding the caches, or null for no
+   *                 memoization; only used if the program is walked
+   * @param tabulator the tabulator holding the tables, or null for no
+   *                  tabulation; only used if the program is walked
+   * @return the value of the program's expression
+   */
+  Value run(Memoizer memoizer, Tabulator tabulator);
+
+  /**
+   * Prepares a linked program for an execution mode.  Programs the mode
+   * cannot run, such as ill-typed programs for the JVM and typed modes and
+   * programs whose definitions refer to their callers' variables, are
+   * prepared for the tree-walking evaluator instead.
+   * @param linked the linked program
+   * @param mode the execution mode
+   * @return the prepared program
+   */
+  static PreparedProgram prepare(Program linked, ExecutionMode mode) {
+    if (linked.refersToCallerVariables()) {
+      // only the tree-walking evaluator looks variables up in its callers
+      return walked(linked);
+    }
+    switch (mode) {
+      case CLOSURE: {
+        CompiledProgram compiled = ClosureCompiler.compile(linked);
+        return (memoizer, tabulator) -> compiled.run();
+      }
+      case JVM_BYTECODE: {
+        JvmProgram compiled;
+        try {
+          compiled = JvmCompiler.compile(linked);
+        } catch (TypeError | EvaluationException | UnsupportedProgramException e) {
+          return walked(linked);
+        }
+        return (memoizer, tabulator) -> compiled.run();
+      }
+      case VIRTUAL_MACHINE: {
+        VmProgram compiled = VmCompiler.compile(linked);
+        return (memoizer, tabulator) -> new VirtualMachine().run(compiled);
+      }
+      case TYPED: {
+        TypedProgram typed;
+        try {
+          typed = TypeChecker.check(linked);
+        } catch (TypeError | EvaluationException e) {
+          return walked(linked);
+        }
+        return (memoizer, tabulator) -> typed.run();
+      }
+      case SELF_SPECIALIZING: {
+        SpecializingProgram compiled = SpecializingCompiler.compile(linked);
+        // running rewrites the nodes, which only one thread may do at a time
+        return (memoizer, tabulator) -> {
+          synchronized (compiled) {
+            return compiled.run();
+          }
+        };
+      }
+      case FLAT: {
+        FlatProgram encoded = FlatEncoder.encode(linked);
+        return (memoizer, tabulator) -> encoded.run();
+      }
+      default:
+        return walked(linked);
+    }
+  }
+
+  private static PreparedProgram walked(Program linked) {
+    Program resolved = Resolver.resolve(linked);
+    return (memoizer, tabulator) ->
+      resolved.getExpression().accept(new Evaluator(resolved, memoizer, tabulator));
+  }
+}
@@ -0,0 +1,287 @@
+package csProject.evaluator;
+
+import csProject.ast.AstFactory;
+import csProject.ast.Program;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.parser.Parser;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded cache of parsed and linked programs, keyed by a SHA-256 hash of
+ * their source text, so that a {@code Driver} evaluating the same source
+ * many times scans, parses and links it only once.  The linked programs are
+ * interned in the shared {@code AstFactory}, so that cached programs share
+ * the trees they have in common.  Each program also keeps the executable
+ * forms it has been prepared in, one per execution mode, so that a driver
+ * running a cached source does not compile it again either.
+ *
+ * <p>The cache can be used by several threads at once.  When threads ask
+ * for the same source that is not cached yet, one of them compiles it and
+ * the others wait for its result, so each source is compiled once however
+ * many threads ask for it.  Sources that fail to compile are not cached;
+ * the error is thrown to every thread waiting for them.</p>
+ *
+ * <p>Each program weighs the length of its source, whatever the number of
+ * forms it has been prepared in, and when the total weight
+ * exceeds the cache's limit, the least recently used programs are evicted.
+ * Finding the least recently used program scans the cache, which suits the
+ * few hundred programs a cache is meant to hold.  Hits, misses and
+ * evictions are counted for tuning the limit.</p>
+ */
+public class ProgramCache {
+  /**
+   * Default limit on the total length of the cached sources.
+   */
+  public static final long DEFAULT_MAX_WEIGHT = 1 << 24;
+
+  private final long maxWeight;
+  private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+  private final AtomicLong weight = new AtomicLong();
+  private final AtomicLong clock = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructs an empty cache with the default weight limit.
+   */
+  public ProgramCache() {
+    this(DEFAULT_MAX_WEIGHT);
+  }
+
+  /**
+   * Constructs an empty cache.
+   * @param maxWeight the greatest total length of the cached sources
+   * @throws IllegalArgumentException if the limit is not positive
+   */
+  public ProgramCache(long maxWeight) {
+    if (maxWeight <= 0) {
+      throw new IllegalArgumentException("maxWeight must be positive: " + maxWeight);
+    }
+    this.maxWeight = maxWeight;
+  }
+
+  /**
+   * Gets the linked program for a source text, compiling it if it is not
+   * cached.
+   * @param sourceText the source text of the program
+   * @return the parsed and linked program
+   * @throws csProject.parser.ParseError if the source is not a valid program
+   * @throws UndefinedFunctionException if the program calls an undefined function
+   * @throws ArityMismatchException if the program calls a function with the wrong
+   *   number of arguments
+   */
+  public Program get(String sourceText) {
+    return await(entryFor(sourceText));
+  }
+
+  /**
+   * Gets the program for a source text prepared for an execution mode,
+   * compiling and preparing it if it is not cached in that form.  A program
+   * is prepared once per mode; a program that fails to prepare is not
+   * cached in that form, and the error is thrown.
+   * @param sourceText the source text of the program
+   * @param mode the execution mode
+   * @return the prepared program
+   * @throws csProject.parser.ParseError if the source is not a valid program
+   * @throws UndefinedFunctionException if the program calls an undefined function
+   * @throws ArityMismatchException if the program calls a function with the wrong
+   *   number of arguments
+   */
+  public PreparedProgram get(String sourceText, ExecutionMode mode) {
+    Objects.requireNonNull(mode);
+    Entry entry = entryFor(sourceText);
+    Program program = await(entry);
+    return entry.prepared.computeIfAbsent(mode, m -> PreparedProgram.prepare(program, m));
+  }
+
+  /**
+   * Finds the entry for a source text, compiling its program if there is
+   * none.  The entry's program is complete unless another thread is still
+   * compiling it.
+   */
+  private Entry entryFor(String sourceText) {
+    Key key = Key.of(sourceText);
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      Entry created = new Entry(sourceText.length());
+      entry = entries.putIfAbsent(key, created);
+      if (entry == null) {
+        misses.increment();
+        compile(key, created, sourceText);
+        return created;
+      }
+    }
+    hits.increment();
+    entry.lastUsed = clock.incrementAndGet();
+    return entry;
+  }
+
+  /**
+   * Gets the number of requests that found their program cached, or being
+   * compiled by another thread.
+   * @return the number of hits
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the number of requests that compiled their program.
+   * @return the number of misses
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Gets the number of programs evicted to keep within the weight limit.
+   * @return the number of evictions
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * Gets the number of programs cached or being compiled.
+   * @return the number of programs
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Gets the total length of the sources of the cached programs.
+   * @return the weight of the cache
+   */
+  public long getWeight() {
+    return weight.get();
+  }
+
+  /**
+   * Gets the greatest total length of the cached sources.
+   * @return the weight limit
+   */
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  /**
+   * Removes all cached programs and resets the counters.  Programs being
+   * compiled are still handed to the threads waiting for them.
+   */
+  public void clear() {
+    synchronized (this) {
+      for (Key key : entries.keySet()) {
+        Entry entry = entries.remove(key);
+        if (entry != null && entry.weighed) {
+          weight.addAndGet(-entry.weight);
+        }
+      }
+    }
+    hits.reset();
+    misses.reset();
+    evictions.reset();
+  }
+
+  private void compile(Key key, Entry entry, String sourceText) {
+    Program program;
+    try {
+      program = AstFactory.shared().intern(Linker.link(Parser.parseProgram("input", sourceText)));
+    } catch (RuntimeException | Error e) {
+      entries.remove(key, entry);
+      entry.future.completeExceptionally(e);
+      throw e;
+    }
+    entry.lastUsed = clock.incrementAndGet();
+    entry.future.complete(program);
+    synchronized (this) {
+      // the entry may have been cleared while it was compiled
+      if (entries.get(key) == entry) {
+        entry.weighed = true;
+        weight.addAndGet(entry.weight);
+        evict();
+      }
+    }
+  }
+
+  /**
+   * Evicts the least recently used compiled programs until the cache is
+   * within its limit.  Called with the cache locked.
+   */
+  private void evict() {
+    while (weight.get() > maxWeight) {
+      Key oldestKey = null;
+      Entry oldest = null;
+      for (var e : entries.entrySet()) {
+        Entry candidate = e.getValue();
+        if (candidate.weighed && (oldest == null || candidate.lastUsed < oldest.lastUsed)) {
+          oldestKey = e.getKey();
+          oldest = candidate;
+        }
+      }
+      if (oldest == null) {
+        return;
+      }
+      entries.remove(oldestKey, oldest);
+      weight.addAndGet(-oldest.weight);
+      evictions.increment();
+    }
+  }
+
+  private static Program await(Entry entry) {
+    try {
+      return entry.future.join();
+    } catch (CompletionException e) {
+      // rethrow the compiler's own error
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  private static class Entry {
+    final CompletableFuture<Program> future = new CompletableFuture<>();
+    final Map<ExecutionMode, PreparedProgram> prepared = new ConcurrentHashMap<>();
+    final long weight;
+    volatile long lastUsed;
+    // whether the weight has been added to the cache's; guarded by the cache
+    boolean weighed;
+
+    Entry(long weight) {
+      this.weight = weight;
+    }
+  }
+
+  /**
+   * The first 128 bits of the SHA-256 hash of a source text, with its length.
+   */
+  private record Key(long high, long low, int length) {
+    static Key of(String sourceText) {
+      MessageDigest digest;
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        // every Java platform has SHA-256
+        throw new IllegalStateException(e);
+      }
+      ByteBuffer hash = ByteBuffer.wrap(digest.digest(sourceText.getBytes(StandardCharsets.UTF_8)));
+      return new Key(hash.getLong(), hash.getLong(), sourceText.length());
+    }
+  }
+}
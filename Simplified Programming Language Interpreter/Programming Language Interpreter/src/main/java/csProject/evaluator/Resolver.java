@@ -0,0 +1,146 @@
+package csProject.evaluator;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Lexical addressing pass.  Produces a copy of a program in which every
+ * variable reference and every <code>let</code> carries a flat slot index
+ * into its activation frame: a definition's parameters occupy slots 0 to
+ * n-1, and a <code>let</code> nested k levels deep in the body gets slot
+ * n+k.  Each definition (and the program itself) records how many slots it
+ * needs.  References to variables that are not in scope are left
+ * unresolved, and are looked up by name when evaluated.
+ *
+ * <p>Variables are dynamically scoped, so a definition that refers to a
+ * variable it does not bind sees the variables of its caller, which may
+ * be held in the caller's frame.  Programs with such definitions are
+ * therefore left entirely unresolved, to be evaluated with all their
+ * variables bound by name.</p>
+ */
+public class Resolver implements ExpressionVisitor<Expression> {
+  private final List<String> scope;
+  private int frameSize;
+
+  private Resolver(List<String> parameters) {
+    this.scope = new ArrayList<>(parameters);
+    this.frameSize = parameters.size();
+  }
+
+  /**
+   * Resolves all variables in a program.
+   * @param program the program to resolve
+   * @return the resolved program, or the program itself if its definitions
+   *   refer to their callers' variables
+   */
+  public static Program resolve(Program program) {
+    Objects.requireNonNull(program);
+    if (program.refersToCallerVariables()) {
+      return program;
+    }
+    List<Definition> definitions = new ArrayList<>(program.getDefinitions().size());
+    for (Definition d : program.getDefinitions()) {
+      definitions.add(resolve(d));
+    }
+    Resolver resolver = new Resolver(List.of());
+    Expression expression = program.getExpression().accept(resolver);
+    return new Program(definitions, expression, resolver.frameSize);
+  }
+
+  /**
+   * Resolves all variables in the body of a definition.
+   * @param definition the definition to resolve
+   * @return the resolved definition
+   */
+  public static Definition resolve(Definition definition) {
+    Resolver resolver = new Resolver(definition.getArguments());
+    Expression body = definition.getBody().accept(resolver);
+    return new Definition(
+      definition.getName(),
+      definition.getArguments(),
+      body,
+      resolver.frameSize
+    );
+  }
+
+  @Override
+  public Expression visit(AndExpression andExpression) {
+    return new AndExpression(
+      andExpression.getLeftOperand().accept(this),
+      andExpression.getRightOperand().accept(this)
+    );
+  }
+
+  @Override
+  public Expression visit(BooleanLiteral booleanLiteral) {
+    return booleanLiteral;
+  }
+
+  @Override
+  public Expression visit(FunctionCall functionCall) {
+    List<Expression> arguments = new ArrayList<>(functionCall.getArguments().size());
+    for (Expression argument : functionCall.getArguments()) {
+      arguments.add(argument.accept(this));
+    }
+    return new FunctionCall(
+      functionCall.getFunctionName(),
+      arguments,
+      functionCall.getPrimitive(),
+      functionCall.getDefinitionIndex()
+    );
+  }
+
+  @Override
+  public Expression visit(IfExpression ifExpression) {
+    return new IfExpression(
+      ifExpression.getCondition().accept(this),
+      ifExpression.getConsequent().accept(this),
+      ifExpression.getAlternative().accept(this)
+    );
+  }
+
+  @Override
+  public Expression visit(IntLiteral intLiteral) {
+    return intLiteral;
+  }
+
+  @Override
+  public Expression visit(LetExpression letExpression) {
+    Expression rhs = letExpression.getRhs().accept(this);
+    int slot = scope.size();
+    scope.add(letExpression.getVarName());
+    frameSize = Math.max(frameSize, scope.size());
+    Expression body = letExpression.getBody().accept(this);
+    scope.remove(slot);
+    return new LetExpression(letExpression.getVarName(), rhs, body, slot);
+  }
+
+  @Override
+  public Expression visit(OrExpression orExpression) {
+    return new OrExpression(
+      orExpression.getLeft().accept(this),
+      orExpression.getRight().accept(this)
+    );
+  }
+
+  @Override
+  public Expression visit(VariableReference reference) {
+    return new VariableReference(
+      reference.getVariableName(),
+      scope.lastIndexOf(reference.getVariableName())
+    );
+  }
+}
@@ -0,0 +1,337 @@
+package csProject.evaluator;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.VariableReference;
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.core.Value;
+import csProject.evalExceptions.EvaluationException;
+import csProject.evalExceptions.UndefinedVariableException;
+import csProject.primitives.Primitive;
+import csProject.primitives.PrimitiveTable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The table of results of a tabulated definition.  A definition can be
+ * tabulated if it has one parameter, calls no definition but itself, and
+ * only calls itself with its parameter minus a positive constant, as in
+ * <code>(fib (- n 1))</code>.  Its results for 0, 1, 2, ... are then
+ * computed bottom up, each by evaluating the body once with the recursive
+ * calls answered from the table, so a call costs at most one array sweep
+ * instead of a recursion that may be exponential or overflow the stack.
+ *
+ * <p>An entry whose evaluation fails, or needs the result for a negative
+ * argument, is marked as failed, as are the entries that need it.  Calls
+ * whose entry has failed, and calls with negative arguments or beyond the
+ * table's maximum size, are not answered: the evaluator falls back to
+ * calling the definition as usual, which raises the errors the program
+ * would have raised anyway.  The table keeps growing over later calls.</p>
+ */
+public class Tabulation {
+  private static final byte INT = 1;
+  private static final byte BOOL = 2;
+  private static final byte FAILED = 3;
+
+  private final Definition definition;
+  private final String parameter;
+  private final int maxSize;
+  private final PrimitiveTable primitiveTable = new PrimitiveTable();
+  private int[] values = new int[16];
+  private byte[] states = new byte[16];
+  // the number of entries computed so far, from 0
+  private int size;
+
+  private Tabulation(Definition definition, int maxSize) {
+    this.definition = definition;
+    this.parameter = definition.getArguments().get(0);
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Creates an empty table for a definition, if the definition can be
+   * tabulated.
+   * @param definition the definition
+   * @param maxSize the maximum number of entries
+   * @return the table, or null if the definition cannot be tabulated
+   */
+  public static Tabulation of(Definition definition, int maxSize) {
+    if (definition.getArguments().size() != 1) {
+      return null;
+    }
+    RecurrenceCheck check = new RecurrenceCheck(definition);
+    if (!definition.getBody().accept(check) || !check.recursive) {
+      return null;
+    }
+    return new Tabulation(definition, maxSize);
+  }
+
+  /**
+   * Looks up the result of a call, extending the table up to its argument
+   * if need be.
+   * @param argument the argument of the call
+   * @return the result, or null if the call has to be evaluated as usual
+   */
+  public synchronized Value lookup(Value argument) {
+    if (!(argument instanceof IntValue)) {
+      return null;
+    }
+    int n = argument.asInteger();
+    if (n < 0 || n >= maxSize) {
+      return null;
+    }
+    if (n >= size) {
+      extend(n);
+    }
+    switch (states[n]) {
+      case INT:
+        return IntValue.of(values[n]);
+      case BOOL:
+        return BooleanValue.valueOf(values[n] != 0);
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Gets the number of entries computed so far.
+   * @return the number of entries
+   */
+  public synchronized int getSize() {
+    return size;
+  }
+
+  private void extend(int n) {
+    if (n >= values.length) {
+      int capacity = (int) Math.min(Math.max(2L * values.length, n + 1L), maxSize);
+      values = Arrays.copyOf(values, capacity);
+      states = Arrays.copyOf(states, capacity);
+    }
+    EntryEvaluator evaluator = new EntryEvaluator();
+    for (int i = size; i <= n; i++) {
+      Value result;
+      try {
+        result = evaluator.evaluate(i);
+      } catch (TypeError | EvaluationException | ArithmeticException | Unavailable e) {
+        states[i] = FAILED;
+        continue;
+      }
+      if (result instanceof BooleanValue) {
+        values[i] = result.asBoolean() ? 1 : 0;
+        states[i] = BOOL;
+      } else {
+        values[i] = result.asInteger();
+        states[i] = INT;
+      }
+    }
+    size = n + 1;
+  }
+
+  /**
+   * Signals that an entry needs the result for an argument that is not in
+   * the table.
+   */
+  private static class Unavailable extends RuntimeException {
+    private static final Unavailable INSTANCE = new Unavailable();
+
+    Unavailable() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * Evaluates the body of the definition for one entry, with the same
+   * semantics as the {@code Evaluator}, answering recursive calls from the
+   * entries already computed.
+   */
+  private class EntryEvaluator implements ExpressionVisitor<Value> {
+    private final List<String> scopeNames = new ArrayList<>();
+    private final List<Value> scopeValues = new ArrayList<>();
+
+    Value evaluate(int argument) {
+      scopeNames.clear();
+      scopeValues.clear();
+      scopeNames.add(parameter);
+      scopeValues.add(IntValue.of(argument));
+      return definition.getBody().accept(this);
+    }
+
+    @Override
+    public Value visit(AndExpression andExpression) {
+      if (!andExpression.getLeftOperand().accept(this).asBoolean()) {
+        return BooleanValue.FALSE;
+      }
+      return BooleanValue.valueOf(andExpression.getRightOperand().accept(this).asBoolean());
+    }
+
+    @Override
+    public Value visit(BooleanLiteral booleanLiteral) {
+      return booleanLiteral.getLiteralValue();
+    }
+
+    @Override
+    public Value visit(FunctionCall functionCall) {
+      List<Expression> arguments = functionCall.getArguments();
+      List<Value> argValues = new ArrayList<>(arguments.size());
+      for (Expression argument : arguments) {
+        argValues.add(argument.accept(this));
+      }
+      Primitive primitive = primitiveOf(functionCall, primitiveTable);
+      if (primitive != null) {
+        return primitive.apply(argValues);
+      }
+      // a recursive call, for an argument below the current one
+      int n = argValues.get(0).asInteger();
+      if (n < 0 || states[n] == FAILED) {
+        throw Unavailable.INSTANCE;
+      }
+      return states[n] == BOOL ? BooleanValue.valueOf(values[n] != 0) : IntValue.of(values[n]);
+    }
+
+    @Override
+    public Value visit(IfExpression ifExpression) {
+      return ifExpression.getCondition().accept(this).asBoolean()
+        ? ifExpression.getConsequent().accept(this)
+        : ifExpression.getAlternative().accept(this);
+    }
+
+    @Override
+    public Value visit(IntLiteral intLiteral) {
+      return intLiteral.getLiteralValue();
+    }
+
+    @Override
+    public Value visit(LetExpression letExpression) {
+      Value rhs = letExpression.getRhs().accept(this);
+      scopeNames.add(letExpression.getVarName());
+      scopeValues.add(rhs);
+      Value result = letExpression.getBody().accept(this);
+      scopeNames.remove(scopeNames.size() - 1);
+      scopeValues.remove(scopeValues.size() - 1);
+      return result;
+    }
+
+    @Override
+    public Value visit(OrExpression orExpression) {
+      if (orExpression.getLeft().accept(this).asBoolean()) {
+        return BooleanValue.TRUE;
+      }
+      return BooleanValue.valueOf(orExpression.getRight().accept(this).asBoolean());
+    }
+
+    @Override
+    public Value visit(VariableReference reference) {
+      int index = scopeNames.lastIndexOf(reference.getVariableName());
+      if (index < 0) {
+        throw new UndefinedVariableException(reference.getVariableName());
+      }
+      return scopeValues.get(index);
+    }
+  }
+
+  private static Primitive primitiveOf(FunctionCall functionCall, PrimitiveTable primitiveTable) {
+    if (functionCall.isLinked()) {
+      return functionCall.getPrimitive();
+    }
+    return primitiveTable.lookup(functionCall.getFunctionName());
+  }
+
+  /**
+   * Checks that a body calls only primitives and the definition itself,
+   * and the definition only with its parameter minus a positive constant.
+   */
+  private static class RecurrenceCheck implements ExpressionVisitor<Boolean> {
+    private final String name;
+    private final String parameter;
+    private final PrimitiveTable primitiveTable = new PrimitiveTable();
+    // the variables bound by lets around the expression visited
+    private final List<String> bound = new ArrayList<>();
+    private boolean recursive;
+
+    RecurrenceCheck(Definition definition) {
+      this.name = definition.getName();
+      this.parameter = definition.getArguments().get(0);
+    }
+
+    @Override
+    public Boolean visit(AndExpression andExpression) {
+      return andExpression.getLeftOperand().accept(this)
+        && andExpression.getRightOperand().accept(this);
+    }
+
+    @Override
+    public Boolean visit(BooleanLiteral booleanLiteral) {
+      return true;
+    }
+
+    @Override
+    public Boolean visit(FunctionCall functionCall) {
+      if (primitiveOf(functionCall, primitiveTable) != null) {
+        for (Expression argument : functionCall.getArguments()) {
+          if (!argument.accept(this)) {
+            return false;
+          }
+        }
+        return true;
+      }
+      if (!functionCall.getFunctionName().equals(name)
+          || functionCall.getArguments().size() != 1) {
+        return false;
+      }
+      recursive = true;
+      return functionCall.getArguments().get(0) instanceof FunctionCall argument
+        && argument.getFunctionName().equals("-")
+        && primitiveOf(argument, primitiveTable) != null
+        && argument.getArguments().size() == 2
+        && argument.getArguments().get(0) instanceof VariableReference reference
+        && reference.getVariableName().equals(parameter)
+        && !bound.contains(parameter)
+        && argument.getArguments().get(1) instanceof IntLiteral offset
+        && offset.getValue() > 0;
+    }
+
+    @Override
+    public Boolean visit(IfExpression ifExpression) {
+      return ifExpression.getCondition().accept(this)
+        && ifExpression.getConsequent().accept(this)
+        && ifExpression.getAlternative().accept(this);
+    }
+
+    @Override
+    public Boolean visit(IntLiteral intLiteral) {
+      return true;
+    }
+
+    @Override
+    public Boolean visit(LetExpression letExpression) {
+      if (!letExpression.getRhs().accept(this)) {
+        return false;
+      }
+      bound.add(letExpression.getVarName());
+      boolean ok = letExpression.getBody().accept(this);
+      bound.remove(bound.size() - 1);
+      return ok;
+    }
+
+    @Override
+    public Boolean visit(OrExpression orExpression) {
+      return orExpression.getLeft().accept(this) && orExpression.getRight().accept(this);
+    }
+
+    @Override
+    public Boolean visit(VariableReference reference) {
+      return true;
+    }
+  }
+}
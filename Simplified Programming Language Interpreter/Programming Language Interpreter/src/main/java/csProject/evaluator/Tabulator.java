@@ -0,0 +1,107 @@
+package csProject.evaluator;
+
+import csProject.ast.Definition;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opt-in tabulation of definition calls for the tree-walking
+ * {@code Evaluator}.  The results of a tabulated definition, a recurrence
+ * over one int parameter such as <code>fib</code>, are computed bottom up
+ * into a {@code Tabulation} instead of by recursion.  Definitions that do
+ * not have the right shape, and calls the table cannot answer, are
+ * evaluated as usual.
+ *
+ * <p>Tables are kept per program, keyed by the program's definitions, as
+ * the {@code Memoizer} keeps its caches, so programs that define a function
+ * of the same name differently do not share tables.  A tabulator can be
+ * shared by evaluations running concurrently.</p>
+ */
+public class Tabulator {
+  /**
+   * The default maximum number of entries in each table.
+   */
+  public static final int DEFAULT_MAX_SIZE = 1 << 20;
+
+  private final Set<String> names;
+  private final int maxSize;
+  private final Map<List<Definition>, Tabulation[]> tabulations = new ConcurrentHashMap<>();
+  // the table most recently created for each name, for inspection
+  private final Map<String, Tabulation> tabulationsByName = new ConcurrentHashMap<>();
+
+  private Tabulator(Set<String> names, int maxSize) {
+    if (maxSize <= 0) {
+      throw new IllegalArgumentException("maximum size must be positive: " + maxSize);
+    }
+    this.names = names;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Creates a tabulator for every definition of a program that can be
+   * tabulated.
+   * @param maxSize the maximum number of entries in each table
+   * @return the tabulator
+   */
+  public static Tabulator forAllDefinitions(int maxSize) {
+    return new Tabulator(null, maxSize);
+  }
+
+  /**
+   * Creates a tabulator for the named definitions only.
+   * @param names the names of the definitions to tabulate
+   * @param maxSize the maximum number of entries in each table
+   * @return the tabulator
+   */
+  public static Tabulator forDefinitions(Collection<String> names, int maxSize) {
+    return new Tabulator(Set.copyOf(names), maxSize);
+  }
+
+  /**
+   * Gets the tables for the definitions of a program, creating them on
+   * first use.
+   * @param definitions the definitions of the program
+   * @return the tables of the definitions, by index, with null for the
+   *   definitions that are not tabulated
+   */
+  public Tabulation[] tabulationsFor(List<Definition> definitions) {
+    return tabulations.computeIfAbsent(List.copyOf(definitions), this::newTabulations);
+  }
+
+  private Tabulation[] newTabulations(List<Definition> definitions) {
+    Tabulation[] created = new Tabulation[definitions.size()];
+    for (int i = 0; i < created.length; i++) {
+      Definition definition = definitions.get(i);
+      if (names == null || names.contains(definition.getName())) {
+        created[i] = Tabulation.of(definition, maxSize);
+        if (created[i] != null) {
+          tabulationsByName.put(definition.getName(), created[i]);
+        }
+      }
+    }
+    return created;
+  }
+
+  /**
+   * Gets the table of a definition, for inspecting it.  If several programs
+   * define the name, this is the table of the program tabulated most
+   * recently.
+   * @param name the name of the definition
+   * @return the definition's table, or null if no program tabulating the
+   *   definition has been evaluated yet
+   */
+  public Tabulation getTabulation(String name) {
+    return tabulationsByName.get(name);
+  }
+
+  /**
+   * Removes all tables, of every program.
+   */
+  public void clear() {
+    tabulations.clear();
+    tabulationsByName.clear();
+  }
+}
@@ -0,0 +1,215 @@
+package csProject.flat;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.evaluator.Linker;
+import csProject.evaluator.Resolver;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.primitives.ArithmeticOperator;
+import csProject.primitives.NotOperator;
+import csProject.primitives.Primitive;
+import csProject.primitives.RelationalOperator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Encodes a {@code Program} as a {@code FlatProgram}.  The program is
+ * linked and resolved first, so calls are encoded as function or primitive
+ * indices and variables as frame slots.  Structurally equal subtrees, such
+ * as the two <code>(- n 1)</code> in a body, are encoded as one node, found
+ * by their cached structural hashes.
+ */
+public class FlatEncoder implements ExpressionVisitor<Integer> {
+  private byte[] kinds = new byte[64];
+  private int[] values = new int[64];
+  private int[] operandStarts = new int[65];
+  private int nodeCount = 0;
+  private int[] operands = new int[64];
+  private int operandCount = 0;
+
+  private final Map<Integer, Integer> literals = new LinkedHashMap<>();
+  private final Map<String, Integer> symbols = new LinkedHashMap<>();
+  private final Map<Primitive, Integer> primitives = new IdentityHashMap<>();
+  private final List<Primitive> primitivePool = new ArrayList<>();
+  private final Map<Expression, Integer> encoded = new HashMap<>();
+
+  private FlatEncoder() {
+  }
+
+  /**
+   * Encodes a program.
+   * @param program the program to encode
+   * @return the encoded program
+   * @throws UndefinedFunctionException if any call is to an undefined function
+   * @throws ArityMismatchException if any call has the wrong number of arguments
+   */
+  public static FlatProgram encode(Program program) {
+    Objects.requireNonNull(program);
+    Program resolved = Resolver.resolve(Linker.link(program));
+    FlatEncoder encoder = new FlatEncoder();
+
+    List<Definition> definitions = resolved.getDefinitions();
+    Map<String, Integer> lastIndices = new HashMap<>();
+    for (int i = 0; i < definitions.size(); i++) {
+      lastIndices.put(definitions.get(i).getName(), i);
+    }
+
+    int functionCount = definitions.size() + 1;
+    int[] roots = new int[functionCount];
+    int[] arities = new int[functionCount];
+    int[] frameSizes = new int[functionCount];
+    int[] functionSymbols = new int[functionCount];
+    for (int i = 0; i < definitions.size(); i++) {
+      Definition d = definitions.get(i);
+      arities[i] = d.getArguments().size();
+      frameSizes[i] = d.getFrameSize();
+      functionSymbols[i] = encoder.symbol(d.getName());
+      // later definitions with the same name win, as in the Linker
+      roots[i] = lastIndices.get(d.getName()) == i ? encoder.encode(d.getBody()) : -1;
+    }
+    int main = definitions.size();
+    roots[main] = encoder.encode(resolved.getExpression());
+    frameSizes[main] = resolved.getFrameSize();
+    functionSymbols[main] = -1;
+
+    return new FlatProgram(
+      Arrays.copyOf(encoder.kinds, encoder.nodeCount),
+      Arrays.copyOf(encoder.values, encoder.nodeCount),
+      Arrays.copyOf(encoder.operandStarts, encoder.nodeCount + 1),
+      Arrays.copyOf(encoder.operands, encoder.operandCount),
+      encoder.literals.keySet().stream().mapToInt(Integer::intValue).toArray(),
+      encoder.symbols.keySet().toArray(new String[0]),
+      encoder.primitivePool.toArray(new Primitive[0]),
+      roots,
+      arities,
+      frameSizes,
+      functionSymbols
+    );
+  }
+
+  private int encode(Expression expression) {
+    Integer node = encoded.get(expression);
+    if (node == null) {
+      node = expression.accept(this);
+      encoded.put(expression, node);
+    }
+    return node;
+  }
+
+  @Override
+  public Integer visit(AndExpression andExpression) {
+    int left = encode(andExpression.getLeftOperand());
+    int right = encode(andExpression.getRightOperand());
+    return add(NodeKind.AND, 0, left, right);
+  }
+
+  @Override
+  public Integer visit(BooleanLiteral booleanLiteral) {
+    return add(NodeKind.BOOLEAN_LITERAL, booleanLiteral.isValue() ? 1 : 0);
+  }
+
+  @Override
+  public Integer visit(FunctionCall functionCall) {
+    List<Expression> argExprs = functionCall.getArguments();
+    int[] arguments = new int[argExprs.size()];
+    for (int i = 0; i < arguments.length; i++) {
+      arguments[i] = encode(argExprs.get(i));
+    }
+
+    Primitive primitive = functionCall.getPrimitive();
+    if (primitive == null) {
+      return add(NodeKind.CALL, functionCall.getDefinitionIndex(), arguments);
+    }
+    if (arguments.length == 2 && primitive instanceof ArithmeticOperator) {
+      return add(NodeKind.ARITHMETIC, primitive(primitive), arguments);
+    }
+    if (arguments.length == 2 && primitive instanceof RelationalOperator) {
+      return add(NodeKind.RELATIONAL, primitive(primitive), arguments);
+    }
+    if (arguments.length == 1 && primitive instanceof NotOperator) {
+      return add(NodeKind.NOT, 0, arguments);
+    }
+    return add(NodeKind.PRIMITIVE, primitive(primitive), arguments);
+  }
+
+  @Override
+  public Integer visit(IfExpression ifExpression) {
+    int condition = encode(ifExpression.getCondition());
+    int consequent = encode(ifExpression.getConsequent());
+    int alternative = encode(ifExpression.getAlternative());
+    return add(NodeKind.IF, 0, condition, consequent, alternative);
+  }
+
+  @Override
+  public Integer visit(IntLiteral intLiteral) {
+    int index = literals.computeIfAbsent(intLiteral.getValue(), v -> literals.size());
+    return add(NodeKind.INT_LITERAL, index);
+  }
+
+  @Override
+  public Integer visit(LetExpression letExpression) {
+    int rhs = encode(letExpression.getRhs());
+    int body = encode(letExpression.getBody());
+    return add(NodeKind.LET, letExpression.getSlot(), rhs, body);
+  }
+
+  @Override
+  public Integer visit(OrExpression orExpression) {
+    int left = encode(orExpression.getLeft());
+    int right = encode(orExpression.getRight());
+    return add(NodeKind.OR, 0, left, right);
+  }
+
+  @Override
+  public Integer visit(VariableReference reference) {
+    if (reference.getSlot() < 0) {
+      return add(NodeKind.UNBOUND_VARIABLE, symbol(reference.getVariableName()));
+    }
+    return add(NodeKind.LOCAL, reference.getSlot());
+  }
+
+  private int symbol(String name) {
+    return symbols.computeIfAbsent(name, n -> symbols.size());
+  }
+
+  private int primitive(Primitive primitive) {
+    return primitives.computeIfAbsent(primitive, p -> {
+      primitivePool.add(p);
+      return primitivePool.size() - 1;
+    });
+  }
+
+  private int add(byte kind, int value, int... children) {
+    if (nodeCount == kinds.length) {
+      kinds = Arrays.copyOf(kinds, nodeCount * 2);
+      values = Arrays.copyOf(values, nodeCount * 2);
+      operandStarts = Arrays.copyOf(operandStarts, nodeCount * 2 + 1);
+    }
+    if (operandCount + children.length > operands.length) {
+      operands = Arrays.copyOf(operands, Math.max(operands.length * 2, operandCount + children.length));
+    }
+    System.arraycopy(children, 0, operands, operandCount, children.length);
+    operandCount += children.length;
+    kinds[nodeCount] = kind;
+    values[nodeCount] = value;
+    operandStarts[nodeCount + 1] = operandCount;
+    return nodeCount++;
+  }
+}
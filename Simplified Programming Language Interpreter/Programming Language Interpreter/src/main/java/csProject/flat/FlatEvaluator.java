@@ -0,0 +1,207 @@
+package csProject.flat;
+
+import csProject.core.TaggedValue;
+import csProject.core.Value;
+import csProject.evalExceptions.UndefinedVariableException;
+import csProject.primitives.ArithmeticOperator;
+import csProject.primitives.Primitive;
+import csProject.primitives.RelationalOperator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evaluator for {@code FlatProgram}s, which walks the node arrays by index.
+ * Values are encoded as {@code TaggedValue}s, and each call's frame is one
+ * {@code long[]}, so evaluation allocates no values, except to pass them to
+ * primitives other than the arithmetic, relational and <code>not</code>
+ * operators.
+ *
+ * <p>As in the {@code Evaluator}, an expression is evaluated down through
+ * its tail positions -- the branches of an <code>if</code>, the body of a
+ * <code>let</code>, and the right operand of an <code>and</code> or
+ * <code>or</code> -- in a loop, and a call in tail position replaces the
+ * current frame instead of nesting inside it, so tail-recursive definitions
+ * run in constant Java stack.</p>
+ */
+public class FlatEvaluator {
+  private final byte[] kinds;
+  private final int[] values;
+  private final int[] operandStarts;
+  private final int[] operands;
+  private final int[] literals;
+  private final String[] symbols;
+  private final Primitive[] primitives;
+  private final int[] roots;
+  private final int[] frameSizes;
+  private final int main;
+
+  /**
+   * Constructs an evaluator for a program.
+   * @param program the program to evaluate
+   */
+  public FlatEvaluator(FlatProgram program) {
+    this.kinds = program.getKinds();
+    this.values = program.getValues();
+    this.operandStarts = program.getOperandStarts();
+    this.operands = program.getOperands();
+    this.literals = program.getLiterals();
+    this.symbols = program.getSymbols();
+    this.primitives = program.getPrimitives();
+    this.roots = program.getRoots();
+    this.frameSizes = program.getFrameSizes();
+    this.main = program.getMainFunction();
+  }
+
+  /**
+   * Runs the program.
+   * @return the value of the program's expression
+   */
+  public Value run() {
+    return TaggedValue.toValue(evaluate(roots[main], new long[frameSizes[main]]));
+  }
+
+  private long evaluate(int node, long[] frame) {
+    // set once a tail position inside an `and` or `or` has been entered,
+    // whose result must then be a boolean
+    boolean booleanResult = false;
+    while (true) {
+      int first = operandStarts[node];
+      switch (kinds[node]) {
+        case NodeKind.IF -> node = evalBoolean(operands[first], frame)
+          ? operands[first + 1]
+          : operands[first + 2];
+        case NodeKind.LET -> {
+          frame[values[node]] = evaluate(operands[first], frame);
+          node = operands[first + 1];
+        }
+        case NodeKind.AND -> {
+          if (!evalBoolean(operands[first], frame)) {
+            return TaggedValue.FALSE;
+          }
+          booleanResult = true;
+          node = operands[first + 1];
+        }
+        case NodeKind.OR -> {
+          if (evalBoolean(operands[first], frame)) {
+            return TaggedValue.TRUE;
+          }
+          booleanResult = true;
+          node = operands[first + 1];
+        }
+        case NodeKind.CALL -> {
+          int function = values[node];
+          long[] calleeFrame = new long[frameSizes[function]];
+          int end = operandStarts[node + 1];
+          for (int i = first; i < end; i++) {
+            calleeFrame[i - first] = evaluate(operands[i], frame);
+          }
+          frame = calleeFrame;
+          node = roots[function];
+        }
+        default -> {
+          long result = evaluateLeaf(node, first, frame);
+          return booleanResult ? TaggedValue.ofBoolean(TaggedValue.asBoolean(result)) : result;
+        }
+      }
+    }
+  }
+
+  private long evaluateLeaf(int node, int first, long[] frame) {
+    return switch (kinds[node]) {
+      case NodeKind.INT_LITERAL -> TaggedValue.ofInt(literals[values[node]]);
+      case NodeKind.BOOLEAN_LITERAL -> values[node] != 0 ? TaggedValue.TRUE : TaggedValue.FALSE;
+      case NodeKind.LOCAL -> frame[values[node]];
+      case NodeKind.UNBOUND_VARIABLE ->
+        throw new UndefinedVariableException(symbols[values[node]]);
+      case NodeKind.ARITHMETIC -> TaggedValue.ofInt(evalInt(node, frame));
+      case NodeKind.RELATIONAL, NodeKind.NOT -> TaggedValue.ofBoolean(evalBoolean(node, frame));
+      case NodeKind.PRIMITIVE -> applyPrimitive(node, first, frame);
+      default -> throw new IllegalStateException(
+        "invalid node kind " + kinds[node] + " at " + node
+      );
+    };
+  }
+
+  /**
+   * Evaluates a node whose value must be an int, computing arithmetic on
+   * raw ints.
+   */
+  private int evalInt(int node, long[] frame) {
+    int first = operandStarts[node];
+    return switch (kinds[node]) {
+      case NodeKind.INT_LITERAL -> literals[values[node]];
+      case NodeKind.ARITHMETIC -> {
+        ArithmeticOperator operator = (ArithmeticOperator) primitives[values[node]];
+        if (isIntNode(operands[first])) {
+          // only the right operand is checked, after it has been evaluated
+          int left = evalInt(operands[first], frame);
+          yield operator.applyInt(left, evalInt(operands[first + 1], frame));
+        }
+        long left = evaluate(operands[first], frame);
+        yield operator.applyTagged(left, evaluate(operands[first + 1], frame));
+      }
+      default -> TaggedValue.asInteger(evaluate(node, frame));
+    };
+  }
+
+  /**
+   * Evaluates a node whose value must be a boolean, computing comparisons
+   * and logical operators on raw booleans.
+   */
+  private boolean evalBoolean(int node, long[] frame) {
+    int first = operandStarts[node];
+    return switch (kinds[node]) {
+      case NodeKind.BOOLEAN_LITERAL -> values[node] != 0;
+      case NodeKind.RELATIONAL -> {
+        RelationalOperator operator = (RelationalOperator) primitives[values[node]];
+        if (isIntNode(operands[first])) {
+          int left = evalInt(operands[first], frame);
+          yield operator.compare(left, evalInt(operands[first + 1], frame));
+        }
+        long left = evaluate(operands[first], frame);
+        yield operator.compareTagged(left, evaluate(operands[first + 1], frame));
+      }
+      case NodeKind.NOT -> !evalBoolean(operands[first], frame);
+      case NodeKind.AND ->
+        evalBoolean(operands[first], frame) && evalBoolean(operands[first + 1], frame);
+      case NodeKind.OR ->
+        evalBoolean(operands[first], frame) || evalBoolean(operands[first + 1], frame);
+      default -> TaggedValue.asBoolean(evaluate(node, frame));
+    };
+  }
+
+  /**
+   * Whether a node always produces an int, so that it can be unboxed before
+   * the operand after it is evaluated without changing which error is raised.
+   */
+  private boolean isIntNode(int node) {
+    return kinds[node] == NodeKind.INT_LITERAL || kinds[node] == NodeKind.ARITHMETIC;
+  }
+
+  /**
+   * Applies a primitive that has no node kind of its own.  Binary arithmetic
+   * and comparisons are encoded as {@code ARITHMETIC} and {@code RELATIONAL}
+   * nodes and never get here, so only the remaining calls, which are rare,
+   * box their arguments.
+   */
+  private long applyPrimitive(int node, int first, long[] frame) {
+    Primitive primitive = primitives[values[node]];
+    int count = operandStarts[node + 1] - first;
+    if (count == 1) {
+      return TaggedValue.of(primitive.apply1(argument(first, frame)));
+    }
+    if (count == 2) {
+      Value left = argument(first, frame);
+      return TaggedValue.of(primitive.apply2(left, argument(first + 1, frame)));
+    }
+    List<Value> arguments = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      arguments.add(argument(first + i, frame));
+    }
+    return TaggedValue.of(primitive.apply(arguments));
+  }
+
+  private Value argument(int operand, long[] frame) {
+    return TaggedValue.toValue(evaluate(operands[operand], frame));
+  }
+}
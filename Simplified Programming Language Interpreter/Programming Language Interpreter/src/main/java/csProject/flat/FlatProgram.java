@@ -0,0 +1,200 @@
+package csProject.flat;
+
+import csProject.core.Value;
+import csProject.primitives.Primitive;
+
+/**
+ * A program encoded as parallel arrays instead of a graph of node objects.
+ * Node i has the kind {@code kinds[i]}, the value {@code values[i]} and the
+ * operands {@code operands[operandStarts[i]]} up to, but not including,
+ * {@code operands[operandStarts[i + 1]]}; the meaning of the value and the
+ * operands for each kind is given in {@code NodeKind}.  Int literals,
+ * names and primitives are kept once each, in pools the nodes refer to by
+ * index.  Children are encoded before their parents, so every operand is
+ * less than the index of its node.
+ *
+ * <p>Functions are numbered as the program's definitions are, and the
+ * program's expression is the function after the last definition.  Each
+ * function has a root node, an arity and a frame size; definitions that are
+ * shadowed by a later definition with the same name can never be called, and
+ * have no root.</p>
+ */
+public class FlatProgram {
+  private final byte[] kinds;
+  private final int[] values;
+  private final int[] operandStarts;
+  private final int[] operands;
+  private final int[] literals;
+  private final String[] symbols;
+  private final Primitive[] primitives;
+  private final int[] roots;
+  private final int[] arities;
+  private final int[] frameSizes;
+  private final int[] functionSymbols;
+
+  /**
+   * Constructs an encoded program.
+   * @param kinds           the kind of each node
+   * @param values          the value of each node
+   * @param operandStarts   where the operands of each node start, plus the
+   *                        end of the last node's operands
+   * @param operands        the operands of all nodes
+   * @param literals        the int literal pool
+   * @param symbols         the names of variables and functions
+   * @param primitives      the primitive pool
+   * @param roots           the root node of each function, or -1
+   * @param arities         the number of parameters of each function
+   * @param frameSizes      the number of frame slots of each function
+   * @param functionSymbols the symbol id of each function's name
+   */
+  FlatProgram(
+    byte[] kinds,
+    int[] values,
+    int[] operandStarts,
+    int[] operands,
+    int[] literals,
+    String[] symbols,
+    Primitive[] primitives,
+    int[] roots,
+    int[] arities,
+    int[] frameSizes,
+    int[] functionSymbols
+  ) {
+    this.kinds = kinds;
+    this.values = values;
+    this.operandStarts = operandStarts;
+    this.operands = operands;
+    this.literals = literals;
+    this.symbols = symbols;
+    this.primitives = primitives;
+    this.roots = roots;
+    this.arities = arities;
+    this.frameSizes = frameSizes;
+    this.functionSymbols = functionSymbols;
+  }
+
+  byte[] getKinds() {
+    return kinds;
+  }
+
+  int[] getValues() {
+    return values;
+  }
+
+  int[] getOperandStarts() {
+    return operandStarts;
+  }
+
+  int[] getOperands() {
+    return operands;
+  }
+
+  int[] getLiterals() {
+    return literals;
+  }
+
+  String[] getSymbols() {
+    return symbols;
+  }
+
+  Primitive[] getPrimitives() {
+    return primitives;
+  }
+
+  int[] getRoots() {
+    return roots;
+  }
+
+  int[] getFrameSizes() {
+    return frameSizes;
+  }
+
+  /**
+   * Returns the index of the function for the program's expression.
+   * @return the main function
+   */
+  public int getMainFunction() {
+    return roots.length - 1;
+  }
+
+  /**
+   * Returns the number of functions, including the main function.
+   * @return the function count
+   */
+  public int getFunctionCount() {
+    return roots.length;
+  }
+
+  /**
+   * Returns the name of a function.
+   * @param function the index of the function
+   * @return the function's name, or null for the main function
+   */
+  public String getFunctionName(int function) {
+    int symbol = functionSymbols[function];
+    return symbol < 0 ? null : symbols[symbol];
+  }
+
+  /**
+   * Returns the number of parameters of a function.
+   * @param function the index of the function
+   * @return the function's arity
+   */
+  public int getArity(int function) {
+    return arities[function];
+  }
+
+  /**
+   * Returns the number of nodes.  Structurally equal subtrees are encoded
+   * once, so this may be smaller than the number of nodes of the AST.
+   * @return the node count
+   */
+  public int getNodeCount() {
+    return kinds.length;
+  }
+
+  /**
+   * Returns the kind of a node.
+   * @param node the index of the node
+   * @return one of the {@code NodeKind} constants
+   */
+  public byte getKind(int node) {
+    return kinds[node];
+  }
+
+  /**
+   * Returns the number of distinct int literals.
+   * @return the size of the literal pool
+   */
+  public int getLiteralCount() {
+    return literals.length;
+  }
+
+  /**
+   * Returns the number of distinct names.
+   * @return the size of the symbol pool
+   */
+  public int getSymbolCount() {
+    return symbols.length;
+  }
+
+  /**
+   * Returns the number of bytes taken by the arrays of the encoding, not
+   * counting the names and primitives they refer to.
+   * @return the size of the encoding in bytes
+   */
+  public long getEncodedSize() {
+    long ints = values.length + operandStarts.length + operands.length + literals.length
+      + roots.length + arities.length + frameSizes.length + functionSymbols.length;
+    return kinds.length + 4 * ints;
+  }
+
+  /**
+   * Runs the program with a {@code FlatEvaluator}.  An encoded program can
+   * be run any number of times.
+   * @return the value of the program's expression
+   */
+  public Value run() {
+    return new FlatEvaluator(this).run();
+  }
+}
@@ -0,0 +1,39 @@
+package csProject.flat;
+
+/**
+ * Kinds of the nodes of a {@code FlatProgram}.  Each node has a kind, one
+ * int value whose meaning depends on the kind, and a run of operands, which
+ * are the indices of its child nodes.  The comment on each kind gives its
+ * value and its operands.
+ */
+public final class NodeKind {
+  /** value: index in the literal pool; no operands. */
+  public static final byte INT_LITERAL = 0;
+  /** value: 1 for true, 0 for false; no operands. */
+  public static final byte BOOLEAN_LITERAL = 1;
+  /** value: frame slot of the variable; no operands. */
+  public static final byte LOCAL = 2;
+  /** value: symbol id of a variable that is not in scope; no operands. */
+  public static final byte UNBOUND_VARIABLE = 3;
+  /** value: frame slot of the variable; operands: rhs, body. */
+  public static final byte LET = 4;
+  /** operands: condition, consequent, alternative. */
+  public static final byte IF = 5;
+  /** operands: left, right. */
+  public static final byte AND = 6;
+  /** operands: left, right. */
+  public static final byte OR = 7;
+  /** value: index of the called function; operands: the arguments. */
+  public static final byte CALL = 8;
+  /** value: index of an arithmetic operator in the primitive pool; operands: left, right. */
+  public static final byte ARITHMETIC = 9;
+  /** value: index of a relational operator in the primitive pool; operands: left, right. */
+  public static final byte RELATIONAL = 10;
+  /** operands: the negated operand. */
+  public static final byte NOT = 11;
+  /** value: index of any other primitive in the primitive pool; operands: the arguments. */
+  public static final byte PRIMITIVE = 12;
+
+  private NodeKind() {
+  }
+}
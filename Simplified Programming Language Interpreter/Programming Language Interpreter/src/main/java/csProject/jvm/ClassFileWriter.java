@@ -0,0 +1,186 @@
+package csProject.jvm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal writer for JVM class files: just enough of the format to hold a
+ * class of static methods over ints.  Classes are written as version 49 so
+ * that the verifier infers stack map frames itself.
+ */
+class ClassFileWriter {
+  private static final int MAGIC = 0xCAFEBABE;
+  private static final int MAJOR_VERSION = 49;
+
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_INTEGER = 3;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+  // the greatest value of the u2 fields for counts and sizes
+  private static final int MAX_U2 = 0xFFFF;
+
+  private final ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+  private final DataOutputStream pool = new DataOutputStream(poolBytes);
+  private final Map<String, Integer> poolIndices = new HashMap<>();
+  private int poolCount = 1;
+
+  private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+  private final DataOutputStream methods = new DataOutputStream(methodBytes);
+  private int methodCount = 0;
+
+  private final int thisClass;
+  private final int superClass;
+  private final int codeAttribute;
+
+  /**
+   * Starts a new class file.
+   * @param className  internal name of the class, e.g. <code>a/b/C</code>
+   * @param superName  internal name of the superclass
+   */
+  ClassFileWriter(String className, String superName) {
+    thisClass = classRef(className);
+    superClass = classRef(superName);
+    codeAttribute = utf8("Code");
+  }
+
+  int utf8(String s) {
+    return constant("U" + s, out -> {
+      out.writeByte(CONSTANT_UTF8);
+      out.writeUTF(s);
+    });
+  }
+
+  int integer(int value) {
+    return constant("I" + value, out -> {
+      out.writeByte(CONSTANT_INTEGER);
+      out.writeInt(value);
+    });
+  }
+
+  int classRef(String internalName) {
+    int name = utf8(internalName);
+    return constant("C" + internalName, out -> {
+      out.writeByte(CONSTANT_CLASS);
+      out.writeShort(name);
+    });
+  }
+
+  int methodRef(String owner, String name, String descriptor) {
+    int ownerIndex = classRef(owner);
+    int nameIndex = utf8(name);
+    int descriptorIndex = utf8(descriptor);
+    int nameAndType = constant("N" + name + ":" + descriptor, out -> {
+      out.writeByte(CONSTANT_NAME_AND_TYPE);
+      out.writeShort(nameIndex);
+      out.writeShort(descriptorIndex);
+    });
+    return constant("M" + owner + "." + name + ":" + descriptor, out -> {
+      out.writeByte(CONSTANT_METHODREF);
+      out.writeShort(ownerIndex);
+      out.writeShort(nameAndType);
+    });
+  }
+
+  /**
+   * Adds a method with a <code>Code</code> attribute and no exception table.
+   * @throws UnsupportedProgramException if the method's stack or locals do
+   *   not fit the class file format
+   */
+  void addMethod(
+    int access,
+    String name,
+    String descriptor,
+    byte[] code,
+    int maxStack,
+    int maxLocals
+  ) {
+    if (maxStack > MAX_U2 || maxLocals > MAX_U2) {
+      throw new UnsupportedProgramException(
+        "method " + name + " needs too much stack or too many locals: "
+          + maxStack + ", " + maxLocals
+      );
+    }
+    int nameIndex = utf8(name);
+    int descriptorIndex = utf8(descriptor);
+    write(() -> {
+      methods.writeShort(access);
+      methods.writeShort(nameIndex);
+      methods.writeShort(descriptorIndex);
+      methods.writeShort(1);
+      methods.writeShort(codeAttribute);
+      methods.writeInt(12 + code.length);
+      methods.writeShort(maxStack);
+      methods.writeShort(maxLocals);
+      methods.writeInt(code.length);
+      methods.write(code);
+      methods.writeShort(0); // exception table
+      methods.writeShort(0); // attributes
+    });
+    methodCount++;
+  }
+
+  byte[] toByteArray() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    write(() -> {
+      out.writeInt(MAGIC);
+      out.writeShort(0);
+      out.writeShort(MAJOR_VERSION);
+      out.writeShort(poolCount);
+      pool.flush();
+      poolBytes.writeTo(out);
+      out.writeShort(0x0001 | 0x0010 | 0x0020); // public final super
+      out.writeShort(thisClass);
+      out.writeShort(superClass);
+      out.writeShort(0); // interfaces
+      out.writeShort(0); // fields
+      out.writeShort(methodCount);
+      methods.flush();
+      methodBytes.writeTo(out);
+      out.writeShort(0); // attributes
+      out.flush();
+    });
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Adds a constant to the pool, unless it is there already.
+   * @throws UnsupportedProgramException if the pool is full
+   */
+  private int constant(String key, ConstantWriter writer) {
+    Integer existing = poolIndices.get(key);
+    if (existing != null) {
+      return existing;
+    }
+    // the pool's count is one more than its greatest index
+    if (poolCount == MAX_U2) {
+      throw new UnsupportedProgramException("too many constants: " + poolCount);
+    }
+    write(() -> writer.write(pool));
+    int index = poolCount++;
+    poolIndices.put(key, index);
+    return index;
+  }
+
+  private static void write(IoAction action) {
+    try {
+      action.run();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private interface ConstantWriter {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  private interface IoAction {
+    void run() throws IOException;
+  }
+}
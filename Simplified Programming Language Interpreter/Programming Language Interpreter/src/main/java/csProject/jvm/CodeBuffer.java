@@ -0,0 +1,165 @@
+package csProject.jvm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Byte buffer for the body of one JVM method, with forward-branch patching
+ * and operand stack depth tracking.
+ */
+class CodeBuffer {
+  static final int ICONST_0 = 0x03;
+  static final int ICONST_1 = 0x04;
+  static final int BIPUSH = 0x10;
+  static final int SIPUSH = 0x11;
+  static final int LDC_W = 0x13;
+  static final int ILOAD = 0x15;
+  static final int ISTORE = 0x36;
+  static final int IADD = 0x60;
+  static final int ISUB = 0x64;
+  static final int IMUL = 0x68;
+  static final int IDIV = 0x6c;
+  static final int IREM = 0x70;
+  static final int IXOR = 0x82;
+  static final int IFEQ = 0x99;
+  static final int IFNE = 0x9a;
+  static final int IF_ICMPEQ = 0x9f;
+  static final int IF_ICMPNE = 0xa0;
+  static final int IF_ICMPLT = 0xa1;
+  static final int IF_ICMPGE = 0xa2;
+  static final int IF_ICMPGT = 0xa3;
+  static final int IF_ICMPLE = 0xa4;
+  static final int GOTO = 0xa7;
+  static final int IRETURN = 0xac;
+  static final int INVOKESTATIC = 0xb8;
+
+  /**
+   * Largest method body we emit; keeps every branch offset within the
+   * 16-bit range of the short branch instructions.
+   */
+  static final int MAX_CODE_LENGTH = Short.MAX_VALUE;
+
+  private byte[] code = new byte[64];
+  private int length = 0;
+  private int stackDepth = 0;
+  private int maxStack = 0;
+
+  /**
+   * A branch target.  Forward references are patched when the label is
+   * placed.
+   */
+  static class Label {
+    private final List<Integer> references = new ArrayList<>();
+  }
+
+  void pushInt(int value, ClassFileWriter classFile) {
+    if (value >= -1 && value <= 5) {
+      op(ICONST_0 + value, 1);
+    } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+      op(BIPUSH, 1);
+      write(value);
+    } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+      op(SIPUSH, 1);
+      writeShort(value);
+    } else {
+      op(LDC_W, 1);
+      writeShort(classFile.integer(value));
+    }
+  }
+
+  void load(int slot) {
+    op(ILOAD, 1);
+    write(slot);
+  }
+
+  void store(int slot) {
+    op(ISTORE, -1);
+    write(slot);
+  }
+
+  void binary(int opcode) {
+    op(opcode, -1);
+  }
+
+  void invokeStatic(int methodRef, int argumentCount) {
+    op(INVOKESTATIC, 1 - argumentCount);
+    writeShort(methodRef);
+  }
+
+  void returnInt() {
+    op(IRETURN, -1);
+  }
+
+  /**
+   * Emits a conditional branch; <code>popped</code> is the number of stack
+   * operands the branch consumes.
+   */
+  void branch(int opcode, int popped, Label target) {
+    op(opcode, -popped);
+    reference(target);
+  }
+
+  /**
+   * Emits an unconditional jump.  Code following a jump is unreachable
+   * until the next label is placed, which sets the stack depth again.
+   */
+  void jump(Label target) {
+    op(GOTO, 0);
+    reference(target);
+  }
+
+  /**
+   * Places a label at the current position.
+   * @param label the label
+   * @param depth the operand stack depth on entry to the label
+   */
+  void place(Label label, int depth) {
+    stackDepth = depth;
+    for (int at : label.references) {
+      int offset = length - (at - 1);
+      code[at] = (byte) (offset >> 8);
+      code[at + 1] = (byte) offset;
+    }
+  }
+
+  int getStackDepth() {
+    return stackDepth;
+  }
+
+  int getMaxStack() {
+    return maxStack;
+  }
+
+  byte[] toByteArray() {
+    if (length > MAX_CODE_LENGTH) {
+      throw new UnsupportedProgramException(
+        "compiled method is too large: " + length + " bytes"
+      );
+    }
+    return Arrays.copyOf(code, length);
+  }
+
+  private void reference(Label target) {
+    target.references.add(length);
+    writeShort(0);
+  }
+
+  private void op(int opcode, int stackDelta) {
+    write(opcode);
+    stackDepth += stackDelta;
+    maxStack = Math.max(maxStack, stackDepth);
+  }
+
+  private void writeShort(int value) {
+    write(value >> 8);
+    write(value);
+  }
+
+  private void write(int b) {
+    if (length == code.length) {
+      code = Arrays.copyOf(code, length * 2);
+    }
+    code[length++] = (byte) b;
+  }
+}
@@ -0,0 +1,288 @@
+package csProject.jvm;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.core.TypeError;
+import csProject.evalExceptions.EvaluationException;
+import csProject.jvm.CodeBuffer.Label;
+import csProject.types.Type;
+import csProject.types.TypeInference;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compiles a statically well-typed {@code Program} to JVM bytecode.  Each
+ * definition becomes a static method of a generated hidden class, with ints
+ * and booleans passed as JVM primitives and calls between definitions
+ * compiled to direct <code>invokestatic</code> instructions.  The program's
+ * expression becomes a static method with no parameters.
+ *
+ * <p>Programs that are not statically well-typed, or that call undefined
+ * functions or call functions with the wrong number of arguments, are
+ * rejected at compile time; callers should run those with one of the
+ * interpreting engines, which raise the corresponding errors if and when
+ * the offending code is actually reached.</p>
+ */
+public class JvmCompiler implements ExpressionVisitor<Void> {
+  private static final String CLASS_NAME = "csProject/jvm/CompiledDefinitions";
+  private static final String MAIN_METHOD = "main";
+  private static final String DIVIDE_OWNER = "csProject/primitives/DivideOperator";
+
+  private static final Map<String, Integer> ARITHMETIC_OPCODES = Map.of(
+    "+", CodeBuffer.IADD,
+    "-", CodeBuffer.ISUB,
+    "*", CodeBuffer.IMUL,
+    "mod", CodeBuffer.IREM
+  );
+
+  private static final Map<String, Integer> COMPARISON_OPCODES = Map.of(
+    "==", CodeBuffer.IF_ICMPEQ,
+    "!=", CodeBuffer.IF_ICMPNE,
+    "<", CodeBuffer.IF_ICMPLT,
+    "<=", CodeBuffer.IF_ICMPLE,
+    ">", CodeBuffer.IF_ICMPGT,
+    ">=", CodeBuffer.IF_ICMPGE
+  );
+
+  private final ClassFileWriter classFile;
+  private final Map<String, Integer> methodRefs;
+  private final CodeBuffer code = new CodeBuffer();
+  private final List<String> scope;
+  private int maxLocals;
+
+  private JvmCompiler(
+    ClassFileWriter classFile,
+    Map<String, Integer> methodRefs,
+    List<String> parameters
+  ) {
+    this.classFile = classFile;
+    this.methodRefs = methodRefs;
+    this.scope = new ArrayList<>(parameters);
+    this.maxLocals = parameters.size();
+  }
+
+  /**
+   * Compiles a program to a hidden class and links it into this JVM.
+   * @param program the program to compile
+   * @return the compiled program
+   * @throws TypeError if the program is not statically well-typed
+   * @throws EvaluationException if the program refers to an undefined
+   *   function or variable, or calls a function with the wrong number of
+   *   arguments
+   * @throws UnsupportedProgramException if the program is too large to be
+   *   compiled
+   */
+  public static JvmProgram compile(Program program) {
+    Objects.requireNonNull(program);
+
+    // later definitions with the same name win, as in the Environment
+    Map<String, Definition> definitions = new LinkedHashMap<>();
+    for (Definition d : program.getDefinitions()) {
+      if (d.getArguments().size() > 0xff) {
+        throw new UnsupportedProgramException("too many parameters: " + d.getName());
+      }
+      definitions.put(d.getName(), d);
+    }
+    TypeInference types = new TypeInference(definitions);
+    Type resultType = types.inferExpression(program.getExpression());
+
+    ClassFileWriter classFile = new ClassFileWriter(CLASS_NAME, "java/lang/Object");
+    Map<String, Integer> methodRefs = new LinkedHashMap<>();
+    Map<String, String> methodNames = new LinkedHashMap<>();
+    Map<String, String> descriptors = new LinkedHashMap<>();
+    for (Definition d : definitions.values()) {
+      String methodName = "d" + methodNames.size();
+      StringBuilder descriptor = new StringBuilder("(");
+      for (int i = 0; i < d.getArguments().size(); i++) {
+        descriptor.append(descriptorOf(types.parameterType(d.getName(), i)));
+      }
+      descriptor.append(')').append(descriptorOf(types.resultType(d.getName())));
+      methodNames.put(d.getName(), methodName);
+      descriptors.put(d.getName(), descriptor.toString());
+      methodRefs.put(
+        d.getName(),
+        classFile.methodRef(CLASS_NAME, methodName, descriptor.toString())
+      );
+    }
+
+    for (Definition d : definitions.values()) {
+      JvmCompiler compiler = new JvmCompiler(classFile, methodRefs, d.getArguments());
+      compiler.emitMethod(
+        methodNames.get(d.getName()),
+        descriptors.get(d.getName()),
+        d.getBody()
+      );
+    }
+    JvmCompiler compiler = new JvmCompiler(classFile, methodRefs, List.of());
+    String mainDescriptor = "()" + descriptorOf(resultType);
+    compiler.emitMethod(MAIN_METHOD, mainDescriptor, program.getExpression());
+
+    return new JvmProgram(link(classFile.toByteArray(), mainDescriptor), resultType == Type.BOOL);
+  }
+
+  private static MethodHandle link(byte[] classBytes, String mainDescriptor) {
+    try {
+      MethodHandles.Lookup lookup =
+        MethodHandles.lookup().defineHiddenClass(classBytes, true);
+      return lookup.findStatic(
+        lookup.lookupClass(),
+        MAIN_METHOD,
+        MethodType.fromMethodDescriptorString(mainDescriptor, null)
+      );
+    } catch (IllegalAccessException | NoSuchMethodException e) {
+      throw new IllegalStateException("cannot link compiled program", e);
+    }
+  }
+
+  private static String descriptorOf(Type type) {
+    return type == Type.INT ? "I" : "Z";
+  }
+
+  private void emitMethod(String name, String descriptor, Expression body) {
+    body.accept(this);
+    code.returnInt();
+    classFile.addMethod(
+      0x0001 | 0x0008, // public static
+      name,
+      descriptor,
+      code.toByteArray(),
+      code.getMaxStack(),
+      maxLocals
+    );
+  }
+
+  @Override
+  public Void visit(AndExpression andExpression) {
+    Label isFalse = new Label();
+    Label end = new Label();
+    int depth = code.getStackDepth();
+    andExpression.getLeftOperand().accept(this);
+    code.branch(CodeBuffer.IFEQ, 1, isFalse);
+    andExpression.getRightOperand().accept(this);
+    code.jump(end);
+    code.place(isFalse, depth);
+    code.pushInt(0, classFile);
+    code.place(end, depth + 1);
+    return null;
+  }
+
+  @Override
+  public Void visit(BooleanLiteral booleanLiteral) {
+    code.pushInt(booleanLiteral.isValue() ? 1 : 0, classFile);
+    return null;
+  }
+
+  @Override
+  public Void visit(FunctionCall functionCall) {
+    String name = functionCall.getFunctionName();
+    for (Expression argument : functionCall.getArguments()) {
+      argument.accept(this);
+    }
+
+    Integer arithmetic = ARITHMETIC_OPCODES.get(name);
+    if (arithmetic != null) {
+      code.binary(arithmetic);
+      return null;
+    }
+    if (name.equals("/")) {
+      // IDIV would fail with the JVM's own message for a zero divisor
+      code.invokeStatic(classFile.methodRef(DIVIDE_OWNER, "divide", "(II)I"), 2);
+      return null;
+    }
+    Integer comparison = COMPARISON_OPCODES.get(name);
+    if (comparison != null) {
+      int depth = code.getStackDepth() - 2;
+      Label isTrue = new Label();
+      Label end = new Label();
+      code.branch(comparison, 2, isTrue);
+      code.pushInt(0, classFile);
+      code.jump(end);
+      code.place(isTrue, depth);
+      code.pushInt(1, classFile);
+      code.place(end, depth + 1);
+      return null;
+    }
+    if (name.equals("not")) {
+      code.pushInt(1, classFile);
+      code.binary(CodeBuffer.IXOR);
+      return null;
+    }
+    // type inference has already rejected undefined functions
+    code.invokeStatic(methodRefs.get(name), functionCall.getArguments().size());
+    return null;
+  }
+
+  @Override
+  public Void visit(IfExpression ifExpression) {
+    Label isFalse = new Label();
+    Label end = new Label();
+    int depth = code.getStackDepth();
+    ifExpression.getCondition().accept(this);
+    code.branch(CodeBuffer.IFEQ, 1, isFalse);
+    ifExpression.getConsequent().accept(this);
+    code.jump(end);
+    code.place(isFalse, depth);
+    ifExpression.getAlternative().accept(this);
+    code.place(end, depth + 1);
+    return null;
+  }
+
+  @Override
+  public Void visit(IntLiteral intLiteral) {
+    code.pushInt(intLiteral.getValue(), classFile);
+    return null;
+  }
+
+  @Override
+  public Void visit(LetExpression letExpression) {
+    letExpression.getRhs().accept(this);
+    int slot = scope.size();
+    if (slot > 0xff) {
+      throw new UnsupportedProgramException("too many local variables");
+    }
+    scope.add(letExpression.getVarName());
+    maxLocals = Math.max(maxLocals, scope.size());
+    code.store(slot);
+    letExpression.getBody().accept(this);
+    scope.remove(slot);
+    return null;
+  }
+
+  @Override
+  public Void visit(OrExpression orExpression) {
+    Label isTrue = new Label();
+    Label end = new Label();
+    int depth = code.getStackDepth();
+    orExpression.getLeft().accept(this);
+    code.branch(CodeBuffer.IFNE, 1, isTrue);
+    orExpression.getRight().accept(this);
+    code.jump(end);
+    code.place(isTrue, depth);
+    code.pushInt(1, classFile);
+    code.place(end, depth + 1);
+    return null;
+  }
+
+  @Override
+  public Void visit(VariableReference reference) {
+    // type inference has already rejected unbound variables
+    code.load(scope.lastIndexOf(reference.getVariableName()));
+    return null;
+  }
+}
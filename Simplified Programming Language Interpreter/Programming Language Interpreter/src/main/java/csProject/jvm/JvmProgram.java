@@ -0,0 +1,43 @@
+package csProject.jvm;
+
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.Value;
+import java.lang.invoke.MethodHandle;
+
+/**
+ * A program compiled by the {@code JvmCompiler} and linked into the running
+ * JVM.  Results are boxed into {@code Value}s only when they are returned.
+ */
+public class JvmProgram {
+  private final MethodHandle main;
+  private final boolean booleanResult;
+
+  /**
+   * Constructs a compiled program.
+   * @param main          handle to the static method for the program's
+   *                      expression
+   * @param booleanResult whether the expression has type boolean
+   */
+  JvmProgram(MethodHandle main, boolean booleanResult) {
+    this.main = main;
+    this.booleanResult = booleanResult;
+  }
+
+  /**
+   * Runs the program.
+   * @return the value of the program's expression
+   */
+  public Value run() {
+    try {
+      if (booleanResult) {
+        return BooleanValue.valueOf((boolean) main.invoke());
+      }
+      return IntValue.of((int) main.invoke());
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+}
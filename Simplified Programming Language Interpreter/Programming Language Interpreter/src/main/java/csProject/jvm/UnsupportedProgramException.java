@@ -0,0 +1,17 @@
+package csProject.jvm;
+
+/**
+ * Exception thrown when a program is valid but cannot be compiled to JVM
+ * bytecode, for example because a definition is too large for one method.
+ * Such programs should be run by one of the interpreting engines instead.
+ */
+public class UnsupportedProgramException extends RuntimeException {
+
+  /**
+   * Constructs a new exception.
+   * @param message describes why the program is not supported
+   */
+  public UnsupportedProgramException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,313 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.core.TypeError;
+import csProject.evalExceptions.EvaluationException;
+import csProject.primitives.PrimitiveTable;
+import csProject.types.TypeInference;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Recursion-to-iteration pass.  Rewrites linear recursions that combine
+ * the result of the recursive call with an associative operator into
+ * tail recursions that carry the partial result along in an accumulator,
+ * so that evaluators with proper tail calls run them in constant stack.
+ * For example
+ * <pre>
+ *   (define (sum n) (if (== n 0) 0 (+ n (sum (- n 1)))))
+ * </pre>
+ * becomes
+ * <pre>
+ *   (define (sum n) (sum#acc 0 n))
+ *   (define (sum#acc acc#1 n)
+ *     (if (== n 0) (+ acc#1 0) (sum#acc (+ acc#1 n) (- n 1))))
+ * </pre>
+ *
+ * <p>A definition is rewritten if every tail position of its body -- the
+ * branches of an <code>if</code>, the body of a <code>let</code> -- either
+ * does not call the definition, is a self call, or applies one operator,
+ * <code>+</code>, <code>*</code>, <code>and</code> or <code>or</code>, to a
+ * self call and an operand that does not call the definition, and there is
+ * at least one such application.  The definition may not call itself
+ * anywhere else, nor in the self calls' arguments.</p>
+ *
+ * <p>Evaluation order is preserved: the accumulator is the first
+ * parameter, so an operand on the left of the self call is still evaluated
+ * before the call's arguments.  An operand on the right of the self call,
+ * which was evaluated after the recursion returned, must be an expression
+ * that cannot fail, built from literals, variables, <code>+</code>,
+ * <code>-</code>, <code>*</code>, comparisons and logical operators.  And,
+ * since the operators are applied in a different order, only programs that
+ * type check are rewritten, so that no operand can raise a different
+ * {@code TypeError}.  Integer arithmetic wraps around, so the result is the
+ * same in either order.</p>
+ *
+ * <p>The helper definitions are appended to the program, so indices of
+ * linked calls stay valid; the rewritten bodies are neither resolved nor
+ * linked.</p>
+ */
+public class AccumulatorIntroducer {
+  private final String name;
+  private final String helper;
+  private final String accumulator;
+  private String operator;
+  private boolean accumulates;
+
+  private AccumulatorIntroducer(String name, String helper, String accumulator) {
+    this.name = name;
+    this.helper = helper;
+    this.accumulator = accumulator;
+  }
+
+  /**
+   * Rewrites the linear recursions of a program into accumulator-passing
+   * tail recursions.
+   * @param program the program
+   * @return the rewritten program, or the program itself if it does not
+   *   type check
+   */
+  public static Program introduce(Program program) {
+    Objects.requireNonNull(program);
+
+    // later definitions with the same name win, as in the Environment
+    Map<String, Definition> definitionMap = new LinkedHashMap<>();
+    for (Definition d : program.getDefinitions()) {
+      definitionMap.put(d.getName(), d);
+    }
+    try {
+      new TypeInference(definitionMap).inferExpression(program.getExpression());
+    } catch (TypeError | EvaluationException e) {
+      return program;
+    }
+
+    PrimitiveTable primitiveTable = new PrimitiveTable();
+    Names names = Names.of(program);
+    Set<String> functionNames = new HashSet<>(definitionMap.keySet());
+    List<Definition> definitions = new ArrayList<>(program.getDefinitions());
+    List<Definition> helpers = new ArrayList<>();
+    for (int i = 0; i < definitions.size(); i++) {
+      Definition d = definitions.get(i);
+      if (definitionMap.get(d.getName()) != d || primitiveTable.lookup(d.getName()) != null) {
+        continue;
+      }
+      String helper = freshFunctionName(d.getName() + "#acc", functionNames);
+      String accumulator = names.fresh("acc");
+      AccumulatorIntroducer introducer =
+        new AccumulatorIntroducer(d.getName(), helper, accumulator);
+      if (!introducer.analyze(d.getBody()) || !introducer.accumulates) {
+        continue;
+      }
+      functionNames.add(helper);
+
+      List<String> parameters = new ArrayList<>();
+      parameters.add(accumulator);
+      parameters.addAll(d.getArguments());
+      helpers.add(new Definition(helper, parameters, introducer.rewrite(d.getBody())));
+
+      List<Expression> arguments = new ArrayList<>();
+      arguments.add(introducer.identity());
+      for (String parameter : d.getArguments()) {
+        arguments.add(new VariableReference(parameter));
+      }
+      definitions.set(
+        i,
+        new Definition(d.getName(), d.getArguments(), new FunctionCall(helper, arguments))
+      );
+    }
+    if (helpers.isEmpty()) {
+      return program;
+    }
+    definitions.addAll(helpers);
+    return new Program(definitions, program.getExpression(), program.getFrameSize());
+  }
+
+  // checks the shape of a tail position, noting the operator applied
+  private boolean analyze(Expression expression) {
+    if (!callsSelf(expression)) {
+      return true;
+    }
+    if (expression instanceof IfExpression ifExpression) {
+      return !callsSelf(ifExpression.getCondition())
+        && analyze(ifExpression.getConsequent())
+        && analyze(ifExpression.getAlternative());
+    }
+    if (expression instanceof LetExpression letExpression) {
+      return !callsSelf(letExpression.getRhs()) && analyze(letExpression.getBody());
+    }
+    if (isSelfCall(expression)) {
+      return true;
+    }
+    Expression[] operands = operandsOf(expression);
+    if (operands == null || !sameOperator(operatorOf(expression))) {
+      return false;
+    }
+    Expression left = operands[0];
+    Expression right = operands[1];
+    if (isSelfCall(right) && !callsSelf(left)) {
+      // (and x (f ...)) and (or x (f ...)) are tail calls already
+      accumulates |= expression instanceof FunctionCall;
+      return true;
+    }
+    if (isSelfCall(left) && !callsSelf(right) && SafeExpressions.isSafe(right)) {
+      accumulates = true;
+      return true;
+    }
+    return false;
+  }
+
+  // rewrites a tail position that passed the analysis
+  private Expression rewrite(Expression expression) {
+    if (!callsSelf(expression)) {
+      return combine(expression);
+    }
+    if (expression instanceof IfExpression ifExpression) {
+      return new IfExpression(
+        ifExpression.getCondition(),
+        rewrite(ifExpression.getConsequent()),
+        rewrite(ifExpression.getAlternative())
+      );
+    }
+    if (expression instanceof LetExpression letExpression) {
+      return new LetExpression(
+        letExpression.getVarName(),
+        letExpression.getRhs(),
+        rewrite(letExpression.getBody())
+      );
+    }
+    if (isSelfCall(expression)) {
+      return helperCall(new VariableReference(accumulator), (FunctionCall) expression);
+    }
+    Expression[] operands = operandsOf(expression);
+    if (isSelfCall(operands[1]) && !callsSelf(operands[0])) {
+      if (expression instanceof AndExpression) {
+        return new AndExpression(operands[0], rewrite(operands[1]));
+      }
+      if (expression instanceof OrExpression) {
+        return new OrExpression(operands[0], rewrite(operands[1]));
+      }
+      return helperCall(accumulate(operands[0]), (FunctionCall) operands[1]);
+    }
+    return helperCall(accumulate(operands[1]), (FunctionCall) operands[0]);
+  }
+
+  // the accumulator combined with an operand, to pass on
+  private Expression accumulate(Expression operand) {
+    Expression acc = new VariableReference(accumulator);
+    switch (operator) {
+      case "and":
+        return new AndExpression(acc, operand);
+      case "or":
+        return new OrExpression(acc, operand);
+      default:
+        return new FunctionCall(operator, List.of(acc, operand));
+    }
+  }
+
+  // the accumulator combined with the result of a base case, which is
+  // evaluated, and checked to be a boolean, first
+  private Expression combine(Expression base) {
+    Expression acc = new VariableReference(accumulator);
+    switch (operator) {
+      case "and":
+        return new AndExpression(base, acc);
+      case "or":
+        return new OrExpression(base, acc);
+      default:
+        return new FunctionCall(operator, List.of(acc, base));
+    }
+  }
+
+  private Expression identity() {
+    switch (operator) {
+      case "+":
+        return new IntLiteral(0);
+      case "*":
+        return new IntLiteral(1);
+      default:
+        return new BooleanLiteral(operator.equals("and"));
+    }
+  }
+
+  private Expression helperCall(Expression accumulated, FunctionCall call) {
+    List<Expression> arguments = new ArrayList<>();
+    arguments.add(accumulated);
+    arguments.addAll(call.getArguments());
+    return new FunctionCall(helper, arguments);
+  }
+
+  private boolean sameOperator(String candidate) {
+    if (candidate == null || operator != null && !operator.equals(candidate)) {
+      return false;
+    }
+    operator = candidate;
+    return true;
+  }
+
+  private boolean isSelfCall(Expression expression) {
+    if (!(expression instanceof FunctionCall call) || !call.getFunctionName().equals(name)) {
+      return false;
+    }
+    for (Expression argument : call.getArguments()) {
+      if (callsSelf(argument)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean callsSelf(Expression expression) {
+    return Names.of(expression).getFunctions().contains(name);
+  }
+
+  private String operatorOf(Expression expression) {
+    if (expression instanceof AndExpression) {
+      return "and";
+    }
+    if (expression instanceof OrExpression) {
+      return "or";
+    }
+    if (expression instanceof FunctionCall call
+        && (call.getFunctionName().equals("+") || call.getFunctionName().equals("*"))
+        && call.getArguments().size() == 2) {
+      return call.getFunctionName();
+    }
+    return null;
+  }
+
+  private static Expression[] operandsOf(Expression expression) {
+    if (expression instanceof AndExpression and) {
+      return new Expression[] {and.getLeftOperand(), and.getRightOperand()};
+    }
+    if (expression instanceof OrExpression or) {
+      return new Expression[] {or.getLeft(), or.getRight()};
+    }
+    if (expression instanceof FunctionCall call && call.getArguments().size() == 2) {
+      return new Expression[] {call.getArguments().get(0), call.getArguments().get(1)};
+    }
+    return null;
+  }
+
+  private static String freshFunctionName(String base, Set<String> taken) {
+    String candidate = base;
+    for (int i = 2; taken.contains(candidate); i++) {
+      candidate = base + i;
+    }
+    return candidate;
+  }
+}
@@ -0,0 +1,359 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.core.TypeError;
+import csProject.evalExceptions.EvaluationException;
+import csProject.primitives.ArithmeticOperator;
+import csProject.primitives.NotOperator;
+import csProject.primitives.Primitive;
+import csProject.primitives.PrimitiveTable;
+import csProject.primitives.RelationalOperator;
+import csProject.types.Type;
+import csProject.types.TypeInference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Algebraic simplification pass.  Produces a copy of a program in which
+ * expressions matching the pattern of a {@code RewriteRule} are replaced by
+ * the rule's replacement, bottom up, until no rule applies.  The default
+ * rules remove arithmetic and boolean identities, reduce multiplication by
+ * two to an addition, negate comparisons instead of their results, move
+ * literals to the right of comparisons, and apply De Morgan's laws to
+ * negated operands of <code>and</code> and <code>or</code>.
+ *
+ * <p>Rules that drop an operand only match if the operand is known to have
+ * the type the dropped operation would have checked, so ill-typed programs
+ * keep raising the same {@code TypeError}s.  Types are known for literals,
+ * primitive results, <code>let</code> variables bound to expressions of
+ * known type, and, if the whole program type checks, for parameters and
+ * definition results.  Calls whose arguments are all literals are left to
+ * the {@code ConstantFolder}.  Slots and frame sizes are preserved.</p>
+ */
+public class AlgebraicSimplifier implements ExpressionVisitor<Expression> {
+  /**
+   * The default rules.
+   */
+  public static final List<RewriteRule> DEFAULT_RULES = List.of(
+    // arithmetic identities
+    new RewriteRule("(+ ?x:int 0)", "?x"),
+    new RewriteRule("(+ 0 ?x:int)", "?x"),
+    new RewriteRule("(- ?x:int 0)", "?x"),
+    new RewriteRule("(- 0 (- 0 ?x:int))", "?x"),
+    new RewriteRule("(- $x:int $x)", "0"),
+    new RewriteRule("(* ?x:int 1)", "?x"),
+    new RewriteRule("(* 1 ?x:int)", "?x"),
+    new RewriteRule("(* $x:int 0)", "0"),
+    new RewriteRule("(* 0 $x:int)", "0"),
+    new RewriteRule("(/ ?x:int 1)", "?x"),
+    new RewriteRule("(mod $x:int 1)", "0"),
+    // strength reduction
+    new RewriteRule("(* $x:int 2)", "(+ $x $x)"),
+    new RewriteRule("(* 2 $x:int)", "(+ $x $x)"),
+    // comparisons
+    new RewriteRule("(not (< ?a ?b))", "(>= ?a ?b)"),
+    new RewriteRule("(not (<= ?a ?b))", "(> ?a ?b)"),
+    new RewriteRule("(not (> ?a ?b))", "(<= ?a ?b)"),
+    new RewriteRule("(not (>= ?a ?b))", "(< ?a ?b)"),
+    new RewriteRule("(not (== ?a ?b))", "(!= ?a ?b)"),
+    new RewriteRule("(not (!= ?a ?b))", "(== ?a ?b)"),
+    new RewriteRule("(< #n:int ?x)", "(> ?x #n)"),
+    new RewriteRule("(<= #n:int ?x)", "(>= ?x #n)"),
+    new RewriteRule("(> #n:int ?x)", "(< ?x #n)"),
+    new RewriteRule("(>= #n:int ?x)", "(<= ?x #n)"),
+    new RewriteRule("(== #n:int ?x)", "(== ?x #n)"),
+    new RewriteRule("(!= #n:int ?x)", "(!= ?x #n)"),
+    new RewriteRule("(== $x:int $x)", "true"),
+    new RewriteRule("(<= $x:int $x)", "true"),
+    new RewriteRule("(>= $x:int $x)", "true"),
+    new RewriteRule("(!= $x:int $x)", "false"),
+    new RewriteRule("(< $x:int $x)", "false"),
+    new RewriteRule("(> $x:int $x)", "false"),
+    // booleans
+    new RewriteRule("(not (not ?b:bool))", "?b"),
+    new RewriteRule("(and ?b:bool true)", "?b"),
+    new RewriteRule("(and true ?b:bool)", "?b"),
+    new RewriteRule("(and $b:bool false)", "false"),
+    new RewriteRule("(and $b:bool $b)", "$b"),
+    new RewriteRule("(and $a:bool (or $a ?b))", "$a"),
+    new RewriteRule("(and (not ?a) (not ?b))", "(not (or ?a ?b))"),
+    new RewriteRule("(or ?b:bool false)", "?b"),
+    new RewriteRule("(or false ?b:bool)", "?b"),
+    new RewriteRule("(or $b:bool true)", "true"),
+    new RewriteRule("(or $b:bool $b)", "$b"),
+    new RewriteRule("(or $a:bool (and $a ?b))", "$a"),
+    new RewriteRule("(or (not ?a) (not ?b))", "(not (and ?a ?b))"),
+    new RewriteRule("(if (not ?c) ?x ?y)", "(if ?c ?y ?x)"),
+    new RewriteRule("(if ?c:bool true false)", "?c"),
+    new RewriteRule("(if ?c:bool false true)", "(not ?c)")
+  );
+
+  private final List<RewriteRule> rules;
+  private final PrimitiveTable primitiveTable;
+  // the result types of the definitions, if the program type checks
+  private final Map<String, Type> resultTypes;
+  // the variables in scope, innermost last, with their types, or null for
+  // variables whose type is not known
+  private final List<String> scopeNames = new ArrayList<>();
+  private final List<Type> scopeTypes = new ArrayList<>();
+
+  private AlgebraicSimplifier(
+    List<RewriteRule> rules,
+    PrimitiveTable primitiveTable,
+    Map<String, Type> resultTypes
+  ) {
+    this.rules = rules;
+    this.primitiveTable = primitiveTable;
+    this.resultTypes = resultTypes;
+  }
+
+  /**
+   * Simplifies a program with the default rules.
+   * @param program the program to simplify
+   * @return the simplified program
+   */
+  public static Program simplify(Program program) {
+    return simplify(program, DEFAULT_RULES);
+  }
+
+  /**
+   * Simplifies a program.  The rules are tried in order, and must not
+   * rewrite any expression forever.
+   * @param program the program to simplify
+   * @param rules the rules
+   * @return the simplified program
+   */
+  public static Program simplify(Program program, List<RewriteRule> rules) {
+    Objects.requireNonNull(program);
+    Objects.requireNonNull(rules);
+
+    // later definitions with the same name win, as in the Environment
+    Map<String, Definition> definitionMap = new LinkedHashMap<>();
+    for (Definition d : program.getDefinitions()) {
+      definitionMap.put(d.getName(), d);
+    }
+    TypeInference types = null;
+    try {
+      types = new TypeInference(definitionMap);
+      types.inferExpression(program.getExpression());
+    } catch (TypeError | EvaluationException e) {
+      // the program does not type check; only use types known locally
+      types = null;
+    }
+    Map<String, Type> resultTypes = new HashMap<>();
+    if (types != null) {
+      for (String name : definitionMap.keySet()) {
+        resultTypes.put(name, types.resultType(name));
+      }
+    }
+
+    PrimitiveTable primitiveTable = new PrimitiveTable();
+    List<Definition> definitions = new ArrayList<>(program.getDefinitions().size());
+    for (Definition d : program.getDefinitions()) {
+      AlgebraicSimplifier simplifier =
+        new AlgebraicSimplifier(rules, primitiveTable, resultTypes);
+      for (int i = 0; i < d.getArguments().size(); i++) {
+        simplifier.scopeNames.add(d.getArguments().get(i));
+        simplifier.scopeTypes.add(types != null && definitionMap.get(d.getName()) == d
+            ? types.parameterType(d.getName(), i)
+            : null);
+      }
+      definitions.add(new Definition(
+        d.getName(),
+        d.getArguments(),
+        d.getBody().accept(simplifier),
+        d.getFrameSize()
+      ));
+    }
+    Expression expression = program.getExpression()
+      .accept(new AlgebraicSimplifier(rules, primitiveTable, resultTypes));
+    return new Program(definitions, expression, program.getFrameSize());
+  }
+
+  /**
+   * Simplifies an expression with no variables in scope, with the default
+   * rules.
+   * @param expression the expression to simplify
+   * @return the simplified expression
+   */
+  public static Expression simplify(Expression expression) {
+    return expression.accept(
+      new AlgebraicSimplifier(DEFAULT_RULES, new PrimitiveTable(), Map.of()));
+  }
+
+  // rewrites an expression whose subexpressions have been simplified
+  private Expression rewrite(Expression expression) {
+    if (expression instanceof FunctionCall call && allLiterals(call.getArguments())) {
+      return expression;
+    }
+    for (RewriteRule rule : rules) {
+      Expression rewritten = rule.rewrite(expression, this::typeOf);
+      if (rewritten != null) {
+        // the replacement can build new expressions that match again
+        return rewritten.accept(this);
+      }
+    }
+    return expression;
+  }
+
+  @Override
+  public Expression visit(AndExpression andExpression) {
+    return rewrite(new AndExpression(
+      andExpression.getLeftOperand().accept(this),
+      andExpression.getRightOperand().accept(this)
+    ));
+  }
+
+  @Override
+  public Expression visit(BooleanLiteral booleanLiteral) {
+    return booleanLiteral;
+  }
+
+  @Override
+  public Expression visit(FunctionCall functionCall) {
+    List<Expression> arguments = new ArrayList<>(functionCall.getArguments().size());
+    for (Expression argument : functionCall.getArguments()) {
+      arguments.add(argument.accept(this));
+    }
+    return rewrite(new FunctionCall(
+      functionCall.getFunctionName(),
+      arguments,
+      functionCall.getPrimitive(),
+      functionCall.getDefinitionIndex()
+    ));
+  }
+
+  @Override
+  public Expression visit(IfExpression ifExpression) {
+    return rewrite(new IfExpression(
+      ifExpression.getCondition().accept(this),
+      ifExpression.getConsequent().accept(this),
+      ifExpression.getAlternative().accept(this)
+    ));
+  }
+
+  @Override
+  public Expression visit(IntLiteral intLiteral) {
+    return intLiteral;
+  }
+
+  @Override
+  public Expression visit(LetExpression letExpression) {
+    Expression rhs = letExpression.getRhs().accept(this);
+    // typed before the variable is in scope, where the rhs is evaluated
+    Type rhsType = typeOf(rhs);
+    scopeNames.add(letExpression.getVarName());
+    scopeTypes.add(rhsType);
+    Expression body = letExpression.getBody().accept(this);
+    scopeNames.remove(scopeNames.size() - 1);
+    scopeTypes.remove(scopeTypes.size() - 1);
+    return new LetExpression(letExpression.getVarName(), rhs, body, letExpression.getSlot());
+  }
+
+  @Override
+  public Expression visit(OrExpression orExpression) {
+    return rewrite(new OrExpression(
+      orExpression.getLeft().accept(this),
+      orExpression.getRight().accept(this)
+    ));
+  }
+
+  @Override
+  public Expression visit(VariableReference reference) {
+    return reference;
+  }
+
+  private Type typeOf(Expression expression) {
+    return expression.accept(new Typer());
+  }
+
+  private static boolean allLiterals(List<Expression> arguments) {
+    for (Expression argument : arguments) {
+      if (!(argument instanceof IntLiteral || argument instanceof BooleanLiteral)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Finds the type an expression evaluates to, if it evaluates to a value
+   * at all, in the scope of the expression being simplified.
+   */
+  private class Typer implements ExpressionVisitor<Type> {
+    private final List<String> names = new ArrayList<>(scopeNames);
+    private final List<Type> types = new ArrayList<>(scopeTypes);
+
+    @Override
+    public Type visit(AndExpression andExpression) {
+      return Type.BOOL;
+    }
+
+    @Override
+    public Type visit(BooleanLiteral booleanLiteral) {
+      return Type.BOOL;
+    }
+
+    @Override
+    public Type visit(FunctionCall functionCall) {
+      Primitive primitive = functionCall.isLinked()
+        ? functionCall.getPrimitive()
+        : primitiveTable.lookup(functionCall.getFunctionName());
+      if (primitive instanceof ArithmeticOperator) {
+        return Type.INT;
+      }
+      if (primitive instanceof RelationalOperator || primitive instanceof NotOperator) {
+        return Type.BOOL;
+      }
+      return primitive == null ? resultTypes.get(functionCall.getFunctionName()) : null;
+    }
+
+    @Override
+    public Type visit(IfExpression ifExpression) {
+      Type consequent = ifExpression.getConsequent().accept(this);
+      return consequent == ifExpression.getAlternative().accept(this) ? consequent : null;
+    }
+
+    @Override
+    public Type visit(IntLiteral intLiteral) {
+      return Type.INT;
+    }
+
+    @Override
+    public Type visit(LetExpression letExpression) {
+      Type rhs = letExpression.getRhs().accept(this);
+      names.add(letExpression.getVarName());
+      types.add(rhs);
+      Type type = letExpression.getBody().accept(this);
+      names.remove(names.size() - 1);
+      types.remove(types.size() - 1);
+      return type;
+    }
+
+    @Override
+    public Type visit(OrExpression orExpression) {
+      return Type.BOOL;
+    }
+
+    @Override
+    public Type visit(VariableReference reference) {
+      int index = names.lastIndexOf(reference.getVariableName());
+      return index < 0 ? null : types.get(index);
+    }
+  }
+}
@@ -0,0 +1,442 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Common subexpression elimination pass.  Since expressions have no side
+ * effects, a function call that occurs several times in an expression,
+ * with the same variables in scope, always has the same value, and only
+ * needs to be evaluated once: <code>(+ (f (- n 1)) (f (- n 1)))</code>
+ * becomes <code>(let cse#1 (f (- n 1)) (+ cse#1 cse#1))</code>.
+ *
+ * <p>A repeated call is only bound where it was going to be evaluated first
+ * anyway, so that no call is evaluated that was not before, and calls that
+ * fail or do not terminate still do so at the same point.  A call is bound
+ * at the start of an expression only if the first thing that expression
+ * evaluates, which could fail, is one of its occurrences; in particular,
+ * calls are never moved out of the branches of an <code>if</code> or the
+ * right operand of an <code>and</code> or <code>or</code>, though
+ * occurrences there reuse a binding made before the branch.  The largest
+ * repeated calls are bound first, and bindings are made as far out as the
+ * rule allows.</p>
+ *
+ * <p>The new <code>let</code>s and references are not resolved to slots,
+ * and definitions whose bodies change lose their frame size, so the result
+ * should be resolved again before being evaluated with slots.</p>
+ */
+public class CommonSubexpressionEliminator implements ExpressionVisitor<Expression> {
+  private final Names names;
+  // the variables in scope of the expression being visited
+  private final List<String> scope;
+  private int eliminated;
+
+  private CommonSubexpressionEliminator(Names names, List<String> parameters) {
+    this.names = names;
+    this.scope = new ArrayList<>(parameters);
+  }
+
+  /**
+   * Eliminates the common subexpressions in the definitions and expression
+   * of a program.
+   * @param program the program
+   * @return the program with common subexpressions bound to variables
+   */
+  public static Program eliminate(Program program) {
+    Objects.requireNonNull(program);
+    Names names = Names.of(program);
+    List<Definition> definitions = new ArrayList<>(program.getDefinitions().size());
+    for (Definition d : program.getDefinitions()) {
+      CommonSubexpressionEliminator eliminator =
+        new CommonSubexpressionEliminator(names, d.getArguments());
+      Expression body = eliminator.eliminateIn(d.getBody());
+      definitions.add(eliminator.eliminated == 0
+        ? new Definition(d.getName(), d.getArguments(), body, d.getFrameSize())
+        : new Definition(d.getName(), d.getArguments(), body));
+    }
+    CommonSubexpressionEliminator eliminator =
+      new CommonSubexpressionEliminator(names, List.of());
+    Expression expression = eliminator.eliminateIn(program.getExpression());
+    return eliminator.eliminated == 0
+      ? new Program(definitions, expression, program.getFrameSize())
+      : new Program(definitions, expression);
+  }
+
+  /**
+   * Eliminates the common subexpressions in an expression with no variables
+   * in scope.
+   * @param expression the expression
+   * @return the expression with common subexpressions bound to variables
+   */
+  public static Expression eliminate(Expression expression) {
+    return new CommonSubexpressionEliminator(Names.of(expression), List.of())
+      .eliminateIn(expression);
+  }
+
+  // binds the repeated calls that can be bound at the start of the
+  // expression, then does the same for its subexpressions
+  private Expression eliminateIn(Expression expression) {
+    while (true) {
+      FunctionCall common = commonCall(expression);
+      if (common == null) {
+        return expression.accept(this);
+      }
+      String name = names.fresh("cse");
+      Expression rest = expression.accept(new Replacer(common, freeVariables(common), name));
+      expression = new LetExpression(name, common, rest);
+      eliminated++;
+    }
+  }
+
+  // the largest call occurring more than once that the expression
+  // evaluates first, or null if there is none
+  private FunctionCall commonCall(Expression expression) {
+    Occurrences occurrences = new Occurrences();
+    expression.accept(occurrences);
+    List<FunctionCall> repeated = new ArrayList<>();
+    for (int i = 0; i < occurrences.calls.size(); i++) {
+      if (occurrences.counts.get(i) > 1) {
+        repeated.add(occurrences.calls.get(i));
+      }
+    }
+    // a stable sort keeps calls of the same size in evaluation order
+    repeated.sort((a, b) -> ExpressionSize.of(b) - ExpressionSize.of(a));
+    for (FunctionCall call : repeated) {
+      if (Boolean.TRUE.equals(expression.accept(new FirstEvaluated(call, scope)))) {
+        return call;
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public Expression visit(AndExpression andExpression) {
+    return new AndExpression(
+      eliminateIn(andExpression.getLeftOperand()),
+      eliminateIn(andExpression.getRightOperand())
+    );
+  }
+
+  @Override
+  public Expression visit(BooleanLiteral booleanLiteral) {
+    return booleanLiteral;
+  }
+
+  @Override
+  public Expression visit(FunctionCall functionCall) {
+    List<Expression> arguments = new ArrayList<>(functionCall.getArguments().size());
+    for (Expression argument : functionCall.getArguments()) {
+      arguments.add(eliminateIn(argument));
+    }
+    return new FunctionCall(
+      functionCall.getFunctionName(),
+      arguments,
+      functionCall.getPrimitive(),
+      functionCall.getDefinitionIndex()
+    );
+  }
+
+  @Override
+  public Expression visit(IfExpression ifExpression) {
+    return new IfExpression(
+      eliminateIn(ifExpression.getCondition()),
+      eliminateIn(ifExpression.getConsequent()),
+      eliminateIn(ifExpression.getAlternative())
+    );
+  }
+
+  @Override
+  public Expression visit(IntLiteral intLiteral) {
+    return intLiteral;
+  }
+
+  @Override
+  public Expression visit(LetExpression letExpression) {
+    Expression rhs = eliminateIn(letExpression.getRhs());
+    scope.add(letExpression.getVarName());
+    Expression body = eliminateIn(letExpression.getBody());
+    scope.remove(scope.size() - 1);
+    return new LetExpression(letExpression.getVarName(), rhs, body, letExpression.getSlot());
+  }
+
+  @Override
+  public Expression visit(OrExpression orExpression) {
+    return new OrExpression(
+      eliminateIn(orExpression.getLeft()),
+      eliminateIn(orExpression.getRight())
+    );
+  }
+
+  @Override
+  public Expression visit(VariableReference reference) {
+    return reference;
+  }
+
+  private static Set<String> freeVariables(Expression expression) {
+    return expression.accept(new Occurrences());
+  }
+
+  /**
+   * Counts the occurrences of the calls in an expression, leaving out those
+   * that refer to variables bound inside the expression, and returns the
+   * expression's free variables.
+   */
+  private static class Occurrences implements ExpressionVisitor<Set<String>> {
+    // the calls in order of first occurrence, and how often each occurs
+    private final List<FunctionCall> calls = new ArrayList<>();
+    private final List<Integer> counts = new ArrayList<>();
+    // the variables bound inside the expression around the one visited
+    private final List<String> bound = new ArrayList<>();
+
+    @Override
+    public Set<String> visit(AndExpression andExpression) {
+      Set<String> free = andExpression.getLeftOperand().accept(this);
+      free.addAll(andExpression.getRightOperand().accept(this));
+      return free;
+    }
+
+    @Override
+    public Set<String> visit(BooleanLiteral booleanLiteral) {
+      return new HashSet<>();
+    }
+
+    @Override
+    public Set<String> visit(FunctionCall functionCall) {
+      int index = calls.indexOf(functionCall);
+      if (index < 0) {
+        index = calls.size();
+        calls.add(functionCall);
+        counts.add(0);
+      }
+      Set<String> free = new HashSet<>();
+      for (Expression argument : functionCall.getArguments()) {
+        free.addAll(argument.accept(this));
+      }
+      if (Collections.disjoint(free, bound)) {
+        counts.set(index, counts.get(index) + 1);
+      }
+      return free;
+    }
+
+    @Override
+    public Set<String> visit(IfExpression ifExpression) {
+      Set<String> free = ifExpression.getCondition().accept(this);
+      free.addAll(ifExpression.getConsequent().accept(this));
+      free.addAll(ifExpression.getAlternative().accept(this));
+      return free;
+    }
+
+    @Override
+    public Set<String> visit(IntLiteral intLiteral) {
+      return new HashSet<>();
+    }
+
+    @Override
+    public Set<String> visit(LetExpression letExpression) {
+      Set<String> free = letExpression.getRhs().accept(this);
+      bound.add(letExpression.getVarName());
+      Set<String> bodyFree = letExpression.getBody().accept(this);
+      bound.remove(bound.size() - 1);
+      bodyFree.remove(letExpression.getVarName());
+      free.addAll(bodyFree);
+      return free;
+    }
+
+    @Override
+    public Set<String> visit(OrExpression orExpression) {
+      Set<String> free = orExpression.getLeft().accept(this);
+      free.addAll(orExpression.getRight().accept(this));
+      return free;
+    }
+
+    @Override
+    public Set<String> visit(VariableReference reference) {
+      Set<String> free = new HashSet<>();
+      free.add(reference.getVariableName());
+      return free;
+    }
+  }
+
+  /**
+   * Decides whether an occurrence of a call is evaluated before anything
+   * else in an expression that could fail: TRUE if it is, FALSE if
+   * something else is, and null if the expression can be evaluated without
+   * failing and without evaluating the call.  Literals and references to
+   * variables in scope are the only expressions that cannot fail.
+   */
+  private static class FirstEvaluated implements ExpressionVisitor<Boolean> {
+    private final FunctionCall call;
+    private final Set<String> callVariables;
+    private final List<String> scope;
+    // the variables bound inside the expression around the one visited
+    private final List<String> bound = new ArrayList<>();
+
+    FirstEvaluated(FunctionCall call, List<String> scope) {
+      this.call = call;
+      this.callVariables = freeVariables(call);
+      this.scope = new ArrayList<>(scope);
+    }
+
+    @Override
+    public Boolean visit(AndExpression andExpression) {
+      Boolean first = andExpression.getLeftOperand().accept(this);
+      return first != null ? first : Boolean.FALSE;
+    }
+
+    @Override
+    public Boolean visit(BooleanLiteral booleanLiteral) {
+      return null;
+    }
+
+    @Override
+    public Boolean visit(FunctionCall functionCall) {
+      if (functionCall.equals(call) && Collections.disjoint(callVariables, bound)) {
+        return Boolean.TRUE;
+      }
+      for (Expression argument : functionCall.getArguments()) {
+        Boolean first = argument.accept(this);
+        if (first != null) {
+          return first;
+        }
+      }
+      // applying the function could fail
+      return Boolean.FALSE;
+    }
+
+    @Override
+    public Boolean visit(IfExpression ifExpression) {
+      Boolean first = ifExpression.getCondition().accept(this);
+      return first != null ? first : Boolean.FALSE;
+    }
+
+    @Override
+    public Boolean visit(IntLiteral intLiteral) {
+      return null;
+    }
+
+    @Override
+    public Boolean visit(LetExpression letExpression) {
+      Boolean first = letExpression.getRhs().accept(this);
+      if (first != null) {
+        return first;
+      }
+      scope.add(letExpression.getVarName());
+      bound.add(letExpression.getVarName());
+      first = letExpression.getBody().accept(this);
+      scope.remove(scope.size() - 1);
+      bound.remove(bound.size() - 1);
+      return first;
+    }
+
+    @Override
+    public Boolean visit(OrExpression orExpression) {
+      Boolean first = orExpression.getLeft().accept(this);
+      return first != null ? first : Boolean.FALSE;
+    }
+
+    @Override
+    public Boolean visit(VariableReference reference) {
+      return scope.contains(reference.getVariableName()) ? null : Boolean.FALSE;
+    }
+  }
+
+  /**
+   * Replaces the occurrences of a call by a reference to the variable bound
+   * to its value, except where the call refers to variables bound inside
+   * the expression.
+   */
+  private static class Replacer implements ExpressionVisitor<Expression> {
+    private final FunctionCall call;
+    private final Set<String> callVariables;
+    private final String name;
+    private final List<String> bound = new ArrayList<>();
+
+    Replacer(FunctionCall call, Set<String> callVariables, String name) {
+      this.call = call;
+      this.callVariables = callVariables;
+      this.name = name;
+    }
+
+    @Override
+    public Expression visit(AndExpression andExpression) {
+      return new AndExpression(
+        andExpression.getLeftOperand().accept(this),
+        andExpression.getRightOperand().accept(this)
+      );
+    }
+
+    @Override
+    public Expression visit(BooleanLiteral booleanLiteral) {
+      return booleanLiteral;
+    }
+
+    @Override
+    public Expression visit(FunctionCall functionCall) {
+      if (functionCall.equals(call) && Collections.disjoint(callVariables, bound)) {
+        return new VariableReference(name);
+      }
+      List<Expression> arguments = new ArrayList<>(functionCall.getArguments().size());
+      for (Expression argument : functionCall.getArguments()) {
+        arguments.add(argument.accept(this));
+      }
+      return new FunctionCall(
+        functionCall.getFunctionName(),
+        arguments,
+        functionCall.getPrimitive(),
+        functionCall.getDefinitionIndex()
+      );
+    }
+
+    @Override
+    public Expression visit(IfExpression ifExpression) {
+      return new IfExpression(
+        ifExpression.getCondition().accept(this),
+        ifExpression.getConsequent().accept(this),
+        ifExpression.getAlternative().accept(this)
+      );
+    }
+
+    @Override
+    public Expression visit(IntLiteral intLiteral) {
+      return intLiteral;
+    }
+
+    @Override
+    public Expression visit(LetExpression letExpression) {
+      Expression rhs = letExpression.getRhs().accept(this);
+      bound.add(letExpression.getVarName());
+      Expression body = letExpression.getBody().accept(this);
+      bound.remove(bound.size() - 1);
+      return new LetExpression(letExpression.getVarName(), rhs, body, letExpression.getSlot());
+    }
+
+    @Override
+    public Expression visit(OrExpression orExpression) {
+      return new OrExpression(
+        orExpression.getLeft().accept(this),
+        orExpression.getRight().accept(this)
+      );
+    }
+
+    @Override
+    public Expression visit(VariableReference reference) {
+      return reference;
+    }
+  }
+}
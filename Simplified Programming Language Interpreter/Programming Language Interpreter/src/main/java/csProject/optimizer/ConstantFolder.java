@@ -0,0 +1,226 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.core.BooleanValue;
+import csProject.core.TypeError;
+import csProject.core.Value;
+import csProject.evalExceptions.EvaluationException;
+import csProject.primitives.Primitive;
+import csProject.primitives.PrimitiveTable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Constant folding pass.  Produces a copy of a program in which
+ *
+ * <ul>
+ *   <li>primitive calls whose arguments are all literals are replaced by
+ *       their result;</li>
+ *   <li><code>if</code>s with a literal condition are replaced by the branch
+ *       taken, and <code>and</code>s and <code>or</code>s whose left operand
+ *       decides the result by that result;</li>
+ *   <li><code>let</code>s binding a literal are removed, and the literal
+ *       substituted for the variable in their body.</li>
+ * </ul>
+ *
+ * <p>Folding never changes what a program does, including the errors it
+ * raises: a constant call that fails, such as a division by zero or an
+ * ill-typed call, is left in place to fail at run time, as is an
+ * ill-typed condition.  Only code that can never run is dropped.  Slots
+ * and links assigned by earlier passes are preserved.</p>
+ *
+ * <p>A program whose definitions refer to their callers' variables is
+ * returned unchanged, since a removed <code>let</code> could be the binding
+ * a called definition sees.</p>
+ */
+public class ConstantFolder implements ExpressionVisitor<Expression> {
+  private final PrimitiveTable primitiveTable;
+  // the variables in scope, innermost last, with their literal values, or
+  // null for variables whose value is not known
+  private final List<String> scopeNames = new ArrayList<>();
+  private final List<Expression> scopeValues = new ArrayList<>();
+
+  private ConstantFolder(PrimitiveTable primitiveTable) {
+    this.primitiveTable = primitiveTable;
+  }
+
+  /**
+   * Folds the constants in a program.
+   * @param program the program to fold
+   * @return the folded program
+   */
+  public static Program fold(Program program) {
+    Objects.requireNonNull(program);
+    if (program.refersToCallerVariables()) {
+      return program;
+    }
+    PrimitiveTable primitiveTable = new PrimitiveTable();
+    List<Definition> definitions = new ArrayList<>(program.getDefinitions().size());
+    for (Definition d : program.getDefinitions()) {
+      definitions.add(fold(d, primitiveTable));
+    }
+    Expression expression = program.getExpression().accept(new ConstantFolder(primitiveTable));
+    return new Program(definitions, expression, program.getFrameSize());
+  }
+
+  /**
+   * Folds the constants in an expression with no variables of known value
+   * in scope.
+   * @param expression the expression to fold
+   * @return the folded expression
+   */
+  public static Expression fold(Expression expression) {
+    return expression.accept(new ConstantFolder(new PrimitiveTable()));
+  }
+
+  private static Definition fold(Definition definition, PrimitiveTable primitiveTable) {
+    ConstantFolder folder = new ConstantFolder(primitiveTable);
+    for (String parameter : definition.getArguments()) {
+      folder.scopeNames.add(parameter);
+      folder.scopeValues.add(null);
+    }
+    return new Definition(
+      definition.getName(),
+      definition.getArguments(),
+      definition.getBody().accept(folder),
+      definition.getFrameSize()
+    );
+  }
+
+  @Override
+  public Expression visit(AndExpression andExpression) {
+    Expression left = andExpression.getLeftOperand().accept(this);
+    Expression right = andExpression.getRightOperand().accept(this);
+    if (left instanceof BooleanLiteral literal) {
+      if (!literal.isValue()) {
+        return left;
+      }
+      if (right instanceof BooleanLiteral) {
+        return right;
+      }
+    }
+    return new AndExpression(left, right);
+  }
+
+  @Override
+  public Expression visit(BooleanLiteral booleanLiteral) {
+    return booleanLiteral;
+  }
+
+  @Override
+  public Expression visit(FunctionCall functionCall) {
+    List<Expression> arguments = new ArrayList<>(functionCall.getArguments().size());
+    boolean constant = true;
+    for (Expression argument : functionCall.getArguments()) {
+      Expression folded = argument.accept(this);
+      arguments.add(folded);
+      constant &= folded instanceof IntLiteral || folded instanceof BooleanLiteral;
+    }
+
+    Primitive primitive = functionCall.isLinked()
+      ? functionCall.getPrimitive()
+      : primitiveTable.lookup(functionCall.getFunctionName());
+    if (constant && primitive != null) {
+      List<Value> values = new ArrayList<>(arguments.size());
+      for (Expression argument : arguments) {
+        values.add(valueOf(argument));
+      }
+      try {
+        return literalOf(primitive.apply(values));
+      } catch (TypeError | EvaluationException | ArithmeticException e) {
+        // the call fails at run time; leave it to do so
+      }
+    }
+    return new FunctionCall(
+      functionCall.getFunctionName(),
+      arguments,
+      functionCall.getPrimitive(),
+      functionCall.getDefinitionIndex()
+    );
+  }
+
+  @Override
+  public Expression visit(IfExpression ifExpression) {
+    Expression condition = ifExpression.getCondition().accept(this);
+    if (condition instanceof BooleanLiteral literal) {
+      return literal.isValue()
+        ? ifExpression.getConsequent().accept(this)
+        : ifExpression.getAlternative().accept(this);
+    }
+    return new IfExpression(
+      condition,
+      ifExpression.getConsequent().accept(this),
+      ifExpression.getAlternative().accept(this)
+    );
+  }
+
+  @Override
+  public Expression visit(IntLiteral intLiteral) {
+    return intLiteral;
+  }
+
+  @Override
+  public Expression visit(LetExpression letExpression) {
+    Expression rhs = letExpression.getRhs().accept(this);
+    boolean constant = rhs instanceof IntLiteral || rhs instanceof BooleanLiteral;
+    scopeNames.add(letExpression.getVarName());
+    scopeValues.add(constant ? rhs : null);
+    Expression body = letExpression.getBody().accept(this);
+    scopeNames.remove(scopeNames.size() - 1);
+    scopeValues.remove(scopeValues.size() - 1);
+    if (constant) {
+      return body;
+    }
+    return new LetExpression(letExpression.getVarName(), rhs, body, letExpression.getSlot());
+  }
+
+  @Override
+  public Expression visit(OrExpression orExpression) {
+    Expression left = orExpression.getLeft().accept(this);
+    Expression right = orExpression.getRight().accept(this);
+    if (left instanceof BooleanLiteral literal) {
+      if (literal.isValue()) {
+        return left;
+      }
+      if (right instanceof BooleanLiteral) {
+        return right;
+      }
+    }
+    return new OrExpression(left, right);
+  }
+
+  @Override
+  public Expression visit(VariableReference reference) {
+    int index = scopeNames.lastIndexOf(reference.getVariableName());
+    if (index >= 0 && scopeValues.get(index) != null) {
+      return scopeValues.get(index);
+    }
+    return reference;
+  }
+
+  private static Value valueOf(Expression literal) {
+    if (literal instanceof BooleanLiteral booleanLiteral) {
+      return booleanLiteral.getLiteralValue();
+    }
+    return ((IntLiteral) literal).getLiteralValue();
+  }
+
+  private static Expression literalOf(Value value) {
+    if (value instanceof BooleanValue) {
+      return new BooleanLiteral(value.asBoolean());
+    }
+    return new IntLiteral(value.asInteger());
+  }
+}
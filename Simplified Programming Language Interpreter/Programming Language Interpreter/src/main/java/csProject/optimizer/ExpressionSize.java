@@ -0,0 +1,75 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.VariableReference;
+
+/**
+ * Counts the nodes of an expression, as a measure of how much code inlining
+ * it would duplicate.
+ */
+class ExpressionSize implements ExpressionVisitor<Integer> {
+  private static final ExpressionSize INSTANCE = new ExpressionSize();
+
+  /**
+   * Counts the nodes of an expression.
+   * @param expression the expression
+   * @return the number of nodes
+   */
+  static int of(Expression expression) {
+    return expression.accept(INSTANCE);
+  }
+
+  @Override
+  public Integer visit(AndExpression andExpression) {
+    return 1 + of(andExpression.getLeftOperand()) + of(andExpression.getRightOperand());
+  }
+
+  @Override
+  public Integer visit(BooleanLiteral booleanLiteral) {
+    return 1;
+  }
+
+  @Override
+  public Integer visit(FunctionCall functionCall) {
+    int size = 1;
+    for (Expression argument : functionCall.getArguments()) {
+      size += of(argument);
+    }
+    return size;
+  }
+
+  @Override
+  public Integer visit(IfExpression ifExpression) {
+    return 1 + of(ifExpression.getCondition())
+      + of(ifExpression.getConsequent())
+      + of(ifExpression.getAlternative());
+  }
+
+  @Override
+  public Integer visit(IntLiteral intLiteral) {
+    return 1;
+  }
+
+  @Override
+  public Integer visit(LetExpression letExpression) {
+    return 1 + of(letExpression.getRhs()) + of(letExpression.getBody());
+  }
+
+  @Override
+  public Integer visit(OrExpression orExpression) {
+    return 1 + of(orExpression.getLeft()) + of(orExpression.getRight());
+  }
+
+  @Override
+  public Integer visit(VariableReference reference) {
+    return 1;
+  }
+}
@@ -0,0 +1,372 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.primitives.PrimitiveTable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Inlining pass.  Produces a copy of a program in which calls of small
+ * definitions are replaced by the definition's body.  A call
+ * <code>(f a b)</code> of <code>(define (f x y) body)</code> becomes
+ * <code>(let x#1 a (let y#1 b body'))</code>, where <code>body'</code> is
+ * the body with the parameters renamed to fresh names, so the arguments are
+ * still all evaluated, left to right, before the body, and an argument that
+ * fails still fails even if the body does not use it.
+ *
+ * <p>Non-recursive definitions are inlined wherever they are called;
+ * definitions that can call themselves, directly or through others, are
+ * unrolled at most a given number of levels, below which their calls are
+ * left in place.  A definition is only inlined if its body has at most a
+ * given number of nodes and refers to no variables but its parameters and
+ * its own <code>let</code>s.  Calls of primitives, of undefined functions
+ * and with the wrong number of arguments are left alone to be reported at
+ * run time.</p>
+ *
+ * <p>All definitions are kept, since calls below the unrolling limit still
+ * need them.  The new <code>let</code>s and references are not resolved to
+ * slots, and definitions whose bodies change lose their frame size, so the
+ * result should be resolved again before being evaluated with slots.</p>
+ *
+ * <p>A program whose definitions refer to their callers' variables is
+ * returned unchanged, since renaming the parameters of an inlined body
+ * would hide them from the definitions it calls.</p>
+ */
+public class Inliner implements ExpressionVisitor<Expression> {
+  /**
+   * The default maximum number of nodes in an inlined body.
+   */
+  public static final int DEFAULT_MAX_SIZE = 16;
+  /**
+   * The default number of levels recursive definitions are unrolled.
+   */
+  public static final int DEFAULT_UNROLL_DEPTH = 0;
+
+  private final PrimitiveTable primitiveTable;
+  private final Map<String, Definition> definitions;
+  private final Set<String> recursive;
+  private final Set<String> inlinable;
+  private final int unrollDepth;
+  private final Names names;
+  private final InliningReport report;
+  // how many unrolled copies of each recursive definition enclose the
+  // expression being visited
+  private final Map<String, Integer> depths = new HashMap<>();
+
+  private Inliner(
+    Program program,
+    int maxSize,
+    int unrollDepth,
+    InliningReport report
+  ) {
+    this.primitiveTable = new PrimitiveTable();
+    this.definitions = new HashMap<>();
+    for (Definition d : program.getDefinitions()) {
+      definitions.put(d.getName(), d);
+    }
+    this.recursive = recursiveDefinitions(definitions);
+    this.inlinable = new HashSet<>();
+    for (Definition d : definitions.values()) {
+      if (ExpressionSize.of(d.getBody()) <= maxSize && isClosed(d)) {
+        inlinable.add(d.getName());
+      }
+    }
+    this.unrollDepth = unrollDepth;
+    this.names = Names.of(program);
+    this.report = report;
+  }
+
+  /**
+   * Inlines the non-recursive definitions of a program with at most
+   * {@link #DEFAULT_MAX_SIZE} nodes.
+   * @param program the program
+   * @return the program with the definitions inlined
+   */
+  public static Program inline(Program program) {
+    return inline(program, DEFAULT_MAX_SIZE, DEFAULT_UNROLL_DEPTH, new InliningReport());
+  }
+
+  /**
+   * Inlines the definitions of a program.
+   * @param program the program
+   * @param maxSize the maximum number of nodes in an inlined body
+   * @param unrollDepth the maximum number of levels recursive definitions
+   *                    are unrolled; 0 leaves their calls alone
+   * @param report the report to record the inlined calls in
+   * @return the program with the definitions inlined
+   * @throws IllegalArgumentException if the size or depth is negative
+   */
+  public static Program inline(
+    Program program,
+    int maxSize,
+    int unrollDepth,
+    InliningReport report
+  ) {
+    Objects.requireNonNull(program);
+    Objects.requireNonNull(report);
+    if (maxSize < 0 || unrollDepth < 0) {
+      throw new IllegalArgumentException(
+        "size and depth must not be negative: " + maxSize + ", " + unrollDepth);
+    }
+    if (program.refersToCallerVariables()) {
+      return program;
+    }
+    Inliner inliner = new Inliner(program, maxSize, unrollDepth, report);
+    List<Definition> inlined = new ArrayList<>(program.getDefinitions().size());
+    for (Definition d : program.getDefinitions()) {
+      int before = report.getTotal();
+      Expression body = d.getBody().accept(inliner);
+      inlined.add(report.getTotal() == before
+        ? new Definition(d.getName(), d.getArguments(), body, d.getFrameSize())
+        : new Definition(d.getName(), d.getArguments(), body));
+    }
+    int before = report.getTotal();
+    Expression expression = program.getExpression().accept(inliner);
+    return report.getTotal() == before
+      ? new Program(inlined, expression, program.getFrameSize())
+      : new Program(inlined, expression);
+  }
+
+  @Override
+  public Expression visit(AndExpression andExpression) {
+    return new AndExpression(
+      andExpression.getLeftOperand().accept(this),
+      andExpression.getRightOperand().accept(this)
+    );
+  }
+
+  @Override
+  public Expression visit(BooleanLiteral booleanLiteral) {
+    return booleanLiteral;
+  }
+
+  @Override
+  public Expression visit(FunctionCall functionCall) {
+    List<Expression> arguments = new ArrayList<>(functionCall.getArguments().size());
+    for (Expression argument : functionCall.getArguments()) {
+      arguments.add(argument.accept(this));
+    }
+
+    Definition callee = calleeOf(functionCall);
+    if (callee == null
+        || !inlinable.contains(callee.getName())
+        || callee.getArguments().size() != arguments.size()) {
+      return new FunctionCall(
+        functionCall.getFunctionName(),
+        arguments,
+        functionCall.getPrimitive(),
+        functionCall.getDefinitionIndex()
+      );
+    }
+    String name = callee.getName();
+    boolean isRecursive = recursive.contains(name);
+    int depth = depths.getOrDefault(name, 0);
+    if (isRecursive && depth >= unrollDepth) {
+      return new FunctionCall(
+        functionCall.getFunctionName(),
+        arguments,
+        functionCall.getPrimitive(),
+        functionCall.getDefinitionIndex()
+      );
+    }
+    report.record(name, isRecursive);
+
+    List<String> parameters = callee.getArguments();
+    List<String> fresh = new ArrayList<>(parameters.size());
+    for (String parameter : parameters) {
+      fresh.add(names.fresh(parameter));
+    }
+    Expression body = callee.getBody().accept(new Renamer(parameters, fresh));
+    depths.put(name, depth + 1);
+    body = body.accept(this);
+    depths.put(name, depth);
+    for (int i = parameters.size() - 1; i >= 0; i--) {
+      body = new LetExpression(fresh.get(i), arguments.get(i), body);
+    }
+    return body;
+  }
+
+  @Override
+  public Expression visit(IfExpression ifExpression) {
+    return new IfExpression(
+      ifExpression.getCondition().accept(this),
+      ifExpression.getConsequent().accept(this),
+      ifExpression.getAlternative().accept(this)
+    );
+  }
+
+  @Override
+  public Expression visit(IntLiteral intLiteral) {
+    return intLiteral;
+  }
+
+  @Override
+  public Expression visit(LetExpression letExpression) {
+    return new LetExpression(
+      letExpression.getVarName(),
+      letExpression.getRhs().accept(this),
+      letExpression.getBody().accept(this),
+      letExpression.getSlot()
+    );
+  }
+
+  @Override
+  public Expression visit(OrExpression orExpression) {
+    return new OrExpression(
+      orExpression.getLeft().accept(this),
+      orExpression.getRight().accept(this)
+    );
+  }
+
+  @Override
+  public Expression visit(VariableReference reference) {
+    return reference;
+  }
+
+  private Definition calleeOf(FunctionCall functionCall) {
+    if (functionCall.isLinked()) {
+      return functionCall.getPrimitive() != null
+        ? null
+        : definitions.get(functionCall.getFunctionName());
+    }
+    if (primitiveTable.lookup(functionCall.getFunctionName()) != null) {
+      return null;
+    }
+    return definitions.get(functionCall.getFunctionName());
+  }
+
+  private static boolean isClosed(Definition definition) {
+    Renamer renamer = new Renamer(definition.getArguments(), definition.getArguments());
+    definition.getBody().accept(renamer);
+    return renamer.closed;
+  }
+
+  // the definitions that can call themselves, directly or indirectly
+  private static Set<String> recursiveDefinitions(Map<String, Definition> definitions) {
+    Map<String, Set<String>> callees = new HashMap<>();
+    for (Definition d : definitions.values()) {
+      callees.put(d.getName(), Names.of(d.getBody()).getFunctions());
+    }
+    Set<String> recursive = new HashSet<>();
+    for (String name : definitions.keySet()) {
+      Set<String> seen = new HashSet<>();
+      List<String> pending = new ArrayList<>(callees.get(name));
+      while (!pending.isEmpty()) {
+        String next = pending.remove(pending.size() - 1);
+        if (next.equals(name)) {
+          recursive.add(name);
+          break;
+        }
+        if (seen.add(next) && callees.containsKey(next)) {
+          pending.addAll(callees.get(next));
+        }
+      }
+    }
+    return recursive;
+  }
+
+  /**
+   * Renames the parameters of a definition body, leaving variables bound by
+   * <code>let</code>s in the body alone, and notes whether the body refers
+   * to any other variables.
+   */
+  private static class Renamer implements ExpressionVisitor<Expression> {
+    // the variables in scope, innermost last, with their new names, or
+    // null for variables bound in the body
+    private final List<String> scopeNames = new ArrayList<>();
+    private final List<String> scopeRenames = new ArrayList<>();
+    private boolean closed = true;
+
+    Renamer(List<String> parameters, List<String> renames) {
+      scopeNames.addAll(parameters);
+      scopeRenames.addAll(renames);
+    }
+
+    @Override
+    public Expression visit(AndExpression andExpression) {
+      return new AndExpression(
+        andExpression.getLeftOperand().accept(this),
+        andExpression.getRightOperand().accept(this)
+      );
+    }
+
+    @Override
+    public Expression visit(BooleanLiteral booleanLiteral) {
+      return booleanLiteral;
+    }
+
+    @Override
+    public Expression visit(FunctionCall functionCall) {
+      List<Expression> arguments = new ArrayList<>(functionCall.getArguments().size());
+      for (Expression argument : functionCall.getArguments()) {
+        arguments.add(argument.accept(this));
+      }
+      return new FunctionCall(
+        functionCall.getFunctionName(),
+        arguments,
+        functionCall.getPrimitive(),
+        functionCall.getDefinitionIndex()
+      );
+    }
+
+    @Override
+    public Expression visit(IfExpression ifExpression) {
+      return new IfExpression(
+        ifExpression.getCondition().accept(this),
+        ifExpression.getConsequent().accept(this),
+        ifExpression.getAlternative().accept(this)
+      );
+    }
+
+    @Override
+    public Expression visit(IntLiteral intLiteral) {
+      return intLiteral;
+    }
+
+    @Override
+    public Expression visit(LetExpression letExpression) {
+      Expression rhs = letExpression.getRhs().accept(this);
+      scopeNames.add(letExpression.getVarName());
+      scopeRenames.add(null);
+      Expression body = letExpression.getBody().accept(this);
+      scopeNames.remove(scopeNames.size() - 1);
+      scopeRenames.remove(scopeRenames.size() - 1);
+      return new LetExpression(letExpression.getVarName(), rhs, body);
+    }
+
+    @Override
+    public Expression visit(OrExpression orExpression) {
+      return new OrExpression(
+        orExpression.getLeft().accept(this),
+        orExpression.getRight().accept(this)
+      );
+    }
+
+    @Override
+    public Expression visit(VariableReference reference) {
+      int index = scopeNames.lastIndexOf(reference.getVariableName());
+      if (index < 0) {
+        closed = false;
+        return reference;
+      }
+      String rename = scopeRenames.get(index);
+      return new VariableReference(rename == null ? reference.getVariableName() : rename);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+package csProject.optimizer;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Records which definitions the {@code Inliner} inlined, and how often.
+ * Calls of non-recursive definitions are counted as inlined; calls of
+ * recursive definitions as unrolled.
+ */
+public class InliningReport {
+  private final Map<String, Integer> inlined = new TreeMap<>();
+  private final Map<String, Integer> unrolled = new TreeMap<>();
+
+  void record(String name, boolean recursive) {
+    (recursive ? unrolled : inlined).merge(name, 1, Integer::sum);
+  }
+
+  /**
+   * Gets the number of calls of a definition that were inlined.
+   * @param name the name of the definition
+   * @return the number of calls inlined
+   */
+  public int getInlined(String name) {
+    return inlined.getOrDefault(name, 0);
+  }
+
+  /**
+   * Gets the number of calls of a recursive definition that were unrolled.
+   * @param name the name of the definition
+   * @return the number of calls unrolled
+   */
+  public int getUnrolled(String name) {
+    return unrolled.getOrDefault(name, 0);
+  }
+
+  /**
+   * Gets the names of the non-recursive definitions inlined at least once.
+   * @return the names, in alphabetical order
+   */
+  public Set<String> getInlinedNames() {
+    return inlined.keySet();
+  }
+
+  /**
+   * Gets the names of the recursive definitions unrolled at least once.
+   * @return the names, in alphabetical order
+   */
+  public Set<String> getUnrolledNames() {
+    return unrolled.keySet();
+  }
+
+  /**
+   * Gets the total number of calls inlined or unrolled.
+   * @return the total
+   */
+  public int getTotal() {
+    int total = 0;
+    for (int count : inlined.values()) {
+      total += count;
+    }
+    for (int count : unrolled.values()) {
+      total += count;
+    }
+    return total;
+  }
+
+  /**
+   * Formats the report, one definition per line.
+   * @return the formatted report
+   */
+  public String format() {
+    StringBuilder sb = new StringBuilder();
+    for (Map.Entry<String, Integer> e : inlined.entrySet()) {
+      sb.append(String.format("inlined %s: %d%n", e.getKey(), e.getValue()));
+    }
+    for (Map.Entry<String, Integer> e : unrolled.entrySet()) {
+      sb.append(String.format("unrolled %s: %d%n", e.getKey(), e.getValue()));
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public String toString() {
+    return "InliningReport(inlined=" + inlined + ", unrolled=" + unrolled + ")";
+  }
+}
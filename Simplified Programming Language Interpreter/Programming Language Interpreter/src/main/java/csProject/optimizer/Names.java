@@ -0,0 +1,130 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collects the names occurring in expressions: the functions they call and
+ * the variables they bind or refer to.  Also hands out fresh variable names
+ * that occur nowhere in the collected code.
+ */
+class Names implements ExpressionVisitor<Void> {
+  private final Set<String> functions = new HashSet<>();
+  private final Set<String> variables = new HashSet<>();
+
+  /**
+   * Collects the names of a whole program, including definition parameters.
+   * @param program the program
+   * @return the collected names
+   */
+  static Names of(Program program) {
+    Names names = new Names();
+    for (Definition d : program.getDefinitions()) {
+      names.variables.addAll(d.getArguments());
+      d.getBody().accept(names);
+    }
+    program.getExpression().accept(names);
+    return names;
+  }
+
+  /**
+   * Collects the names of an expression.
+   * @param expression the expression
+   * @return the collected names
+   */
+  static Names of(Expression expression) {
+    Names names = new Names();
+    expression.accept(names);
+    return names;
+  }
+
+  /**
+   * Gets the names of the functions called.
+   * @return the function names
+   */
+  Set<String> getFunctions() {
+    return functions;
+  }
+
+  /**
+   * Makes up a variable name that occurs nowhere in the collected code, nor
+   * among the names made up before.
+   * @param base the name to base the new name on
+   * @return the fresh name
+   */
+  String fresh(String base) {
+    for (int i = 1; ; i++) {
+      String name = base + "#" + i;
+      if (variables.add(name)) {
+        return name;
+      }
+    }
+  }
+
+  @Override
+  public Void visit(AndExpression andExpression) {
+    andExpression.getLeftOperand().accept(this);
+    andExpression.getRightOperand().accept(this);
+    return null;
+  }
+
+  @Override
+  public Void visit(BooleanLiteral booleanLiteral) {
+    return null;
+  }
+
+  @Override
+  public Void visit(FunctionCall functionCall) {
+    functions.add(functionCall.getFunctionName());
+    for (Expression argument : functionCall.getArguments()) {
+      argument.accept(this);
+    }
+    return null;
+  }
+
+  @Override
+  public Void visit(IfExpression ifExpression) {
+    ifExpression.getCondition().accept(this);
+    ifExpression.getConsequent().accept(this);
+    ifExpression.getAlternative().accept(this);
+    return null;
+  }
+
+  @Override
+  public Void visit(IntLiteral intLiteral) {
+    return null;
+  }
+
+  @Override
+  public Void visit(LetExpression letExpression) {
+    variables.add(letExpression.getVarName());
+    letExpression.getRhs().accept(this);
+    letExpression.getBody().accept(this);
+    return null;
+  }
+
+  @Override
+  public Void visit(OrExpression orExpression) {
+    orExpression.getLeft().accept(this);
+    orExpression.getRight().accept(this);
+    return null;
+  }
+
+  @Override
+  public Void visit(VariableReference reference) {
+    variables.add(reference.getVariableName());
+    return null;
+  }
+}
@@ -0,0 +1,309 @@
+package csProject.optimizer;
+
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.Value;
+import java.util.NavigableSet;
+import java.util.Objects;
+
+/**
+ * The values an expression may have, as found by the {@code RangeAnalysis}:
+ * an interval of ints, which may be empty, and which of the two booleans
+ * are possible.  A range only describes the values of evaluations that
+ * complete; evaluations that fail or diverge have no value.  The empty
+ * range, {@link #NONE}, is therefore the range of expressions that never
+ * complete, or are never evaluated.  Ranges are immutable.
+ */
+public final class Range {
+  /**
+   * The empty range.
+   */
+  public static final Range NONE = new Range(1, 0, false, false);
+  /**
+   * The range of all ints.
+   */
+  public static final Range INT = new Range(Integer.MIN_VALUE, Integer.MAX_VALUE, false, false);
+  /**
+   * The range of the two booleans.
+   */
+  public static final Range BOOLEAN = new Range(1, 0, true, true);
+  /**
+   * The range of all values.
+   */
+  public static final Range ANY = new Range(Integer.MIN_VALUE, Integer.MAX_VALUE, true, true);
+  /**
+   * The range of true.
+   */
+  public static final Range TRUE = new Range(1, 0, true, false);
+  /**
+   * The range of false.
+   */
+  public static final Range FALSE = new Range(1, 0, false, true);
+
+  private final long min;
+  private final long max;
+  private final boolean mayBeTrue;
+  private final boolean mayBeFalse;
+
+  private Range(long min, long max, boolean mayBeTrue, boolean mayBeFalse) {
+    this.min = min;
+    this.max = max;
+    this.mayBeTrue = mayBeTrue;
+    this.mayBeFalse = mayBeFalse;
+  }
+
+  /**
+   * Gets the range of one int.
+   * @param value the int
+   * @return the range
+   */
+  public static Range of(int value) {
+    return new Range(value, value, false, false);
+  }
+
+  /**
+   * Gets the range of one boolean.
+   * @param value the boolean
+   * @return the range
+   */
+  public static Range of(boolean value) {
+    return value ? TRUE : FALSE;
+  }
+
+  /**
+   * Gets a range of booleans.
+   * @param mayBeTrue whether true is in the range
+   * @param mayBeFalse whether false is in the range
+   * @return the range
+   */
+  public static Range ofBooleans(boolean mayBeTrue, boolean mayBeFalse) {
+    return new Range(1, 0, mayBeTrue, mayBeFalse);
+  }
+
+  /**
+   * Gets the range of the ints in an interval.  Bounds outside the ints
+   * are clamped to them.
+   * @param min the least int
+   * @param max the greatest int
+   * @return the range, empty if min is greater than max
+   */
+  public static Range ofInts(long min, long max) {
+    return new Range(
+      Math.max(min, Integer.MIN_VALUE),
+      Math.min(max, Integer.MAX_VALUE),
+      false,
+      false
+    );
+  }
+
+  /**
+   * Tells whether the range has no values.
+   * @return true if the range is empty
+   */
+  public boolean isNone() {
+    return !hasInts() && !hasBooleans();
+  }
+
+  /**
+   * Tells whether the range has any ints.
+   * @return true if the int interval is not empty
+   */
+  public boolean hasInts() {
+    return min <= max;
+  }
+
+  /**
+   * Tells whether the range has any booleans.
+   * @return true if true or false is possible
+   */
+  public boolean hasBooleans() {
+    return mayBeTrue || mayBeFalse;
+  }
+
+  /**
+   * Tells whether all values of the range are ints.
+   * @return true if the range has ints and no booleans
+   */
+  public boolean isIntOnly() {
+    return hasInts() && !hasBooleans();
+  }
+
+  /**
+   * Tells whether all values of the range are booleans.
+   * @return true if the range has booleans and no ints
+   */
+  public boolean isBooleanOnly() {
+    return hasBooleans() && !hasInts();
+  }
+
+  /**
+   * Gets the least int of the range.
+   * @return the least int; meaningless if the range has no ints
+   */
+  public long getMin() {
+    return min;
+  }
+
+  /**
+   * Gets the greatest int of the range.
+   * @return the greatest int; meaningless if the range has no ints
+   */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * Tells whether true is in the range.
+   * @return true if true is possible
+   */
+  public boolean mayBeTrue() {
+    return mayBeTrue;
+  }
+
+  /**
+   * Tells whether false is in the range.
+   * @return true if false is possible
+   */
+  public boolean mayBeFalse() {
+    return mayBeFalse;
+  }
+
+  /**
+   * Tells whether an int is in the range.
+   * @param value the int
+   * @return true if the int is possible
+   */
+  public boolean contains(long value) {
+    return min <= value && value <= max;
+  }
+
+  /**
+   * Gets the only value of the range.
+   * @return the value, or null if the range does not have exactly one value
+   */
+  public Value getConstant() {
+    if (isIntOnly() && min == max) {
+      return IntValue.of((int) min);
+    }
+    if (isBooleanOnly() && mayBeTrue != mayBeFalse) {
+      return BooleanValue.valueOf(mayBeTrue);
+    }
+    return null;
+  }
+
+  /**
+   * Gets the ints of this range.
+   * @return the range with the booleans left out
+   */
+  public Range ints() {
+    return hasBooleans() ? new Range(min, max, false, false) : this;
+  }
+
+  /**
+   * Gets the booleans of this range.
+   * @return the range with the ints left out
+   */
+  public Range booleans() {
+    return hasInts() ? new Range(1, 0, mayBeTrue, mayBeFalse) : this;
+  }
+
+  /**
+   * Gets the smallest range holding the values of this range and another.
+   * @param other the other range
+   * @return the union of the two ranges
+   */
+  public Range join(Range other) {
+    if (other.isNone()) {
+      return this;
+    }
+    if (isNone()) {
+      return other;
+    }
+    long newMin = !hasInts() ? other.min : !other.hasInts() ? min : Math.min(min, other.min);
+    long newMax = !hasInts() ? other.max : !other.hasInts() ? max : Math.max(max, other.max);
+    return new Range(newMin, newMax, mayBeTrue || other.mayBeTrue, mayBeFalse || other.mayBeFalse);
+  }
+
+  /**
+   * Gets the ints of this range that are in an interval.
+   * @param lower the least int to keep
+   * @param upper the greatest int to keep
+   * @return the ints of the range between the bounds
+   */
+  public Range intersect(long lower, long upper) {
+    return ofInts(Math.max(min, lower), Math.min(max, upper));
+  }
+
+  /**
+   * Widens this range to cover a larger one, moving every bound that has
+   * grown to the next of the given thresholds, or to the end of the ints,
+   * so that a range can only grow a bounded number of times.
+   * @param larger a range that holds this one
+   * @param thresholds the bounds to try before the ends of the ints
+   * @return the widened range
+   */
+  public Range widen(Range larger, NavigableSet<Long> thresholds) {
+    if (!hasInts() || !larger.hasInts()) {
+      return larger;
+    }
+    long newMin = larger.min;
+    if (newMin < min) {
+      Long threshold = thresholds.floor(newMin);
+      newMin = threshold == null ? Integer.MIN_VALUE : threshold;
+    }
+    long newMax = larger.max;
+    if (newMax > max) {
+      Long threshold = thresholds.ceiling(newMax);
+      newMax = threshold == null ? Integer.MAX_VALUE : threshold;
+    }
+    return new Range(newMin, newMax, larger.mayBeTrue, larger.mayBeFalse);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Range that)) {
+      return false;
+    }
+    if (hasInts() != that.hasInts() || (hasInts() && (min != that.min || max != that.max))) {
+      return false;
+    }
+    return mayBeTrue == that.mayBeTrue && mayBeFalse == that.mayBeFalse;
+  }
+
+  @Override
+  public int hashCode() {
+    return hasInts()
+      ? Objects.hash(min, max, mayBeTrue, mayBeFalse)
+      : Objects.hash(mayBeTrue, mayBeFalse);
+  }
+
+  /**
+   * Formats the range, as in <code>[0, 10]</code>, <code>7</code>,
+   * <code>bool</code>, <code>int | true</code> or <code>none</code>.
+   * @return the formatted range
+   */
+  @Override
+  public String toString() {
+    if (isNone()) {
+      return "none";
+    }
+    String ints;
+    if (!hasInts()) {
+      ints = null;
+    } else if (min == Integer.MIN_VALUE && max == Integer.MAX_VALUE) {
+      ints = "int";
+    } else if (min == max) {
+      ints = Long.toString(min);
+    } else {
+      ints = "[" + min + ", " + max + "]";
+    }
+    String booleans = mayBeTrue && mayBeFalse ? "bool" : mayBeTrue ? "true" : mayBeFalse ? "false" : null;
+    if (ints == null) {
+      return booleans;
+    }
+    return booleans == null ? ints : ints + " | " + booleans;
+  }
+}
@@ -0,0 +1,611 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.core.Environment;
+import csProject.primitives.Primitive;
+import csProject.primitives.PrimitiveTable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Value-range analysis.  Computes, by abstract interpretation of a whole
+ * program, a {@code Range} for every expression: the ints and booleans it
+ * may evaluate to.  Definitions are analyzed with the join of the argument
+ * ranges of all their calls, starting from the program's expression, until
+ * no range changes.  Ranges that keep growing are widened, first to the
+ * program's constants and their neighbours, then to the ends of the ints,
+ * so the analysis always terminates.
+ *
+ * <p>Arithmetic follows the primitives, including overflow, which widens a
+ * result to all ints.  Conditions narrow the ranges of the variables they
+ * compare in the branches they guard, so in
+ * <code>(if (&lt; n 2) n (- n 1))</code> the <code>n</code> of the
+ * consequent is below 2 and the <code>(- n 1)</code> of the alternative is
+ * at least 1.  Expressions that are never evaluated, such as the branches
+ * of conditions that are always true or false, and the bodies of
+ * definitions that are never called, have the empty range.</p>
+ *
+ * <p>The analysis is keyed by the identity of the expressions of the
+ * program it was run on.</p>
+ */
+public class RangeAnalysis {
+  // the number of times a parameter or result range may grow before it is
+  // widened
+  private static final int WIDENING_DELAY = 3;
+
+  private final Program program;
+  private final PrimitiveTable primitiveTable = new PrimitiveTable();
+  // the definitions that can be called, by name; later ones win
+  private final Map<String, Definition> definitions = new LinkedHashMap<>();
+  private final Map<String, Range[]> parameterRanges = new HashMap<>();
+  private final Map<String, Range> resultRanges = new HashMap<>();
+  // how often each parameter range, and last the result range, has grown
+  private final Map<String, int[]> growth = new HashMap<>();
+  private final Map<Expression, Range> ranges = new IdentityHashMap<>();
+  // the bounds ranges are widened to before the ends of the ints
+  private final NavigableSet<Long> thresholds = new TreeSet<>();
+  private Range range = Range.NONE;
+  private boolean changed;
+
+  private RangeAnalysis(Program program) {
+    this.program = program;
+    for (Definition d : program.getDefinitions()) {
+      if (primitiveTable.lookup(d.getName()) == null) {
+        definitions.remove(d.getName());
+        definitions.put(d.getName(), d);
+      }
+      collectThresholds(d.getBody());
+    }
+    collectThresholds(program.getExpression());
+  }
+
+  private void collectThresholds(Expression expression) {
+    if (expression instanceof IntLiteral literal) {
+      thresholds.add(literal.getValue() - 1L);
+      thresholds.add((long) literal.getValue());
+      thresholds.add(literal.getValue() + 1L);
+    }
+    for (Expression child : children(expression)) {
+      collectThresholds(child);
+    }
+  }
+
+  /**
+   * Analyzes the ranges of a program.
+   * @param program the program
+   * @return the ranges of the program's expressions
+   */
+  public static RangeAnalysis analyze(Program program) {
+    RangeAnalysis analysis = new RangeAnalysis(Objects.requireNonNull(program));
+    analysis.run();
+    return analysis;
+  }
+
+  private void run() {
+    do {
+      changed = false;
+      ranges.clear();
+      range = new Interpreter().evaluate(program.getExpression(), new Environment<>());
+      for (Definition d : definitions.values()) {
+        Range[] parameters = parameterRanges.get(d.getName());
+        if (parameters == null) {
+          continue;
+        }
+        Environment<Range> scope = new Environment<>();
+        for (int i = 0; i < parameters.length; i++) {
+          scope = scope.extend(d.getArguments().get(i), parameters[i]);
+        }
+        Range result = new Interpreter().evaluate(d.getBody(), scope);
+        Range previous = resultRanges.getOrDefault(d.getName(), Range.NONE);
+        int[] counts = growth.get(d.getName());
+        resultRanges.put(d.getName(), grow(previous, result, counts, parameters.length));
+      }
+    } while (changed);
+  }
+
+  private Range grow(Range previous, Range addition, int[] counts, int index) {
+    Range joined = previous.join(addition);
+    if (joined.equals(previous)) {
+      return previous;
+    }
+    changed = true;
+    return ++counts[index] > WIDENING_DELAY ? previous.widen(joined, thresholds) : joined;
+  }
+
+  /**
+   * Gets the range of the program's expression.
+   * @return the range of the program's value
+   */
+  public Range getRange() {
+    return range;
+  }
+
+  /**
+   * Gets the range of an expression of the analyzed program.
+   * @param expression the expression
+   * @return its range, empty if it is never evaluated or not part of the
+   *   program
+   */
+  public Range rangeOf(Expression expression) {
+    return ranges.getOrDefault(expression, Range.NONE);
+  }
+
+  /**
+   * Gets the range of a parameter of a definition: the values it may be
+   * called with.
+   * @param name the name of the definition
+   * @param index the index of the parameter
+   * @return the range of the parameter, empty if the definition is never
+   *   called
+   */
+  public Range parameterRange(String name, int index) {
+    Range[] parameters = parameterRanges.get(name);
+    return parameters == null ? Range.NONE : parameters[index];
+  }
+
+  /**
+   * Gets the range of the results of a definition.
+   * @param name the name of the definition
+   * @return the range of the results, empty if no call ever returns
+   */
+  public Range resultRange(String name) {
+    return resultRanges.getOrDefault(name, Range.NONE);
+  }
+
+  /**
+   * Formats the ranges found, for diagnostics: a line per definition with
+   * its parameter and result ranges, then a line per expression of its
+   * body with its range, indented by depth, and the same for the program's
+   * expression.
+   * @return the formatted ranges
+   */
+  public String format() {
+    StringBuilder out = new StringBuilder();
+    for (Definition d : definitions.values()) {
+      out.append(d.getName()).append('(');
+      for (int i = 0; i < d.getArguments().size(); i++) {
+        if (i > 0) {
+          out.append(", ");
+        }
+        out.append(d.getArguments().get(i)).append(": ").append(parameterRange(d.getName(), i));
+      }
+      out.append(") -> ").append(resultRange(d.getName())).append(System.lineSeparator());
+      format(d.getBody(), 1, out);
+    }
+    out.append("main -> ").append(range).append(System.lineSeparator());
+    format(program.getExpression(), 1, out);
+    return out.toString();
+  }
+
+  private void format(Expression expression, int depth, StringBuilder out) {
+    out.append("  ".repeat(depth))
+      .append(expression.format())
+      .append(" : ")
+      .append(rangeOf(expression))
+      .append(System.lineSeparator());
+    for (Expression child : children(expression)) {
+      format(child, depth + 1, out);
+    }
+  }
+
+  private static List<Expression> children(Expression expression) {
+    if (expression instanceof FunctionCall call) {
+      return call.getArguments();
+    } else if (expression instanceof IfExpression ifExpression) {
+      return List.of(
+        ifExpression.getCondition(),
+        ifExpression.getConsequent(),
+        ifExpression.getAlternative()
+      );
+    } else if (expression instanceof LetExpression let) {
+      return List.of(let.getRhs(), let.getBody());
+    } else if (expression instanceof AndExpression and) {
+      return List.of(and.getLeftOperand(), and.getRightOperand());
+    } else if (expression instanceof OrExpression or) {
+      return List.of(or.getLeft(), or.getRight());
+    }
+    return List.of();
+  }
+
+  private Primitive primitiveOf(FunctionCall functionCall) {
+    if (functionCall.isLinked()) {
+      return functionCall.getPrimitive();
+    }
+    return primitiveTable.lookup(functionCall.getFunctionName());
+  }
+
+  private Definition definitionOf(FunctionCall functionCall) {
+    if (functionCall.getDefinitionIndex() >= 0) {
+      return program.getDefinitions().get(functionCall.getDefinitionIndex());
+    }
+    return definitions.get(functionCall.getFunctionName());
+  }
+
+  private void joinArguments(Definition definition, List<Range> arguments) {
+    String name = definition.getName();
+    Range[] parameters = parameterRanges.get(name);
+    if (parameters == null) {
+      parameterRanges.put(name, arguments.toArray(new Range[0]));
+      growth.put(name, new int[arguments.size() + 1]);
+      changed = true;
+      return;
+    }
+    int[] counts = growth.get(name);
+    for (int i = 0; i < parameters.length; i++) {
+      parameters[i] = grow(parameters[i], arguments.get(i), counts, i);
+    }
+  }
+
+  /**
+   * Computes the range of the result of a primitive.
+   */
+  private static Range apply(String name, List<Range> arguments) {
+    switch (name) {
+      case "+":
+      case "-":
+      case "*":
+      case "/":
+      case "mod":
+        return arithmetic(name, arguments.get(0).ints(), arguments.get(1).ints());
+      case "==":
+      case "!=":
+      case "<":
+      case "<=":
+      case ">":
+      case ">=":
+        return compare(name, arguments.get(0).ints(), arguments.get(1).ints());
+      case "not":
+        Range operand = arguments.get(0).booleans();
+        return operand.isNone()
+          ? Range.NONE
+          : Range.ofBooleans(operand.mayBeFalse(), operand.mayBeTrue());
+      default:
+        return Range.ANY;
+    }
+  }
+
+  private static Range arithmetic(String name, Range left, Range right) {
+    if (!left.hasInts() || !right.hasInts()) {
+      return Range.NONE;
+    }
+    long a = left.getMin();
+    long b = left.getMax();
+    long c = right.getMin();
+    long d = right.getMax();
+    switch (name) {
+      case "+":
+        return fit(a + c, b + d);
+      case "-":
+        return fit(a - d, b - c);
+      case "*":
+        return fit(
+          Math.min(Math.min(a * c, a * d), Math.min(b * c, b * d)),
+          Math.max(Math.max(a * c, a * d), Math.max(b * c, b * d))
+        );
+      case "/":
+        // the quotient is monotonic in both operands on either side of a
+        // zero divisor, which has no result
+        Range quotient = Range.NONE;
+        if (c <= -1) {
+          quotient = quotient.join(divide(a, b, c, Math.min(d, -1)));
+        }
+        if (d >= 1) {
+          quotient = quotient.join(divide(a, b, Math.max(c, 1), d));
+        }
+        return quotient;
+      default:
+        // the remainder has the sign of the dividend, and is smaller than
+        // the divisor in magnitude
+        long magnitude = Math.max(Math.abs(c), Math.abs(d));
+        if (magnitude == 0) {
+          return Range.NONE;
+        }
+        return Range.ofInts(
+          a >= 0 ? 0 : Math.max(a, 1 - magnitude),
+          b <= 0 ? 0 : Math.min(b, magnitude - 1)
+        );
+    }
+  }
+
+  private static Range divide(long a, long b, long c, long d) {
+    return fit(
+      Math.min(Math.min(a / c, a / d), Math.min(b / c, b / d)),
+      Math.max(Math.max(a / c, a / d), Math.max(b / c, b / d))
+    );
+  }
+
+  // the range of results computed exactly, or all ints if they may wrap
+  private static Range fit(long min, long max) {
+    if (min < Integer.MIN_VALUE || max > Integer.MAX_VALUE) {
+      return Range.INT;
+    }
+    return Range.ofInts(min, max);
+  }
+
+  private static Range compare(String name, Range left, Range right) {
+    if (!left.hasInts() || !right.hasInts()) {
+      return Range.NONE;
+    }
+    long a = left.getMin();
+    long b = left.getMax();
+    long c = right.getMin();
+    long d = right.getMax();
+    boolean overlap = a <= d && c <= b;
+    boolean same = a == b && c == d && a == c;
+    switch (name) {
+      case "==":
+        return Range.ofBooleans(overlap, !same);
+      case "!=":
+        return Range.ofBooleans(!same, overlap);
+      case "<":
+        return Range.ofBooleans(a < d, b >= c);
+      case "<=":
+        return Range.ofBooleans(a <= d, b > c);
+      case ">":
+        return Range.ofBooleans(b > c, a <= d);
+      default:
+        return Range.ofBooleans(b >= c, a < d);
+    }
+  }
+
+  private static String negate(String comparison) {
+    switch (comparison) {
+      case "==":
+        return "!=";
+      case "!=":
+        return "==";
+      case "<":
+        return ">=";
+      case "<=":
+        return ">";
+      case ">":
+        return "<=";
+      default:
+        return "<";
+    }
+  }
+
+  private static String mirror(String comparison) {
+    switch (comparison) {
+      case "<":
+        return ">";
+      case "<=":
+        return ">=";
+      case ">":
+        return "<";
+      case ">=":
+        return "<=";
+      default:
+        return comparison;
+    }
+  }
+
+  private static boolean isComparison(String name) {
+    switch (name) {
+      case "==":
+      case "!=":
+      case "<":
+      case "<=":
+      case ">":
+      case ">=":
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Evaluates expressions to their ranges, recording the range of every
+   * expression evaluated.
+   */
+  private class Interpreter implements ExpressionVisitor<Range> {
+    private Environment<Range> scope;
+
+    Range evaluate(Expression expression, Environment<Range> inScope) {
+      Environment<Range> saved = scope;
+      scope = inScope;
+      try {
+        return evaluate(expression);
+      } finally {
+        scope = saved;
+      }
+    }
+
+    private Range evaluate(Expression expression) {
+      Range result = expression.accept(this);
+      ranges.merge(expression, result, Range::join);
+      return result;
+    }
+
+    @Override
+    public Range visit(AndExpression andExpression) {
+      Range left = evaluate(andExpression.getLeftOperand());
+      Range result = left.mayBeFalse() ? Range.FALSE : Range.NONE;
+      if (left.mayBeTrue()) {
+        Environment<Range> narrowed = narrow(scope, andExpression.getLeftOperand(), true);
+        result = result.join(evaluate(andExpression.getRightOperand(), narrowed).booleans());
+      }
+      return result;
+    }
+
+    @Override
+    public Range visit(BooleanLiteral booleanLiteral) {
+      return Range.of(booleanLiteral.isValue());
+    }
+
+    @Override
+    public Range visit(FunctionCall functionCall) {
+      List<Range> arguments = new ArrayList<>(functionCall.getArguments().size());
+      for (Expression argument : functionCall.getArguments()) {
+        Range argumentRange = evaluate(argument);
+        if (argumentRange.isNone()) {
+          // the call is never made
+          return Range.NONE;
+        }
+        arguments.add(argumentRange);
+      }
+      Primitive primitive = primitiveOf(functionCall);
+      if (primitive != null) {
+        return primitive.getArity() == arguments.size()
+          ? apply(functionCall.getFunctionName(), arguments)
+          : Range.NONE;
+      }
+      Definition definition = definitionOf(functionCall);
+      if (definition == null || definition.getArguments().size() != arguments.size()) {
+        return Range.NONE;
+      }
+      joinArguments(definition, arguments);
+      return resultRange(definition.getName());
+    }
+
+    @Override
+    public Range visit(IfExpression ifExpression) {
+      Expression condition = ifExpression.getCondition();
+      Range conditionRange = evaluate(condition);
+      Range result = Range.NONE;
+      if (conditionRange.mayBeTrue()) {
+        result = result.join(evaluate(ifExpression.getConsequent(), narrow(scope, condition, true)));
+      }
+      if (conditionRange.mayBeFalse()) {
+        result = result.join(evaluate(ifExpression.getAlternative(), narrow(scope, condition, false)));
+      }
+      return result;
+    }
+
+    @Override
+    public Range visit(IntLiteral intLiteral) {
+      return Range.of(intLiteral.getValue());
+    }
+
+    @Override
+    public Range visit(LetExpression letExpression) {
+      Range rhs = evaluate(letExpression.getRhs());
+      if (rhs.isNone()) {
+        return Range.NONE;
+      }
+      return evaluate(letExpression.getBody(), scope.extend(letExpression.getVarName(), rhs));
+    }
+
+    @Override
+    public Range visit(OrExpression orExpression) {
+      Range left = evaluate(orExpression.getLeft());
+      Range result = left.mayBeTrue() ? Range.TRUE : Range.NONE;
+      if (left.mayBeFalse()) {
+        Environment<Range> narrowed = narrow(scope, orExpression.getLeft(), false);
+        result = result.join(evaluate(orExpression.getRight(), narrowed).booleans());
+      }
+      return result;
+    }
+
+    @Override
+    public Range visit(VariableReference reference) {
+      Range value = scope.lookup(reference.getVariableName());
+      return value == null ? Range.NONE : value;
+    }
+
+    /**
+     * Narrows the ranges of the variables in scope to those for which a
+     * condition, just evaluated in that scope, has the given outcome.
+     */
+    private Environment<Range> narrow(Environment<Range> inScope, Expression condition, boolean outcome) {
+      if (condition instanceof VariableReference reference) {
+        Range value = inScope.lookup(reference.getVariableName());
+        if (value == null) {
+          return inScope;
+        }
+        boolean possible = outcome ? value.mayBeTrue() : value.mayBeFalse();
+        return inScope.extend(reference.getVariableName(), possible ? Range.of(outcome) : Range.NONE);
+      }
+      if (condition instanceof AndExpression andExpression && outcome) {
+        Environment<Range> left = narrow(inScope, andExpression.getLeftOperand(), true);
+        return narrow(left, andExpression.getRightOperand(), true);
+      }
+      if (condition instanceof OrExpression orExpression && !outcome) {
+        Environment<Range> left = narrow(inScope, orExpression.getLeft(), false);
+        return narrow(left, orExpression.getRight(), false);
+      }
+      if (condition instanceof FunctionCall call && primitiveOf(call) != null) {
+        String name = call.getFunctionName();
+        List<Expression> arguments = call.getArguments();
+        if (name.equals("not") && arguments.size() == 1) {
+          return narrow(inScope, arguments.get(0), !outcome);
+        }
+        if (isComparison(name) && arguments.size() == 2) {
+          String comparison = outcome ? name : negate(name);
+          Expression left = arguments.get(0);
+          Expression right = arguments.get(1);
+          Environment<Range> narrowed = narrow(inScope, left, comparison, rangeOf(right));
+          return narrow(narrowed, right, mirror(comparison), rangeOf(left));
+        }
+      }
+      return inScope;
+    }
+
+    /**
+     * Narrows the range of an operand that is a variable to the ints that
+     * compare as given with some int of the other operand's range.
+     */
+    private Environment<Range> narrow(
+      Environment<Range> inScope,
+      Expression operand,
+      String comparison,
+      Range other
+    ) {
+      if (!(operand instanceof VariableReference reference) || !other.hasInts()) {
+        return inScope;
+      }
+      String name = reference.getVariableName();
+      Range value = inScope.lookup(name);
+      if (value == null) {
+        return inScope;
+      }
+      long min = other.getMin();
+      long max = other.getMax();
+      Range narrowed;
+      switch (comparison) {
+        case "<":
+          narrowed = value.intersect(Long.MIN_VALUE, max - 1);
+          break;
+        case "<=":
+          narrowed = value.intersect(Long.MIN_VALUE, max);
+          break;
+        case ">":
+          narrowed = value.intersect(min + 1, Long.MAX_VALUE);
+          break;
+        case ">=":
+          narrowed = value.intersect(min, Long.MAX_VALUE);
+          break;
+        case "==":
+          narrowed = value.intersect(min, max);
+          break;
+        default:
+          narrowed = value.ints();
+          if (min == max && narrowed.getMin() == min) {
+            narrowed = narrowed.intersect(min + 1, Long.MAX_VALUE);
+          } else if (min == max && narrowed.getMax() == min) {
+            narrowed = narrowed.intersect(Long.MIN_VALUE, min - 1);
+          }
+          break;
+      }
+      return inScope.extend(name, narrowed);
+    }
+  }
+}
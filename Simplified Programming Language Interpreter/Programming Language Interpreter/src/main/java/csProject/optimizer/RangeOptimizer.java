@@ -0,0 +1,244 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.core.BooleanValue;
+import csProject.core.Value;
+import csProject.primitives.Primitive;
+import csProject.primitives.PrimitiveTable;
+import csProject.primitives.UncheckedDivideOperator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Optimizes a program with the ranges found by the {@code RangeAnalysis}.
+ * Produces a copy of the program in which
+ *
+ * <ul>
+ *   <li><code>if</code>s whose condition is always true or always false
+ *       are replaced by the branch taken, and <code>and</code>s and
+ *       <code>or</code>s whose left operand decides the result by that
+ *       result;</li>
+ *   <li>expressions that always have the same value, and cannot fail, are
+ *       replaced by that value;</li>
+ *   <li>divisions whose divisor is never zero are linked to the
+ *       {@code UncheckedDivideOperator}, which does not check it.</li>
+ * </ul>
+ *
+ * <p>A dropped condition that could fail or diverge is still evaluated,
+ * in a <code>let</code> whose variable is not used, so the program raises
+ * the same errors as before.  Definitions that are never called are left
+ * as they are.</p>
+ */
+public class RangeOptimizer implements ExpressionVisitor<Expression> {
+  // the primitives that cannot fail on operands of the right type
+  private static final Set<String> INT_PRIMITIVES =
+    Set.of("+", "-", "*", "==", "!=", "<", "<=", ">", ">=");
+
+  private final RangeAnalysis analysis;
+  private final PrimitiveTable primitiveTable = new PrimitiveTable();
+  private final Names names;
+
+  private RangeOptimizer(RangeAnalysis analysis, Names names) {
+    this.analysis = analysis;
+    this.names = names;
+  }
+
+  /**
+   * Analyzes the ranges of a program and optimizes it with them.
+   * @param program the program to optimize
+   * @return the optimized program
+   */
+  public static Program optimize(Program program) {
+    return optimize(program, RangeAnalysis.analyze(program));
+  }
+
+  /**
+   * Optimizes a program with the ranges found for it.
+   * @param program the program to optimize
+   * @param analysis the ranges of the program
+   * @return the optimized program
+   */
+  public static Program optimize(Program program, RangeAnalysis analysis) {
+    Objects.requireNonNull(program);
+    Objects.requireNonNull(analysis);
+    RangeOptimizer optimizer = new RangeOptimizer(analysis, Names.of(program));
+    List<Definition> definitions = new ArrayList<>(program.getDefinitions().size());
+    for (Definition d : program.getDefinitions()) {
+      if (analysis.rangeOf(d.getBody()).isNone()) {
+        // never called, or never returns
+        definitions.add(d);
+        continue;
+      }
+      definitions.add(new Definition(
+        d.getName(),
+        d.getArguments(),
+        optimizer.rewrite(d.getBody()),
+        d.getFrameSize()
+      ));
+    }
+    Expression expression = optimizer.rewrite(program.getExpression());
+    return new Program(definitions, expression, program.getFrameSize());
+  }
+
+  private Expression rewrite(Expression expression) {
+    Value constant = analysis.rangeOf(expression).getConstant();
+    if (constant != null && cannotFail(expression)) {
+      return constant instanceof BooleanValue
+        ? new BooleanLiteral(constant.asBoolean())
+        : new IntLiteral(constant.asInteger());
+    }
+    return expression.accept(this);
+  }
+
+  /**
+   * Decides whether an expression that is evaluated always yields a value:
+   * whether it is a literal, a variable, or a call of a primitive that
+   * cannot fail on operands that are always of the right type.
+   */
+  private boolean cannotFail(Expression expression) {
+    if (expression instanceof IntLiteral
+        || expression instanceof BooleanLiteral
+        || expression instanceof VariableReference) {
+      return true;
+    }
+    if (!(expression instanceof FunctionCall call) || primitiveOf(call) == null) {
+      return false;
+    }
+    List<Expression> arguments = call.getArguments();
+    String name = call.getFunctionName();
+    if (INT_PRIMITIVES.contains(name) && arguments.size() == 2) {
+      return isIntOperand(arguments.get(0)) && isIntOperand(arguments.get(1));
+    }
+    if (name.equals("not") && arguments.size() == 1) {
+      return analysis.rangeOf(arguments.get(0)).isBooleanOnly() && cannotFail(arguments.get(0));
+    }
+    return false;
+  }
+
+  private boolean isIntOperand(Expression operand) {
+    return analysis.rangeOf(operand).isIntOnly() && cannotFail(operand);
+  }
+
+  // evaluates the first expression for its errors only, then the second
+  private Expression sequence(Expression original, Expression first, Expression then) {
+    if (cannotFail(original)) {
+      return then;
+    }
+    return new LetExpression(names.fresh("unused"), first, then);
+  }
+
+  private Primitive primitiveOf(FunctionCall functionCall) {
+    if (functionCall.isLinked()) {
+      return functionCall.getPrimitive();
+    }
+    return primitiveTable.lookup(functionCall.getFunctionName());
+  }
+
+  @Override
+  public Expression visit(AndExpression andExpression) {
+    Expression leftOperand = andExpression.getLeftOperand();
+    Range left = analysis.rangeOf(leftOperand);
+    if (left.isBooleanOnly() && !left.mayBeTrue()) {
+      return sequence(leftOperand, rewrite(leftOperand), new BooleanLiteral(false));
+    }
+    Expression rightOperand = andExpression.getRightOperand();
+    if (left.isBooleanOnly() && !left.mayBeFalse()
+        && analysis.rangeOf(rightOperand).isBooleanOnly()) {
+      return sequence(leftOperand, rewrite(leftOperand), rewrite(rightOperand));
+    }
+    return new AndExpression(rewrite(leftOperand), rewrite(rightOperand));
+  }
+
+  @Override
+  public Expression visit(BooleanLiteral booleanLiteral) {
+    return booleanLiteral;
+  }
+
+  @Override
+  public Expression visit(FunctionCall functionCall) {
+    List<Expression> arguments = new ArrayList<>(functionCall.getArguments().size());
+    for (Expression argument : functionCall.getArguments()) {
+      arguments.add(rewrite(argument));
+    }
+    Primitive primitive = primitiveOf(functionCall);
+    if (primitive != null
+        && functionCall.getFunctionName().equals("/")
+        && arguments.size() == 2) {
+      Range divisor = analysis.rangeOf(functionCall.getArguments().get(1));
+      if (divisor.isIntOnly() && !divisor.contains(0)) {
+        return new FunctionCall("/", arguments, new UncheckedDivideOperator(), -1);
+      }
+    }
+    return new FunctionCall(
+      functionCall.getFunctionName(),
+      arguments,
+      functionCall.getPrimitive(),
+      functionCall.getDefinitionIndex()
+    );
+  }
+
+  @Override
+  public Expression visit(IfExpression ifExpression) {
+    Expression condition = ifExpression.getCondition();
+    Range range = analysis.rangeOf(condition);
+    if (range.isBooleanOnly() && !range.mayBeFalse()) {
+      return sequence(condition, rewrite(condition), rewrite(ifExpression.getConsequent()));
+    }
+    if (range.isBooleanOnly() && !range.mayBeTrue()) {
+      return sequence(condition, rewrite(condition), rewrite(ifExpression.getAlternative()));
+    }
+    return new IfExpression(
+      rewrite(condition),
+      rewrite(ifExpression.getConsequent()),
+      rewrite(ifExpression.getAlternative())
+    );
+  }
+
+  @Override
+  public Expression visit(IntLiteral intLiteral) {
+    return intLiteral;
+  }
+
+  @Override
+  public Expression visit(LetExpression letExpression) {
+    return new LetExpression(
+      letExpression.getVarName(),
+      rewrite(letExpression.getRhs()),
+      rewrite(letExpression.getBody()),
+      letExpression.getSlot()
+    );
+  }
+
+  @Override
+  public Expression visit(OrExpression orExpression) {
+    Expression leftOperand = orExpression.getLeft();
+    Range left = analysis.rangeOf(leftOperand);
+    if (left.isBooleanOnly() && !left.mayBeFalse()) {
+      return sequence(leftOperand, rewrite(leftOperand), new BooleanLiteral(true));
+    }
+    Expression rightOperand = orExpression.getRight();
+    if (left.isBooleanOnly() && !left.mayBeTrue()
+        && analysis.rangeOf(rightOperand).isBooleanOnly()) {
+      return sequence(leftOperand, rewrite(leftOperand), rewrite(rightOperand));
+    }
+    return new OrExpression(rewrite(leftOperand), rewrite(rightOperand));
+  }
+
+  @Override
+  public Expression visit(VariableReference reference) {
+    return reference;
+  }
+}
@@ -0,0 +1,262 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Expression;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.VariableReference;
+import csProject.parser.Parser;
+import csProject.types.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A rewrite rule for the {@code AlgebraicSimplifier}, written as a pattern
+ * and a replacement in the language's own syntax, such as
+ * <code>(+ ?x:int 0)</code> and <code>?x</code>.  Pattern variables are
+ * variables whose names start with
+ *
+ * <ul>
+ *   <li><code>?</code>, matching any expression;</li>
+ *   <li><code>$</code>, matching an atom: a literal or a variable;</li>
+ *   <li><code>#</code>, matching a literal.</li>
+ * </ul>
+ *
+ * <p>A pattern variable can be suffixed with <code>:int</code> or
+ * <code>:bool</code> to only match expressions known to have that type.
+ * A variable occurring twice in the pattern only matches equal
+ * expressions.  Everything else in a pattern matches itself.</p>
+ *
+ * <p>Rules must not change what a program does.  Since a replacement
+ * evaluates its variables where they occur in it, a rule may only drop an
+ * expression that could not fail, such as an atom of known type, or that
+ * would not have been evaluated, and may only duplicate atoms: a
+ * <code>?</code> variable may occur at most once in the replacement.
+ * Operands that could be ill-typed must keep being checked, which is what
+ * the type constraints are for.</p>
+ */
+public class RewriteRule {
+  private final Expression pattern;
+  private final Expression replacement;
+
+  /**
+   * Constructs a rule.
+   * @param pattern the pattern
+   * @param replacement the replacement
+   * @throws IllegalArgumentException if the pattern is a lone variable or
+   *   contains a <code>let</code>, if the replacement uses a pattern
+   *   variable not in the pattern, or duplicates a <code>?</code> variable
+   */
+  public RewriteRule(String pattern, String replacement) {
+    this.pattern = Parser.parseExpression("rule", pattern);
+    this.replacement = Parser.parseExpression("rule", replacement);
+    if (this.pattern instanceof VariableReference) {
+      throw new IllegalArgumentException("pattern must not be a lone variable: " + pattern);
+    }
+    Map<String, Integer> patternVariables = new HashMap<>();
+    countVariables(this.pattern, patternVariables);
+    Map<String, Integer> replacementVariables = new HashMap<>();
+    countVariables(this.replacement, replacementVariables);
+    for (Map.Entry<String, Integer> e : replacementVariables.entrySet()) {
+      if (!patternVariables.containsKey(e.getKey())) {
+        throw new IllegalArgumentException("unbound pattern variable: " + e.getKey());
+      }
+      if (e.getKey().startsWith("?") && e.getValue() > 1) {
+        throw new IllegalArgumentException("duplicated pattern variable: " + e.getKey());
+      }
+    }
+  }
+
+  /**
+   * Gets the pattern.
+   * @return the pattern
+   */
+  public Expression getPattern() {
+    return pattern;
+  }
+
+  /**
+   * Gets the replacement.
+   * @return the replacement
+   */
+  public Expression getReplacement() {
+    return replacement;
+  }
+
+  /**
+   * Rewrites an expression if it matches the pattern.
+   * @param expression the expression
+   * @param typeOf gives the type of a subexpression of the expression, or
+   *               null if it is not known
+   * @return the replacement, with the pattern variables replaced by the
+   *   expressions they matched, or null if the expression does not match
+   */
+  public Expression rewrite(Expression expression, Function<Expression, Type> typeOf) {
+    Map<String, Expression> bindings = new HashMap<>();
+    if (!match(pattern, expression, bindings, typeOf)) {
+      return null;
+    }
+    return instantiate(replacement, bindings);
+  }
+
+  @Override
+  public String toString() {
+    return pattern.format() + " => " + replacement.format();
+  }
+
+  private static boolean match(
+    Expression pattern,
+    Expression expression,
+    Map<String, Expression> bindings,
+    Function<Expression, Type> typeOf
+  ) {
+    if (pattern instanceof VariableReference reference && isPatternVariable(reference)) {
+      String name = reference.getVariableName();
+      String key = keyOf(name);
+      Expression bound = bindings.get(key);
+      if (bound != null) {
+        return bound.equals(expression);
+      }
+      if (!matchesKind(key.charAt(0), expression)) {
+        return false;
+      }
+      Type required = constraintOf(name);
+      if (required != null && required != typeOf.apply(expression)) {
+        return false;
+      }
+      bindings.put(key, expression);
+      return true;
+    }
+    if (pattern instanceof FunctionCall call) {
+      if (!(expression instanceof FunctionCall other)
+          || !call.getFunctionName().equals(other.getFunctionName())
+          || call.getArguments().size() != other.getArguments().size()) {
+        return false;
+      }
+      for (int i = 0; i < call.getArguments().size(); i++) {
+        if (!match(call.getArguments().get(i), other.getArguments().get(i), bindings, typeOf)) {
+          return false;
+        }
+      }
+      return true;
+    }
+    if (pattern instanceof AndExpression and) {
+      return expression instanceof AndExpression other
+        && match(and.getLeftOperand(), other.getLeftOperand(), bindings, typeOf)
+        && match(and.getRightOperand(), other.getRightOperand(), bindings, typeOf);
+    }
+    if (pattern instanceof OrExpression or) {
+      return expression instanceof OrExpression other
+        && match(or.getLeft(), other.getLeft(), bindings, typeOf)
+        && match(or.getRight(), other.getRight(), bindings, typeOf);
+    }
+    if (pattern instanceof IfExpression ifPattern) {
+      return expression instanceof IfExpression other
+        && match(ifPattern.getCondition(), other.getCondition(), bindings, typeOf)
+        && match(ifPattern.getConsequent(), other.getConsequent(), bindings, typeOf)
+        && match(ifPattern.getAlternative(), other.getAlternative(), bindings, typeOf);
+    }
+    // literals and ordinary variables match themselves
+    return pattern.equals(expression);
+  }
+
+  private static Expression instantiate(Expression replacement, Map<String, Expression> bindings) {
+    if (replacement instanceof VariableReference reference && isPatternVariable(reference)) {
+      return bindings.get(keyOf(reference.getVariableName()));
+    }
+    if (replacement instanceof FunctionCall call) {
+      List<Expression> arguments = new ArrayList<>(call.getArguments().size());
+      for (Expression argument : call.getArguments()) {
+        arguments.add(instantiate(argument, bindings));
+      }
+      return new FunctionCall(call.getFunctionName(), arguments);
+    }
+    if (replacement instanceof AndExpression and) {
+      return new AndExpression(
+        instantiate(and.getLeftOperand(), bindings),
+        instantiate(and.getRightOperand(), bindings)
+      );
+    }
+    if (replacement instanceof OrExpression or) {
+      return new OrExpression(
+        instantiate(or.getLeft(), bindings),
+        instantiate(or.getRight(), bindings)
+      );
+    }
+    if (replacement instanceof IfExpression ifExpression) {
+      return new IfExpression(
+        instantiate(ifExpression.getCondition(), bindings),
+        instantiate(ifExpression.getConsequent(), bindings),
+        instantiate(ifExpression.getAlternative(), bindings)
+      );
+    }
+    return replacement;
+  }
+
+  private static void countVariables(Expression expression, Map<String, Integer> counts) {
+    if (expression instanceof VariableReference reference && isPatternVariable(reference)) {
+      constraintOf(reference.getVariableName());
+      counts.merge(keyOf(reference.getVariableName()), 1, Integer::sum);
+    } else if (expression instanceof FunctionCall call) {
+      for (Expression argument : call.getArguments()) {
+        countVariables(argument, counts);
+      }
+    } else if (expression instanceof AndExpression and) {
+      countVariables(and.getLeftOperand(), counts);
+      countVariables(and.getRightOperand(), counts);
+    } else if (expression instanceof OrExpression or) {
+      countVariables(or.getLeft(), counts);
+      countVariables(or.getRight(), counts);
+    } else if (expression instanceof IfExpression ifExpression) {
+      countVariables(ifExpression.getCondition(), counts);
+      countVariables(ifExpression.getConsequent(), counts);
+      countVariables(ifExpression.getAlternative(), counts);
+    } else if (expression instanceof LetExpression) {
+      throw new IllegalArgumentException("rules cannot contain let: " + expression.format());
+    }
+  }
+
+  private static boolean isPatternVariable(VariableReference reference) {
+    return "?$#".indexOf(reference.getVariableName().charAt(0)) >= 0;
+  }
+
+  private static boolean matchesKind(char kind, Expression expression) {
+    boolean literal = expression instanceof IntLiteral || expression instanceof BooleanLiteral;
+    switch (kind) {
+      case '$':
+        return literal || expression instanceof VariableReference;
+      case '#':
+        return literal;
+      default:
+        return true;
+    }
+  }
+
+  // the name without its type constraint
+  private static String keyOf(String name) {
+    int colon = name.indexOf(':');
+    return colon < 0 ? name : name.substring(0, colon);
+  }
+
+  private static Type constraintOf(String name) {
+    int colon = name.indexOf(':');
+    if (colon < 0) {
+      return null;
+    }
+    switch (name.substring(colon + 1)) {
+      case "int":
+        return Type.INT;
+      case "bool":
+        return Type.BOOL;
+      default:
+        throw new IllegalArgumentException("unknown type constraint: " + name);
+    }
+  }
+}
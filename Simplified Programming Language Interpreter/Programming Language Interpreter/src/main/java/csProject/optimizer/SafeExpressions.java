@@ -0,0 +1,85 @@
+package csProject.optimizer;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.VariableReference;
+import java.util.Set;
+
+/**
+ * Decides whether an expression of a well-typed program can be evaluated
+ * at any time without failing or diverging: whether it is built only from
+ * literals, variables, the primitives that cannot fail on ints and
+ * booleans, and the special forms.  Calls of definitions could diverge,
+ * and <code>/</code> and <code>mod</code> could divide by zero.
+ */
+class SafeExpressions implements ExpressionVisitor<Boolean> {
+  private static final Set<String> SAFE_PRIMITIVES =
+    Set.of("+", "-", "*", "==", "!=", "<", "<=", ">", ">=", "not");
+  private static final SafeExpressions INSTANCE = new SafeExpressions();
+
+  /**
+   * Decides whether an expression of a well-typed program cannot fail.
+   * @param expression the expression
+   * @return true if evaluating the expression always yields a value
+   */
+  static boolean isSafe(Expression expression) {
+    return expression.accept(INSTANCE);
+  }
+
+  @Override
+  public Boolean visit(AndExpression andExpression) {
+    return isSafe(andExpression.getLeftOperand()) && isSafe(andExpression.getRightOperand());
+  }
+
+  @Override
+  public Boolean visit(BooleanLiteral booleanLiteral) {
+    return true;
+  }
+
+  @Override
+  public Boolean visit(FunctionCall functionCall) {
+    if (!SAFE_PRIMITIVES.contains(functionCall.getFunctionName())) {
+      return false;
+    }
+    for (Expression argument : functionCall.getArguments()) {
+      if (!isSafe(argument)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Boolean visit(IfExpression ifExpression) {
+    return isSafe(ifExpression.getCondition())
+      && isSafe(ifExpression.getConsequent())
+      && isSafe(ifExpression.getAlternative());
+  }
+
+  @Override
+  public Boolean visit(IntLiteral intLiteral) {
+    return true;
+  }
+
+  @Override
+  public Boolean visit(LetExpression letExpression) {
+    return isSafe(letExpression.getRhs()) && isSafe(letExpression.getBody());
+  }
+
+  @Override
+  public Boolean visit(OrExpression orExpression) {
+    return isSafe(orExpression.getLeft()) && isSafe(orExpression.getRight());
+  }
+
+  @Override
+  public Boolean visit(VariableReference reference) {
+    return true;
+  }
+}
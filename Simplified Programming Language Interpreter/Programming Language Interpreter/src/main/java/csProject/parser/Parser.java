@@ -28,6 +28,23 @@ public class Parser {
     return p.parseProgram();
   }
 
+  /**
+   * Parses a program into the canonical nodes of an {@code AstFactory}, so
+   * that its trees are shared with the equal trees of the other programs
+   * parsed or interned with the same factory.
+   * @param sourceName the name of the source, used in error messages
+   * @param sourceText the text of the program
+   * @param factory the factory to intern the program's nodes with
+   * @return the parsed program
+   */
+  public static Program parseProgram(
+    String sourceName,
+    String sourceText,
+    AstFactory factory
+  ) {
+    return factory.intern(parseProgram(sourceName, sourceText));
+  }
+
   public static Expression parseExpression(
     String sourceName,
     String sourceText
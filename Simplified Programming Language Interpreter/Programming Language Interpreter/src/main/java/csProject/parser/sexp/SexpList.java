@@ -9,6 +9,8 @@ public final class SexpList extends Sexp {
   /// Items in the list.  Immutable, never null; might be empty.
   /// Elements are also never null.
   public final List<Sexp> items;
+  // the hash, computed on first use; 0 until then
+  private int hash;
 
   public SexpList(Posn posn, List<Sexp> items) {
     super(posn);
@@ -55,6 +57,12 @@ public final class SexpList extends Sexp {
 
   @Override
   public int hashCode() {
-    return Objects.hash(super.hashCode(), items);
+    int h = hash;
+    if (h == 0) {
+      h = Objects.hash(super.hashCode(), items);
+      h = h == 0 ? 1 : h;
+      hash = h;
+    }
+    return h;
   }
 }
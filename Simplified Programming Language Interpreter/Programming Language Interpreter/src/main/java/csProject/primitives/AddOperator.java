@@ -1,30 +1,27 @@
 package csProject.primitives;
 
-import csProject.core.IntValue;
-import csProject.core.Value;
-import csProject.evalExceptions.ArityMismatchException;
-import java.util.List;
-
 /**
  * Represents an addition operator that adds two integer values.
- * This class extends AbstractPrimitive and provides the implementation
+ * This class extends ArithmeticOperator and provides the implementation
  * for the "+" operator.
  */
-public class AddOperator extends AbstractPrimitive{
+public class AddOperator extends ArithmeticOperator {
+  /**
+   * Constructs the "+" operator.
+   */
+  public AddOperator() {
+    super("+");
+  }
+
   /**
-   * Applies the addition operator to a list of arguments.
-   * Ensures the arguments list contains exactly two elements,
-   * then adds them as integers.
+   * Adds two integers.
    *
-   * @param arguments The list of values to be added.
-   * @return An IntValue representing the sum of the first two arguments.
-   * @throws ArityMismatchException If the number of arguments is not 2.
+   * @param left the left operand
+   * @param right the right operand
+   * @return the sum of the operands
    */
   @Override
-  public Value apply(List<Value> arguments) {
-    arityCheck("+", 2, arguments.size());
-    int left = arguments.get(0).asInteger();
-    int right = arguments.get(1).asInteger();
-    return new IntValue(left + right);
+  public int applyInt(int left, int right) {
+    return left + right;
   }
 }
@@ -0,0 +1,80 @@
+package csProject.primitives;
+
+import csProject.core.IntValue;
+import csProject.core.TaggedValue;
+import csProject.core.Value;
+import java.util.List;
+
+/**
+ * Base class of the binary operators that map two ints to an int.  The
+ * operation itself is available unboxed, through {@link #applyInt}, so that
+ * evaluators can compute with raw ints.
+ */
+public abstract class ArithmeticOperator extends AbstractPrimitive {
+  private final String name;
+
+  /**
+   * Constructs an arithmetic operator.
+   * @param name the operator's name, used in error messages
+   */
+  protected ArithmeticOperator(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Applies the operator to two ints.
+   * @param left the left operand
+   * @param right the right operand
+   * @return the result of the operation
+   * @throws ArithmeticException if the operation is undefined for the operands
+   */
+  public abstract int applyInt(int left, int right);
+
+  /**
+   * Applies the operator to two values that have both been evaluated,
+   * checking that they are ints in the operator's own order: the left one
+   * first, unless the operator says otherwise.  Evaluators that unbox
+   * operands themselves must do so in the same order, so that they raise
+   * the same error.
+   * @param left the left operand
+   * @param right the right operand
+   * @return the result of the operation
+   * @throws cs5004.core.TypeError if any of the operands is not an int
+   * @throws ArithmeticException if the operation is undefined for the operands
+   */
+  public int applyInt(Value left, Value right) {
+    int leftOperand = left.asInteger();
+    return applyInt(leftOperand, right.asInteger());
+  }
+
+  /**
+   * Applies the operator to two tagged values that have both been
+   * evaluated, checking them in the same order as
+   * {@link #applyInt(Value, Value)}.
+   * @param left the left operand, as a {@code TaggedValue}
+   * @param right the right operand, as a {@code TaggedValue}
+   * @return the result of the operation
+   * @throws cs5004.core.TypeError if any of the operands is not an int
+   * @throws ArithmeticException if the operation is undefined for the operands
+   */
+  public int applyTagged(long left, long right) {
+    int leftOperand = TaggedValue.asInteger(left);
+    return applyInt(leftOperand, TaggedValue.asInteger(right));
+  }
+
+  @Override
+  public int getArity() {
+    return 2;
+  }
+
+  @Override
+  public Value apply(List<Value> arguments) {
+    arityCheck(name, 2, arguments.size());
+    return apply2(arguments.get(0), arguments.get(1));
+  }
+
+  @Override
+  public Value apply2(Value left, Value right) {
+    return IntValue.of(applyInt(left, right));
+  }
+}
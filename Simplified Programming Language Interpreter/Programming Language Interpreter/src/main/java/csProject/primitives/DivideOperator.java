@@ -1,12 +1,20 @@
 package csProject.primitives;
 
-import csProject.core.IntValue;
+import csProject.core.TaggedValue;
 import csProject.core.Value;
 import java.util.List;
 
-public class DivideOperator extends AbstractPrimitive {
+public class DivideOperator extends ArithmeticOperator {
   /**
-   * Applies the division operator to the given arguments.
+   * Constructs the "/" operator.
+   */
+  public DivideOperator() {
+    super("/");
+  }
+
+  /**
+   * Applies the division operator to the given arguments.  The divisor is
+   * checked before the dividend.
    *
    * @param arguments a list of values to be divided, containing two integer values
    * @return the result of dividing the first integer value by the second as an IntValue object
@@ -17,11 +25,68 @@ public class DivideOperator extends AbstractPrimitive {
   @Override
   public Value apply(List<Value> arguments) {
     arityCheck("/", 2, arguments.size());
-    int rightOperand = arguments.get(1).asInteger();
-    if (rightOperand == 0) {
+    return apply2(arguments.get(0), arguments.get(1));
+  }
+
+  /**
+   * Divides the first argument by the second.  The divisor is checked
+   * before the dividend.
+   *
+   * @param left the dividend
+   * @param right the divisor
+   * @return the quotient, rounded towards zero
+   * @throws cs5004.core.TypeError if any of the arguments are not of type IntValue
+   * @throws ArithmeticException if the divisor is zero
+   */
+  @Override
+  public int applyInt(Value left, Value right) {
+    int rightOperand = right.asInteger();
+    checkDivisor(rightOperand);
+    return applyInt(left.asInteger(), rightOperand);
+  }
+
+  @Override
+  public int applyTagged(long left, long right) {
+    int rightOperand = TaggedValue.asInteger(right);
+    checkDivisor(rightOperand);
+    return applyInt(TaggedValue.asInteger(left), rightOperand);
+  }
+
+  /**
+   * Divides the first integer by the second.  Division by a power of two
+   * is done by shifting, after biasing negative dividends so the quotient
+   * is still rounded towards zero.
+   *
+   * @param left the dividend
+   * @param right the divisor
+   * @return the quotient, rounded towards zero
+   * @throws ArithmeticException if the divisor is zero
+   */
+  @Override
+  public int applyInt(int left, int right) {
+    if (right > 0 && (right & (right - 1)) == 0) {
+      return (left + ((left >> 31) & (right - 1))) >> Integer.numberOfTrailingZeros(right);
+    }
+    return divide(left, right);
+  }
+
+  /**
+   * Divides the first integer by the second, raising the same error as the
+   * primitive for a zero divisor.  Compiled code calls this directly.
+   *
+   * @param left the dividend
+   * @param right the divisor
+   * @return the quotient, rounded towards zero
+   * @throws ArithmeticException if the divisor is zero
+   */
+  public static int divide(int left, int right) {
+    checkDivisor(right);
+    return left / right;
+  }
+
+  private static void checkDivisor(int divisor) {
+    if (divisor == 0) {
       throw new ArithmeticException("Division by zero");
     }
-    return new IntValue(arguments.get(0).asInteger() / rightOperand);
   }
 }
-
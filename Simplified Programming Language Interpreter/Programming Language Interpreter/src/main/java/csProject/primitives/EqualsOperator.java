@@ -1,22 +1,22 @@
 package csProject.primitives;
 
-import csProject.core.BooleanValue;
-import csProject.core.Value;
-import java.util.List;
+public class EqualsOperator extends RelationalOperator {
+  /**
+   * Constructs the "==" operator.
+   */
+  public EqualsOperator() {
+    super("==");
+  }
 
-public class EqualsOperator extends AbstractPrimitive {
   /**
-   * Applies the equality operator to the given arguments.
+   * Tests whether the two integers are equal.
    *
-   * @param arguments a list of values to be compared for equality, containing two integer values
-   * @return a BooleanValue object representing whether the two integer values are equal
-   * @throws cs5004.evalExceptions.ArityMismatchException if the number of arguments is not exactly 2
-   * @throws cs5004.core.TypeError if any of the arguments are not of type IntValue
+   * @param left the left operand
+   * @param right the right operand
+   * @return whether the two integers are equal
    */
-
   @Override
-  public Value apply(List<Value> arguments) {
-    arityCheck("==", 2, arguments.size());
-    return new BooleanValue(arguments.get(0).asInteger() == arguments.get(1).asInteger());
+  public boolean compare(int left, int right) {
+    return left == right;
   }
-}
\ No newline at end of file
+}
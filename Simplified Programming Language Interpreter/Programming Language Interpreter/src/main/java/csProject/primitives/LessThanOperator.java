@@ -1,22 +1,22 @@
 package csProject.primitives;
 
-import csProject.core.BooleanValue;
-import csProject.core.Value;
-import java.util.List;
+public class LessThanOperator extends RelationalOperator {
+  /**
+   * Constructs the "<" operator.
+   */
+  public LessThanOperator() {
+    super("<");
+  }
 
-public class LessThanOperator extends AbstractPrimitive {
   /**
-   * Applies the less than operator to the given arguments.
+   * Tests whether the first integer is less than the second.
    *
-   * @param arguments a list of values to be compared, containing two integer values
-   * @return a BooleanValue object representing whether the first integer value is less than the second
-   * @throws cs5004.evalExceptions.ArityMismatchException if the number of arguments is not exactly 2
-   * @throws cs5004.core.TypeError if any of the arguments are not of type IntValue
+   * @param left the left operand
+   * @param right the right operand
+   * @return whether the first integer is less than the second
    */
-
   @Override
-  public Value apply(List<Value> arguments) {
-    arityCheck("<", 2, arguments.size());
-    return new BooleanValue(arguments.get(0).asInteger() < arguments.get(1).asInteger());
+  public boolean compare(int left, int right) {
+    return left < right;
   }
-}
\ No newline at end of file
+}
@@ -1,22 +1,29 @@
 package csProject.primitives;
 
-import csProject.core.IntValue;
-import csProject.core.Value;
-import java.util.List;
+public class ModuloOperator extends ArithmeticOperator {
+  /**
+   * Constructs the "mod" operator.
+   */
+  public ModuloOperator() {
+    super("mod");
+  }
 
-public class ModuloOperator extends AbstractPrimitive {
   /**
-   * Applies the modulo operator to the given arguments.
+   * Computes the remainder of dividing the first integer by the second.
+   * The remainder of a division by a power of two is found by masking,
+   * and has the sign of the dividend.
    *
-   * @param arguments a list of values to be used for modulo operation, containing two integer values
-   * @return an IntValue object representing the result of the modulo operation
-   * @throws cs5004.evalExceptions.ArityMismatchException if the number of arguments is not exactly 2
-   * @throws cs5004.core.TypeError if any of the arguments are not of type IntValue
-   * @throws ArithmeticException if the second argument (divisor) is zero
+   * @param left the dividend
+   * @param right the divisor
+   * @return the remainder
+   * @throws ArithmeticException if the divisor is zero
    */
   @Override
-  public Value apply(List<Value> arguments) {
-    arityCheck("mod", 2, arguments.size());
-    return new IntValue(arguments.get(0).asInteger() % arguments.get(1).asInteger());
+  public int applyInt(int left, int right) {
+    if (right > 0 && (right & (right - 1)) == 0) {
+      int remainder = left & (right - 1);
+      return left < 0 && remainder != 0 ? remainder - right : remainder;
+    }
+    return left % right;
   }
 }
@@ -20,6 +20,16 @@ public class NotOperator extends AbstractPrimitive {
   @Override
   public Value apply(List<Value> arguments) {
     arityCheck("not", 1, arguments.size());
-    return new BooleanValue(!(arguments.get(0).asBoolean()));
+    return apply1(arguments.get(0));
+  }
+
+  @Override
+  public Value apply1(Value argument) {
+    return BooleanValue.valueOf(!argument.asBoolean());
+  }
+
+  @Override
+  public int getArity() {
+    return 1;
   }
 }
@@ -18,4 +18,40 @@ public interface Primitive {
    *   the type expected by the primitive.
    */
   Value apply(List<Value> arguments);
+
+  /**
+   * Applies the primitive to a single argument, without allocating an
+   * argument list.
+   * @param argument the argument value
+   * @return result of applying the function to the argument
+   * @throws cs5004.evalExceptions.ArityMismatchException if the primitive
+   *   does not take exactly one argument
+   * @throws cs5004.core.TypeError if the argument does not have the type
+   *   expected by the primitive.
+   */
+  default Value apply1(Value argument) {
+    return apply(List.of(argument));
+  }
+
+  /**
+   * Applies the primitive to two arguments, without allocating an argument
+   * list.
+   * @param left the first argument value
+   * @param right the second argument value
+   * @return result of applying the function to the arguments
+   * @throws cs5004.evalExceptions.ArityMismatchException if the primitive
+   *   does not take exactly two arguments
+   * @throws cs5004.core.TypeError if any of the arguments do not have the
+   *   type expected by the primitive.
+   */
+  default Value apply2(Value left, Value right) {
+    return apply(List.of(left, right));
+  }
+
+  /**
+   * Returns the number of arguments the primitive takes.  The linker uses
+   * this to check calls once, before the program runs.
+   * @return the arity of the primitive
+   */
+  int getArity();
 }
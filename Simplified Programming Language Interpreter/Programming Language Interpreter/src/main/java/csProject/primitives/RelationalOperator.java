@@ -0,0 +1,75 @@
+package csProject.primitives;
+
+import csProject.core.BooleanValue;
+import csProject.core.TaggedValue;
+import csProject.core.Value;
+import java.util.List;
+
+/**
+ * Base class of the binary operators that compare two ints.  The comparison
+ * itself is available unboxed, through {@link #compare}, so that evaluators
+ * can compute with raw ints and booleans.
+ */
+public abstract class RelationalOperator extends AbstractPrimitive {
+  private final String name;
+
+  /**
+   * Constructs a relational operator.
+   * @param name the operator's name, used in error messages
+   */
+  protected RelationalOperator(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Compares two ints.
+   * @param left the left operand
+   * @param right the right operand
+   * @return the result of the comparison
+   */
+  public abstract boolean compare(int left, int right);
+
+  /**
+   * Compares two values that have both been evaluated, checking that they
+   * are ints, the left one first.  Evaluators that unbox operands
+   * themselves must do so in the same order, so that they raise the same
+   * error.
+   * @param left the left operand
+   * @param right the right operand
+   * @return the result of the comparison
+   * @throws cs5004.core.TypeError if any of the operands is not an int
+   */
+  public boolean compare(Value left, Value right) {
+    int leftOperand = left.asInteger();
+    return compare(leftOperand, right.asInteger());
+  }
+
+  /**
+   * Compares two tagged values that have both been evaluated, checking
+   * that they are ints, the left one first.
+   * @param left the left operand, as a {@code TaggedValue}
+   * @param right the right operand, as a {@code TaggedValue}
+   * @return the result of the comparison
+   * @throws cs5004.core.TypeError if any of the operands is not an int
+   */
+  public boolean compareTagged(long left, long right) {
+    int leftOperand = TaggedValue.asInteger(left);
+    return compare(leftOperand, TaggedValue.asInteger(right));
+  }
+
+  @Override
+  public int getArity() {
+    return 2;
+  }
+
+  @Override
+  public Value apply(List<Value> arguments) {
+    arityCheck(name, 2, arguments.size());
+    return apply2(arguments.get(0), arguments.get(1));
+  }
+
+  @Override
+  public Value apply2(Value left, Value right) {
+    return BooleanValue.valueOf(compare(left, right));
+  }
+}
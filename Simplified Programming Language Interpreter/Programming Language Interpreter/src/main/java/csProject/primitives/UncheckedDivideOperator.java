@@ -0,0 +1,44 @@
+package csProject.primitives;
+
+import csProject.core.TaggedValue;
+import csProject.core.Value;
+
+/**
+ * The "/" operator for calls whose divisor has been proven never to be
+ * zero, such as by the {@code RangeOptimizer}.  It divides without checking
+ * the divisor first; a zero divisor still raises the JVM's own
+ * {@code ArithmeticException}, so a wrongly placed call cannot give a wrong
+ * result.  It is not in the {@code PrimitiveTable}: calls are linked to it
+ * directly.
+ */
+public class UncheckedDivideOperator extends DivideOperator {
+  /**
+   * Constructs the unchecked "/" operator.
+   */
+  public UncheckedDivideOperator() {
+  }
+
+  @Override
+  public int applyInt(Value left, Value right) {
+    int rightOperand = right.asInteger();
+    return applyInt(left.asInteger(), rightOperand);
+  }
+
+  @Override
+  public int applyTagged(long left, long right) {
+    int rightOperand = TaggedValue.asInteger(right);
+    return applyInt(TaggedValue.asInteger(left), rightOperand);
+  }
+
+  /**
+   * Divides the first integer by the second.
+   *
+   * @param left the dividend
+   * @param right the divisor, which must not be zero
+   * @return the quotient, rounded towards zero
+   */
+  @Override
+  public int applyInt(int left, int right) {
+    return left / right;
+  }
+}
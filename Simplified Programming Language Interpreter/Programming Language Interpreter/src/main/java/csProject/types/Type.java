@@ -0,0 +1,16 @@
+package csProject.types;
+
+/**
+ * The types of the language.  Every value is either an integer or a
+ * boolean.
+ */
+public enum Type {
+  /**
+   * The type of integers.
+   */
+  INT,
+  /**
+   * The type of booleans.
+   */
+  BOOL
+}
@@ -0,0 +1,182 @@
+package csProject.types;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.core.TypeError;
+import csProject.evalExceptions.EvaluationException;
+import csProject.primitives.ArithmeticOperator;
+import csProject.primitives.NotOperator;
+import csProject.primitives.Primitive;
+import csProject.primitives.PrimitiveTable;
+import csProject.primitives.RelationalOperator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Checks that a {@code Program} is statically well-typed, and translates it
+ * into a typed AST in which every expression carries its inferred type,
+ * variables are resolved to frame slots, and calls are linked to their
+ * primitive or definition.  One checker instance is used per definition
+ * body.
+ *
+ * <p>Type errors, calls of undefined functions, calls with the wrong number
+ * of arguments and references to undefined variables are all reported
+ * before anything is evaluated, even if the offending code would never be
+ * reached.  Callers that want such programs to run anyway should evaluate
+ * them with one of the dynamically checked engines.</p>
+ */
+public class TypeChecker implements ExpressionVisitor<TypedExpression> {
+  private final TypeInference types;
+  private final Map<String, TypedDefinition> definitions;
+  private final PrimitiveTable primitiveTable;
+  private final List<String> scope;
+  private int frameSize;
+
+  private TypeChecker(
+    TypeInference types,
+    Map<String, TypedDefinition> definitions,
+    PrimitiveTable primitiveTable,
+    List<String> parameters
+  ) {
+    this.types = types;
+    this.definitions = definitions;
+    this.primitiveTable = primitiveTable;
+    this.scope = new ArrayList<>(parameters);
+    this.frameSize = parameters.size();
+  }
+
+  /**
+   * Type checks a program.
+   * @param program the program to check
+   * @return the typed program
+   * @throws TypeError if the program is not statically well-typed
+   * @throws EvaluationException if the program refers to an undefined
+   *   function or variable, or calls a function with the wrong number of
+   *   arguments
+   */
+  public static TypedProgram check(Program program) {
+    Objects.requireNonNull(program);
+
+    // later definitions with the same name win, as in the Environment
+    Map<String, Definition> definitionMap = new LinkedHashMap<>();
+    for (Definition d : program.getDefinitions()) {
+      definitionMap.put(d.getName(), d);
+    }
+    TypeInference types = new TypeInference(definitionMap);
+    types.inferExpression(program.getExpression());
+
+    PrimitiveTable primitiveTable = new PrimitiveTable();
+    Map<String, TypedDefinition> definitions = new LinkedHashMap<>();
+    for (Definition d : definitionMap.values()) {
+      List<Type> parameterTypes = new ArrayList<>(d.getArguments().size());
+      for (int i = 0; i < d.getArguments().size(); i++) {
+        parameterTypes.add(types.parameterType(d.getName(), i));
+      }
+      definitions.put(
+        d.getName(),
+        new TypedDefinition(d.getName(), parameterTypes, types.resultType(d.getName()))
+      );
+    }
+    for (Definition d : definitionMap.values()) {
+      TypeChecker checker =
+        new TypeChecker(types, definitions, primitiveTable, d.getArguments());
+      TypedExpression body = d.getBody().accept(checker);
+      definitions.get(d.getName()).setBody(body, checker.frameSize);
+    }
+
+    TypeChecker checker =
+      new TypeChecker(types, definitions, primitiveTable, List.of());
+    TypedExpression expression = program.getExpression().accept(checker);
+    return new TypedProgram(definitions, expression, checker.frameSize);
+  }
+
+  @Override
+  public TypedExpression visit(AndExpression andExpression) {
+    return new TypedAnd(
+      andExpression.getLeftOperand().accept(this),
+      andExpression.getRightOperand().accept(this)
+    );
+  }
+
+  @Override
+  public TypedExpression visit(BooleanLiteral booleanLiteral) {
+    return new TypedLiteral(Type.BOOL, booleanLiteral.isValue() ? 1 : 0);
+  }
+
+  @Override
+  public TypedExpression visit(FunctionCall functionCall) {
+    List<Expression> arguments = functionCall.getArguments();
+    TypedExpression[] typedArguments = new TypedExpression[arguments.size()];
+    for (int i = 0; i < typedArguments.length; i++) {
+      typedArguments[i] = arguments.get(i).accept(this);
+    }
+
+    // the inference has already checked that the callee exists and that
+    // the number of arguments matches
+    Primitive primitive = primitiveTable.lookup(functionCall.getFunctionName());
+    if (primitive instanceof ArithmeticOperator operator) {
+      return new TypedArithmetic(operator, typedArguments[0], typedArguments[1]);
+    }
+    if (primitive instanceof RelationalOperator operator) {
+      return new TypedComparison(operator, typedArguments[0], typedArguments[1]);
+    }
+    if (primitive instanceof NotOperator) {
+      return new TypedNot(typedArguments[0]);
+    }
+    return new TypedCall(definitions.get(functionCall.getFunctionName()), typedArguments);
+  }
+
+  @Override
+  public TypedExpression visit(IfExpression ifExpression) {
+    return new TypedIf(
+      ifExpression.getCondition().accept(this),
+      ifExpression.getConsequent().accept(this),
+      ifExpression.getAlternative().accept(this)
+    );
+  }
+
+  @Override
+  public TypedExpression visit(IntLiteral intLiteral) {
+    return new TypedLiteral(Type.INT, intLiteral.getValue());
+  }
+
+  @Override
+  public TypedExpression visit(LetExpression letExpression) {
+    TypedExpression rhs = letExpression.getRhs().accept(this);
+    int slot = scope.size();
+    scope.add(letExpression.getVarName());
+    frameSize = Math.max(frameSize, scope.size());
+    TypedExpression body = letExpression.getBody().accept(this);
+    scope.remove(scope.size() - 1);
+    return new TypedLet(slot, rhs, body);
+  }
+
+  @Override
+  public TypedExpression visit(OrExpression orExpression) {
+    return new TypedOr(
+      orExpression.getLeft().accept(this),
+      orExpression.getRight().accept(this)
+    );
+  }
+
+  @Override
+  public TypedExpression visit(VariableReference reference) {
+    return new TypedVariable(
+      types.typeOf(reference),
+      scope.lastIndexOf(reference.getVariableName())
+    );
+  }
+}
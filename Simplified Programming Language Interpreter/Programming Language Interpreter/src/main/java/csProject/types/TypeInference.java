@@ -0,0 +1,266 @@
+package csProject.types;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.VariableReference;
+import csProject.core.TypeError;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.EvaluationException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.evalExceptions.UndefinedVariableException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Monomorphic type inference by unification.  Every parameter, definition
+ * result and expression gets a type variable; type variables are integers,
+ * each either bound to a type or unified with another variable through a
+ * union-find parent link.  Variables that are still unconstrained at the
+ * end are taken to be ints.
+ */
+public class TypeInference implements ExpressionVisitor<Integer> {
+  private static final Map<String, String> PRIMITIVE_SIGNATURES = Map.ofEntries(
+    Map.entry("+", "IIi"),
+    Map.entry("-", "IIi"),
+    Map.entry("*", "IIi"),
+    Map.entry("/", "IIi"),
+    Map.entry("mod", "IIi"),
+    Map.entry("==", "IIb"),
+    Map.entry("!=", "IIb"),
+    Map.entry("<", "IIb"),
+    Map.entry("<=", "IIb"),
+    Map.entry(">", "IIb"),
+    Map.entry(">=", "IIb"),
+    Map.entry("not", "Bb")
+  );
+
+  private final List<Integer> parents = new ArrayList<>();
+  private final List<Type> types = new ArrayList<>();
+  private final Map<String, int[]> parameterVars = new HashMap<>();
+  private final Map<String, Integer> resultVars = new HashMap<>();
+  private final Map<Expression, Integer> expressionVars = new IdentityHashMap<>();
+  private List<String> scopeNames;
+  private List<Integer> scopeVars;
+
+  /**
+   * Infers the types of a set of definitions.
+   * @param definitions the definitions, by name
+   * @throws TypeError if the definitions are not well-typed
+   * @throws UndefinedFunctionException if a body calls an undefined function
+   * @throws ArityMismatchException if a body calls a function with the wrong
+   *   number of arguments
+   * @throws UndefinedVariableException if a body refers to a variable that
+   *   is not a parameter or enclosing <code>let</code>
+   */
+  public TypeInference(Map<String, Definition> definitions) {
+    for (Definition d : definitions.values()) {
+      int[] params = new int[d.getArguments().size()];
+      for (int i = 0; i < params.length; i++) {
+        params[i] = fresh(null);
+      }
+      parameterVars.put(d.getName(), params);
+      resultVars.put(d.getName(), fresh(null));
+    }
+    for (Definition d : definitions.values()) {
+      int[] params = parameterVars.get(d.getName());
+      scopeNames = new ArrayList<>(d.getArguments());
+      scopeVars = new ArrayList<>();
+      for (int p : params) {
+        scopeVars.add(p);
+      }
+      unify(resultVars.get(d.getName()), infer(d.getBody()));
+    }
+  }
+
+  /**
+   * Infers the type of a top-level expression, which can call the
+   * definitions but has no variables in scope.
+   * @param expression the expression
+   * @return the type of the expression
+   * @throws TypeError if the expression is not well-typed
+   * @throws EvaluationException if the expression calls an undefined
+   *   function, calls a function with the wrong number of arguments, or
+   *   refers to a variable
+   */
+  public Type inferExpression(Expression expression) {
+    scopeNames = new ArrayList<>();
+    scopeVars = new ArrayList<>();
+    return typeOf(infer(expression));
+  }
+
+  /**
+   * Gets the inferred type of a parameter of a definition.
+   * @param definition the name of the definition
+   * @param index the index of the parameter
+   * @return the type of the parameter
+   */
+  public Type parameterType(String definition, int index) {
+    return typeOf(parameterVars.get(definition)[index]);
+  }
+
+  /**
+   * Gets the inferred result type of a definition.
+   * @param definition the name of the definition
+   * @return the type of the definition's body
+   */
+  public Type resultType(String definition) {
+    return typeOf(resultVars.get(definition));
+  }
+
+  /**
+   * Gets the inferred type of an expression node that was part of a
+   * definition body or an inferred top-level expression.  Nodes are told
+   * apart by identity, not by structural equality.
+   * @param expression the expression node
+   * @return the type of the expression, or null if it was never inferred
+   */
+  public Type typeOf(Expression expression) {
+    Integer var = expressionVars.get(expression);
+    return var == null ? null : typeOf(var);
+  }
+
+  private int infer(Expression expression) {
+    int var = expression.accept(this);
+    expressionVars.put(expression, var);
+    return var;
+  }
+
+  @Override
+  public Integer visit(AndExpression andExpression) {
+    unify(infer(andExpression.getLeftOperand()), fresh(Type.BOOL));
+    unify(infer(andExpression.getRightOperand()), fresh(Type.BOOL));
+    return fresh(Type.BOOL);
+  }
+
+  @Override
+  public Integer visit(BooleanLiteral booleanLiteral) {
+    return fresh(Type.BOOL);
+  }
+
+  @Override
+  public Integer visit(FunctionCall functionCall) {
+    String name = functionCall.getFunctionName();
+    List<Expression> arguments = functionCall.getArguments();
+    List<Integer> argVars = new ArrayList<>(arguments.size());
+    for (Expression argument : arguments) {
+      argVars.add(infer(argument));
+    }
+
+    String signature = PRIMITIVE_SIGNATURES.get(name);
+    if (signature != null) {
+      int arity = signature.length() - 1;
+      if (arity != argVars.size()) {
+        throw new ArityMismatchException(name, arity, argVars.size());
+      }
+      for (int i = 0; i < arity; i++) {
+        unify(argVars.get(i), fresh(signature.charAt(i) == 'I' ? Type.INT : Type.BOOL));
+      }
+      return fresh(signature.charAt(arity) == 'i' ? Type.INT : Type.BOOL);
+    }
+
+    int[] params = parameterVars.get(name);
+    if (params == null) {
+      throw new UndefinedFunctionException(name);
+    }
+    if (params.length != argVars.size()) {
+      throw new ArityMismatchException(name, params.length, argVars.size());
+    }
+    for (int i = 0; i < params.length; i++) {
+      unify(argVars.get(i), params[i]);
+    }
+    return resultVars.get(name);
+  }
+
+  @Override
+  public Integer visit(IfExpression ifExpression) {
+    unify(infer(ifExpression.getCondition()), fresh(Type.BOOL));
+    int result = infer(ifExpression.getConsequent());
+    unify(result, infer(ifExpression.getAlternative()));
+    return result;
+  }
+
+  @Override
+  public Integer visit(IntLiteral intLiteral) {
+    return fresh(Type.INT);
+  }
+
+  @Override
+  public Integer visit(LetExpression letExpression) {
+    int rhs = infer(letExpression.getRhs());
+    scopeNames.add(letExpression.getVarName());
+    scopeVars.add(rhs);
+    int body = infer(letExpression.getBody());
+    scopeNames.remove(scopeNames.size() - 1);
+    scopeVars.remove(scopeVars.size() - 1);
+    return body;
+  }
+
+  @Override
+  public Integer visit(OrExpression orExpression) {
+    unify(infer(orExpression.getLeft()), fresh(Type.BOOL));
+    unify(infer(orExpression.getRight()), fresh(Type.BOOL));
+    return fresh(Type.BOOL);
+  }
+
+  @Override
+  public Integer visit(VariableReference reference) {
+    int index = scopeNames.lastIndexOf(reference.getVariableName());
+    if (index < 0) {
+      throw new UndefinedVariableException(reference.getVariableName());
+    }
+    return scopeVars.get(index);
+  }
+
+  private int fresh(Type type) {
+    parents.add(parents.size());
+    types.add(type);
+    return parents.size() - 1;
+  }
+
+  private int find(int var) {
+    while (parents.get(var) != var) {
+      parents.set(var, parents.get(parents.get(var)));
+      var = parents.get(var);
+    }
+    return var;
+  }
+
+  private void unify(int a, int b) {
+    int rootA = find(a);
+    int rootB = find(b);
+    if (rootA == rootB) {
+      return;
+    }
+    Type typeA = types.get(rootA);
+    Type typeB = types.get(rootB);
+    if (typeA != null && typeB != null && typeA != typeB) {
+      throw new TypeError(
+        "Expected " + describe(typeA) + "; got " + describe(typeB)
+      );
+    }
+    parents.set(rootB, rootA);
+    if (typeA == null) {
+      types.set(rootA, typeB);
+    }
+  }
+
+  private Type typeOf(int var) {
+    Type type = types.get(find(var));
+    return type == null ? Type.INT : type;
+  }
+
+  private static String describe(Type type) {
+    return type == Type.INT ? "int" : "boolean";
+  }
+}
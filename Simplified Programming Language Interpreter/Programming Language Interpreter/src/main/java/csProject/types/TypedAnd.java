@@ -0,0 +1,25 @@
+package csProject.types;
+
+/**
+ * A short-circuiting <code>and</code> of two booleans.
+ */
+class TypedAnd extends TypedExpression {
+  private final TypedExpression left;
+  private final TypedExpression right;
+
+  TypedAnd(TypedExpression left, TypedExpression right) {
+    super(Type.BOOL);
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  int evalInt(int[] frame) {
+    throw new IllegalStateException("not an int expression");
+  }
+
+  @Override
+  boolean evalBoolean(int[] frame) {
+    return left.evalBoolean(frame) && right.evalBoolean(frame);
+  }
+}
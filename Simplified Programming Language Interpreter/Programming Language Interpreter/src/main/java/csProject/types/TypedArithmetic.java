@@ -0,0 +1,30 @@
+package csProject.types;
+
+import csProject.primitives.ArithmeticOperator;
+
+/**
+ * A call of an arithmetic primitive on two ints.
+ */
+class TypedArithmetic extends TypedExpression {
+  private final ArithmeticOperator operator;
+  private final TypedExpression left;
+  private final TypedExpression right;
+
+  TypedArithmetic(ArithmeticOperator operator, TypedExpression left, TypedExpression right) {
+    super(Type.INT);
+    this.operator = operator;
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  int evalInt(int[] frame) {
+    int leftValue = left.evalInt(frame);
+    return operator.applyInt(leftValue, right.evalInt(frame));
+  }
+
+  @Override
+  boolean evalBoolean(int[] frame) {
+    throw new IllegalStateException("not a boolean expression");
+  }
+}
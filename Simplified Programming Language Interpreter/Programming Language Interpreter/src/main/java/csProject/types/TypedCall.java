@@ -0,0 +1,34 @@
+package csProject.types;
+
+/**
+ * A call to a user definition.  The arguments are evaluated straight into
+ * the callee's new activation frame.
+ */
+class TypedCall extends TypedExpression {
+  private final TypedDefinition target;
+  private final TypedExpression[] arguments;
+
+  TypedCall(TypedDefinition target, TypedExpression[] arguments) {
+    super(target.getResultType());
+    this.target = target;
+    this.arguments = arguments;
+  }
+
+  @Override
+  int evalInt(int[] frame) {
+    return target.getBody().evalInt(enter(frame));
+  }
+
+  @Override
+  boolean evalBoolean(int[] frame) {
+    return target.getBody().evalBoolean(enter(frame));
+  }
+
+  private int[] enter(int[] frame) {
+    int[] calleeFrame = new int[target.getFrameSize()];
+    for (int i = 0; i < arguments.length; i++) {
+      calleeFrame[i] = arguments[i].evalSlot(frame);
+    }
+    return calleeFrame;
+  }
+}
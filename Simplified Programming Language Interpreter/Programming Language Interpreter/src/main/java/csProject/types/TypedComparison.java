@@ -0,0 +1,30 @@
+package csProject.types;
+
+import csProject.primitives.RelationalOperator;
+
+/**
+ * A call of a relational primitive on two ints.
+ */
+class TypedComparison extends TypedExpression {
+  private final RelationalOperator operator;
+  private final TypedExpression left;
+  private final TypedExpression right;
+
+  TypedComparison(RelationalOperator operator, TypedExpression left, TypedExpression right) {
+    super(Type.BOOL);
+    this.operator = operator;
+    this.left = left;
+    this.right = right;
+  }
+
+  @Override
+  int evalInt(int[] frame) {
+    throw new IllegalStateException("not an int expression");
+  }
+
+  @Override
+  boolean evalBoolean(int[] frame) {
+    int leftValue = left.evalInt(frame);
+    return operator.compare(leftValue, right.evalInt(frame));
+  }
+}
@@ -0,0 +1,76 @@
+package csProject.types;
+
+import java.util.List;
+
+/**
+ * A user definition with the statically inferred types of its parameters
+ * and result.  The body is filled in after all definitions of the program
+ * have been created, so that (mutually) recursive calls can be linked
+ * directly to their targets.
+ */
+public class TypedDefinition {
+  private final String name;
+  private final List<Type> parameterTypes;
+  private final Type resultType;
+  private int frameSize;
+  private TypedExpression body;
+
+  /**
+   * Constructs a typed definition whose body is not yet known.
+   * @param name           the name of the definition
+   * @param parameterTypes the types of the parameters
+   * @param resultType     the type of the body
+   */
+  TypedDefinition(String name, List<Type> parameterTypes, Type resultType) {
+    this.name = name;
+    this.parameterTypes = List.copyOf(parameterTypes);
+    this.resultType = resultType;
+    this.frameSize = parameterTypes.size();
+  }
+
+  /**
+   * Gets the name of the definition.
+   * @return the name of the definition
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the types of the parameters.
+   * @return the parameter types, in order
+   */
+  public List<Type> getParameterTypes() {
+    return parameterTypes;
+  }
+
+  /**
+   * Gets the type of the definition's result.
+   * @return the result type
+   */
+  public Type getResultType() {
+    return resultType;
+  }
+
+  /**
+   * Gets the number of frame slots needed by a call: one per parameter plus
+   * one per nested <code>let</code> in the body.
+   * @return the activation frame size
+   */
+  public int getFrameSize() {
+    return frameSize;
+  }
+
+  /**
+   * Gets the typed body.
+   * @return the body
+   */
+  public TypedExpression getBody() {
+    return body;
+  }
+
+  void setBody(TypedExpression body, int frameSize) {
+    this.body = body;
+    this.frameSize = frameSize;
+  }
+}
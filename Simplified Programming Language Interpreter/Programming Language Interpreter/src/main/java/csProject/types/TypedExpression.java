@@ -0,0 +1,54 @@
+package csProject.types;
+
+/**
+ * Base class of the typed AST produced by the {@code TypeChecker}.  Every
+ * node carries its statically inferred type, and is evaluated by the method
+ * for that type: {@link #evalInt} for ints, {@link #evalBoolean} for
+ * booleans.  Values are never boxed and never checked at run time; the
+ * activation frame holds ints, with booleans stored as 0 or 1.
+ */
+public abstract class TypedExpression {
+  private final Type type;
+
+  /**
+   * Constructs a typed expression.
+   * @param type the static type of the expression
+   */
+  TypedExpression(Type type) {
+    this.type = type;
+  }
+
+  /**
+   * Gets the static type of this expression.
+   * @return the type of the expression
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Evaluates this expression, whose type is {@link Type#INT}.
+   * @param frame the activation frame
+   * @return the value of the expression
+   */
+  abstract int evalInt(int[] frame);
+
+  /**
+   * Evaluates this expression, whose type is {@link Type#BOOL}.
+   * @param frame the activation frame
+   * @return the value of the expression
+   */
+  abstract boolean evalBoolean(int[] frame);
+
+  /**
+   * Evaluates this expression to its frame slot representation.
+   * @param frame the activation frame
+   * @return the value of the expression, with booleans as 0 or 1
+   */
+  final int evalSlot(int[] frame) {
+    if (type == Type.INT) {
+      return evalInt(frame);
+    }
+    return evalBoolean(frame) ? 1 : 0;
+  }
+}
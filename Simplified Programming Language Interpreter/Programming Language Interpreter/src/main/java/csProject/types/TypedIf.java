@@ -0,0 +1,27 @@
+package csProject.types;
+
+/**
+ * A conditional, whose branches have the same type.
+ */
+class TypedIf extends TypedExpression {
+  private final TypedExpression condition;
+  private final TypedExpression consequent;
+  private final TypedExpression alternative;
+
+  TypedIf(TypedExpression condition, TypedExpression consequent, TypedExpression alternative) {
+    super(consequent.getType());
+    this.condition = condition;
+    this.consequent = consequent;
+    this.alternative = alternative;
+  }
+
+  @Override
+  int evalInt(int[] frame) {
+    return condition.evalBoolean(frame) ? consequent.evalInt(frame) : alternative.evalInt(frame);
+  }
+
+  @Override
+  boolean evalBoolean(int[] frame) {
+    return condition.evalBoolean(frame) ? consequent.evalBoolean(frame) : alternative.evalBoolean(frame);
+  }
+}
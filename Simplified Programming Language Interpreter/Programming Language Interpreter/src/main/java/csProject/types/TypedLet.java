@@ -0,0 +1,30 @@
+package csProject.types;
+
+/**
+ * A <code>let</code>, which stores its right-hand side in a frame slot
+ * before evaluating its body.
+ */
+class TypedLet extends TypedExpression {
+  private final int slot;
+  private final TypedExpression rhs;
+  private final TypedExpression body;
+
+  TypedLet(int slot, TypedExpression rhs, TypedExpression body) {
+    super(body.getType());
+    this.slot = slot;
+    this.rhs = rhs;
+    this.body = body;
+  }
+
+  @Override
+  int evalInt(int[] frame) {
+    frame[slot] = rhs.evalSlot(frame);
+    return body.evalInt(frame);
+  }
+
+  @Override
+  boolean evalBoolean(int[] frame) {
+    frame[slot] = rhs.evalSlot(frame);
+    return body.evalBoolean(frame);
+  }
+}
@@ -0,0 +1,23 @@
+package csProject.types;
+
+/**
+ * An integer or boolean literal, held in its frame slot representation.
+ */
+class TypedLiteral extends TypedExpression {
+  private final int value;
+
+  TypedLiteral(Type type, int value) {
+    super(type);
+    this.value = value;
+  }
+
+  @Override
+  int evalInt(int[] frame) {
+    return value;
+  }
+
+  @Override
+  boolean evalBoolean(int[] frame) {
+    return value != 0;
+  }
+}
@@ -0,0 +1,23 @@
+package csProject.types;
+
+/**
+ * A call of the <code>not</code> primitive.
+ */
+class TypedNot extends TypedExpression {
+  private final TypedExpression operand;
+
+  TypedNot(TypedExpression operand) {
+    super(Type.BOOL);
+    this.operand = operand;
+  }
+
+  @Override
+  int evalInt(int[] frame) {
+    throw new IllegalStateException("not an int expression");
+  }
+
+  @Override
+  boolean evalBoolean(int[] frame) {
+    return !operand.evalBoolean(frame);
+  }
+}
@@ -0,0 +1,62 @@
+package csProject.types;
+
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.Value;
+import java.util.Map;
+
+/**
+ * A whole program that has passed the {@code TypeChecker}: the typed
+ * definitions, plus the typed program expression.  Running it performs no
+ * type checks; only the final result is boxed into a {@code Value}.
+ */
+public class TypedProgram {
+  private final Map<String, TypedDefinition> definitions;
+  private final TypedExpression expression;
+  private final int frameSize;
+
+  /**
+   * Constructs a typed program.
+   * @param definitions the typed definitions, by name
+   * @param expression  the typed program expression
+   * @param frameSize   the number of frame slots the expression needs
+   */
+  TypedProgram(
+    Map<String, TypedDefinition> definitions,
+    TypedExpression expression,
+    int frameSize
+  ) {
+    this.definitions = Map.copyOf(definitions);
+    this.expression = expression;
+    this.frameSize = frameSize;
+  }
+
+  /**
+   * Looks up a typed definition by name.
+   * @param name name of the definition
+   * @return the typed definition, or null if not defined
+   */
+  public TypedDefinition lookup(String name) {
+    return definitions.get(name);
+  }
+
+  /**
+   * Gets the static type of the program's expression.
+   * @return the type of the program's result
+   */
+  public Type getType() {
+    return expression.getType();
+  }
+
+  /**
+   * Runs the program.  A typed program can be run any number of times.
+   * @return the value of the program's expression
+   */
+  public Value run() {
+    int[] frame = new int[frameSize];
+    if (expression.getType() == Type.INT) {
+      return IntValue.of(expression.evalInt(frame));
+    }
+    return BooleanValue.valueOf(expression.evalBoolean(frame));
+  }
+}
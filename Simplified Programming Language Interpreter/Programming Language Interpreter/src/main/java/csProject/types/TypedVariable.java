@@ -0,0 +1,23 @@
+package csProject.types;
+
+/**
+ * A read of a parameter or <code>let</code> variable from its frame slot.
+ */
+class TypedVariable extends TypedExpression {
+  private final int slot;
+
+  TypedVariable(Type type, int slot) {
+    super(type);
+    this.slot = slot;
+  }
+
+  @Override
+  int evalInt(int[] frame) {
+    return frame[slot];
+  }
+
+  @Override
+  boolean evalBoolean(int[] frame) {
+    return frame[slot] != 0;
+  }
+}
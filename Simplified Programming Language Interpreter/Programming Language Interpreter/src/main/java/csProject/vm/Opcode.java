@@ -0,0 +1,88 @@
+package csProject.vm;
+
+/**
+ * Instruction set of the virtual machine.  An instruction is an opcode
+ * followed inline by its operands, all stored as ints in the code array.
+ * The comment on each opcode gives its operands and its effect on the
+ * operand stack.
+ */
+public final class Opcode {
+  /** value: push the int constant. */
+  public static final int PUSH_INT = 0;
+  /** push true. */
+  public static final int PUSH_TRUE = 1;
+  /** push false. */
+  public static final int PUSH_FALSE = 2;
+  /** slot: push the local variable in the slot of the current frame. */
+  public static final int LOAD_LOCAL = 3;
+  /** slot: pop a value into the slot of the current frame. */
+  public static final int STORE_LOCAL = 4;
+
+  /** pop two ints, push their sum. */
+  public static final int ADD = 5;
+  /** pop two ints, push their difference. */
+  public static final int SUB = 6;
+  /** pop two ints, push their product. */
+  public static final int MUL = 7;
+  /** pop two ints, push their quotient. */
+  public static final int DIV = 8;
+  /** pop two ints, push the remainder. */
+  public static final int MOD = 9;
+  /** pop two ints, push whether they are equal. */
+  public static final int EQ = 10;
+  /** pop two ints, push whether they differ. */
+  public static final int NE = 11;
+  /** pop two ints, push whether the first is less than the second. */
+  public static final int LT = 12;
+  /** pop two ints, push whether the first is at most the second. */
+  public static final int LE = 13;
+  /** pop two ints, push whether the first is greater than the second. */
+  public static final int GT = 14;
+  /** pop two ints, push whether the first is at least the second. */
+  public static final int GE = 15;
+  /** pop a boolean, push its negation. */
+  public static final int NOT = 16;
+  /** check that the top of the stack is a boolean. */
+  public static final int CHECK_BOOL = 17;
+
+  /** target: continue at the target address. */
+  public static final int JUMP = 18;
+  /** target: pop a boolean; continue at the target if it is false. */
+  public static final int JUMP_IF_FALSE = 19;
+  /** target: pop a boolean; continue at the target if it is true. */
+  public static final int JUMP_IF_TRUE = 20;
+  /** function: call the function with the arguments on the stack. */
+  public static final int CALL = 21;
+  /** return the top of the stack to the caller. */
+  public static final int RET = 22;
+
+  /** name: fail with an undefined-variable error. */
+  public static final int FAIL_UNDEFINED_VARIABLE = 23;
+  /** name: fail with an undefined-function error. */
+  public static final int FAIL_UNDEFINED_FUNCTION = 24;
+  /** name, expected, actual: fail with an arity error. */
+  public static final int FAIL_ARITY = 25;
+
+  private static final int[] OPERAND_COUNTS = {
+    1, 0, 0, 1, 1,
+    0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+    1, 1, 1, 1, 0,
+    1, 1, 3
+  };
+
+  private Opcode() {
+  }
+
+  /**
+   * Returns the number of inline operands of an opcode.
+   * @param opcode the opcode
+   * @return the number of operands that follow the opcode in the code array
+   * @throws IllegalArgumentException if the opcode is not valid
+   */
+  public static int operandCount(int opcode) {
+    if (opcode < 0 || opcode >= OPERAND_COUNTS.length) {
+      throw new IllegalArgumentException("invalid opcode " + opcode);
+    }
+    return OPERAND_COUNTS[opcode];
+  }
+}
@@ -0,0 +1,193 @@
+package csProject.vm;
+
+import csProject.core.TaggedValue;
+import csProject.core.Value;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.evalExceptions.UndefinedVariableException;
+import java.util.Arrays;
+
+/**
+ * Interpreter for compiled {@code VmProgram}s: a single dispatch loop over
+ * the code array.  Each activation's locals live at the bottom of its part
+ * of one shared value stack, with its operands above them; a call leaves
+ * the arguments where the caller pushed them and they become the callee's
+ * first locals.
+ *
+ * <p>Values on the stack are encoded as {@code TaggedValue}s in a
+ * {@code long[]}, so running a program allocates no values: the only
+ * {@code Value} made is the program's result.</p>
+ */
+public class VirtualMachine {
+  /**
+   * Default limit on the depth of nested calls.
+   */
+  public static final int DEFAULT_MAX_CALL_DEPTH = 1_000_000;
+
+  private final int maxCallDepth;
+
+  /**
+   * Constructs a virtual machine with the default call depth limit.
+   */
+  public VirtualMachine() {
+    this(DEFAULT_MAX_CALL_DEPTH);
+  }
+
+  /**
+   * Constructs a virtual machine.
+   * @param maxCallDepth the maximum depth of nested calls; deeper recursion
+   *                     fails with a {@code StackOverflowError}
+   */
+  public VirtualMachine(int maxCallDepth) {
+    if (maxCallDepth < 1) {
+      throw new IllegalArgumentException("maxCallDepth must be positive");
+    }
+    this.maxCallDepth = maxCallDepth;
+  }
+
+  /**
+   * Runs a program.
+   * @param program the program to run
+   * @return the value of the program's expression
+   */
+  public Value run(VmProgram program) {
+    final int[] code = program.getCode();
+    long[] stack = new long[64];
+    int[] frames = new int[32];
+    int frameCount = 0;
+
+    int main = program.getMainFunction();
+    int pc = program.getEntryPoint(main);
+    int base = 0;
+    int sp = program.getFrameSize(main);
+    stack = ensureCapacity(stack, sp);
+
+    while (true) {
+      switch (code[pc++]) {
+        case Opcode.PUSH_INT -> {
+          stack = ensureCapacity(stack, sp + 1);
+          stack[sp++] = TaggedValue.ofInt(code[pc++]);
+        }
+        case Opcode.PUSH_TRUE -> {
+          stack = ensureCapacity(stack, sp + 1);
+          stack[sp++] = TaggedValue.TRUE;
+        }
+        case Opcode.PUSH_FALSE -> {
+          stack = ensureCapacity(stack, sp + 1);
+          stack[sp++] = TaggedValue.FALSE;
+        }
+        case Opcode.LOAD_LOCAL -> {
+          stack = ensureCapacity(stack, sp + 1);
+          stack[sp++] = stack[base + code[pc++]];
+        }
+        case Opcode.STORE_LOCAL -> stack[base + code[pc++]] = stack[--sp];
+        case Opcode.ADD -> {
+          sp--;
+          stack[sp - 1] = TaggedValue.ofInt(asInt(stack[sp - 1]) + asInt(stack[sp]));
+        }
+        case Opcode.SUB -> {
+          sp--;
+          stack[sp - 1] = TaggedValue.ofInt(asInt(stack[sp - 1]) - asInt(stack[sp]));
+        }
+        case Opcode.MUL -> {
+          sp--;
+          stack[sp - 1] = TaggedValue.ofInt(asInt(stack[sp - 1]) * asInt(stack[sp]));
+        }
+        case Opcode.DIV -> {
+          sp--;
+          // the divisor is checked first, as in DivideOperator
+          int divisor = asInt(stack[sp]);
+          if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+          }
+          stack[sp - 1] = TaggedValue.ofInt(asInt(stack[sp - 1]) / divisor);
+        }
+        case Opcode.MOD -> {
+          sp--;
+          stack[sp - 1] = TaggedValue.ofInt(asInt(stack[sp - 1]) % asInt(stack[sp]));
+        }
+        case Opcode.EQ -> {
+          sp--;
+          stack[sp - 1] = TaggedValue.ofBoolean(asInt(stack[sp - 1]) == asInt(stack[sp]));
+        }
+        case Opcode.NE -> {
+          sp--;
+          stack[sp - 1] = TaggedValue.ofBoolean(asInt(stack[sp - 1]) != asInt(stack[sp]));
+        }
+        case Opcode.LT -> {
+          sp--;
+          stack[sp - 1] = TaggedValue.ofBoolean(asInt(stack[sp - 1]) < asInt(stack[sp]));
+        }
+        case Opcode.LE -> {
+          sp--;
+          stack[sp - 1] = TaggedValue.ofBoolean(asInt(stack[sp - 1]) <= asInt(stack[sp]));
+        }
+        case Opcode.GT -> {
+          sp--;
+          stack[sp - 1] = TaggedValue.ofBoolean(asInt(stack[sp - 1]) > asInt(stack[sp]));
+        }
+        case Opcode.GE -> {
+          sp--;
+          stack[sp - 1] = TaggedValue.ofBoolean(asInt(stack[sp - 1]) >= asInt(stack[sp]));
+        }
+        case Opcode.NOT -> stack[sp - 1] = TaggedValue.ofBoolean(!asBoolean(stack[sp - 1]));
+        case Opcode.CHECK_BOOL -> asBoolean(stack[sp - 1]);
+        case Opcode.JUMP -> pc = code[pc];
+        case Opcode.JUMP_IF_FALSE -> pc = asBoolean(stack[--sp]) ? pc + 1 : code[pc];
+        case Opcode.JUMP_IF_TRUE -> pc = asBoolean(stack[--sp]) ? code[pc] : pc + 1;
+        case Opcode.CALL -> {
+          int function = code[pc++];
+          if (frameCount == maxCallDepth) {
+            throw new StackOverflowError("call depth exceeds " + maxCallDepth);
+          }
+          if (2 * frameCount + 2 > frames.length) {
+            frames = Arrays.copyOf(frames, frames.length * 2);
+          }
+          frames[2 * frameCount] = pc;
+          frames[2 * frameCount + 1] = base;
+          frameCount++;
+          base = sp - program.getArity(function);
+          sp = base + program.getFrameSize(function);
+          stack = ensureCapacity(stack, sp);
+          pc = program.getEntryPoint(function);
+        }
+        case Opcode.RET -> {
+          long result = stack[sp - 1];
+          if (frameCount == 0) {
+            return TaggedValue.toValue(result);
+          }
+          sp = base;
+          frameCount--;
+          pc = frames[2 * frameCount];
+          base = frames[2 * frameCount + 1];
+          stack[sp++] = result;
+        }
+        case Opcode.FAIL_UNDEFINED_VARIABLE ->
+          throw new UndefinedVariableException(program.getName(code[pc]));
+        case Opcode.FAIL_UNDEFINED_FUNCTION ->
+          throw new UndefinedFunctionException(program.getName(code[pc]));
+        case Opcode.FAIL_ARITY -> throw new ArityMismatchException(
+          program.getName(code[pc]), code[pc + 1], code[pc + 2]
+        );
+        default -> throw new IllegalStateException(
+          "invalid opcode " + code[pc - 1] + " at " + (pc - 1)
+        );
+      }
+    }
+  }
+
+  private static int asInt(long tagged) {
+    return TaggedValue.asInteger(tagged);
+  }
+
+  private static boolean asBoolean(long tagged) {
+    return TaggedValue.asBoolean(tagged);
+  }
+
+  private static long[] ensureCapacity(long[] stack, int size) {
+    if (size <= stack.length) {
+      return stack;
+    }
+    return Arrays.copyOf(stack, Math.max(size, stack.length * 2));
+  }
+}
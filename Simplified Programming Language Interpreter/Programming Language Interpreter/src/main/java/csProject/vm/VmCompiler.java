@@ -0,0 +1,235 @@
+package csProject.vm;
+
+import csProject.ast.AndExpression;
+import csProject.ast.BooleanLiteral;
+import csProject.ast.Definition;
+import csProject.ast.Expression;
+import csProject.ast.ExpressionVisitor;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.OrExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Compiles a {@code Program} to the instruction set of the virtual machine.
+ * Variables are compiled to local slot numbers, and calls to function table
+ * indices.  Calls to undefined functions and calls with the wrong number of
+ * arguments compile to instructions that evaluate the arguments and then
+ * fail, so such errors are raised only when the call is reached.
+ */
+public class VmCompiler implements ExpressionVisitor<Void> {
+  private static final Map<String, Integer> PRIMITIVE_OPCODES = Map.ofEntries(
+    Map.entry("+", Opcode.ADD),
+    Map.entry("-", Opcode.SUB),
+    Map.entry("*", Opcode.MUL),
+    Map.entry("/", Opcode.DIV),
+    Map.entry("mod", Opcode.MOD),
+    Map.entry("==", Opcode.EQ),
+    Map.entry("!=", Opcode.NE),
+    Map.entry("<", Opcode.LT),
+    Map.entry("<=", Opcode.LE),
+    Map.entry(">", Opcode.GT),
+    Map.entry(">=", Opcode.GE),
+    Map.entry("not", Opcode.NOT)
+  );
+
+  private int[] code = new int[256];
+  private int length = 0;
+  private final Map<String, Integer> names = new LinkedHashMap<>();
+  private final Map<String, Integer> functions = new HashMap<>();
+  private final List<Integer> arities = new ArrayList<>();
+
+  private List<String> scope;
+  private int frameSize;
+
+  private VmCompiler() {
+  }
+
+  /**
+   * Compiles a program.
+   * @param program the program to compile
+   * @return the compiled program
+   */
+  public static VmProgram compile(Program program) {
+    Objects.requireNonNull(program);
+    VmCompiler compiler = new VmCompiler();
+
+    // later definitions with the same name win, as in the Environment
+    Map<String, Definition> definitions = new LinkedHashMap<>();
+    for (Definition d : program.getDefinitions()) {
+      definitions.put(d.getName(), d);
+    }
+    for (Definition d : definitions.values()) {
+      compiler.functions.put(d.getName(), compiler.arities.size());
+      compiler.arities.add(d.getArguments().size());
+    }
+
+    int functionCount = definitions.size() + 1;
+    int[] entryPoints = new int[functionCount];
+    int[] frameSizes = new int[functionCount];
+    int index = 0;
+    for (Definition d : definitions.values()) {
+      entryPoints[index] = compiler.length;
+      frameSizes[index] = compiler.compileFunction(d.getArguments(), d.getBody());
+      index++;
+    }
+    entryPoints[index] = compiler.length;
+    frameSizes[index] = compiler.compileFunction(List.of(), program.getExpression());
+    compiler.arities.add(0);
+
+    return new VmProgram(
+      Arrays.copyOf(compiler.code, compiler.length),
+      entryPoints,
+      compiler.arities.stream().mapToInt(Integer::intValue).toArray(),
+      frameSizes,
+      compiler.names.keySet().toArray(new String[0]),
+      index
+    );
+  }
+
+  private int compileFunction(List<String> parameters, Expression body) {
+    scope = new ArrayList<>(parameters);
+    frameSize = parameters.size();
+    body.accept(this);
+    emit(Opcode.RET);
+    return frameSize;
+  }
+
+  @Override
+  public Void visit(AndExpression andExpression) {
+    andExpression.getLeftOperand().accept(this);
+    int toFalse = emitJump(Opcode.JUMP_IF_FALSE);
+    andExpression.getRightOperand().accept(this);
+    emit(Opcode.CHECK_BOOL);
+    int toEnd = emitJump(Opcode.JUMP);
+    patch(toFalse);
+    emit(Opcode.PUSH_FALSE);
+    patch(toEnd);
+    return null;
+  }
+
+  @Override
+  public Void visit(BooleanLiteral booleanLiteral) {
+    emit(booleanLiteral.isValue() ? Opcode.PUSH_TRUE : Opcode.PUSH_FALSE);
+    return null;
+  }
+
+  @Override
+  public Void visit(FunctionCall functionCall) {
+    String name = functionCall.getFunctionName();
+    int argCount = functionCall.getArguments().size();
+    for (Expression argument : functionCall.getArguments()) {
+      argument.accept(this);
+    }
+
+    Integer opcode = PRIMITIVE_OPCODES.get(name);
+    if (opcode != null) {
+      int arity = opcode == Opcode.NOT ? 1 : 2;
+      if (arity == argCount) {
+        emit(opcode);
+      } else {
+        emit(Opcode.FAIL_ARITY, name(name), arity, argCount);
+      }
+      return null;
+    }
+
+    Integer function = functions.get(name);
+    if (function == null) {
+      emit(Opcode.FAIL_UNDEFINED_FUNCTION, name(name));
+    } else if (arities.get(function) != argCount) {
+      emit(Opcode.FAIL_ARITY, name(name), arities.get(function), argCount);
+    } else {
+      emit(Opcode.CALL, function);
+    }
+    return null;
+  }
+
+  @Override
+  public Void visit(IfExpression ifExpression) {
+    ifExpression.getCondition().accept(this);
+    int toAlternative = emitJump(Opcode.JUMP_IF_FALSE);
+    ifExpression.getConsequent().accept(this);
+    int toEnd = emitJump(Opcode.JUMP);
+    patch(toAlternative);
+    ifExpression.getAlternative().accept(this);
+    patch(toEnd);
+    return null;
+  }
+
+  @Override
+  public Void visit(IntLiteral intLiteral) {
+    emit(Opcode.PUSH_INT, intLiteral.getValue());
+    return null;
+  }
+
+  @Override
+  public Void visit(LetExpression letExpression) {
+    letExpression.getRhs().accept(this);
+    int slot = scope.size();
+    scope.add(letExpression.getVarName());
+    frameSize = Math.max(frameSize, scope.size());
+    emit(Opcode.STORE_LOCAL, slot);
+    letExpression.getBody().accept(this);
+    scope.remove(slot);
+    return null;
+  }
+
+  @Override
+  public Void visit(OrExpression orExpression) {
+    orExpression.getLeft().accept(this);
+    int toTrue = emitJump(Opcode.JUMP_IF_TRUE);
+    orExpression.getRight().accept(this);
+    emit(Opcode.CHECK_BOOL);
+    int toEnd = emitJump(Opcode.JUMP);
+    patch(toTrue);
+    emit(Opcode.PUSH_TRUE);
+    patch(toEnd);
+    return null;
+  }
+
+  @Override
+  public Void visit(VariableReference reference) {
+    int slot = scope.lastIndexOf(reference.getVariableName());
+    if (slot < 0) {
+      emit(Opcode.FAIL_UNDEFINED_VARIABLE, name(reference.getVariableName()));
+    } else {
+      emit(Opcode.LOAD_LOCAL, slot);
+    }
+    return null;
+  }
+
+  private int name(String name) {
+    return names.computeIfAbsent(name, n -> names.size());
+  }
+
+  /**
+   * Emits a jump with a target to be patched later.
+   * @return the address of the target operand
+   */
+  private int emitJump(int opcode) {
+    emit(opcode, -1);
+    return length - 1;
+  }
+
+  private void patch(int operandAddress) {
+    code[operandAddress] = length;
+  }
+
+  private void emit(int... words) {
+    if (length + words.length > code.length) {
+      code = Arrays.copyOf(code, Math.max(code.length * 2, length + words.length));
+    }
+    System.arraycopy(words, 0, code, length, words.length);
+    length += words.length;
+  }
+}
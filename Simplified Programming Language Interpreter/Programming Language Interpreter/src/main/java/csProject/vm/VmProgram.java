@@ -0,0 +1,374 @@
+package csProject.vm;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * A program compiled for the virtual machine: one flat code array shared by
+ * all functions, a function table, and a pool of names used in error
+ * messages.  The program's expression is compiled as a function with no
+ * parameters.  Compiled programs can be written to and read back from a
+ * stream.
+ */
+public class VmProgram {
+  private static final int MAGIC = 0x53504C56; // "SPLV"
+  private static final int FORMAT_VERSION = 1;
+
+  /**
+   * Largest number of local slots a function may have, so that a corrupt
+   * stream cannot make the machine allocate an enormous stack.
+   */
+  static final int MAX_FRAME_SIZE = 1 << 16;
+
+  private final int[] code;
+  private final int[] entryPoints;
+  private final int[] arities;
+  private final int[] frameSizes;
+  private final String[] names;
+  private final int mainFunction;
+
+  /**
+   * Constructs a compiled program.
+   * @param code         the instructions of all functions
+   * @param entryPoints  the code address at which each function starts
+   * @param arities      the number of parameters of each function
+   * @param frameSizes   the number of local slots of each function
+   * @param names        the name pool referred to by instructions
+   * @param mainFunction index of the function for the program's expression
+   */
+  VmProgram(
+    int[] code,
+    int[] entryPoints,
+    int[] arities,
+    int[] frameSizes,
+    String[] names,
+    int mainFunction
+  ) {
+    this.code = code;
+    this.entryPoints = entryPoints;
+    this.arities = arities;
+    this.frameSizes = frameSizes;
+    this.names = names;
+    this.mainFunction = mainFunction;
+  }
+
+  int[] getCode() {
+    return code;
+  }
+
+  int getEntryPoint(int function) {
+    return entryPoints[function];
+  }
+
+  int getArity(int function) {
+    return arities[function];
+  }
+
+  int getFrameSize(int function) {
+    return frameSizes[function];
+  }
+
+  String getName(int index) {
+    return names[index];
+  }
+
+  int getMainFunction() {
+    return mainFunction;
+  }
+
+  /**
+   * Returns the number of ints in the code array.
+   * @return the code size
+   */
+  public int getCodeSize() {
+    return code.length;
+  }
+
+  /**
+   * Writes the program in a compact binary format.
+   * @param out the stream to write to
+   * @throws IOException if the stream cannot be written
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(FORMAT_VERSION);
+    data.writeInt(names.length);
+    for (String name : names) {
+      data.writeUTF(name);
+    }
+    data.writeInt(entryPoints.length);
+    for (int i = 0; i < entryPoints.length; i++) {
+      data.writeInt(entryPoints[i]);
+      data.writeInt(arities[i]);
+      data.writeInt(frameSizes[i]);
+    }
+    data.writeInt(mainFunction);
+    data.writeInt(code.length);
+    for (int word : code) {
+      data.writeInt(word);
+    }
+    data.flush();
+  }
+
+  /**
+   * Reads a program written by {@link #writeTo}.
+   * @param in the stream to read from
+   * @return the program
+   * @throws IOException if the stream cannot be read, or does not contain a
+   *   valid program
+   */
+  public static VmProgram readFrom(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION) {
+      throw new IOException("not a compiled program");
+    }
+    int nameCount = readCount(data);
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < nameCount; i++) {
+      names.add(data.readUTF());
+    }
+    int functionCount = readCount(data);
+    if (functionCount == 0 || functionCount > Integer.MAX_VALUE / 3) {
+      throw new IOException("invalid function count " + functionCount);
+    }
+    int[] table = readInts(data, 3 * functionCount);
+    int[] entryPoints = new int[functionCount];
+    int[] arities = new int[functionCount];
+    int[] frameSizes = new int[functionCount];
+    for (int i = 0; i < functionCount; i++) {
+      entryPoints[i] = table[3 * i];
+      arities[i] = table[3 * i + 1];
+      frameSizes[i] = table[3 * i + 2];
+    }
+    int mainFunction = data.readInt();
+    int[] code = readInts(data, readCount(data));
+    VmProgram program = new VmProgram(
+      code, entryPoints, arities, frameSizes, names.toArray(String[]::new), mainFunction
+    );
+    program.verify();
+    return program;
+  }
+
+  private static int readCount(DataInputStream data) throws IOException {
+    int count = data.readInt();
+    if (count < 0) {
+      throw new IOException("invalid count " + count);
+    }
+    return count;
+  }
+
+  /**
+   * Reads ints into an array grown as they arrive, so that a corrupt count
+   * fails at the end of the stream instead of allocating a huge array.
+   */
+  private static int[] readInts(DataInputStream data, int count) throws IOException {
+    int[] words = new int[Math.min(count, 1024)];
+    for (int i = 0; i < count; i++) {
+      if (i == words.length) {
+        words = Arrays.copyOf(words, (int) Math.min(count, 2L * i));
+      }
+      words[i] = data.readInt();
+    }
+    return words;
+  }
+
+  /**
+   * Checks that the program can run without the machine indexing outside its
+   * arrays, so that a program read from an untrusted stream fails here
+   * rather than in the machine.  Functions are laid out one after another,
+   * each starting where the one before it ends.  Within a function, every
+   * jump must go forward to the start of an instruction of the same
+   * function, which is how the compiler lays out code, so one pass in
+   * address order follows every path through it.  The pass tracks the
+   * depth of the operand stack and the locals that have been stored on
+   * every path, and rejects instructions that pop more operands than the
+   * stack holds, loads of locals that may not have been stored, paths that
+   * reach a jump target with different stack depths, and paths that run off
+   * the end of their function.
+   */
+  private void verify() throws IOException {
+    if (mainFunction < 0 || mainFunction >= entryPoints.length || arities[mainFunction] != 0) {
+      throw new IOException("invalid main function " + mainFunction);
+    }
+    Integer[] layout = new Integer[entryPoints.length];
+    for (int f = 0; f < entryPoints.length; f++) {
+      if (entryPoints[f] < 0 || entryPoints[f] >= code.length || arities[f] < 0
+          || frameSizes[f] < arities[f] || frameSizes[f] > MAX_FRAME_SIZE) {
+        throw new IOException("invalid function " + f);
+      }
+      layout[f] = f;
+    }
+    Arrays.sort(layout, (a, b) -> Integer.compare(entryPoints[a], entryPoints[b]));
+    if (entryPoints[layout[0]] != 0) {
+      throw new IOException("code does not start with a function");
+    }
+    for (int i = 0; i < layout.length; i++) {
+      int end = i + 1 < layout.length ? entryPoints[layout[i + 1]] : code.length;
+      if (end == entryPoints[layout[i]]) {
+        throw new IOException("functions " + layout[i] + " and " + layout[i + 1] + " overlap");
+      }
+      verifyFunction(layout[i], end);
+    }
+  }
+
+  private void verifyFunction(int function, int end) throws IOException {
+    int frameSize = frameSizes[function];
+    // the state on entry to the next instruction; null if it is unreachable
+    FrameState state = new FrameState(0, new BitSet(frameSize));
+    state.stored.set(0, arities[function]);
+    // the states at the targets of the jumps seen so far
+    TreeMap<Integer, FrameState> branches = new TreeMap<>();
+
+    int pc = entryPoints[function];
+    while (pc < end) {
+      if (!branches.isEmpty() && branches.firstKey() <= pc) {
+        if (branches.firstKey() < pc) {
+          throw new IOException("jump into instruction at " + branches.firstKey());
+        }
+        FrameState branch = branches.pollFirstEntry().getValue();
+        if (state == null) {
+          state = branch;
+        } else {
+          state.merge(branch, pc);
+        }
+      }
+      int opcode = code[pc];
+      int operandCount;
+      try {
+        operandCount = Opcode.operandCount(opcode);
+      } catch (IllegalArgumentException e) {
+        throw new IOException(e.getMessage() + " at " + pc);
+      }
+      if (pc + operandCount >= end) {
+        throw new IOException("truncated instruction at " + pc);
+      }
+      int operand = operandCount > 0 ? code[pc + 1] : 0;
+      boolean valid = switch (opcode) {
+        case Opcode.JUMP, Opcode.JUMP_IF_FALSE, Opcode.JUMP_IF_TRUE ->
+          operand > pc && operand < end;
+        case Opcode.CALL -> operand >= 0 && operand < entryPoints.length;
+        case Opcode.FAIL_UNDEFINED_VARIABLE, Opcode.FAIL_UNDEFINED_FUNCTION,
+          Opcode.FAIL_ARITY -> operand >= 0 && operand < names.length;
+        case Opcode.LOAD_LOCAL, Opcode.STORE_LOCAL ->
+          operand >= 0 && operand < frameSize;
+        default -> true;
+      };
+      if (!valid) {
+        throw new IOException("invalid operand at " + pc);
+      }
+      if (state != null) {
+        state = step(state, opcode, operand, pc, branches);
+      }
+      pc += 1 + operandCount;
+    }
+    if (!branches.isEmpty()) {
+      throw new IOException("jump into instruction at " + branches.firstKey());
+    }
+    if (state != null) {
+      throw new IOException("function " + function + " runs past its end");
+    }
+  }
+
+  /**
+   * Applies an instruction to the state before it, recording the state at
+   * its jump target.
+   * @return the state after the instruction, or null if it does not fall
+   *   through to the next one
+   */
+  private FrameState step(
+    FrameState state,
+    int opcode,
+    int operand,
+    int pc,
+    TreeMap<Integer, FrameState> branches
+  ) throws IOException {
+    int pops = switch (opcode) {
+      case Opcode.STORE_LOCAL, Opcode.NOT, Opcode.CHECK_BOOL, Opcode.JUMP_IF_FALSE,
+        Opcode.JUMP_IF_TRUE, Opcode.RET -> 1;
+      case Opcode.ADD, Opcode.SUB, Opcode.MUL, Opcode.DIV, Opcode.MOD, Opcode.EQ,
+        Opcode.NE, Opcode.LT, Opcode.LE, Opcode.GT, Opcode.GE -> 2;
+      case Opcode.CALL -> arities[operand];
+      default -> 0;
+    };
+    if (state.depth < pops) {
+      throw new IOException("stack underflow at " + pc);
+    }
+    switch (opcode) {
+      case Opcode.PUSH_INT, Opcode.PUSH_TRUE, Opcode.PUSH_FALSE -> state.depth++;
+      case Opcode.LOAD_LOCAL -> {
+        if (!state.stored.get(operand)) {
+          throw new IOException("load of unset local at " + pc);
+        }
+        state.depth++;
+      }
+      case Opcode.STORE_LOCAL -> {
+        state.stored.set(operand);
+        state.depth--;
+      }
+      case Opcode.CALL -> state.depth += 1 - pops;
+      case Opcode.JUMP -> {
+        addBranch(branches, operand, state);
+        return null;
+      }
+      case Opcode.JUMP_IF_FALSE, Opcode.JUMP_IF_TRUE -> {
+        state.depth--;
+        addBranch(branches, operand, state.copy());
+      }
+      case Opcode.RET, Opcode.FAIL_UNDEFINED_VARIABLE, Opcode.FAIL_UNDEFINED_FUNCTION,
+        Opcode.FAIL_ARITY -> {
+        return null;
+      }
+      // the operators pop their operands and push their result
+      default -> state.depth -= pops - 1;
+    }
+    return state;
+  }
+
+  private static void addBranch(
+    TreeMap<Integer, FrameState> branches,
+    int target,
+    FrameState state
+  ) throws IOException {
+    FrameState existing = branches.get(target);
+    if (existing == null) {
+      branches.put(target, state);
+    } else {
+      existing.merge(state, target);
+    }
+  }
+
+  /**
+   * What the verifier knows about an activation at one point of its code:
+   * the depth of its operand stack, and the locals stored on every path to
+   * that point.
+   */
+  private static class FrameState {
+    int depth;
+    final BitSet stored;
+
+    FrameState(int depth, BitSet stored) {
+      this.depth = depth;
+      this.stored = stored;
+    }
+
+    FrameState copy() {
+      return new FrameState(depth, (BitSet) stored.clone());
+    }
+
+    void merge(FrameState other, int pc) throws IOException {
+      if (depth != other.depth) {
+        throw new IOException("inconsistent stack depth at " + pc);
+      }
+      stored.and(other.stored);
+    }
+  }
+}
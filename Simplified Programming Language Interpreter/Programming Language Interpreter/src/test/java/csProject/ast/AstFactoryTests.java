@@ -0,0 +1,139 @@
+package csProject.ast;
+
+import csProject.evaluator.Driver;
+import csProject.evaluator.Linker;
+import csProject.evaluator.Resolver;
+import csProject.parser.Parser;
+import csProject.primitives.DivideOperator;
+import csProject.primitives.UncheckedDivideOperator;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AstFactoryTests {
+
+  @Test
+  public void testSharedSubtrees() {
+    AstFactory factory = new AstFactory();
+    Program program = Parser.parseProgram(
+      "test",
+      "(define (f n) (+ (* n n) 1)) (define (g n) (- (* n n) 1)) (f (g 3))",
+      factory
+    );
+    FunctionCall f = (FunctionCall) program.getDefinitions().get(0).getBody();
+    FunctionCall g = (FunctionCall) program.getDefinitions().get(1).getBody();
+    Assertions.assertSame(f.getArguments().get(0), g.getArguments().get(0));
+    Assertions.assertSame(f.getArguments().get(1), factory.intLiteral(1));
+
+    Program other = Parser.parseProgram("other", "(define (h n) (* n n)) (h 4)", factory);
+    Assertions.assertSame(f.getArguments().get(0), other.getDefinitions().get(0).getBody());
+  }
+
+  @Test
+  public void testSamePrograms() {
+    AstFactory factory = new AstFactory();
+    String source = "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) (fib 10)";
+    Program first = Parser.parseProgram("first", source, factory);
+    int size = factory.size();
+    Program second = Parser.parseProgram("second", source, factory);
+    Assertions.assertEquals(first, second);
+    Assertions.assertEquals(first.hashCode(), second.hashCode());
+    Assertions.assertSame(first.getDefinitions().get(0), second.getDefinitions().get(0));
+    Assertions.assertSame(first.getExpression(), second.getExpression());
+    Assertions.assertEquals(size, factory.size());
+    Assertions.assertEquals(55, new Driver().evaluateProgram(second).asInteger());
+  }
+
+  @Test
+  public void testFactoryMethods() {
+    AstFactory factory = new AstFactory();
+    Expression n = factory.variableReference("n");
+    Expression test = factory.functionCall("<", List.of(n, factory.intLiteral(0)));
+    Expression made = factory.ifExpression(
+      factory.andExpression(test, factory.booleanLiteral(true)),
+      factory.letExpression("m", factory.intLiteral(0), factory.variableReference("m")),
+      factory.orExpression(factory.booleanLiteral(false), n)
+    );
+    Expression parsed = Parser.parseExpression(
+      "test",
+      "(if (and (< n 0) true) (let m 0 m) (or false n))"
+    );
+    Assertions.assertEquals(parsed, made);
+    Assertions.assertSame(made, factory.intern(parsed));
+    Assertions.assertSame(
+      factory.definition("f", List.of("n"), made),
+      factory.intern(new Definition("f", List.of("n"), parsed))
+    );
+  }
+
+  @Test
+  public void testEqualHashes() {
+    Expression first = Parser.parseExpression("test", "(let x (+ 1 2) (if (< x 3) x 0))");
+    Expression second = Parser.parseExpression("test", "(let x (+ 1 2) (if (< x 3) x 0))");
+    Assertions.assertNotSame(first, second);
+    Assertions.assertEquals(first, second);
+    Assertions.assertEquals(first.hashCode(), second.hashCode());
+    Assertions.assertNotEquals(
+      Parser.parseExpression("test", "(+ 1 2)"),
+      Parser.parseExpression("test", "(+ 2 1)")
+    );
+  }
+
+  @Test
+  public void testResolvedAndLinkedTreesKeptApart() {
+    AstFactory factory = new AstFactory();
+    String source = "(define (f n) (let m (+ n 1) m)) (f 1)";
+    Program parsed = factory.intern(Parser.parseProgram("test", source));
+    Program resolved = factory.intern(Resolver.resolve(parsed));
+    Program linked = factory.intern(Linker.link(resolved));
+    Assertions.assertNotEquals(parsed.getDefinitions().get(0), resolved.getDefinitions().get(0));
+    Assertions.assertNotSame(
+      resolved.getDefinitions().get(0).getBody(),
+      linked.getDefinitions().get(0).getBody()
+    );
+    LetExpression let = (LetExpression) linked.getDefinitions().get(0).getBody();
+    Assertions.assertTrue(((FunctionCall) let.getRhs()).isLinked());
+    Assertions.assertEquals(
+      resolved.getDefinitions().get(0).getFrameSize(),
+      linked.getDefinitions().get(0).getFrameSize()
+    );
+    Assertions.assertEquals(2, new Driver().evaluateProgram(linked).asInteger());
+  }
+
+  @Test
+  public void testSeparatelyLinkedProgramsShared() {
+    AstFactory factory = new AstFactory();
+    String source = "(define (sq x) (* x x)) (sq 3)";
+    Program first = Linker.link(Parser.parseProgram("test", source));
+    Program second = Linker.link(Parser.parseProgram("test", source));
+    Assertions.assertEquals(first.getDefinitions(), second.getDefinitions());
+    Assertions.assertEquals(first.getExpression(), second.getExpression());
+    Assertions.assertSame(
+      factory.intern(first).getDefinitions().get(0).getBody(),
+      factory.intern(second).getDefinitions().get(0).getBody()
+    );
+    // a call linked to a different primitive is a different call
+    List<Expression> arguments = List.of(new IntLiteral(1), new IntLiteral(2));
+    Assertions.assertEquals(
+      new FunctionCall("/", arguments, new DivideOperator(), -1),
+      new FunctionCall("/", arguments, new DivideOperator(), -1)
+    );
+    Assertions.assertNotEquals(
+      new FunctionCall("/", arguments, new DivideOperator(), -1),
+      new FunctionCall("/", arguments, new UncheckedDivideOperator(), -1)
+    );
+  }
+
+  @Test
+  public void testCounters() {
+    AstFactory factory = new AstFactory();
+    factory.intern(Parser.parseExpression("test", "(+ 1 1)"));
+    // the call and one literal are new; the second literal is found
+    Assertions.assertEquals(2, factory.getMisses());
+    Assertions.assertEquals(1, factory.getHits());
+    Assertions.assertEquals(2, factory.size());
+    factory.intern(Parser.parseExpression("test", "(+ 1 1)"));
+    Assertions.assertEquals(2, factory.getHits());
+    Assertions.assertEquals(2, factory.size());
+  }
+}
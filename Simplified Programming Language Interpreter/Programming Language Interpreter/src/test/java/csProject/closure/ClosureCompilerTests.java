@@ -0,0 +1,122 @@
+package csProject.closure;
+
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.core.Value;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.evalExceptions.UndefinedVariableException;
+import csProject.evaluator.Driver;
+import csProject.evaluator.ExecutionMode;
+import csProject.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ClosureCompilerTests {
+  private final Driver treeWalker = new Driver(ExecutionMode.TREE_WALKING);
+  private final Driver closures = new Driver(ExecutionMode.CLOSURE);
+
+  @Test
+  public void testLiteralsAndVariables() {
+    assertSameResult(new IntValue(4), "(let x 4 x)");
+    assertSameResult(new BooleanValue(true), "true");
+    Assertions.assertThrows(
+        UndefinedVariableException.class,
+        () -> closures.evaluateFromSource("x")
+    );
+  }
+
+  @Test
+  public void testFunctionCall() {
+    assertSameResult(new IntValue(3), "(+ 1 2)");
+    assertSameResult(new IntValue(3), "(define (f) 3) (f)");
+    assertSameResult(new IntValue(12), "(define (f x y) (* x y)) (f 3 4)");
+  }
+
+  @Test
+  public void testIfExpression() {
+    assertSameResult(new IntValue(1), "(let x 3 (if (> x 0) 1 2))");
+    assertSameResult(new IntValue(2), "(let x -2 (if (> x 0) 1 2))");
+    Assertions.assertThrows(
+        TypeError.class,
+        () -> closures.evaluateFromSource("(let x 45 (if x 1 2))")
+    );
+  }
+
+  @Test
+  public void testRecursiveFunctionCall() {
+    assertSameResult(
+        new IntValue(720),
+        "(define (fact x) (if (== x 0) 1 (* x (fact (- x 1))))) (fact 6)"
+    );
+    assertSameResult(
+        new BooleanValue(true),
+        "(define (even n) (if (== n 0) true (odd (- n 1)))) "
+            + "(define (odd n) (if (== n 0) false (even (- n 1)))) "
+            + "(even 10)"
+    );
+  }
+
+  @Test
+  public void testFunctionCallErrors() {
+    Assertions.assertThrows(
+        ArityMismatchException.class,
+        () -> closures.evaluateFromSource("(define (f x y) 3) (f 1)")
+    );
+    Assertions.assertThrows(
+        UndefinedFunctionException.class,
+        () -> closures.evaluateFromSource("(f 3)")
+    );
+    // the driver links programs first, so it rejects such calls even if they
+    // are never reached; compiled on its own, the call only fails when reached
+    Assertions.assertThrows(
+        UndefinedFunctionException.class,
+        () -> closures.evaluateFromSource("(if true 1 (f 3))")
+    );
+    Assertions.assertEquals(
+        new IntValue(1),
+        ClosureCompiler.compile(Parser.parseProgram("test", "(if true 1 (f 3))")).run()
+    );
+  }
+
+  @Test
+  public void testAndOrExpressions() {
+    assertSameResult(new BooleanValue(true), "(and true true)");
+    assertSameResult(new BooleanValue(false), "(and true false)");
+    assertSameResult(new BooleanValue(false), "(and false (/ 3 0))");
+    assertSameResult(new BooleanValue(true), "(or false true)");
+    assertSameResult(new BooleanValue(false), "(or false false)");
+    assertSameResult(new BooleanValue(true), "(or true (/ 3 0))");
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> closures.evaluateFromSource("(and true (/ 3 0))")
+    );
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> closures.evaluateFromSource("(or false (/ 3 0))")
+    );
+  }
+
+  @Test
+  public void testLetExpression() {
+    assertSameResult(new IntValue(14), "(let x 7 (* x 2))");
+    assertSameResult(new IntValue(12), "(let x 1 (let y 4 (let x 3 (* x y))))");
+    assertSameResult(new IntValue(5), "(let x (let y 2 (+ y 1)) (let y 2 (+ x y)))");
+  }
+
+  @Test
+  public void testCompiledProgramCanBeRerun() {
+    CompiledProgram program = ClosureCompiler.compile(
+        Parser.parseProgram("test", "(define (sq x) (* x x)) (sq (sq 3))")
+    );
+    Assertions.assertEquals(new IntValue(81), program.run());
+    Assertions.assertEquals(new IntValue(81), program.run());
+    Assertions.assertEquals(1, program.lookup("sq").getArity());
+  }
+
+  private void assertSameResult(Value expected, String source) {
+    Assertions.assertEquals(expected, treeWalker.evaluateFromSource(source));
+    Assertions.assertEquals(expected, closures.evaluateFromSource(source));
+  }
+}
@@ -49,4 +49,29 @@ public class EnvironmentTests {
     Assertions.assertEquals(5, env.lookup("y"));
     Assertions.assertNull(env.lookup("f"));
   }
+
+  @Test
+  public void testReboundEnvironment() {
+    Environment<Integer> base = new Environment<>(
+        List.of("x", "y"),
+        List.of(1, 2)
+    );
+
+    Environment<Integer> env = base.extend("a", 3).rebind("y", 4).rebind("b", 5);
+    Assertions.assertEquals(1, env.lookup("x"));
+    Assertions.assertEquals(4, env.lookup("y"));
+    Assertions.assertEquals(3, env.lookup("a"));
+    Assertions.assertEquals(5, env.lookup("b"));
+    // the original is unchanged
+    Assertions.assertEquals(2, base.lookup("y"));
+    Assertions.assertNull(base.lookup("b"));
+
+    // rebinding the same name does not grow the chain
+    Environment<Integer> loop = base;
+    for (int i = 0; i < 100000; i++) {
+      loop = loop.rebind("x", i).rebind("z", -i);
+    }
+    Assertions.assertEquals(99999, loop.lookup("x"));
+    Assertions.assertEquals(-99999, loop.lookup("z"));
+  }
 }
@@ -0,0 +1,36 @@
+package csProject.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TaggedValueTests {
+  @Test
+  public void testRoundTrip() {
+    int[] ints = {0, 1, -1, 42, Integer.MIN_VALUE, Integer.MAX_VALUE};
+    for (int i : ints) {
+      long tagged = TaggedValue.ofInt(i);
+      Assertions.assertTrue(TaggedValue.isInt(tagged));
+      Assertions.assertFalse(TaggedValue.isBoolean(tagged));
+      Assertions.assertEquals(i, TaggedValue.asInteger(tagged));
+      Assertions.assertEquals(IntValue.of(i), TaggedValue.toValue(tagged));
+      Assertions.assertEquals(tagged, TaggedValue.of(IntValue.of(i)));
+    }
+    Assertions.assertTrue(TaggedValue.asBoolean(TaggedValue.ofBoolean(true)));
+    Assertions.assertFalse(TaggedValue.asBoolean(TaggedValue.ofBoolean(false)));
+    Assertions.assertSame(BooleanValue.TRUE, TaggedValue.toValue(TaggedValue.TRUE));
+    Assertions.assertEquals(TaggedValue.FALSE, TaggedValue.of(BooleanValue.FALSE));
+  }
+
+  @Test
+  public void testKindsAreKeptApart() {
+    Assertions.assertNotEquals(TaggedValue.ofInt(1), TaggedValue.TRUE);
+    Assertions.assertNotEquals(TaggedValue.ofInt(0), TaggedValue.FALSE);
+    Assertions.assertNotEquals(0L, TaggedValue.ofInt(0));
+    Assertions.assertNotEquals(0L, TaggedValue.FALSE);
+    Assertions.assertThrows(TypeError.class, () -> TaggedValue.asInteger(TaggedValue.TRUE));
+    Assertions.assertThrows(TypeError.class, () -> TaggedValue.asBoolean(TaggedValue.ofInt(1)));
+    Assertions.assertThrows(IllegalArgumentException.class, () -> TaggedValue.toValue(0L));
+    Assertions.assertEquals("-7", TaggedValue.format(TaggedValue.ofInt(-7)));
+    Assertions.assertEquals("false", TaggedValue.format(TaggedValue.FALSE));
+  }
+}
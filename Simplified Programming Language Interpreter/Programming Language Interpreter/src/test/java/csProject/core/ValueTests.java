@@ -0,0 +1,33 @@
+package csProject.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ValueTests {
+  @Test
+  public void testCanonicalBooleans() {
+    Assertions.assertSame(BooleanValue.TRUE, BooleanValue.valueOf(true));
+    Assertions.assertSame(BooleanValue.FALSE, BooleanValue.valueOf(false));
+    Assertions.assertEquals(new BooleanValue(true), BooleanValue.TRUE);
+    Assertions.assertEquals(new BooleanValue(false).hashCode(), BooleanValue.FALSE.hashCode());
+  }
+
+  @Test
+  public void testSmallIntegerCache() {
+    Assertions.assertSame(IntValue.of(0), IntValue.of(0));
+    Assertions.assertSame(IntValue.of(-128), IntValue.of(-128));
+    Assertions.assertSame(IntValue.of(1023), IntValue.of(1023));
+    Assertions.assertEquals(new IntValue(42), IntValue.of(42));
+    Assertions.assertEquals(new IntValue(42).hashCode(), IntValue.of(42).hashCode());
+
+    // values outside the cache are still equal, just not shared
+    Assertions.assertEquals(IntValue.of(1 << 20), IntValue.of(1 << 20));
+    Assertions.assertEquals(Integer.MIN_VALUE, IntValue.of(Integer.MIN_VALUE).getValue());
+  }
+
+  @Test
+  public void testIntAndBooleanValuesAreNeverEqual() {
+    Assertions.assertNotEquals(IntValue.of(1), BooleanValue.TRUE);
+    Assertions.assertNotEquals(IntValue.of(0), BooleanValue.FALSE);
+  }
+}
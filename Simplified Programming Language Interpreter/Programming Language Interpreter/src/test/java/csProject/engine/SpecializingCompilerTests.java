@@ -0,0 +1,138 @@
+package csProject.engine;
+
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.core.Value;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.evalExceptions.UndefinedVariableException;
+import csProject.evaluator.Driver;
+import csProject.evaluator.ExecutionMode;
+import csProject.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SpecializingCompilerTests {
+  private final Driver driver = new Driver(ExecutionMode.SELF_SPECIALIZING);
+
+  @Test
+  public void testSpecializedEvaluation() {
+    Assertions.assertEquals(new IntValue(3), driver.evaluateFromSource("(+ 1 2)"));
+    Assertions.assertEquals(new BooleanValue(false), driver.evaluateFromSource("(not (!= 3 4))"));
+    Assertions.assertEquals(
+        new IntValue(9),
+        driver.evaluateFromSource("(define (f b x) (let x (if b x 0) (* x x))) (f (or false true) 3)")
+    );
+    Assertions.assertEquals(
+        new BooleanValue(true),
+        driver.evaluateFromSource(
+            "(define (even n) (if (== n 0) true (odd (- n 1)))) "
+                + "(define (odd n) (if (== n 0) false (even (- n 1)))) "
+                + "(even 10)"
+        )
+    );
+  }
+
+  @Test
+  public void testRunsReuseSpecializations() {
+    SpecializingProgram program = compile(
+        "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) (fib 15)"
+    );
+    Assertions.assertEquals(new IntValue(610), program.run());
+    Assertions.assertEquals(new IntValue(610), program.run());
+  }
+
+  @Test
+  public void testDespecializationOnTypeMismatch() {
+    // the + in f specializes to ints on the first call, then sees a boolean
+    SpecializingProgram program = compile("(define (f x) (+ x 1)) (+ (f 1) (f true))");
+    Assertions.assertThrows(TypeError.class, program::run);
+    Assertions.assertThrows(TypeError.class, program::run);
+    // the outer + sees the error in every activation of f, but is only replaced once
+    SpecializingProgram recursive =
+        compile("(define (f x) (+ 1 (if (== x 0) (+ true 1) (f (- x 1))))) (f 2)");
+    Assertions.assertThrows(TypeError.class, recursive::run);
+    Assertions.assertThrows(TypeError.class, recursive::run);
+  }
+
+  @Test
+  public void testOperandsCheckedAfterEvaluation() {
+    // both operands are evaluated before either is checked, even when the
+    // left one comes from a call
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> driver.evaluateFromSource("(define (t) true) (+ (t) (/ 1 0))")
+    );
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> driver.evaluateFromSource("(let b true (< b (mod 1 0)))")
+    );
+    Assertions.assertThrows(ArithmeticException.class, () -> driver.evaluateFromSource("(/ true 0)"));
+  }
+
+  @Test
+  public void testCallErrorsAreRaisedWhenReached() {
+    // the driver would reject these programs up front, when linking them
+    Assertions.assertEquals(new IntValue(1), compile("(if true 1 (f 1))").run());
+    Assertions.assertThrows(
+        UndefinedFunctionException.class,
+        () -> compile("(f 1)").run()
+    );
+    Assertions.assertThrows(
+        ArityMismatchException.class,
+        () -> compile("(define (f x) x) (f 1 2)").run()
+    );
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> compile("(define (f x) x) (f (/ 1 0) 2)").run()
+    );
+    Assertions.assertThrows(
+        UndefinedVariableException.class,
+        () -> driver.evaluateFromSource("(let x 1 y)")
+    );
+  }
+
+  @Test
+  public void testConstantArgumentsAreSpecialized() {
+    // (sum i acc) always calls step with the same mode and modulus
+    String source = "(define (step mode x m) (if mode (mod (* x x) m) (mod (+ x 1) m)))"
+        + "(define (sum i acc) (if (== i 0) acc (sum (- i 1) (+ acc (step true i 7)))))"
+        + "(sum 100 0)";
+    SpecializingProgram program = compile(source);
+    Value expected = new Driver().evaluateFromSource(source);
+    Assertions.assertEquals(expected, program.run());
+    Assertions.assertEquals(1, program.lookup("step").getSpecializationCount());
+    // sum's own recursive call passes changing arguments
+    Assertions.assertEquals(0, program.lookup("sum").getSpecializationCount());
+    Assertions.assertEquals(expected, program.run());
+    Assertions.assertEquals(1, program.lookup("step").getSpecializationCount());
+  }
+
+  @Test
+  public void testGuardFallsBackToGenericBody() {
+    // the mode is true for the first 90 calls, then false
+    String source = "(define (step mode x) (if mode (* x 2) (- 0 x)))"
+        + "(define (sum i acc) (if (== i 0) acc (sum (- i 1) (+ acc (step (> i 10) i)))))"
+        + "(sum 100 0)";
+    SpecializingProgram program = compile(source);
+    Value expected = new Driver().evaluateFromSource(source);
+    Assertions.assertEquals(expected, program.run());
+    Assertions.assertEquals(1, program.lookup("step").getSpecializationCount());
+    Assertions.assertEquals(expected, program.run());
+  }
+
+  @Test
+  public void testSpecializationKeepsErrors() {
+    // the constant divisor is 0, which must still fail in the specialization
+    // once the call site passes -1, on its 51st call
+    String source = "(define (f x d) (if (< x 0) (/ x d) x))"
+        + "(define (loop i) (+ (f (- i 1) 0) (if (== i 0) 0 (loop (- i 1)))))"
+        + "(loop 50)";
+    Assertions.assertThrows(ArithmeticException.class, () -> compile(source).run());
+  }
+
+  private SpecializingProgram compile(String source) {
+    return SpecializingCompiler.compile(Parser.parseProgram("test", source));
+  }
+}
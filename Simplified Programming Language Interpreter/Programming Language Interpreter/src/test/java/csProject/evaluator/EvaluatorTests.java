@@ -265,6 +265,67 @@ public class EvaluatorTests {
     );
   }
 
+  @Test
+  public void testTailCalls() {
+    Driver driver = new Driver();
+    Assertions.assertEquals(
+        new IntValue(705082704),
+        driver.evaluateFromSource(
+            "(define (loop n acc) (if (== n 0) acc (loop (- n 1) (+ acc n)))) "
+                + "(loop 100000 0)"
+        )
+    );
+
+    // mutual recursion through let, and, or
+    Assertions.assertEquals(
+        new BooleanValue(true),
+        driver.evaluateFromSource(
+            "(define (even n) (or (== n 0) (let m (- n 1) (odd m)))) "
+                + "(define (odd n) (and (!= n 0) (even (- n 1)))) "
+                + "(even 200000)"
+        )
+    );
+
+    // a tail call under `and` must still produce a boolean
+    try {
+      driver.evaluateFromSource("(define (f) 5) (define (g) (and true (f))) (g)");
+      Assertions.fail("expected exception");
+    } catch (TypeError e) {
+      // NOP
+    }
+  }
+
+  @Test
+  public void testEvaluatorRestoresActivationAfterCalls() {
+    Environment<Definition> definitions = new Environment<Definition>(
+        List.of("f", "g"),
+        List.of(
+            new Definition("f", List.of("x"), Parser.parseExpression("test", "(let y 1 (+ x y))")),
+            new Definition("g", List.of("x"), Parser.parseExpression("test", "(/ x 0)"))
+        )
+    );
+    Evaluator evaluator = new Evaluator(
+        definitions,
+        new Environment<Value>().extend("x", new IntValue(10))
+    );
+
+    Assertions.assertEquals(
+        new IntValue(13),
+        Parser.parseExpression("test", "(+ (f 2) x)").accept(evaluator)
+    );
+    try {
+      Parser.parseExpression("test", "(g 1)").accept(evaluator);
+      Assertions.fail("expected exception");
+    } catch (ArithmeticException e) {
+      // NOP
+    }
+    // the caller's variables are visible again after both calls
+    Assertions.assertEquals(
+        new IntValue(10),
+        Parser.parseExpression("test", "x").accept(evaluator)
+    );
+  }
+
   private Value evaluateExpr(
       String exprSource,
       Environment<Value> variableBindings
@@ -285,4 +346,89 @@ public class EvaluatorTests {
         new Evaluator(definitions, variableBindings)
     );
   }
+
+  @Test
+  public void testUnboxedEvaluation() {
+    Evaluator evaluator = new Evaluator(
+        new Environment<Definition>(),
+        new Environment<Value>().extend("x", new IntValue(6)).extend("b", new BooleanValue(true))
+    );
+
+    Assertions.assertEquals(
+        20,
+        evaluator.evalInt(Parser.parseExpression("test", "(+ (* x 3) (- 4 (/ x 3)))"))
+    );
+    Assertions.assertTrue(
+        evaluator.evalBoolean(Parser.parseExpression("test", "(and b (not (< x (mod 7 4))))"))
+    );
+    Assertions.assertEquals(
+        new BooleanValue(false),
+        Parser.parseExpression("test", "(or (== x 5) (> 0 x))").accept(evaluator)
+    );
+    Assertions.assertThrows(
+        TypeError.class,
+        () -> evaluator.evalInt(Parser.parseExpression("test", "(+ b 1)"))
+    );
+    Assertions.assertThrows(
+        TypeError.class,
+        () -> evaluator.evalBoolean(Parser.parseExpression("test", "(and x true)"))
+    );
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> evaluator.evalInt(Parser.parseExpression("test", "(mod x 0)"))
+    );
+  }
+
+  @Test
+  public void testOperandsCheckedAfterEvaluation() {
+    Driver driver = new Driver();
+    // the divisor is checked first, and both operands are evaluated before
+    // either is checked
+    Assertions.assertThrows(ArithmeticException.class, () -> driver.evaluateFromSource("(/ true 0)"));
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> driver.evaluateFromSource("(+ true (/ 1 0))")
+    );
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> driver.evaluateFromSource("(let b true (< b (mod 1 0)))")
+    );
+    Assertions.assertThrows(
+        StackOverflowError.class,
+        () -> driver.evaluateFromSource("(define (loop) (+ 1 (loop))) (- true (loop))")
+    );
+    TypeError error = Assertions.assertThrows(
+        TypeError.class,
+        () -> driver.evaluateFromSource("(if (< true false) 1 2)")
+    );
+    Assertions.assertTrue(error.getMessage().contains("true"), error.getMessage());
+    error = Assertions.assertThrows(
+        TypeError.class,
+        () -> driver.evaluateFromSource("(/ true false)")
+    );
+    Assertions.assertTrue(error.getMessage().contains("false"), error.getMessage());
+  }
+
+  @Test
+  public void testDynamicScoping() {
+    String source = "(define (f y) x) (define (g x) (f 0)) (let x 1 (+ (f 0) (g 2)))";
+    for (ExecutionMode mode : ExecutionMode.values()) {
+      Assertions.assertEquals(
+          new IntValue(3),
+          new Driver(mode).evaluateFromSource(source),
+          mode.name()
+      );
+    }
+    // the callee's parameters shadow the caller's variables of the same name
+    Assertions.assertEquals(
+        new IntValue(4),
+        new Driver().evaluateFromSource("(define (f x) (h x)) (define (h y) (+ x y)) (let x 1 (f 2))")
+    );
+    // rebinding the loop's parameter keeps the environment from growing
+    Assertions.assertEquals(
+        new IntValue(7),
+        new Driver().evaluateFromSource(
+            "(define (loop n) (if (< n 1) k (loop (- n 1)))) (let k 7 (loop 1000000))")
+    );
+  }
 }
@@ -0,0 +1,79 @@
+package csProject.evaluator;
+
+import csProject.ast.FunctionCall;
+import csProject.ast.LetExpression;
+import csProject.ast.Program;
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.parser.Parser;
+import csProject.primitives.AddOperator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LinkerTests {
+
+  @Test
+  public void testCallsAreBoundToTheirTargets() {
+    Program program = Linker.link(
+        Parser.parseProgram("test", "(define (f x) (+ x 1)) (define (g x) (f x)) (g 2)")
+    );
+    FunctionCall plus = (FunctionCall) program.getDefinitions().get(0).getBody();
+    Assertions.assertTrue(plus.isLinked());
+    Assertions.assertTrue(plus.getPrimitive() instanceof AddOperator);
+    Assertions.assertEquals(-1, plus.getDefinitionIndex());
+
+    FunctionCall callF = (FunctionCall) program.getDefinitions().get(1).getBody();
+    Assertions.assertNull(callF.getPrimitive());
+    Assertions.assertEquals(0, callF.getDefinitionIndex());
+    Assertions.assertEquals(1, ((FunctionCall) program.getExpression()).getDefinitionIndex());
+  }
+
+  @Test
+  public void testLaterDefinitionsWin() {
+    Program program = Linker.link(
+        Parser.parseProgram("test", "(define (f) (g)) (define (f) 2) (f)")
+    );
+    // the shadowed definition is never called, so its call of g is not checked
+    Assertions.assertFalse(((FunctionCall) program.getDefinitions().get(0).getBody()).isLinked());
+    Assertions.assertEquals(1, ((FunctionCall) program.getExpression()).getDefinitionIndex());
+    Assertions.assertEquals(new IntValue(2), new Driver().evaluateProgram(program));
+  }
+
+  @Test
+  public void testResolvedSlotsArePreserved() {
+    Program program = Linker.link(
+        Resolver.resolve(Parser.parseProgram("test", "(define (f x) (let y x (+ x y))) (f 2)"))
+    );
+    Assertions.assertEquals(2, program.getDefinitions().get(0).getFrameSize());
+    Assertions.assertEquals(1, ((LetExpression) program.getDefinitions().get(0).getBody()).getSlot());
+    Assertions.assertEquals(
+        new IntValue(4),
+        program.getExpression().accept(new Evaluator(program))
+    );
+  }
+
+  @Test
+  public void testErrorsAreReportedBeforeEvaluation() {
+    Driver driver = new Driver();
+    Assertions.assertThrows(
+        UndefinedFunctionException.class,
+        () -> driver.evaluateFromSource("(if true 1 (f 3))")
+    );
+    Assertions.assertThrows(
+        ArityMismatchException.class,
+        () -> driver.evaluateFromSource("(define (f x y) 3) (if true 1 (f 1))")
+    );
+    Assertions.assertThrows(
+        ArityMismatchException.class,
+        () -> driver.evaluateFromSource("(and false (not true false))")
+    );
+    // arguments are no longer evaluated before the error is raised
+    Assertions.assertThrows(
+        UndefinedFunctionException.class,
+        () -> driver.evaluateFromSource("(f (/ 1 0))")
+    );
+    Assertions.assertEquals(new BooleanValue(true), driver.evaluateFromSource("(not false)"));
+  }
+}
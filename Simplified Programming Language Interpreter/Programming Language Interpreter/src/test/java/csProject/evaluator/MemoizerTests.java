@@ -0,0 +1,131 @@
+package csProject.evaluator;
+
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.Value;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MemoizerTests {
+  private static final String FIB =
+      "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) ";
+
+  @Test
+  public void testMemoizedFib() {
+    Memoizer memoizer = Memoizer.forAllDefinitions(Memoizer.DEFAULT_CAPACITY);
+    Driver driver = new Driver(ExecutionMode.TREE_WALKING, memoizer);
+    Assertions.assertEquals(new IntValue(832040), driver.evaluateFromSource(FIB + "(fib 30)"));
+    // one miss per distinct argument, and a hit for the second subcall of
+    // each fib(n) with n >= 3
+    Assertions.assertEquals(31, memoizer.getCache("fib").getMisses());
+    Assertions.assertEquals(28, memoizer.getCache("fib").getHits());
+
+    Assertions.assertEquals(new IntValue(832040), driver.evaluateFromSource(FIB + "(fib 30)"));
+    Assertions.assertEquals(29, memoizer.getHits());
+    Assertions.assertEquals(31, memoizer.getMisses());
+  }
+
+  @Test
+  public void testOnlySelectedDefinitionsAreMemoized() {
+    Memoizer memoizer = Memoizer.forDefinitions(Set.of("g"), 64);
+    Driver driver = new Driver(ExecutionMode.TREE_WALKING, memoizer);
+    Assertions.assertEquals(
+        new IntValue(4),
+        driver.evaluateFromSource("(define (f x) (+ x 1)) (define (g x) (f x)) (+ (g 1) (g 1))")
+    );
+    Assertions.assertNull(memoizer.getCache("f"));
+    Assertions.assertEquals(1, memoizer.getCache("g").getHits());
+    Assertions.assertEquals(1, memoizer.getCache("g").getMisses());
+  }
+
+  @Test
+  public void testProgramsKeepSeparateCaches() {
+    Memoizer memoizer = Memoizer.forAllDefinitions(64);
+    Driver driver = new Driver(ExecutionMode.TREE_WALKING, memoizer);
+    Assertions.assertEquals(new IntValue(2), driver.evaluateFromSource("(define (f x) (+ x 1)) (f 1)"));
+    Assertions.assertEquals(new IntValue(10), driver.evaluateFromSource("(define (f x) (* x 10)) (f 1)"));
+    // f is the same in both programs, but g differs
+    Assertions.assertEquals(
+        new IntValue(2),
+        driver.evaluateFromSource("(define (g x) (+ x 1)) (define (f x) (g x)) (f 1)")
+    );
+    Assertions.assertEquals(
+        new IntValue(10),
+        driver.evaluateFromSource("(define (g x) (* x 10)) (define (f x) (g x)) (f 1)")
+    );
+    Assertions.assertEquals(0, memoizer.getHits());
+    // the same definitions share their caches
+    Assertions.assertEquals(
+        new IntValue(10),
+        driver.evaluateFromSource("(define (g x) (* x 10)) (define (f x) (g x)) (+ (f 1) 0)")
+    );
+    Assertions.assertEquals(1, memoizer.getHits());
+  }
+
+  @Test
+  public void testBooleanAndIntArgumentsAreKeptApart() {
+    Memoizer memoizer = Memoizer.forAllDefinitions(64);
+    Driver driver = new Driver(ExecutionMode.TREE_WALKING, memoizer);
+    Assertions.assertEquals(
+        new BooleanValue(true),
+        driver.evaluateFromSource("(define (id x) x) (and (id true) (== (id 1) 1))")
+    );
+    Assertions.assertEquals(2, memoizer.getCache("id").getMisses());
+  }
+
+  @Test
+  public void testBoundedCapacity() {
+    MemoCache cache = new MemoCache(20);
+    Assertions.assertEquals(32, cache.getCapacity());
+    for (int i = 0; i < 1000; i++) {
+      cache.store(i, 0, new IntValue(i));
+    }
+    int cached = 0;
+    for (int i = 0; i < 1000; i++) {
+      Value value = cache.lookup(i, 0);
+      if (value != null) {
+        Assertions.assertEquals(new IntValue(i), value);
+        cached++;
+      }
+    }
+    Assertions.assertTrue(cached <= cache.getCapacity());
+    Assertions.assertEquals(1000, cache.getHits() + cache.getMisses());
+
+    cache.clear();
+    Assertions.assertNull(cache.lookup(999, 0));
+    Assertions.assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testKeysPackTwoArguments() {
+    Value[] arguments = {new IntValue(-1), BooleanValue.TRUE};
+    Assertions.assertEquals(0x1_ffff_ffffL, MemoCache.key(arguments, 2));
+    Assertions.assertEquals(2, MemoCache.shape(arguments, 2));
+  }
+
+  @Test
+  public void testConcurrentEvaluations() throws Exception {
+    Memoizer memoizer = Memoizer.forAllDefinitions(256);
+    Driver driver = new Driver(ExecutionMode.TREE_WALKING, memoizer);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Value>> results = new ArrayList<>();
+      for (int i = 0; i < 16; i++) {
+        int n = 20 + i % 4;
+        results.add(executor.submit(() -> driver.evaluateFromSource(FIB + "(fib " + n + ")")));
+      }
+      int[] expected = {6765, 10946, 17711, 28657};
+      for (int i = 0; i < results.size(); i++) {
+        Assertions.assertEquals(new IntValue(expected[i % 4]), results.get(i).get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
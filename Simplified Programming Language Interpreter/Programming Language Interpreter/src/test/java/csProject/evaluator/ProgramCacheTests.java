@@ -0,0 +1,147 @@
+package csProject.evaluator;
+
+import csProject.ast.FunctionCall;
+import csProject.ast.Program;
+import csProject.core.IntValue;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.parser.ParseError;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ProgramCacheTests {
+  private static final String FIB =
+    "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) (fib 15)";
+
+  @Test
+  public void testHitsAndMisses() {
+    ProgramCache cache = new ProgramCache();
+    Program first = cache.get(FIB);
+    Assertions.assertSame(first, cache.get(FIB));
+    Assertions.assertSame(first, cache.get(new String(FIB)));
+    Assertions.assertNotSame(first, cache.get("(+ 1 2)"));
+    Assertions.assertEquals(2, cache.getMisses());
+    Assertions.assertEquals(2, cache.getHits());
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals(FIB.length() + 7, cache.getWeight());
+    // the cached program is linked
+    Assertions.assertTrue(first.getExpression() instanceof FunctionCall call && call.isLinked());
+
+    cache.clear();
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertEquals(0, cache.getWeight());
+    Assertions.assertEquals(0, cache.getHits());
+  }
+
+  @Test
+  public void testProgramsShareTrees() {
+    ProgramCache cache = new ProgramCache();
+    Program first = cache.get("(define (sq x) (* x x)) (sq 3)");
+    Program second = cache.get("(define (sq x) (* x x)) (sq 4)");
+    Assertions.assertSame(first.getDefinitions().get(0), second.getDefinitions().get(0));
+  }
+
+  @Test
+  public void testPreparedFormsAreCachedPerMode() {
+    ProgramCache cache = new ProgramCache();
+    for (ExecutionMode mode : ExecutionMode.values()) {
+      PreparedProgram prepared = cache.get(FIB, mode);
+      Assertions.assertSame(prepared, cache.get(FIB, mode), mode.name());
+      Assertions.assertEquals(new IntValue(610), prepared.run(null, null), mode.name());
+      Assertions.assertEquals(new IntValue(610), prepared.run(null, null), mode.name());
+    }
+    Assertions.assertNotSame(
+        cache.get(FIB, ExecutionMode.JVM_BYTECODE),
+        cache.get(FIB, ExecutionMode.VIRTUAL_MACHINE)
+    );
+    Assertions.assertEquals(1, cache.getMisses());
+    Assertions.assertEquals(1, cache.size());
+
+    // drivers sharing the cache each run the form of their own mode
+    Memoizer memoizer = Memoizer.forAllDefinitions(64);
+    Driver walking = new Driver(ExecutionMode.TREE_WALKING, memoizer, null, cache);
+    Driver compiled = new Driver(ExecutionMode.JVM_BYTECODE, memoizer, null, cache);
+    Assertions.assertEquals(new IntValue(610), walking.evaluateFromSource(FIB));
+    Assertions.assertEquals(new IntValue(610), compiled.evaluateFromSource(FIB));
+    Assertions.assertEquals(16, memoizer.getMisses());
+  }
+
+  @Test
+  public void testEviction() {
+    ProgramCache cache = new ProgramCache(20);
+    Program one = cache.get("(+ 1 1)");
+    cache.get("(+ 2 2)");
+    // a hit makes (+ 1 1) the most recently used
+    cache.get("(+ 1 1)");
+    cache.get("(+ 3 3)");
+    Assertions.assertEquals(1, cache.getEvictions());
+    Assertions.assertEquals(2, cache.size());
+    Assertions.assertEquals(14, cache.getWeight());
+    Assertions.assertSame(one, cache.get("(+ 1 1)"));
+    long misses = cache.getMisses();
+    cache.get("(+ 2 2)");
+    Assertions.assertEquals(misses + 1, cache.getMisses());
+
+    // a program heavier than the whole cache is not kept
+    cache.get("(+ 100000000 100000000)");
+    Assertions.assertTrue(cache.getWeight() <= cache.getMaxWeight());
+  }
+
+  @Test
+  public void testErrorsNotCached() {
+    ProgramCache cache = new ProgramCache();
+    Assertions.assertThrows(ParseError.class, () -> cache.get("(let x 1)"));
+    Assertions.assertThrows(UndefinedFunctionException.class, () -> cache.get("(f 1)"));
+    Assertions.assertThrows(UndefinedFunctionException.class, () -> cache.get("(f 1)"));
+    Assertions.assertEquals(0, cache.size());
+    Assertions.assertEquals(0, cache.getWeight());
+    Assertions.assertEquals(3, cache.getMisses());
+  }
+
+  @Test
+  public void testSingleFlight() throws Exception {
+    ProgramCache cache = new ProgramCache();
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Program>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return cache.get(FIB);
+        }));
+      }
+      start.countDown();
+      Program program = results.get(0).get();
+      for (Future<Program> result : results) {
+        Assertions.assertSame(program, result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+    Assertions.assertEquals(1, cache.getMisses());
+    Assertions.assertEquals(threads - 1, cache.getHits());
+  }
+
+  @Test
+  public void testDriver() {
+    ProgramCache cache = new ProgramCache();
+    Driver driver = new Driver(ExecutionMode.TREE_WALKING, null, null, cache);
+    Driver vm = new Driver(ExecutionMode.VIRTUAL_MACHINE, null, null, cache);
+    Assertions.assertEquals(new IntValue(610), driver.evaluateFromSource(FIB));
+    Assertions.assertEquals(new IntValue(610), vm.evaluateFromSource(FIB));
+    Assertions.assertEquals(new IntValue(610), driver.evaluateFromSource(FIB));
+    Assertions.assertEquals(1, cache.getMisses());
+    Assertions.assertEquals(2, cache.getHits());
+    Assertions.assertThrows(
+      UndefinedFunctionException.class,
+      () -> driver.evaluateFromSource("(g 1)")
+    );
+  }
+}
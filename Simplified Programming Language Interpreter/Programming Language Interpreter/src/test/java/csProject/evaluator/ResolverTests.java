@@ -0,0 +1,92 @@
+package csProject.evaluator;
+
+import csProject.ast.Definition;
+import csProject.ast.FunctionCall;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.Program;
+import csProject.ast.VariableReference;
+import csProject.core.IntValue;
+import csProject.evalExceptions.UndefinedVariableException;
+import csProject.parser.Parser;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ResolverTests {
+
+  @Test
+  public void testParametersAndLetsGetFlatSlots() {
+    Program program = Resolver.resolve(
+        Parser.parseProgram("test", "(define (f x y) (let z (+ x y) (* z y))) (f 1 2)")
+    );
+    Definition f = program.getDefinitions().get(0);
+    Assertions.assertEquals(3, f.getFrameSize());
+    Assertions.assertEquals(
+        new LetExpression(
+            "z",
+            new FunctionCall(
+                "+",
+                List.of(new VariableReference("x", 0), new VariableReference("y", 1))
+            ),
+            new FunctionCall(
+                "*",
+                List.of(new VariableReference("z", 2), new VariableReference("y", 1))
+            ),
+            2
+        ),
+        f.getBody()
+    );
+    Assertions.assertEquals(0, program.getFrameSize());
+  }
+
+  @Test
+  public void testShadowingAndSiblingLets() {
+    Program program = Resolver.resolve(
+        Parser.parseProgram("test", "(let x 1 (+ (let x 2 x) (let y 3 x)))")
+    );
+    Assertions.assertEquals(2, program.getFrameSize());
+    Assertions.assertEquals(
+        new LetExpression(
+            "x",
+            new IntLiteral(1),
+            new FunctionCall(
+                "+",
+                List.of(
+                    new LetExpression("x", new IntLiteral(2), new VariableReference("x", 1), 1),
+                    new LetExpression("y", new IntLiteral(3), new VariableReference("x", 0), 1)
+                )
+            ),
+            0
+        ),
+        program.getExpression()
+    );
+    Assertions.assertEquals(
+        new IntValue(3),
+        new Driver().evaluateProgram(Parser.parseProgram("test", "(let x 1 (+ (let x 2 x) (let y 3 x)))"))
+    );
+  }
+
+  @Test
+  public void testCallerVariablesStayUnresolved() {
+    Program program = Resolver.resolve(
+        Parser.parseProgram("test", "(define (f x) y) (define (g n) n) (let y 1 (f (g y)))")
+    );
+    // y is the caller's variable, so nothing in the program is resolved
+    Assertions.assertEquals(
+        new VariableReference("y", -1),
+        program.getDefinitions().get(0).getBody()
+    );
+    Assertions.assertEquals(
+        new VariableReference("n", -1),
+        program.getDefinitions().get(1).getBody()
+    );
+    Assertions.assertEquals(new IntValue(1), new Driver().evaluateProgram(program));
+    try {
+      new Driver().evaluateFromSource("(define (f x) y) (f 1)");
+      Assertions.fail("expected exception");
+    } catch (UndefinedVariableException e) {
+      Assertions.assertEquals("y", e.getVariableName());
+    }
+  }
+}
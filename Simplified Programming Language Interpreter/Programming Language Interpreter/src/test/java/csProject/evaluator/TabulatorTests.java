@@ -0,0 +1,143 @@
+package csProject.evaluator;
+
+import csProject.ast.Definition;
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.parser.Parser;
+import java.util.Set;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TabulatorTests {
+  private static final String FIB =
+      "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) ";
+
+  private static Driver tabulating(Tabulator tabulator) {
+    return new Driver(ExecutionMode.TREE_WALKING, null, tabulator);
+  }
+
+  private static Definition definition(String source) {
+    return Parser.parseProgram("test", source + " 0").getDefinitions().get(0);
+  }
+
+  @Test
+  public void testTabulatedFib() {
+    Tabulator tabulator = Tabulator.forAllDefinitions(Tabulator.DEFAULT_MAX_SIZE);
+    Driver driver = tabulating(tabulator);
+    // exponential without the table
+    Assertions.assertEquals(new IntValue(102334155), driver.evaluateFromSource(FIB + "(fib 40)"));
+    Assertions.assertEquals(41, tabulator.getTabulation("fib").getSize());
+    Assertions.assertEquals(new IntValue(832040), driver.evaluateFromSource(FIB + "(fib 30)"));
+    Assertions.assertEquals(41, tabulator.getTabulation("fib").getSize());
+  }
+
+  @Test
+  public void testSameResultsAsPlainEvaluation() {
+    String[] programs = {
+      FIB,
+      "(define (fact n) (if (== n 1) 1 (* n (fact (- n 1))))) ",
+      "(define (tri n) (let x (* n 2) (if (< n 1) 0 (+ x (tri (- n 1)))))) ",
+      "(define (even n) (or (== n 0) (and (> n 1) (even (- n 2))))) ",
+    };
+    String[] names = {"fib", "fact", "tri", "even"};
+    Driver plain = new Driver();
+    for (int p = 0; p < programs.length; p++) {
+      Driver driver = tabulating(Tabulator.forAllDefinitions(64));
+      for (int n = 1; n < 15; n++) {
+        String source = programs[p] + "(" + names[p] + " " + n + ")";
+        Assertions.assertEquals(plain.evaluateFromSource(source), driver.evaluateFromSource(source), source);
+      }
+    }
+  }
+
+  @Test
+  public void testOnlySelectedDefinitionsAreTabulated() {
+    Tabulator tabulator = Tabulator.forDefinitions(Set.of("g"), 64);
+    Driver driver = tabulating(tabulator);
+    Assertions.assertEquals(
+        new IntValue(10),
+        driver.evaluateFromSource(
+            "(define (f n) (if (== n 0) 0 (+ 1 (f (- n 1))))) "
+                + "(define (g n) (if (== n 0) 0 (+ 2 (g (- n 1))))) "
+                + "(+ (f 4) (g 3))")
+    );
+    Assertions.assertNull(tabulator.getTabulation("f"));
+    Assertions.assertEquals(4, tabulator.getTabulation("g").getSize());
+  }
+
+  @Test
+  public void testProgramsKeepSeparateTables() {
+    Tabulator tabulator = Tabulator.forAllDefinitions(64);
+    Driver driver = tabulating(tabulator);
+    Assertions.assertEquals(
+        new IntValue(5),
+        driver.evaluateFromSource("(define (g n) (if (< n 1) 0 (+ 1 (g (- n 1))))) (g 5)")
+    );
+    Assertions.assertEquals(
+        new IntValue(10),
+        driver.evaluateFromSource("(define (g n) (if (< n 1) 0 (+ 2 (g (- n 1))))) (g 5)")
+    );
+    Assertions.assertEquals(
+        new IntValue(12),
+        driver.evaluateFromSource("(define (g n) (if (< n 1) 0 (+ 2 (g (- n 1))))) (g 6)")
+    );
+    Assertions.assertEquals(7, tabulator.getTabulation("g").getSize());
+  }
+
+  @Test
+  public void testIneligibleDefinitions() {
+    String[] sources = {
+      "(define (f n m) (if (== n 0) m (f (- n 1) m)))",
+      "(define (f n) (if (> n 10) 0 (f (+ n 1))))",
+      "(define (f n) (if (== n 0) 0 (f (- n 0))))",
+      "(define (f n) (if (== n 0) 0 (f (/ n 2))))",
+      "(define (f n) (if (== n 0) 0 (g (- n 1))))",
+      "(define (f n) (let n (* n 2) (if (== n 0) 0 (f (- n 1)))))",
+      "(define (f n) (+ n 1))",
+    };
+    for (String source : sources) {
+      Assertions.assertNull(Tabulation.of(definition(source), 64), source);
+    }
+    Assertions.assertNotNull(
+        Tabulation.of(definition("(define (f n) (let m 1 (if (== n 0) m (f (- n 1)))))"), 64));
+  }
+
+  @Test
+  public void testFailedEntriesFallBack() {
+    String f = "(define (f n) (if (== n 3) (/ 1 0) (if (== n 0) 0 (+ 1 (f (- n 1)))))) ";
+    Driver driver = tabulating(Tabulator.forAllDefinitions(64));
+    Assertions.assertEquals(new IntValue(2), driver.evaluateFromSource(f + "(f 2)"));
+    Assertions.assertThrows(ArithmeticException.class, () -> driver.evaluateFromSource(f + "(f 5)"));
+    // arguments that step past the base case recurse without end, as they
+    // would anyway
+    String g = "(define (g n) (if (== n 0) 0 (+ 1 (g (- n 2))))) ";
+    Assertions.assertEquals(new IntValue(2), driver.evaluateFromSource(g + "(g 4)"));
+    Assertions.assertThrows(StackOverflowError.class, () -> driver.evaluateFromSource(g + "(g 3)"));
+    Assertions.assertThrows(
+        TypeError.class,
+        () -> driver.evaluateFromSource(FIB + "(fib true)")
+    );
+  }
+
+  @Test
+  public void testDeepRecursionRunsInConstantStack() {
+    Driver driver = tabulating(Tabulator.forAllDefinitions(Tabulator.DEFAULT_MAX_SIZE));
+    String even = "(define (even n) (if (== n 0) true (not (even (- n 1))))) ";
+    Assertions.assertEquals(BooleanValue.FALSE, driver.evaluateFromSource(even + "(even 100001)"));
+    Assertions.assertThrows(
+        StackOverflowError.class,
+        () -> new Driver().evaluateFromSource(even + "(even 100001)")
+    );
+  }
+
+  @Test
+  public void testMaxSize() {
+    Assertions.assertThrows(IllegalArgumentException.class, () -> Tabulator.forAllDefinitions(0));
+    Tabulator tabulator = Tabulator.forAllDefinitions(8);
+    Driver driver = tabulating(tabulator);
+    Assertions.assertEquals(new IntValue(610), driver.evaluateFromSource(FIB + "(fib 15)"));
+    // the call for 15 falls back, and its subcalls fill the table
+    Assertions.assertEquals(8, tabulator.getTabulation("fib").getSize());
+  }
+}
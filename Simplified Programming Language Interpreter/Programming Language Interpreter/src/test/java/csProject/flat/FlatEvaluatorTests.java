@@ -0,0 +1,164 @@
+package csProject.flat;
+
+import csProject.ast.Program;
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.evalExceptions.UndefinedVariableException;
+import csProject.evaluator.Driver;
+import csProject.evaluator.ExecutionMode;
+import csProject.optimizer.RangeOptimizer;
+import csProject.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FlatEvaluatorTests {
+  private final Driver driver = new Driver(ExecutionMode.FLAT);
+
+  @Test
+  public void testExpressions() {
+    Assertions.assertEquals(new IntValue(3), driver.evaluateFromSource("(+ 1 2)"));
+    Assertions.assertEquals(new IntValue(14), driver.evaluateFromSource("(let x 7 (* x 2))"));
+    Assertions.assertEquals(
+        new IntValue(12),
+        driver.evaluateFromSource("(let x 1 (let y 4 (let x 3 (* x y))))")
+    );
+    Assertions.assertEquals(new IntValue(2), driver.evaluateFromSource("(let x -2 (if (> x 0) 1 2))"));
+    Assertions.assertEquals(new BooleanValue(false), driver.evaluateFromSource("(and false (/ 3 0))"));
+    Assertions.assertEquals(new BooleanValue(true), driver.evaluateFromSource("(or true (/ 3 0))"));
+    Assertions.assertEquals(new BooleanValue(false), driver.evaluateFromSource("(or false (not true))"));
+    Assertions.assertEquals(new IntValue(-3), driver.evaluateFromSource("(/ -7 2)"));
+    Assertions.assertEquals(new IntValue(1), driver.evaluateFromSource("(mod 7 2)"));
+  }
+
+  @Test
+  public void testDefinitions() {
+    Assertions.assertEquals(
+        new IntValue(720),
+        driver.evaluateFromSource(
+            "(define (fact x) (if (== x 0) 1 (* x (fact (- x 1))))) (fact 6)"
+        )
+    );
+    Assertions.assertEquals(
+        new IntValue(12),
+        driver.evaluateFromSource(
+            "(define (f x y) (let z (* x y) z)) (+ (f 1 2) (f 2 (f 1 5)))"
+        )
+    );
+    // the later of two definitions with the same name wins
+    Assertions.assertEquals(
+        new IntValue(2),
+        driver.evaluateFromSource("(define (f x) 1) (define (f x) 2) (f 0)")
+    );
+    Assertions.assertEquals(
+        new BooleanValue(true),
+        driver.evaluateFromSource(
+            "(define (even n) (or (== n 0) (odd (- n 1)))) "
+                + "(define (odd n) (and (!= n 0) (even (- n 1)))) (even 10)"
+        )
+    );
+  }
+
+  @Test
+  public void testTailCalls() {
+    Assertions.assertEquals(
+        new IntValue(1784293664),
+        driver.evaluateFromSource(
+            "(define (loop n acc) (if (== n 0) acc (loop (- n 1) (+ acc n)))) (loop 1000000 0)"
+        )
+    );
+    Assertions.assertEquals(
+        new BooleanValue(true),
+        driver.evaluateFromSource(
+            "(define (even n) (or (== n 0) (odd (- n 1)))) "
+                + "(define (odd n) (and (!= n 0) (even (- n 1)))) (even 1000000)"
+        )
+    );
+  }
+
+  @Test
+  public void testErrors() {
+    Assertions.assertThrows(TypeError.class, () -> driver.evaluateFromSource("(let x 45 (if x 1 2))"));
+    Assertions.assertThrows(TypeError.class, () -> driver.evaluateFromSource("(and true 3)"));
+    Assertions.assertThrows(
+        TypeError.class,
+        () -> driver.evaluateFromSource("(define (f x) x) (or false (f 3))")
+    );
+    Assertions.assertThrows(ArithmeticException.class, () -> driver.evaluateFromSource("(/ 3 0)"));
+    // both operands are evaluated before either is checked
+    Assertions.assertThrows(ArithmeticException.class, () -> driver.evaluateFromSource("(/ true 0)"));
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> driver.evaluateFromSource("(let b true (< b (mod 1 0)))")
+    );
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> driver.evaluateFromSource("(let b true (/ b 0))")
+    );
+    TypeError error = Assertions.assertThrows(
+        TypeError.class,
+        () -> driver.evaluateFromSource("(let b true (/ b false))")
+    );
+    Assertions.assertTrue(error.getMessage().contains("false"), error.getMessage());
+    error = Assertions.assertThrows(
+        TypeError.class,
+        () -> driver.evaluateFromSource("(let b true (< b false))")
+    );
+    Assertions.assertTrue(error.getMessage().contains("true"), error.getMessage());
+    Assertions.assertThrows(UndefinedVariableException.class, () -> driver.evaluateFromSource("x"));
+    Assertions.assertThrows(UndefinedFunctionException.class, () -> driver.evaluateFromSource("(f 3)"));
+    Assertions.assertThrows(
+        ArityMismatchException.class,
+        () -> driver.evaluateFromSource("(define (f x y) 3) (f 1)")
+    );
+  }
+
+  @Test
+  public void testEncoding() {
+    FlatProgram program = encode(
+        "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 1))))) (fib 10)"
+    );
+    Assertions.assertEquals(2, program.getFunctionCount());
+    Assertions.assertEquals("fib", program.getFunctionName(0));
+    Assertions.assertNull(program.getFunctionName(program.getMainFunction()));
+    Assertions.assertEquals(1, program.getArity(0));
+    // the two (fib (- n 1)) share one node, and n one node throughout:
+    // n, 2, (< n 2), 1, (- n 1), (fib ...), (+ ...), if, 10, (fib 10)
+    Assertions.assertEquals(10, program.getNodeCount());
+    Assertions.assertEquals(3, program.getLiteralCount());
+    Assertions.assertEquals(NodeKind.LOCAL, program.getKind(0));
+    Assertions.assertEquals(NodeKind.CALL, program.getKind(program.getNodeCount() - 1));
+    Assertions.assertEquals(new IntValue(512), program.run());
+    Assertions.assertEquals(new IntValue(512), program.run());
+  }
+
+  @Test
+  public void testOptimizedPrograms() {
+    Program optimized = RangeOptimizer.optimize(Parser.parseProgram(
+        "test",
+        "(define (safe x d) (if (== d 0) 0 (/ x d))) (+ (safe 10 2) (safe 7 0))"
+    ));
+    Assertions.assertEquals(new IntValue(5), FlatEncoder.encode(optimized).run());
+  }
+
+  @Test
+  public void testSameResultsAsTreeWalking() {
+    Driver treeWalker = new Driver();
+    String[] sources = {
+        "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) (fib 20)",
+        "(define (gcd a b) (if (== b 0) a (gcd b (mod a b)))) (gcd 1071 462)",
+        "(define (pow b e) (if (== e 0) 1 (let h (pow b (/ e 2)) "
+            + "(if (== (mod e 2) 0) (* h h) (* b (* h h)))))) (pow 3 13)",
+        "(define (f n) (not (or (< n 0) (and (> n 10) (< n 20))))) (and (f 5) (f 30))",
+    };
+    for (String source : sources) {
+      Assertions.assertEquals(treeWalker.evaluateFromSource(source), driver.evaluateFromSource(source));
+    }
+  }
+
+  private FlatProgram encode(String source) {
+    return FlatEncoder.encode(Parser.parseProgram("test", source));
+  }
+}
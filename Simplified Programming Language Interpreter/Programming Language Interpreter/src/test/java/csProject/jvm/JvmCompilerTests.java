@@ -0,0 +1,128 @@
+package csProject.jvm;
+
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.core.Value;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.evaluator.Driver;
+import csProject.evaluator.ExecutionMode;
+import csProject.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JvmCompilerTests {
+  private final Driver driver = new Driver(ExecutionMode.JVM_BYTECODE);
+
+  @Test
+  public void testCompiledArithmeticAndComparisons() {
+    Assertions.assertEquals(new IntValue(3), compileAndRun("(+ 1 2)"));
+    Assertions.assertEquals(new IntValue(-100000), compileAndRun("(* 1000 -100)"));
+    Assertions.assertEquals(new IntValue(2), compileAndRun("(mod 17 (/ 15 3))"));
+    Assertions.assertEquals(new BooleanValue(true), compileAndRun("(<= 3 3)"));
+    Assertions.assertEquals(new BooleanValue(false), compileAndRun("(not (!= 3 4))"));
+  }
+
+  @Test
+  public void testCompiledDefinitions() {
+    Assertions.assertEquals(
+        new IntValue(720),
+        compileAndRun("(define (fact x) (if (== x 0) 1 (* x (fact (- x 1))))) (fact 6)")
+    );
+    Assertions.assertEquals(
+        new BooleanValue(true),
+        compileAndRun(
+            "(define (even n) (if (== n 0) true (odd (- n 1)))) "
+                + "(define (odd n) (if (== n 0) false (even (- n 1)))) "
+                + "(even 10)"
+        )
+    );
+    Assertions.assertEquals(
+        new IntValue(9),
+        compileAndRun("(define (f b x) (let x (if b x 0) (* x x))) (f (or false true) 3)")
+    );
+  }
+
+  @Test
+  public void testShortCircuitingAndRuntimeErrors() {
+    Assertions.assertEquals(new BooleanValue(false), compileAndRun("(and false (== 1 (/ 3 0)))"));
+    Assertions.assertEquals(new BooleanValue(true), compileAndRun("(or true (== 1 (/ 3 0)))"));
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> compileAndRun("(and true (== 1 (/ 3 0)))")
+    );
+    // with the same message as the interpreters
+    ArithmeticException error = Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> compileAndRun("(define (f x) (/ 7 x)) (+ (f 7) (f 0))")
+    );
+    Assertions.assertEquals("Division by zero", error.getMessage());
+    Assertions.assertEquals(new IntValue(-3), compileAndRun("(/ -7 2)"));
+  }
+
+  @Test
+  public void testIllTypedProgramsAreRejected() {
+    Assertions.assertThrows(TypeError.class, () -> compileAndRun("(+ 1 true)"));
+    Assertions.assertThrows(TypeError.class, () -> compileAndRun("(if true 1 false)"));
+    Assertions.assertThrows(UndefinedFunctionException.class, () -> compileAndRun("(f 1)"));
+    Assertions.assertThrows(
+        ArityMismatchException.class,
+        () -> compileAndRun("(define (f x) x) (f 1 2)")
+    );
+  }
+
+  @Test
+  public void testDriverFallsBackForIllTypedPrograms() {
+    // never reaches the ill-typed branch, so it evaluates normally
+    Assertions.assertEquals(new IntValue(1), driver.evaluateFromSource("(if true 1 false)"));
+    Assertions.assertThrows(TypeError.class, () -> driver.evaluateFromSource("(+ 1 true)"));
+    Assertions.assertThrows(
+        ArityMismatchException.class,
+        () -> driver.evaluateFromSource("(define (f x) x) (f 1 2)")
+    );
+    Assertions.assertEquals(
+        new IntValue(55),
+        driver.evaluateFromSource(
+            "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) (fib 10)"
+        )
+    );
+  }
+
+  @Test
+  public void testDriverFallsBackForTooManyConstants() {
+    // 30 definitions of 2500 distinct constants each overflow the constant pool
+    StringBuilder source = new StringBuilder();
+    for (int d = 0; d < 30; d++) {
+      source.append("(define (f").append(d).append(" x) ");
+      appendSum(source, 100000 + d * 2500, 2500);
+      source.append(") ");
+    }
+    source.append("(+ (f0 0) (f29 0))");
+    String program = source.toString();
+    Assertions.assertThrows(
+        UnsupportedProgramException.class,
+        () -> JvmCompiler.compile(Parser.parseProgram("test", program))
+    );
+    long f0 = 2500L * 100000 + 2500L * 2499 / 2;
+    long f29 = 2500L * (100000 + 29 * 2500) + 2500L * 2499 / 2;
+    Assertions.assertEquals(new IntValue((int) (f0 + f29)), driver.evaluateFromSource(program));
+  }
+
+  // appends a balanced sum of the count ints from first on
+  private static void appendSum(StringBuilder source, int first, int count) {
+    if (count == 1) {
+      source.append(first);
+      return;
+    }
+    source.append("(+ ");
+    appendSum(source, first, count / 2);
+    source.append(' ');
+    appendSum(source, first + count / 2, count - count / 2);
+    source.append(')');
+  }
+
+  private Value compileAndRun(String source) {
+    return JvmCompiler.compile(Parser.parseProgram("test", source)).run();
+  }
+}
@@ -0,0 +1,120 @@
+package csProject.optimizer;
+
+import csProject.ast.Definition;
+import csProject.ast.Program;
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.evaluator.Driver;
+import csProject.evaluator.ExecutionMode;
+import csProject.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AccumulatorIntroducerTests {
+  private static final String SUM =
+      "(define (sum n) (if (== n 0) 0 (+ n (sum (- n 1))))) ";
+
+  @Test
+  public void testSumIsRewritten() {
+    Program program = introduce(SUM + "(sum 10)");
+    Assertions.assertEquals(2, program.getDefinitions().size());
+    assertDefinition("(sum#acc 0 n)", "sum", program.getDefinitions().get(0));
+    assertDefinition(
+        "(if (== n 0) (+ acc#1 0) (sum#acc (+ acc#1 n) (- n 1)))",
+        "sum#acc",
+        program.getDefinitions().get(1)
+    );
+    Assertions.assertEquals(
+        "[acc#1, n]", program.getDefinitions().get(1).getArguments().toString());
+  }
+
+  @Test
+  public void testDeepRecursionRunsInConstantStack() {
+    Program original = Parser.parseProgram("test", SUM + "(sum 1000000)");
+    Assertions.assertThrows(
+        StackOverflowError.class, () -> new Driver().evaluateProgram(original));
+
+    int expected = 0;
+    for (int i = 1; i <= 1000000; i++) {
+      expected += i;
+    }
+    Program program = AccumulatorIntroducer.introduce(original);
+    Assertions.assertEquals(new IntValue(expected), new Driver().evaluateProgram(program));
+  }
+
+  @Test
+  public void testOperators() {
+    // * with the recursive call on the left and a safe operand on the right
+    assertSameResults(
+        "(define (fact n) (if (< n 2) 1 (* (fact (- n 1)) n))) (fact 20)");
+    // a let in tail position and several recursive branches
+    assertSameResults(
+        "(define (f n) (if (== n 0) 1 (let m (- n 1) (if (== (mod n 2) 0) (* 2 (f m)) (* 3 (f m))))))"
+            + "(f 12)");
+    // and/or, mixed with tail calls
+    assertSameResults(
+        "(define (all n) (if (== n 0) true (if (== n 5) (all (- n 1)) (and (all (- n 1)) (> n 0)))))"
+            + "(all 100)");
+    assertSameResults(
+        "(define (any n) (if (== n 0) false (or (any (- n 1)) (== n 7)))) (any 100)");
+
+    Program program = introduce(
+        "(define (all n) (if (== n 0) true (and (all (- n 1)) (> n 0)))) (all 1000000)");
+    Assertions.assertEquals(new BooleanValue(true), new Driver().evaluateProgram(program));
+  }
+
+  @Test
+  public void testUnsuitableDefinitionsAreLeftAlone() {
+    // already tail recursive
+    assertUnchanged("(define (any n) (if (== n 0) false (or (== n 7) (any (- n 1))))) (any 10)");
+    // two recursive calls
+    assertUnchanged(
+        "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) (fib 10)");
+    // an operand evaluated after the call that could fail
+    assertUnchanged("(define (f n) (if (== n 0) 0 (+ (f (- n 1)) (/ 10 n)))) (f 10)");
+    // a recursive call outside a tail position
+    assertUnchanged("(define (f n) (if (== n 0) 0 (+ n (f (f (- n 1)))))) (f 10)");
+    // an operator that is not associative
+    assertUnchanged("(define (f n) (if (== n 0) 0 (- n (f (- n 1))))) (f 10)");
+    // a program that does not type check
+    assertUnchanged(SUM + "(+ (sum 10) true)");
+  }
+
+  @Test
+  public void testEvaluationOrderIsPreserved() {
+    // the operand fails at n = 3, after the operands for n = 5 and 4
+    Program program = introduce(
+        "(define (f n) (if (== n 0) 0 (+ (/ 10 (- n 3)) (f (- n 1))))) (f 5)");
+    Assertions.assertEquals(2, program.getDefinitions().size());
+    Assertions.assertThrows(
+        ArithmeticException.class, () -> new Driver().evaluateProgram(program));
+  }
+
+  private void assertSameResults(String source) {
+    Program original = Parser.parseProgram("test", source);
+    Program program = AccumulatorIntroducer.introduce(original);
+    Assertions.assertNotSame(original, program);
+    for (ExecutionMode mode : ExecutionMode.values()) {
+      Assertions.assertEquals(
+          new Driver(mode).evaluateProgram(original),
+          new Driver(mode).evaluateProgram(program),
+          mode.toString()
+      );
+    }
+  }
+
+  private void assertUnchanged(String source) {
+    Program original = Parser.parseProgram("test", source);
+    Assertions.assertSame(original, AccumulatorIntroducer.introduce(original));
+  }
+
+  private void assertDefinition(String body, String name, Definition definition) {
+    Assertions.assertEquals(name, definition.getName());
+    Assertions.assertEquals(
+        Parser.parseExpression("test", body), definition.getBody(), definition.getBody().format());
+  }
+
+  private Program introduce(String source) {
+    return AccumulatorIntroducer.introduce(Parser.parseProgram("test", source));
+  }
+}
@@ -0,0 +1,135 @@
+package csProject.optimizer;
+
+import csProject.ast.Expression;
+import csProject.ast.Program;
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.evaluator.Driver;
+import csProject.evaluator.ExecutionMode;
+import csProject.parser.Parser;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AlgebraicSimplifierTests {
+
+  @Test
+  public void testIdentities() {
+    assertSimplifiesTo("(let x 1 x)", "(let x 1 (+ x 0))");
+    assertSimplifiesTo("(let x 1 (- x 2))", "(let x 1 (* 1 (+ 0 (- x 2))))");
+    assertSimplifiesTo("(let x 1 0)", "(let x 1 (* x 0))");
+    assertSimplifiesTo("(let x 1 0)", "(let x 1 (- x x))");
+    assertSimplifiesTo("(let b (> y 1) b)", "(let b (< 1 y) (not (not b)))");
+    assertSimplifiesTo("(+ y 1)", "(- 0 (- 0 (+ y 1)))");
+  }
+
+  @Test
+  public void testStrengthReduction() {
+    assertSimplifiesTo("(let x (- y 1) (+ x x))", "(let x (- y 1) (* (+ x 0) 2))");
+    // not for expressions, which would be evaluated twice
+    assertSimplifiesTo("(* (+ y 1) 2)", "(* (+ y 1) 2)");
+  }
+
+  @Test
+  public void testComparisons() {
+    assertSimplifiesTo("(>= x y)", "(not (< x y))");
+    assertSimplifiesTo("(!= x 3)", "(not (== 3 x))");
+    assertSimplifiesTo("(< x 3)", "(> 3 x)");
+    assertSimplifiesTo("(let x 1 true)", "(let x 1 (== x x))");
+    // calls of literals are left to the constant folder
+    assertSimplifiesTo("(< 3 4)", "(< 3 4)");
+  }
+
+  @Test
+  public void testBooleans() {
+    assertSimplifiesTo("(not (or p q))", "(and (not p) (not q))");
+    assertSimplifiesTo("(if p y x)", "(if (not p) x y)");
+    assertSimplifiesTo("(>= x y)", "(if (< x y) false true)");
+    assertSimplifiesTo("(let p (< x 1) p)", "(let p (< x 1) (and p (or p (f x))))");
+    assertSimplifiesTo("(let p (< x 1) p)", "(let p (< x 1) (or (and p true) false))");
+    assertSimplifiesTo("(let p (< x 1) false)", "(let p (< x 1) (and p false))");
+  }
+
+  @Test
+  public void testTypeErrorsArePreserved() {
+    // nothing is known about free variables or calls of undefined functions
+    assertSimplifiesTo("(+ x 0)", "(+ x 0)");
+    assertSimplifiesTo("(not (not (f x)))", "(not (not (f x)))");
+    assertSimplifiesTo("(and x true)", "(and x true)");
+    assertSimplifiesTo("(let x true (* x 1))", "(let x true (* x 1))");
+    Assertions.assertThrows(
+        TypeError.class,
+        () -> new Driver().evaluateProgram(simplify(
+            "(define (id x) x) (define (f b) (+ b 0)) (f (id true))"))
+    );
+    Assertions.assertThrows(
+        TypeError.class,
+        () -> new Driver().evaluateProgram(simplify("(let x true (* x 0))"))
+    );
+  }
+
+  @Test
+  public void testShadowingLets() {
+    // the rhs of a let is typed in the scope outside the let
+    assertSimplifiesTo("(let x 1 (let x x x))", "(let x 1 (let x x (+ x 0)))");
+    assertSimplifiesTo("(let x true (let x 1 x))", "(let x true (let x 1 (+ x 0)))");
+    String nested = "(let y 1 (let x true (let x (let z y x) (+ x 0))))";
+    assertSimplifiesTo(nested, nested);
+    Assertions.assertThrows(
+        TypeError.class,
+        () -> new Driver().evaluateProgram(simplify(nested))
+    );
+  }
+
+  @Test
+  public void testParameterTypesAreInferred() {
+    Program program = simplify(
+        "(define (f x b) (if (not (not b)) (* (+ x 0) 1) (* x 2))) (f 3 false)");
+    Assertions.assertEquals(
+        Parser.parseExpression("test", "(if b x (+ x x))"),
+        program.getDefinitions().get(0).getBody()
+    );
+    for (ExecutionMode mode : ExecutionMode.values()) {
+      Assertions.assertEquals(
+          new IntValue(6), new Driver(mode).evaluateProgram(program), mode.toString());
+    }
+  }
+
+  @Test
+  public void testCustomRules() {
+    List<RewriteRule> rules = List.of(new RewriteRule("(+ ?x:int ?x)", "(* 2 ?x)"));
+    Program program = AlgebraicSimplifier.simplify(
+        Parser.parseProgram("test", "(let y 4 (+ (- y 1) (- y 1)))"), rules);
+    Assertions.assertEquals(
+        Parser.parseExpression("test", "(let y 4 (* 2 (- y 1)))"), program.getExpression());
+    Assertions.assertEquals(new IntValue(6), new Driver().evaluateProgram(program));
+
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> new RewriteRule("(+ ?x 0)", "(+ ?x ?x)"));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> new RewriteRule("(+ ?x 0)", "?y"));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> new RewriteRule("?x", "0"));
+    Assertions.assertThrows(
+        IllegalArgumentException.class, () -> new RewriteRule("(+ ?x:float 0)", "?x"));
+  }
+
+  @Test
+  public void testResultsAreUnchanged() {
+    Program program = simplify(
+        "(define (even n) (if (== 0 (mod n 2)) true false))"
+            + "(and (not (not (even 4))) (not (< 10 (* (+ 5 0) 2))))");
+    Assertions.assertEquals(new BooleanValue(true), new Driver().evaluateProgram(program));
+  }
+
+  private void assertSimplifiesTo(String expected, String source) {
+    Expression simplified = AlgebraicSimplifier.simplify(Parser.parseExpression("test", source));
+    Assertions.assertEquals(
+        Parser.parseExpression("test", expected), simplified, simplified.format());
+  }
+
+  private Program simplify(String source) {
+    return AlgebraicSimplifier.simplify(Parser.parseProgram("test", source));
+  }
+}
@@ -0,0 +1,111 @@
+package csProject.optimizer;
+
+import csProject.ast.Expression;
+import csProject.ast.Program;
+import csProject.core.IntValue;
+import csProject.evaluator.Driver;
+import csProject.evaluator.ExecutionMode;
+import csProject.evaluator.Memoizer;
+import csProject.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CommonSubexpressionEliminatorTests {
+  // 2^n calls without elimination, n with
+  private static final String DOUBLING =
+      "(define (g n) (if (== n 0) 0 (- (g (- n 1)) (g (- n 1))))) ";
+
+  @Test
+  public void testRepeatedCallsAreBound() {
+    assertEliminatesTo("(let cse#1 (* x y) (+ cse#1 cse#1))", "(+ (* x y) (* x y))");
+    // the largest repeated call is bound first, making the smaller one unique
+    assertEliminatesTo(
+        "(let cse#1 (f (- n 1)) (+ cse#1 cse#1))",
+        "(+ (f (- n 1)) (f (- n 1)))"
+    );
+    assertEliminatesTo(
+        "(let cse#2 (f x) (let cse#1 (g cse#2) (* cse#1 (+ cse#2 cse#1))))",
+        "(* (g (f x)) (+ (f x) (g (f x))))"
+    );
+  }
+
+  @Test
+  public void testConditionalCallsAreNotHoisted() {
+    assertEliminatesTo("(if p (f x) (f x))", "(if p (f x) (f x))");
+    // the left operand is evaluated whenever the right one is
+    assertEliminatesTo(
+        "(and p (let cse#1 (f x) (or cse#1 cse#1)))",
+        "(and p (or (f x) (f x)))"
+    );
+    assertEliminatesTo(
+        "(and p (let cse#1 (f x) (+ cse#1 cse#1)))",
+        "(and p (+ (f x) (f x)))"
+    );
+    // but reuse a value computed before the branch
+    assertEliminatesTo(
+        "(let cse#1 (f x) (+ cse#1 (if p cse#1 0)))",
+        "(+ (f x) (if p (f x) 0))"
+    );
+  }
+
+  @Test
+  public void testEvaluationOrderIsPreserved() {
+    // (/ 1 0) must still fail before (h y) is evaluated
+    assertEliminatesTo(
+        "(+ (/ 1 0) (let cse#1 (h y) (* cse#1 cse#1)))",
+        "(+ (/ 1 0) (* (h y) (h y)))"
+    );
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> new Driver().evaluateProgram(eliminate(
+            "(define (h y) (h y)) (+ (/ 1 0) (* (h 1) (h 1)))"))
+    );
+  }
+
+  @Test
+  public void testRebindingIsRespected() {
+    assertEliminatesTo("(+ (f x) (let x 1 (f x)))", "(+ (f x) (let x 1 (f x)))");
+    assertEliminatesTo(
+        "(let x 1 (let cse#1 (f x) (+ cse#1 cse#1)))",
+        "(let x 1 (+ (f x) (f x)))"
+    );
+  }
+
+  @Test
+  public void testResultsAreUnchanged() {
+    String source = "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2)))))"
+        + "(define (sq x) (* x x))"
+        + "(let a (fib 10) (+ (sq (fib 10)) (if (> (sq a) 0) (sq (fib 10)) 0)))";
+    Program program = eliminate(source);
+    for (ExecutionMode mode : ExecutionMode.values()) {
+      Assertions.assertEquals(
+          new IntValue(6050), new Driver(mode).evaluateProgram(program), mode.toString());
+    }
+  }
+
+  @Test
+  public void testCallsAreReduced() {
+    Program program = eliminate(DOUBLING + "(g 100)");
+    Assertions.assertEquals(new IntValue(0), new Driver().evaluateProgram(program));
+
+    Memoizer before = Memoizer.forAllDefinitions(Memoizer.DEFAULT_CAPACITY);
+    new Driver(ExecutionMode.TREE_WALKING, before)
+        .evaluateProgram(Parser.parseProgram("test", DOUBLING + "(g 10)"));
+    Memoizer after = Memoizer.forAllDefinitions(Memoizer.DEFAULT_CAPACITY);
+    new Driver(ExecutionMode.TREE_WALKING, after)
+        .evaluateProgram(eliminate(DOUBLING + "(g 10)"));
+    Assertions.assertEquals(21, before.getHits() + before.getMisses());
+    Assertions.assertEquals(11, after.getHits() + after.getMisses());
+  }
+
+  private void assertEliminatesTo(String expected, String source) {
+    Expression eliminated =
+        CommonSubexpressionEliminator.eliminate(Parser.parseExpression("test", source));
+    Assertions.assertEquals(
+        Parser.parseExpression("test", expected), eliminated, eliminated.format());
+  }
+
+  private Program eliminate(String source) {
+    return CommonSubexpressionEliminator.eliminate(Parser.parseProgram("test", source));
+  }
+}
@@ -0,0 +1,74 @@
+package csProject.optimizer;
+
+import csProject.ast.Expression;
+import csProject.ast.Program;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.evaluator.Driver;
+import csProject.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ConstantFolderTests {
+
+  @Test
+  public void testConstantCallsAreFolded() {
+    assertFoldsTo("5", "(+ 2 3)");
+    assertFoldsTo("true", "(< (* 2 3) (+ 4 5))");
+    assertFoldsTo("false", "(not (== 1 1))");
+    assertFoldsTo("(+ x 5)", "(+ x (+ 2 3))");
+  }
+
+  @Test
+  public void testConstantConditionsAreFolded() {
+    assertFoldsTo("1", "(if (< 1 2) 1 (/ 1 0))");
+    assertFoldsTo("x", "(if (> 1 2) (/ 1 0) x)");
+    assertFoldsTo("false", "(and (== 1 2) (f x))");
+    assertFoldsTo("true", "(or (== 1 1) (f x))");
+    assertFoldsTo("true", "(and true (or false true))");
+    // the right operand must still be checked to be a boolean
+    assertFoldsTo("(and true x)", "(and true x)");
+  }
+
+  @Test
+  public void testLiteralLetsAreSubstituted() {
+    assertFoldsTo("(+ y 3)", "(let x 1 (+ y (+ x 2)))");
+    assertFoldsTo("7", "(let x 3 (let y (+ x 1) (+ x y)))");
+    // an inner binding of unknown value hides the outer literal
+    assertFoldsTo("(let x y (+ x 1))", "(let x 2 (let x y (+ x 1)))");
+  }
+
+  @Test
+  public void testRuntimeErrorsArePreserved() {
+    assertFoldsTo("(/ 1 0)", "(/ 1 (- 2 2))");
+    assertFoldsTo("(+ 1 true)", "(+ 1 (not false))");
+    assertFoldsTo("(if 3 1 2)", "(if (+ 1 2) 1 2)");
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> new Driver().evaluateProgram(fold("(let x 0 (mod 4 x))"))
+    );
+    Assertions.assertThrows(
+        TypeError.class,
+        () -> new Driver().evaluateProgram(fold("(and (+ 1 2) true)"))
+    );
+  }
+
+  @Test
+  public void testDefinitionsAreFolded() {
+    Program program = fold("(define (f x) (if (> 2 1) (* x (+ 2 2)) 0)) (f 3)");
+    Assertions.assertEquals(
+        Parser.parseExpression("test", "(* x 4)"),
+        program.getDefinitions().get(0).getBody()
+    );
+    Assertions.assertEquals(new IntValue(12), new Driver().evaluateProgram(program));
+  }
+
+  private void assertFoldsTo(String expected, String source) {
+    Expression folded = ConstantFolder.fold(Parser.parseExpression("test", source));
+    Assertions.assertEquals(Parser.parseExpression("test", expected), folded, folded.format());
+  }
+
+  private Program fold(String source) {
+    return ConstantFolder.fold(Parser.parseProgram("test", source));
+  }
+}
@@ -0,0 +1,132 @@
+package csProject.optimizer;
+
+import csProject.ast.Expression;
+import csProject.ast.FunctionCall;
+import csProject.ast.LetExpression;
+import csProject.ast.Program;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.evaluator.Driver;
+import csProject.evaluator.ExecutionMode;
+import csProject.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class InlinerTests {
+
+  @Test
+  public void testSmallDefinitionsAreInlined() {
+    InliningReport report = new InliningReport();
+    Program program = inline(
+        "(define (square x) (* x x)) (square (+ 1 2))", 16, 0, report);
+    Assertions.assertEquals(
+        Parser.parseExpression("test", "(let x#1 (+ 1 2) (* x#1 x#1))"),
+        program.getExpression()
+    );
+    Assertions.assertEquals(1, report.getInlined("square"));
+    Assertions.assertEquals(new IntValue(9), new Driver().evaluateProgram(program));
+  }
+
+  @Test
+  public void testNestedDefinitionsAreInlined() {
+    InliningReport report = new InliningReport();
+    Program program = inline(
+        "(define (square x) (* x x))"
+            + "(define (sumsq a b) (+ (square a) (square b)))"
+            + "(sumsq 3 4)",
+        16, 0, report);
+    Assertions.assertFalse(containsCall(program.getExpression()), program.getExpression().format());
+    Assertions.assertEquals(1, report.getInlined("sumsq"));
+    // twice inside sumsq's body, twice more in the copy inlined in the program
+    Assertions.assertEquals(4, report.getInlined("square"));
+    Assertions.assertEquals(new IntValue(25), new Driver().evaluateProgram(program));
+  }
+
+  @Test
+  public void testLargeDefinitionsAreNotInlined() {
+    InliningReport report = new InliningReport();
+    Program program = inline(
+        "(define (f x) (+ x (+ x (+ x x)))) (f 1)", 5, 0, report);
+    Assertions.assertEquals(Parser.parseExpression("test", "(f 1)"), program.getExpression());
+    Assertions.assertEquals(0, report.getTotal());
+  }
+
+  @Test
+  public void testNamesAreNotCaptured() {
+    // the argument refers to the caller's x, the body's let binds its own
+    String source = "(define (f x) (let y 10 (+ x y)))"
+        + "(let y 1 (let x 2 (f (+ x y))))";
+    Program program = Inliner.inline(Parser.parseProgram("test", source));
+    Assertions.assertEquals(new IntValue(13), new Driver().evaluateProgram(program));
+
+    // a let in the body shadowing a parameter is not renamed
+    source = "(define (g x) (+ x (let x 5 x))) (g 1)";
+    program = Inliner.inline(Parser.parseProgram("test", source));
+    Assertions.assertEquals(new IntValue(6), new Driver().evaluateProgram(program));
+  }
+
+  @Test
+  public void testArgumentsAreStillEvaluated() {
+    Program program = Inliner.inline(Parser.parseProgram(
+        "test", "(define (first x y) x) (first 1 (/ 1 0))"));
+    Assertions.assertThrows(
+        ArithmeticException.class, () -> new Driver().evaluateProgram(program));
+
+    Program illTyped = Inliner.inline(Parser.parseProgram(
+        "test", "(define (k x) 0) (k (+ 1 true))"));
+    Assertions.assertThrows(
+        TypeError.class, () -> new Driver().evaluateProgram(illTyped));
+  }
+
+  @Test
+  public void testRecursiveDefinitionsAreUnrolled() {
+    String source = "(define (fact n) (if (== n 0) 1 (* n (fact (- n 1))))) (fact 5)";
+    InliningReport report = new InliningReport();
+    Program program = inline(source, 16, 0, report);
+    Assertions.assertEquals(Parser.parseExpression("test", "(fact 5)"), program.getExpression());
+    Assertions.assertEquals(0, report.getTotal());
+
+    report = new InliningReport();
+    program = inline(source, 16, 2, report);
+    Assertions.assertTrue(program.getExpression() instanceof LetExpression);
+    // two levels in the body, and two in the program's expression
+    Assertions.assertEquals(4, report.getUnrolled("fact"));
+    Assertions.assertEquals(0, report.getInlined("fact"));
+    for (ExecutionMode mode : ExecutionMode.values()) {
+      Assertions.assertEquals(
+          new IntValue(120), new Driver(mode).evaluateProgram(program), mode.toString());
+    }
+  }
+
+  @Test
+  public void testBadCallsAreLeftAlone() {
+    Program program = Inliner.inline(Parser.parseProgram(
+        "test", "(define (f x) x) (+ (f 1 2) (g 3))"));
+    Assertions.assertEquals(
+        Parser.parseExpression("test", "(+ (f 1 2) (g 3))"), program.getExpression());
+  }
+
+  @Test
+  public void testReport() {
+    InliningReport report = new InliningReport();
+    inline("(define (inc x) (+ x 1)) (inc (inc 1))", 16, 0, report);
+    Assertions.assertEquals(2, report.getInlined("inc"));
+    Assertions.assertEquals(2, report.getTotal());
+    Assertions.assertEquals(String.format("inlined inc: 2%n"), report.format());
+  }
+
+  private Program inline(String source, int maxSize, int unrollDepth, InliningReport report) {
+    return Inliner.inline(Parser.parseProgram("test", source), maxSize, unrollDepth, report);
+  }
+
+  private boolean containsCall(Expression expression) {
+    if (expression instanceof FunctionCall call) {
+      return !call.getFunctionName().equals("+") && !call.getFunctionName().equals("*")
+          || call.getArguments().stream().anyMatch(this::containsCall);
+    }
+    if (expression instanceof LetExpression let) {
+      return containsCall(let.getRhs()) || containsCall(let.getBody());
+    }
+    return false;
+  }
+}
@@ -0,0 +1,89 @@
+package csProject.optimizer;
+
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.Program;
+import csProject.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RangeAnalysisTests {
+  private static final String FIB =
+      "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) ";
+
+  private static RangeAnalysis analyze(String source) {
+    return RangeAnalysis.analyze(Parser.parseProgram("test", source));
+  }
+
+  @Test
+  public void testArithmetic() {
+    Assertions.assertEquals(Range.of(7), analyze("(+ 1 (* 2 3))").getRange());
+    Assertions.assertEquals(Range.ofInts(-6, 12), analyze(
+        "(define (g x) (mod x 7)) (+ (g 20) (g -3))").getRange());
+    Assertions.assertEquals(Range.ofInts(-3, 6), analyze(
+        "(define (g x) (mod x 7)) (+ (g 20) (g -3))").resultRange("g"));
+    Assertions.assertEquals(Range.ofInts(-10, 10), analyze(
+        "(define (q x y) (/ x y)) (+ (q 10 2) (q 10 -1))").resultRange("q"));
+    // results that may wrap around cover all ints
+    Assertions.assertEquals(Range.INT, analyze("(* 100000 100000)").getRange());
+    Assertions.assertEquals(Range.TRUE, analyze("(not (> 1 2))").getRange());
+  }
+
+  @Test
+  public void testParameterRanges() {
+    RangeAnalysis analysis = analyze("(define (f x) (* x 2)) (+ (f 1) (f 5))");
+    Assertions.assertEquals(Range.ofInts(1, 5), analysis.parameterRange("f", 0));
+    Assertions.assertEquals(Range.ofInts(2, 10), analysis.resultRange("f"));
+    Assertions.assertEquals(Range.ofInts(4, 20), analysis.getRange());
+  }
+
+  @Test
+  public void testConditionsNarrowVariables() {
+    Program program = Parser.parseProgram("test", FIB + "(fib 20)");
+    RangeAnalysis analysis = RangeAnalysis.analyze(program);
+    Assertions.assertEquals(Range.ofInts(0, 20), analysis.parameterRange("fib", 0));
+    IfExpression body = (IfExpression) program.getDefinitions().get(0).getBody();
+    Assertions.assertEquals(Range.ofInts(0, 1), analysis.rangeOf(body.getConsequent()));
+    FunctionCall sum = (FunctionCall) body.getAlternative();
+    FunctionCall call = (FunctionCall) sum.getArguments().get(0);
+    Assertions.assertEquals(Range.ofInts(1, 19), analysis.rangeOf(call.getArguments().get(0)));
+
+    analysis = analyze("(define (f d) (if (!= d 0) d 1)) (+ (f 0) (f 3))");
+    Assertions.assertEquals(Range.ofInts(1, 3), analysis.resultRange("f"));
+    analysis = analyze("(define (f b) (if (not b) 1 (if b 2 3))) (+ (f true) (f false))");
+    Assertions.assertEquals(Range.ofInts(1, 2), analysis.resultRange("f"));
+  }
+
+  @Test
+  public void testUnevaluatedExpressions() {
+    Program program = Parser.parseProgram(
+        "test", "(define (unused x) (+ x 1)) (if (< 1 2) 3 (/ 1 0))");
+    RangeAnalysis analysis = RangeAnalysis.analyze(program);
+    Assertions.assertEquals(Range.of(3), analysis.getRange());
+    IfExpression expression = (IfExpression) program.getExpression();
+    Assertions.assertTrue(analysis.rangeOf(expression.getAlternative()).isNone());
+    Assertions.assertTrue(analysis.parameterRange("unused", 0).isNone());
+    Assertions.assertTrue(analysis.rangeOf(program.getDefinitions().get(0).getBody()).isNone());
+    // ill-typed conditions take neither branch
+    Assertions.assertTrue(analyze("(define (f b) (if b 1 2)) (f 7)").getRange().isNone());
+  }
+
+  @Test
+  public void testRecursionTerminates() {
+    RangeAnalysis analysis = analyze("(define (loop n) (if (== n 0) 0 (loop (+ n 1)))) (loop 1)");
+    Assertions.assertEquals(Range.INT, analysis.parameterRange("loop", 0));
+    Assertions.assertEquals(Range.of(0), analysis.resultRange("loop"));
+    analysis = analyze("(define (sum n) (if (== n 0) 0 (+ n (sum (- n 1))))) (sum 100)");
+    Assertions.assertEquals(Range.ofInts(0, 100), analysis.parameterRange("sum", 0));
+  }
+
+  @Test
+  public void testFormat() {
+    String dump = analyze("(define (f x) (* x 2)) (+ (f 1) (f 5))").format();
+    Assertions.assertTrue(dump.contains("f(x: [1, 5]) -> [2, 10]"), dump);
+    Assertions.assertTrue(dump.contains("  *(x, 2) : [2, 10]"), dump);
+    Assertions.assertTrue(dump.contains("main -> [4, 20]"), dump);
+    Assertions.assertEquals("int | bool", Range.ANY.toString());
+    Assertions.assertEquals("none", Range.NONE.toString());
+  }
+}
@@ -0,0 +1,87 @@
+package csProject.optimizer;
+
+import csProject.ast.BooleanLiteral;
+import csProject.ast.FunctionCall;
+import csProject.ast.IfExpression;
+import csProject.ast.IntLiteral;
+import csProject.ast.LetExpression;
+import csProject.ast.Program;
+import csProject.core.TypeError;
+import csProject.evaluator.Driver;
+import csProject.evaluator.Linker;
+import csProject.parser.Parser;
+import csProject.primitives.UncheckedDivideOperator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RangeOptimizerTests {
+
+  private static Program optimize(String source) {
+    return RangeOptimizer.optimize(Parser.parseProgram("test", source));
+  }
+
+  @Test
+  public void testDeadBranches() {
+    Program program = optimize("(define (abs n) (if (< n 0) (- 0 n) n)) (abs 5)");
+    Assertions.assertEquals(new IntLiteral(5), program.getDefinitions().get(0).getBody());
+    program = optimize("(define (f n) (and (> n 0) (< n 100))) (f 5)");
+    Assertions.assertEquals(new BooleanLiteral(true), program.getDefinitions().get(0).getBody());
+    program = optimize("(define (f n) (or (< n 0) (> n 3))) (+ 1 (if (f 5) 1 2))");
+    Assertions.assertEquals(new BooleanLiteral(true), program.getDefinitions().get(0).getBody());
+  }
+
+  @Test
+  public void testUncheckedDivision() {
+    String source = "(define (safe x d) (if (== d 0) 0 (/ x d))) (+ (safe 10 2) (safe 7 0))";
+    Program program = optimize(source);
+    IfExpression body = (IfExpression) program.getDefinitions().get(0).getBody();
+    FunctionCall division = (FunctionCall) body.getAlternative();
+    Assertions.assertInstanceOf(UncheckedDivideOperator.class, division.getPrimitive());
+    // the link survives linking
+    IfExpression linked = (IfExpression) Linker.link(program).getDefinitions().get(0).getBody();
+    Assertions.assertInstanceOf(
+        UncheckedDivideOperator.class, ((FunctionCall) linked.getAlternative()).getPrimitive());
+    Assertions.assertEquals(new Driver().evaluateFromSource(source), new Driver().evaluateProgram(program));
+
+    // a divisor that may be zero stays checked
+    program = optimize("(define (f x d) (/ x d)) (+ (f 10 2) (f 7 0))");
+    FunctionCall checked = (FunctionCall) program.getDefinitions().get(0).getBody();
+    Assertions.assertNull(checked.getPrimitive());
+  }
+
+  @Test
+  public void testErrorsArePreserved() {
+    // the condition is always false, but may divide by zero
+    String source = "(define (f x y) (if (> (mod x y) 10) 1 2)) (+ (f 3 5) (f 4 0))";
+    Program program = optimize(source);
+    Assertions.assertInstanceOf(LetExpression.class, program.getDefinitions().get(0).getBody());
+    Assertions.assertThrows(ArithmeticException.class, () -> new Driver().evaluateProgram(program));
+
+    String illTyped = "(define (f b) (if b (+ 1 2) 0)) (f 7)";
+    Assertions.assertEquals(
+        Parser.parseProgram("test", illTyped).getDefinitions(),
+        optimize(illTyped).getDefinitions()
+    );
+    Assertions.assertThrows(TypeError.class, () -> new Driver().evaluateProgram(optimize(illTyped)));
+  }
+
+  @Test
+  public void testSameResults() {
+    String[] sources = {
+      "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) (fib 15)",
+      "(define (sum n) (if (== n 0) 0 (+ n (sum (- n 1))))) (sum 100)",
+      "(define (g x) (mod x 7)) (+ (g 20) (g -3))",
+      "(define (f n) (if (> n 10) (/ 100 n) (if (> n 20) 0 n))) (+ (f 3) (f 50))",
+      "(define (even n) (if (== n 0) true (if (== n 1) false (even (- n 2))))) (even 40)",
+      "(let x 4 (if (and (> x 1) (< x 8)) (/ 64 x) (mod 1 0)))",
+    };
+    Driver driver = new Driver();
+    for (String source : sources) {
+      Assertions.assertEquals(
+          driver.evaluateFromSource(source),
+          driver.evaluateProgram(optimize(source)),
+          source
+      );
+    }
+  }
+}
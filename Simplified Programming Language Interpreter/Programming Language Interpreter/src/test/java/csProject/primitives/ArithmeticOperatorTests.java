@@ -2,6 +2,7 @@ package csProject.primitives;
 
 import csProject.core.BooleanValue;
 import csProject.core.IntValue;
+import csProject.core.TaggedValue;
 import csProject.core.TypeError;
 import csProject.evalExceptions.ArityMismatchException;
 import java.util.List;
@@ -70,4 +71,63 @@ public class ArithmeticOperatorTests {
       // NOP
     }
   }
+
+  @Test
+  public void testApplyInt() {
+    Assertions.assertEquals(4, ((ArithmeticOperator) primitives.lookup("+")).applyInt(1, 3));
+    Assertions.assertEquals(-1, ((ArithmeticOperator) primitives.lookup("-")).applyInt(3, 4));
+    Assertions.assertEquals(12, ((ArithmeticOperator) primitives.lookup("*")).applyInt(2, 6));
+    Assertions.assertEquals(3, ((ArithmeticOperator) primitives.lookup("/")).applyInt(17, 5));
+    Assertions.assertEquals(2, ((ArithmeticOperator) primitives.lookup("mod")).applyInt(17, 5));
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> ((ArithmeticOperator) primitives.lookup("/")).applyInt(17, 0)
+    );
+  }
+
+  @Test
+  public void testPowerOfTwoDivisors() {
+    ArithmeticOperator div = (ArithmeticOperator) primitives.lookup("/");
+    ArithmeticOperator mod = (ArithmeticOperator) primitives.lookup("mod");
+    int[] dividends = {
+        0, 1, -1, 7, -7, 8, -8, 9, -9, 1000, -1000, Integer.MAX_VALUE, Integer.MIN_VALUE
+    };
+    for (int shift = 0; shift < 31; shift++) {
+      int divisor = 1 << shift;
+      for (int dividend : dividends) {
+        String message = dividend + ", " + divisor;
+        Assertions.assertEquals(dividend / divisor, div.applyInt(dividend, divisor), message);
+        Assertions.assertEquals(dividend % divisor, mod.applyInt(dividend, divisor), message);
+      }
+    }
+    Assertions.assertEquals(0, div.applyInt(5, Integer.MIN_VALUE));
+    Assertions.assertThrows(ArithmeticException.class, () -> mod.applyInt(17, 0));
+  }
+
+  @Test
+  public void testTaggedOperandsCheckedInOrder() {
+    ArithmeticOperator sub = (ArithmeticOperator) primitives.lookup("-");
+    ArithmeticOperator div = (ArithmeticOperator) primitives.lookup("/");
+    Assertions.assertEquals(4, sub.applyTagged(TaggedValue.ofInt(5), TaggedValue.ofInt(1)));
+    Assertions.assertEquals(3, div.applyTagged(TaggedValue.ofInt(17), TaggedValue.ofInt(5)));
+    // the left operand is checked first, except for the divisor
+    TypeError error = Assertions.assertThrows(
+        TypeError.class,
+        () -> sub.applyTagged(TaggedValue.TRUE, TaggedValue.FALSE)
+    );
+    Assertions.assertTrue(error.getMessage().contains("true"), error.getMessage());
+    error = Assertions.assertThrows(
+        TypeError.class,
+        () -> div.applyTagged(TaggedValue.TRUE, TaggedValue.FALSE)
+    );
+    Assertions.assertTrue(error.getMessage().contains("false"), error.getMessage());
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> div.applyTagged(TaggedValue.TRUE, TaggedValue.ofInt(0))
+    );
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> new UncheckedDivideOperator().applyTagged(TaggedValue.ofInt(1), TaggedValue.ofInt(0))
+    );
+  }
 }
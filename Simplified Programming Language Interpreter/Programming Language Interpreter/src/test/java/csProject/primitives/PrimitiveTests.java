@@ -49,4 +49,33 @@ public class PrimitiveTests {
       // NOP
     }
   }
+
+  @Test
+  public void testFixedArityEntryPoints() {
+    Primitive not = primitives.lookup("not");
+    Assertions.assertEquals(new BooleanValue(true), not.apply1(new BooleanValue(false)));
+    Assertions.assertEquals(1, not.getArity());
+    Assertions.assertThrows(TypeError.class, () -> not.apply1(new IntValue(3)));
+    Assertions.assertThrows(
+        ArityMismatchException.class,
+        () -> not.apply2(new BooleanValue(true), new BooleanValue(false))
+    );
+
+    Primitive add = primitives.lookup("+");
+    Assertions.assertEquals(new IntValue(4), add.apply2(new IntValue(1), new IntValue(3)));
+    Assertions.assertEquals(2, add.getArity());
+    Assertions.assertThrows(ArityMismatchException.class, () -> add.apply1(new IntValue(1)));
+    Assertions.assertEquals(
+        new BooleanValue(true),
+        primitives.lookup("<=").apply2(new IntValue(3), new IntValue(3))
+    );
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> primitives.lookup("/").apply2(new IntValue(3), new IntValue(0))
+    );
+    Assertions.assertThrows(
+        TypeError.class,
+        () -> primitives.lookup("mod").apply2(new BooleanValue(true), new IntValue(2))
+    );
+  }
 }
@@ -71,4 +71,14 @@ public class RelationalOperatorTests {
       // NOP
     }
   }
+
+  @Test
+  public void testCompare() {
+    Assertions.assertFalse(((RelationalOperator) primitives.lookup("==")).compare(3, 4));
+    Assertions.assertTrue(((RelationalOperator) primitives.lookup("!=")).compare(3, 4));
+    Assertions.assertTrue(((RelationalOperator) primitives.lookup("<")).compare(3, 4));
+    Assertions.assertTrue(((RelationalOperator) primitives.lookup("<=")).compare(4, 4));
+    Assertions.assertFalse(((RelationalOperator) primitives.lookup(">")).compare(3, 4));
+    Assertions.assertTrue(((RelationalOperator) primitives.lookup(">=")).compare(4, 4));
+  }
 }
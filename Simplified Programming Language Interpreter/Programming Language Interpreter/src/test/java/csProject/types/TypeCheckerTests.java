@@ -0,0 +1,102 @@
+package csProject.types;
+
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.core.Value;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.evalExceptions.UndefinedVariableException;
+import csProject.evaluator.Driver;
+import csProject.evaluator.ExecutionMode;
+import csProject.parser.Parser;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TypeCheckerTests {
+  private final Driver driver = new Driver(ExecutionMode.TYPED);
+
+  @Test
+  public void testInferredTypes() {
+    TypedProgram program = check(
+        "(define (f b x) (let y (if b x 0) (* y y))) "
+            + "(define (g x) (< (f x 1) 0)) "
+            + "(define (loop x) (loop x)) "
+            + "(f true 3)"
+    );
+    Assertions.assertEquals(Type.INT, program.getType());
+    Assertions.assertEquals(
+        List.of(Type.BOOL, Type.INT),
+        program.lookup("f").getParameterTypes()
+    );
+    Assertions.assertEquals(Type.INT, program.lookup("f").getResultType());
+    Assertions.assertEquals(3, program.lookup("f").getFrameSize());
+    Assertions.assertEquals(List.of(Type.BOOL), program.lookup("g").getParameterTypes());
+    Assertions.assertEquals(Type.BOOL, program.lookup("g").getResultType());
+    // unconstrained types default to int
+    Assertions.assertEquals(List.of(Type.INT), program.lookup("loop").getParameterTypes());
+    Assertions.assertEquals(Type.INT, program.lookup("loop").getResultType());
+  }
+
+  @Test
+  public void testTypedEvaluation() {
+    Assertions.assertEquals(new IntValue(3), checkAndRun("(+ 1 2)"));
+    Assertions.assertEquals(new IntValue(2), checkAndRun("(mod 17 (/ 15 3))"));
+    Assertions.assertEquals(new BooleanValue(false), checkAndRun("(not (!= 3 4))"));
+    Assertions.assertEquals(
+        new IntValue(720),
+        checkAndRun("(define (fact x) (if (== x 0) 1 (* x (fact (- x 1))))) (fact 6)")
+    );
+    Assertions.assertEquals(
+        new BooleanValue(true),
+        checkAndRun(
+            "(define (even n) (if (== n 0) true (odd (- n 1)))) "
+                + "(define (odd n) (if (== n 0) false (even (- n 1)))) "
+                + "(even 10)"
+        )
+    );
+    Assertions.assertEquals(
+        new IntValue(9),
+        checkAndRun("(define (f b x) (let x (if b x 0) (* x x))) (f (or false true) 3)")
+    );
+    Assertions.assertEquals(new BooleanValue(false), checkAndRun("(and false (== 1 (/ 3 0)))"));
+    Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> checkAndRun("(or false (== 1 (/ 3 0)))")
+    );
+  }
+
+  @Test
+  public void testErrorsAreReportedBeforeEvaluation() {
+    // the ill-typed branch is never reached, but the program is still rejected
+    Assertions.assertThrows(TypeError.class, () -> check("(if true 1 false)"));
+    Assertions.assertThrows(TypeError.class, () -> check("(define (f x) (+ x (not x))) 1"));
+    Assertions.assertThrows(UndefinedFunctionException.class, () -> check("(if true 1 (f 1))"));
+    Assertions.assertThrows(UndefinedVariableException.class, () -> check("(let x 1 y)"));
+    Assertions.assertThrows(
+        ArityMismatchException.class,
+        () -> check("(define (f x) x) (f 1 2)")
+    );
+  }
+
+  @Test
+  public void testDriverFallsBackForUntypablePrograms() {
+    Assertions.assertEquals(new IntValue(1), driver.evaluateFromSource("(if true 1 false)"));
+    Assertions.assertThrows(TypeError.class, () -> driver.evaluateFromSource("(+ 1 true)"));
+    Assertions.assertEquals(
+        new IntValue(55),
+        driver.evaluateFromSource(
+            "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) (fib 10)"
+        )
+    );
+  }
+
+  private TypedProgram check(String source) {
+    return TypeChecker.check(Parser.parseProgram("test", source));
+  }
+
+  private Value checkAndRun(String source) {
+    return check(source).run();
+  }
+}
@@ -0,0 +1,174 @@
+package csProject.vm;
+
+import csProject.core.BooleanValue;
+import csProject.core.IntValue;
+import csProject.core.TypeError;
+import csProject.evalExceptions.ArityMismatchException;
+import csProject.evalExceptions.UndefinedFunctionException;
+import csProject.evalExceptions.UndefinedVariableException;
+import csProject.evaluator.Driver;
+import csProject.evaluator.ExecutionMode;
+import csProject.parser.Parser;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VirtualMachineTests {
+  private final Driver driver = new Driver(ExecutionMode.VIRTUAL_MACHINE);
+
+  @Test
+  public void testExpressions() {
+    Assertions.assertEquals(new IntValue(3), driver.evaluateFromSource("(+ 1 2)"));
+    Assertions.assertEquals(new IntValue(14), driver.evaluateFromSource("(let x 7 (* x 2))"));
+    Assertions.assertEquals(
+        new IntValue(12),
+        driver.evaluateFromSource("(let x 1 (let y 4 (let x 3 (* x y))))")
+    );
+    Assertions.assertEquals(new IntValue(2), driver.evaluateFromSource("(let x -2 (if (> x 0) 1 2))"));
+    Assertions.assertEquals(new BooleanValue(false), driver.evaluateFromSource("(and false (/ 3 0))"));
+    Assertions.assertEquals(new BooleanValue(true), driver.evaluateFromSource("(or true (/ 3 0))"));
+    Assertions.assertEquals(new BooleanValue(false), driver.evaluateFromSource("(or false (not true))"));
+  }
+
+  @Test
+  public void testDefinitions() {
+    Assertions.assertEquals(
+        new IntValue(720),
+        driver.evaluateFromSource(
+            "(define (fact x) (if (== x 0) 1 (* x (fact (- x 1))))) (fact 6)"
+        )
+    );
+    Assertions.assertEquals(
+        new IntValue(12),
+        driver.evaluateFromSource(
+            "(define (f x y) (let z (* x y) z)) (+ (f 1 2) (f 2 (f 1 5)))"
+        )
+    );
+  }
+
+  @Test
+  public void testIntRange() {
+    Assertions.assertEquals(
+        new IntValue(Integer.MIN_VALUE),
+        driver.evaluateFromSource("(- (- 0 2147483647) 1)")
+    );
+    Assertions.assertEquals(new IntValue(Integer.MIN_VALUE), driver.evaluateFromSource("(+ 2147483647 1)"));
+    Assertions.assertEquals(new IntValue(-3), driver.evaluateFromSource("(/ -7 2)"));
+    Assertions.assertEquals(new BooleanValue(true), driver.evaluateFromSource("(< -1 0)"));
+  }
+
+  @Test
+  public void testErrors() {
+    Assertions.assertThrows(TypeError.class, () -> driver.evaluateFromSource("(let x 45 (if x 1 2))"));
+    Assertions.assertThrows(TypeError.class, () -> driver.evaluateFromSource("(and true 3)"));
+    Assertions.assertThrows(ArithmeticException.class, () -> driver.evaluateFromSource("(/ 3 0)"));
+    Assertions.assertThrows(UndefinedVariableException.class, () -> driver.evaluateFromSource("x"));
+    Assertions.assertThrows(UndefinedFunctionException.class, () -> driver.evaluateFromSource("(f 3)"));
+    Assertions.assertThrows(
+        ArityMismatchException.class,
+        () -> driver.evaluateFromSource("(define (f x y) 3) (f 1)")
+    );
+    Assertions.assertThrows(ArityMismatchException.class, () -> driver.evaluateFromSource("(+ 1)"));
+    Assertions.assertThrows(
+        StackOverflowError.class,
+        () -> new VirtualMachine(100).run(compile("(define (f x) (f x)) (f 1)"))
+    );
+  }
+
+  @Test
+  public void testSerialization() throws IOException {
+    VmProgram program = compile(
+        "(define (fib n) (if (< n 2) n (+ (fib (- n 1)) (fib (- n 2))))) (fib 15)"
+    );
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    program.writeTo(bytes);
+    VmProgram copy = VmProgram.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+    Assertions.assertEquals(program.getCodeSize(), copy.getCodeSize());
+    Assertions.assertEquals(new IntValue(610), new VirtualMachine().run(copy));
+
+    byte[] corrupt = bytes.toByteArray();
+    corrupt[corrupt.length - 1] = 99;
+    Assertions.assertThrows(
+        IOException.class,
+        () -> VmProgram.readFrom(new ByteArrayInputStream(corrupt))
+    );
+  }
+
+  @Test
+  public void testVerification() throws IOException {
+    // everything the compiler emits is accepted
+    String[] sources = {
+        "(define (f x y) (let z (* x y) (if (and (< z 10) (or (> x 0) (f 1))) z (f y 1)))) (f 2 3)",
+        "(let x 1 (if (== x 1) (let y 2 (+ x y)) (let z 3 (- z x))))",
+        "(define (f x) x) (if true (f 1 2) (g 3))",
+    };
+    for (String source : sources) {
+      roundTrip(compile(source));
+    }
+    Assertions.assertEquals(
+        new IntValue(7),
+        new VirtualMachine().run(roundTrip(program(new int[] {Opcode.PUSH_INT, 7, Opcode.RET}, 0)))
+    );
+
+    // stack underflow
+    assertRejected(program(new int[] {Opcode.PUSH_INT, 1, Opcode.ADD, Opcode.RET}, 0));
+    // running off the end of the function
+    assertRejected(program(new int[] {Opcode.PUSH_INT, 1}, 0));
+    // a jump into an operand word, backwards, and into another function
+    assertRejected(program(
+        new int[] {Opcode.PUSH_TRUE, Opcode.JUMP_IF_FALSE, 4, Opcode.PUSH_INT, 1, Opcode.RET}, 0
+    ));
+    assertRejected(program(new int[] {Opcode.PUSH_INT, 1, Opcode.JUMP, 0}, 0));
+    assertRejected(new VmProgram(
+        new int[] {Opcode.JUMP, 2, Opcode.PUSH_INT, 1, Opcode.RET},
+        new int[] {0, 2}, new int[] {0, 0}, new int[] {0, 0}, new String[0], 0
+    ));
+    // paths that meet with different stack depths
+    assertRejected(program(
+        new int[] {Opcode.PUSH_TRUE, Opcode.JUMP_IF_FALSE, 5, Opcode.PUSH_INT, 1, Opcode.RET}, 0
+    ));
+    // loads of locals that are unset, or set on only one path
+    assertRejected(program(new int[] {Opcode.LOAD_LOCAL, 0, Opcode.RET}, 1));
+    assertRejected(program(new int[] {
+        Opcode.PUSH_TRUE, Opcode.JUMP_IF_FALSE, 7, Opcode.PUSH_INT, 1, Opcode.STORE_LOCAL, 0,
+        Opcode.LOAD_LOCAL, 0, Opcode.RET
+    }, 1));
+    // an enormous frame, and a main function with parameters
+    assertRejected(program(new int[] {Opcode.PUSH_INT, 1, Opcode.RET}, Integer.MAX_VALUE));
+    assertRejected(new VmProgram(
+        new int[] {Opcode.LOAD_LOCAL, 0, Opcode.RET},
+        new int[] {0}, new int[] {1}, new int[] {1}, new String[0], 0
+    ));
+
+    // a code size larger than the stream fails at its end
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    program(new int[] {Opcode.PUSH_INT, 1, Opcode.RET}, 0).writeTo(bytes);
+    byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 12);
+    Arrays.fill(truncated, truncated.length - 4, truncated.length, (byte) 0x7F);
+    Assertions.assertThrows(
+        IOException.class,
+        () -> VmProgram.readFrom(new ByteArrayInputStream(truncated))
+    );
+  }
+
+  private VmProgram program(int[] code, int frameSize) {
+    return new VmProgram(code, new int[] {0}, new int[] {0}, new int[] {frameSize}, new String[0], 0);
+  }
+
+  private VmProgram roundTrip(VmProgram program) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    program.writeTo(bytes);
+    return VmProgram.readFrom(new ByteArrayInputStream(bytes.toByteArray()));
+  }
+
+  private void assertRejected(VmProgram program) {
+    Assertions.assertThrows(IOException.class, () -> roundTrip(program));
+  }
+
+  private VmProgram compile(String source) {
+    return VmCompiler.compile(Parser.parseProgram("test", source));
+  }
+}